@@ -0,0 +1,76 @@
+package com.example.ecommerce_rest_api.common.persistence;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Draws ids from the same sequences Hibernate uses, for rows written with plain JDBC.
+// Blocks follow the pooled-lo layout, so ids never overlap with the ones Hibernate hands out.
+@Component
+public class IdBlockAllocator {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate sequenceTransaction;
+    private volatile Boolean postgres;
+
+    public IdBlockAllocator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Committed on its own so the MySQL sequence row is locked only for the increment
+        this.sequenceTransaction = new TransactionTemplate(transactionManager);
+        this.sequenceTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public List<Long> allocate(String sequence, int count) {
+        if (!IdSequences.TABLES.containsKey(sequence)) {
+            throw new IllegalArgumentException("Unknown id sequence: " + sequence);
+        }
+        List<Long> ids = new ArrayList<>(count);
+        if (count == 0) {
+            return ids;
+        }
+
+        int blocks = (count + IdSequences.ALLOCATION_SIZE - 1) / IdSequences.ALLOCATION_SIZE;
+        List<Long> starts = isPostgres() ? nextPostgresBlocks(sequence, blocks) : nextTableBlocks(sequence, blocks);
+        for (Long start : starts) {
+            for (int i = 0; i < IdSequences.ALLOCATION_SIZE && ids.size() < count; i++) {
+                ids.add(start + i);
+            }
+        }
+        return ids;
+    }
+
+    public boolean isPostgres() {
+        if (postgres == null) {
+            postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    connection.getMetaData().getDatabaseProductName().toLowerCase().contains("postgres"));
+        }
+        return postgres;
+    }
+
+    private List<Long> nextPostgresBlocks(String sequence, int blocks) {
+        return jdbcTemplate.queryForList(
+                "select nextval(cast(? as regclass)) from generate_series(1, ?)", Long.class, sequence, blocks);
+    }
+
+    // One contiguous range: next_val moves from v to v + blocks * ALLOCATION_SIZE
+    private List<Long> nextTableBlocks(String sequence, int blocks) {
+        return sequenceTransaction.execute(status -> {
+            Long start = jdbcTemplate.queryForObject(
+                    "select next_val from " + sequence + " for update", Long.class);
+            jdbcTemplate.update("update " + sequence + " set next_val = ?",
+                    start + (long) blocks * IdSequences.ALLOCATION_SIZE);
+
+            List<Long> starts = new ArrayList<>(blocks);
+            for (int block = 0; block < blocks; block++) {
+                starts.add(start + (long) block * IdSequences.ALLOCATION_SIZE);
+            }
+            return starts;
+        });
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.ecommerce_rest_api.common.persistence;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// Tables that used to rely on AUTO_INCREMENT/identity columns already hold ids, while a newly
+// created sequence starts at 1. Before the application takes traffic every sequence is moved
+// past the highest id of its table; sequences that are already ahead are left alone, so this
+// is a no-op after the first start. The factory dependency makes it run after the schema update.
+@Slf4j
+@Component
+public class IdSequenceMigration {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IdBlockAllocator idBlockAllocator;
+
+    public IdSequenceMigration(JdbcTemplate jdbcTemplate,
+                               IdBlockAllocator idBlockAllocator,
+                               EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idBlockAllocator = idBlockAllocator;
+    }
+
+    @PostConstruct
+    public void alignSequences() {
+        boolean postgres = idBlockAllocator.isPostgres();
+        for (Map.Entry<String, String> entry : IdSequences.TABLES.entrySet()) {
+            String sequence = entry.getKey();
+            Long maxId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from " + entry.getValue(), Long.class);
+            long target = (maxId != null ? maxId : 0) + 1;
+            boolean moved = postgres ? alignPostgres(sequence, target) : alignTable(sequence, target);
+            if (moved) {
+                log.info("Moved id sequence {} to {} to follow existing rows of {}", sequence, target, entry.getValue());
+            }
+        }
+    }
+
+    private boolean alignPostgres(String sequence, long target) {
+        Map<String, Object> state = jdbcTemplate.queryForMap("select last_value, is_called from " + sequence);
+        long lastValue = ((Number) state.get("last_value")).longValue();
+        long next = Boolean.TRUE.equals(state.get("is_called")) ? lastValue + IdSequences.ALLOCATION_SIZE : lastValue;
+        if (next >= target) {
+            return false;
+        }
+        jdbcTemplate.queryForObject("select setval(cast(? as regclass), ?, false)", Long.class, sequence, target);
+        return true;
+    }
+
+    private boolean alignTable(String sequence, long target) {
+        Long rows = jdbcTemplate.queryForObject("select count(*) from " + sequence, Long.class);
+        if (rows == null || rows == 0) {
+            jdbcTemplate.update("insert into " + sequence + " (next_val) values (?)", target);
+            return true;
+        }
+        return jdbcTemplate.update("update " + sequence + " set next_val = ? where next_val < ?", target, target) > 0;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.ecommerce_rest_api.common.persistence;
+
+import java.util.Map;
+
+// Id sequences of the high-volume tables. Ids come in pooled blocks of ALLOCATION_SIZE
+// (pooled-lo: a sequence value v hands out v .. v + ALLOCATION_SIZE - 1), so Hibernate knows
+// the id before the INSERT and can batch the statements. On MySQL each sequence is a
+// one-row table with a next_val column; on PostgreSQL it is a native sequence.
+public final class IdSequences {
+
+    public static final int ALLOCATION_SIZE = 50;
+
+    public static final String PRODUCTS = "products_seq";
+    public static final String PRODUCT_SKUS = "product_skus_seq";
+    public static final String PRODUCT_IMAGES = "product_images_seq";
+    public static final String ORDERS = "orders_seq";
+    public static final String ORDER_ITEMS = "order_items_seq";
+    public static final String CART_ITEMS = "cart_items_seq";
+    public static final String REVIEWS = "reviews_seq";
+    public static final String WISHLIST_ITEMS = "wishlist_items_seq";
+    public static final String INVENTORY_RESERVATIONS = "inventory_reservations_seq";
+
+    // Sequence -> the table whose ids it generates
+    public static final Map<String, String> TABLES = Map.of(
+            PRODUCTS, "products",
+            PRODUCT_SKUS, "product_skus",
+            PRODUCT_IMAGES, "product_images",
+            ORDERS, "orders",
+            ORDER_ITEMS, "order_items",
+            CART_ITEMS, "cart_items",
+            REVIEWS, "reviews",
+            WISHLIST_ITEMS, "wishlist_items",
+            INVENTORY_RESERVATIONS, "inventory_reservations"
+    );
+
+    private IdSequences() {
+    }
+}
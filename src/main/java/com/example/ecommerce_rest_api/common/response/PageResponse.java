@@ -1,10 +1,13 @@
 package com.example.ecommerce_rest_api.common.response;
 
+import com.example.ecommerce_rest_api.utils.CursorCodec;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Window;
 
 import java.util.List;
 
@@ -15,11 +18,17 @@ import java.util.List;
 public class PageResponse<T> {
     private int pageNo;
     private int pageSize;
-    private long totalElements;
-    private int totalPages;
+    // Not computed in cursor mode
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long totalElements;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer totalPages;
     private boolean last;
     private boolean first;
     private List<T> pageContent;
+    // Token for the "after" parameter of the next request; null on the last page
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
 
     public PageResponse(Page<T> page) {
         this.pageContent = page.getContent();
@@ -30,4 +39,14 @@ public class PageResponse<T> {
         this.last = page.isLast();
         this.first = page.isFirst();
     }
-}
\ No newline at end of file
+
+    public PageResponse(Window<T> window, int pageSize, boolean first) {
+        this.pageContent = window.getContent();
+        this.pageSize = pageSize;
+        this.last = !window.hasNext();
+        this.first = first;
+        if (window.hasNext() && !window.isEmpty()) {
+            this.nextCursor = CursorCodec.encode(window.positionAt(window.size() - 1));
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.ecommerce_rest_api.features.admin.ENUM;
+
+public enum ActivityType {
+    ORDER, REVIEW, USER, STOCK
+}
@@ -5,14 +5,17 @@ import com.example.ecommerce_rest_api.features.admin.dto.DashboardStatsDTO;
 import com.example.ecommerce_rest_api.features.admin.dto.RecentActivityDTO;
 import com.example.ecommerce_rest_api.features.admin.dto.SalesReportDTO;
 import com.example.ecommerce_rest_api.features.admin.service.AdminDashboardService;
+import com.example.ecommerce_rest_api.utils.AppConstants;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 
@@ -38,6 +41,12 @@ public class AdminDashboardController {
                 .body(ResponseApi.success("Dashboard stats retrieved successfully", stats));
     }
 
+    @Operation(summary = "Stream live dashboard", description = "Server-Sent Events: a snapshot of the live counters, then updates with the counters that changed")
+    @GetMapping(value = "/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamDashboard() {
+        return dashboardService.streamDashboard();
+    }
+
     @Operation(summary = "Get sales report", description = "Get sales report for date range")
     @GetMapping("/sales-report")
     public ResponseEntity<ResponseApi<SalesReportDTO>> getSalesReport(
@@ -50,34 +59,64 @@ public class AdminDashboardController {
                 .body(ResponseApi.success("Sales report retrieved successfully", report));
     }
 
-    @Operation(summary = "Get recent activities", description = "Get recent system activities")
+    @Operation(summary = "Rebuild sales rollup", description = "Recompute the daily sales rollup for a date range from the orders table")
+    @PostMapping("/sales-rollup/rebuild")
+    public ResponseEntity<ResponseApi<Integer>> rebuildSalesRollup(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+    ) {
+        int days = dashboardService.rebuildSalesRollup(startDate, endDate);
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(ResponseApi.success("Sales rollup rebuilt successfully", days));
+    }
+
+    @Operation(summary = "Get recent activities", description = "Get recent orders, reviews, registrations and stock changes, newest first, optionally filtered by comma-separated `types` (ORDER, REVIEW, USER, STOCK)")
     @GetMapping("/recent-activities")
     public ResponseEntity<ResponseApi<RecentActivityDTO>> getRecentActivities(
-            @RequestParam(defaultValue = "10") int limit
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String types
     ) {
-        RecentActivityDTO activities = dashboardService.getRecentActivities(limit);
+        RecentActivityDTO activities = dashboardService.getRecentActivities(limit, types);
         return ResponseEntity
                 .status(HttpStatus.OK)
                 .body(ResponseApi.success("Recent activities retrieved successfully", activities));
     }
 
-    @Operation(summary = "Get low stock products", description = "Get products with low stock")
+    @Operation(summary = "Get low stock products", description = "Get SKUs that are low on stock or out of stock, optionally filtered by `state` (LOW_STOCK or OUT_OF_STOCK), lowest stock first")
     @GetMapping("/low-stock-products")
-    public ResponseEntity<ResponseApi<?>> getLowStockProducts() {
-        var products = dashboardService.getLowStockProducts();
+    public ResponseEntity<ResponseApi<?>> getLowStockProducts(
+            @RequestParam(required = false) String state,
+            @RequestParam(value = "pageNo", defaultValue = AppConstants.DEFAULT_PAGE_NUMBER, required = false) int pageNo,
+            @RequestParam(value = "pageSize", defaultValue = AppConstants.DEFAULT_PAGE_SIZE, required = false) int pageSize
+    ) {
+        var products = dashboardService.getLowStockProducts(state, pageNo, pageSize);
         return ResponseEntity
                 .status(HttpStatus.OK)
                 .body(ResponseApi.success("Low stock products retrieved successfully", products));
     }
 
-    @Operation(summary = "Get top selling products", description = "Get top selling products")
+    @Operation(summary = "Get top selling products", description = "Get top selling products by units delivered, optionally over the last `days` days")
     @GetMapping("/top-products")
     public ResponseEntity<ResponseApi<?>> getTopSellingProducts(
-            @RequestParam(defaultValue = "10") int limit
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) Integer days
     ) {
-        var products = dashboardService.getTopSellingProducts(limit);
+        var products = dashboardService.getTopSellingProducts(limit, days);
         return ResponseEntity
                 .status(HttpStatus.OK)
                 .body(ResponseApi.success("Top products retrieved successfully", products));
     }
+
+    @Operation(summary = "Rebuild product sales", description = "Recompute per-product daily sales for a range of delivery dates from the orders table")
+    @PostMapping("/product-sales/rebuild")
+    public ResponseEntity<ResponseApi<Integer>> rebuildProductSales(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+    ) {
+        int rows = dashboardService.rebuildProductSales(startDate, endDate);
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(ResponseApi.success("Product sales rebuilt successfully", rows));
+    }
 }
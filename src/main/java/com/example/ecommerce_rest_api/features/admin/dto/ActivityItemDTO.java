@@ -11,5 +11,6 @@ import java.time.LocalDateTime;
 public class ActivityItemDTO {
     private String type;
     private String description;
+    private Long referenceId;
     private LocalDateTime timestamp;
 }
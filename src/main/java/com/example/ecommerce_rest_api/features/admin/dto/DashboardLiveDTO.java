@@ -0,0 +1,25 @@
+package com.example.ecommerce_rest_api.features.admin.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.util.List;
+
+// Live dashboard message. The "snapshot" event sent on connect has every counter; later
+// "update" events only carry the counters that changed, plus the orders placed and the SKUs
+// that changed stock state since the previous update.
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DashboardLiveDTO {
+    private Long newOrders;
+    private Long todayOrders;
+    private Double todayRevenue;
+    private Long pendingOrders;
+    private Long lowStockProducts;
+    private Long pendingReviews;
+    private List<StockTransitionDTO> stockTransitions;
+}
@@ -2,6 +2,9 @@ package com.example.ecommerce_rest_api.features.admin.dto;
 
 import lombok.*;
 
+import java.time.LocalDateTime;
+import java.util.Map;
+
 @Builder
 @Getter
 @Setter
@@ -19,4 +22,9 @@ public class DashboardStatsDTO {
     private Double todayRevenue;
     private Long lowStockProducts;
     private Long pendingReviews;
+    private UniqueCountsDTO uniqueBuyers;
+    private UniqueCountsDTO uniqueVisitors;
+    // When these stats were computed; they are served from cache for a few seconds
+    private LocalDateTime computedAt;
+    private Map<String, Long> queryTimingsMs;
 }
@@ -1,5 +1,6 @@
 package com.example.ecommerce_rest_api.features.admin.dto;
 
+import com.example.ecommerce_rest_api.features.product.ENUM.StockState;
 import lombok.*;
 
 @Builder
@@ -10,7 +11,9 @@ import lombok.*;
 public class LowStockProductDTO {
     private Long productId;
     private String productName;
+    private Long skuId;
     private String skuCode;
     private Integer currentStock;
     private Integer lowStockThreshold;
+    private StockState stockState;
 }
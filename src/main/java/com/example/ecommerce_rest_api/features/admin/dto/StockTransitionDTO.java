@@ -0,0 +1,18 @@
+package com.example.ecommerce_rest_api.features.admin.dto;
+
+import com.example.ecommerce_rest_api.features.product.ENUM.StockState;
+import lombok.*;
+
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockTransitionDTO {
+    private Long skuId;
+    private Long productId;
+    private String skuCode;
+    private StockState previousState;
+    private StockState state;
+    private Integer quantity;
+}
@@ -0,0 +1,15 @@
+package com.example.ecommerce_rest_api.features.admin.dto;
+
+import lombok.*;
+
+// Approximate distinct counts (HyperLogLog, about 1% error); the windows end today
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UniqueCountsDTO {
+    private Long today;
+    private Long last7Days;
+    private Long last30Days;
+}
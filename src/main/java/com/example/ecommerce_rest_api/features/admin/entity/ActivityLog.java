@@ -0,0 +1,39 @@
+package com.example.ecommerce_rest_api.features.admin.entity;
+
+import com.example.ecommerce_rest_api.features.admin.ENUM.ActivityType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Persistent copy of the admin activity feed, written in batches by ActivityFeed and only read
+// back on startup to refill the feed
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(
+        name = "activity_log",
+        indexes = @Index(name = "idx_activity_occurred_at", columnList = "occurred_at")
+)
+public class ActivityLog {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ActivityType type;
+
+    @Column(nullable = false, length = 500)
+    private String description;
+
+    @Column(name = "reference_id")
+    private Long referenceId;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,54 @@
+package com.example.ecommerce_rest_api.features.admin.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+// Per-day rollup of orders by the day they were placed: how many are in each status now, and
+// their totals. Kept up to date by DailySalesRollup, so reports read one row per day.
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "daily_sales")
+public class DailySales {
+
+    @Id
+    @Column(name = "sale_date")
+    private LocalDate saleDate;
+
+    @Column(name = "total_orders", nullable = false)
+    private Long totalOrders;
+
+    @Column(name = "pending_orders", nullable = false)
+    private Long pendingOrders;
+
+    @Column(name = "confirmed_orders", nullable = false)
+    private Long confirmedOrders;
+
+    @Column(name = "processing_orders", nullable = false)
+    private Long processingOrders;
+
+    @Column(name = "shipped_orders", nullable = false)
+    private Long shippedOrders;
+
+    @Column(name = "delivered_orders", nullable = false)
+    private Long deliveredOrders;
+
+    @Column(name = "cancelled_orders", nullable = false)
+    private Long cancelledOrders;
+
+    @Column(name = "refunded_orders", nullable = false)
+    private Long refundedOrders;
+
+    // Sum of order totals, whatever their status
+    @Column(name = "gross_amount", nullable = false)
+    private Double grossAmount;
+
+    // Sum of totals of delivered orders; this is what the reports call sales
+    @Column(name = "delivered_amount", nullable = false)
+    private Double deliveredAmount;
+}
@@ -0,0 +1,36 @@
+package com.example.ecommerce_rest_api.features.admin.entity;
+
+import com.example.ecommerce_rest_api.features.admin.ENUM.UniqueMetric;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+// HyperLogLog sketch of the distinct buyers or visitors of one day, merged from every node by
+// DailyUniqueCounter. Registers are stored deflated (see HyperLogLog.toBytes).
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(
+        name = "daily_unique_sketch",
+        uniqueConstraints = @UniqueConstraint(name = "uk_daily_unique_sketch", columnNames = {"sketch_date", "metric"})
+)
+public class DailyUniqueSketch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "metric", nullable = false, length = 20)
+    private UniqueMetric metric;
+
+    @Column(name = "sketch_date", nullable = false)
+    private LocalDate sketchDate;
+
+    @Column(name = "registers", nullable = false, length = 20000)
+    private byte[] registers;
+}
@@ -0,0 +1,38 @@
+package com.example.ecommerce_rest_api.features.admin.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+// Units and revenue per product per day of delivery. Kept up to date by ProductSalesTally, so
+// top-seller queries never touch orders or order items.
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(
+        name = "product_sales_daily",
+        uniqueConstraints = @UniqueConstraint(name = "uk_product_sales_day", columnNames = {"product_id", "sale_date"}),
+        indexes = @Index(name = "idx_product_sales_date", columnList = "sale_date, product_id")
+)
+public class ProductSalesDaily {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "sale_date", nullable = false)
+    private LocalDate saleDate;
+
+    @Column(name = "units_sold", nullable = false)
+    private Long unitsSold;
+
+    @Column(name = "revenue", nullable = false)
+    private Double revenue;
+}
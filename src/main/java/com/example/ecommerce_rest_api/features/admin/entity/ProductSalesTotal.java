@@ -0,0 +1,29 @@
+package com.example.ecommerce_rest_api.features.admin.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// All-time units and revenue per product, the sum of its product_sales_daily rows. Kept next to
+// them by ProductSalesTally so the all-time best sellers are read in index order, top K rows only.
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(
+        name = "product_sales_total",
+        indexes = @Index(name = "idx_product_sales_total_units", columnList = "units_sold desc, product_id")
+)
+public class ProductSalesTotal {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "units_sold", nullable = false)
+    private Long unitsSold;
+
+    @Column(name = "revenue", nullable = false)
+    private Double revenue;
+}
@@ -0,0 +1,14 @@
+package com.example.ecommerce_rest_api.features.admin.event;
+
+import com.example.ecommerce_rest_api.features.admin.ENUM.ActivityType;
+
+import java.time.LocalDateTime;
+
+// Something worth showing in the admin activity feed; referenceId is the id of the order,
+// review, user or SKU it is about
+public record ActivityEvent(ActivityType type, String description, Long referenceId, LocalDateTime occurredAt) {
+
+    public static ActivityEvent of(ActivityType type, String description, Long referenceId) {
+        return new ActivityEvent(type, description, referenceId, LocalDateTime.now());
+    }
+}
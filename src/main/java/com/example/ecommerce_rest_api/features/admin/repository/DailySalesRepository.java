@@ -0,0 +1,12 @@
+package com.example.ecommerce_rest_api.features.admin.repository;
+
+import com.example.ecommerce_rest_api.features.admin.entity.DailySales;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DailySalesRepository extends JpaRepository<DailySales, LocalDate> {
+
+    List<DailySales> findBySaleDateBetweenOrderBySaleDate(LocalDate startDate, LocalDate endDate);
+}
@@ -0,0 +1,7 @@
+package com.example.ecommerce_rest_api.features.admin.repository;
+
+import com.example.ecommerce_rest_api.features.admin.entity.ProductSalesDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ProductSalesDailyRepository extends JpaRepository<ProductSalesDaily, Long> {
+}
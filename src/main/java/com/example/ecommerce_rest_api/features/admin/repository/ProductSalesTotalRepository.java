@@ -0,0 +1,7 @@
+package com.example.ecommerce_rest_api.features.admin.repository;
+
+import com.example.ecommerce_rest_api.features.admin.entity.ProductSalesTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ProductSalesTotalRepository extends JpaRepository<ProductSalesTotal, Long> {
+}
@@ -0,0 +1,195 @@
+package com.example.ecommerce_rest_api.features.admin.service;
+
+import com.example.ecommerce_rest_api.features.admin.ENUM.ActivityType;
+import com.example.ecommerce_rest_api.features.admin.dto.ActivityItemDTO;
+import com.example.ecommerce_rest_api.features.admin.event.ActivityEvent;
+import com.example.ecommerce_rest_api.features.product.ENUM.StockState;
+import com.example.ecommerce_rest_api.features.product.event.StockStateChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Recent admin activity in a fixed-size ring buffer. Writers claim a sequence number with one
+// atomic increment and publish into slot (sequence mod capacity), overwriting the oldest entry;
+// readers walk back from the newest sequence and skip slots that were overwritten or are still
+// being written, so neither side takes a lock. Reads are served from memory only. A scheduled
+// flush copies new entries to activity_log in batches, and the newest entries are loaded back
+// on startup. The factory dependency makes that load run after the schema update.
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class ActivityFeed {
+
+    private static final String INSERT =
+            "insert into activity_log (type, description, reference_id, occurred_at) values (?, ?, ?, ?)";
+    private static final int MAX_DESCRIPTION_LENGTH = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final int retentionDays;
+
+    private final AtomicReferenceArray<Slot> slots;
+    private final int mask;
+    private final AtomicLong next = new AtomicLong();
+
+    // Guarded by this: first sequence not yet copied to activity_log
+    private long persisted;
+
+    public ActivityFeed(JdbcTemplate jdbcTemplate,
+                        @Value("${app.admin.activity.capacity:1024}") int capacity,
+                        @Value("${app.admin.activity.flush-batch-size:500}") int batchSize,
+                        @Value("${app.admin.activity.retention-days:30}") int retentionDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.retentionDays = retentionDays;
+        // Power of two, so the slot is a mask of the sequence
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onActivity(ActivityEvent event) {
+        record(new Activity(event.type(), truncate(event.description()), event.referenceId(), event.occurredAt()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockStateChanged(StockStateChangedEvent event) {
+        String description = switch (event.state()) {
+            case OUT_OF_STOCK -> "SKU " + event.sku() + " is out of stock";
+            case LOW_STOCK -> event.previousState() == StockState.OUT_OF_STOCK
+                    ? "SKU " + event.sku() + " is back in stock, low (" + event.quantity() + " left)"
+                    : "SKU " + event.sku() + " is low on stock (" + event.quantity() + " left)";
+            case IN_STOCK -> "SKU " + event.sku() + " is back in stock (" + event.quantity() + ")";
+        };
+        record(new Activity(ActivityType.STOCK, description, event.skuId(), LocalDateTime.now()));
+    }
+
+    // Newest first; an empty type set means every type
+    public List<ActivityItemDTO> recent(int limit, Set<ActivityType> types) {
+        List<ActivityItemDTO> items = new ArrayList<>(Math.min(limit, slots.length()));
+        long end = next.get();
+        long oldest = Math.max(0, end - slots.length());
+        for (long sequence = end - 1; sequence >= oldest && items.size() < limit; sequence--) {
+            Slot slot = slots.get(index(sequence));
+            if (slot == null || slot.sequence != sequence) {
+                continue;
+            }
+            Activity activity = slot.activity;
+            if (types.isEmpty() || types.contains(activity.type())) {
+                items.add(ActivityItemDTO.builder()
+                        .type(activity.type().name())
+                        .description(activity.description())
+                        .referenceId(activity.referenceId())
+                        .timestamp(activity.occurredAt())
+                        .build());
+            }
+        }
+        return items;
+    }
+
+    @Scheduled(fixedDelayString = "${app.admin.activity.flush-interval-ms:2000}")
+    public synchronized void flush() {
+        long end = next.get();
+        long from = Math.max(persisted, end - slots.length());
+        if (from > persisted) {
+            log.warn("{} activities were overwritten before they could be saved", from - persisted);
+        }
+
+        List<Activity> batch = new ArrayList<>();
+        long sequence = from;
+        for (; sequence < end; sequence++) {
+            Slot slot = slots.get(index(sequence));
+            if (slot == null || slot.sequence < sequence) {
+                // Claimed but not written yet; picked up by the next flush
+                break;
+            }
+            if (slot.sequence == sequence) {
+                batch.add(slot.activity);
+            }
+        }
+        if (batch.isEmpty()) {
+            persisted = sequence;
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(INSERT, batch, batchSize, (ps, activity) -> {
+                ps.setString(1, activity.type().name());
+                ps.setString(2, activity.description());
+                ps.setObject(3, activity.referenceId(), Types.BIGINT);
+                ps.setTimestamp(4, Timestamp.valueOf(activity.occurredAt()));
+            });
+            persisted = sequence;
+        } catch (DataAccessException ex) {
+            // Still in the buffer; retried on the next flush unless overwritten by then
+            log.warn("Could not save {} activities", batch.size(), ex);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.admin.activity.prune-interval-ms:3600000}")
+    public void prune() {
+        jdbcTemplate.update("delete from activity_log where occurred_at < ?",
+                Timestamp.valueOf(LocalDateTime.now().minusDays(retentionDays)));
+    }
+
+    @PostConstruct
+    public synchronized void loadOnStartup() {
+        List<Activity> latest = jdbcTemplate.query(
+                "select type, description, reference_id, occurred_at from activity_log " +
+                "order by occurred_at desc, id desc limit ?",
+                (rs, rowNum) -> {
+                    long referenceId = rs.getLong("reference_id");
+                    return new Activity(ActivityType.valueOf(rs.getString("type")), rs.getString("description"),
+                            rs.wasNull() ? null : referenceId, rs.getTimestamp("occurred_at").toLocalDateTime());
+                },
+                slots.length());
+        Collections.reverse(latest);
+        latest.forEach(this::record);
+        persisted = next.get();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void record(Activity activity) {
+        long sequence = next.getAndIncrement();
+        slots.set(index(sequence), new Slot(sequence, activity));
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence & mask);
+    }
+
+    private static String truncate(String description) {
+        if (description == null) {
+            return "";
+        }
+        return description.length() > MAX_DESCRIPTION_LENGTH ? description.substring(0, MAX_DESCRIPTION_LENGTH) : description;
+    }
+
+    private record Activity(ActivityType type, String description, Long referenceId, LocalDateTime occurredAt) {
+    }
+
+    private record Slot(long sequence, Activity activity) {
+    }
+}
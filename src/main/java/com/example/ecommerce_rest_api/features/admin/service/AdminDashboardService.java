@@ -1,13 +1,19 @@
 package com.example.ecommerce_rest_api.features.admin.service;
 
+import com.example.ecommerce_rest_api.common.response.PageResponse;
 import com.example.ecommerce_rest_api.features.admin.dto.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
 import java.time.LocalDate;
 import java.util.List;
 
 public interface AdminDashboardService {
     DashboardStatsDTO getDashboardStats();
+    SseEmitter streamDashboard();
     SalesReportDTO getSalesReport(LocalDate startDate, LocalDate endDate);
-    RecentActivityDTO getRecentActivities(int limit);
-    List<LowStockProductDTO> getLowStockProducts();
-    List<TopProductDTO> getTopSellingProducts(int limit);
+    int rebuildSalesRollup(LocalDate startDate, LocalDate endDate);
+    RecentActivityDTO getRecentActivities(int limit, String types);
+    PageResponse<LowStockProductDTO> getLowStockProducts(String state, int pageNo, int pageSize);
+    List<TopProductDTO> getTopSellingProducts(int limit, Integer days);
+    int rebuildProductSales(LocalDate startDate, LocalDate endDate);
 }
@@ -1,125 +1,92 @@
 package com.example.ecommerce_rest_api.features.admin.service;
 
+import com.example.ecommerce_rest_api.common.response.PageResponse;
+import com.example.ecommerce_rest_api.features.admin.ENUM.ActivityType;
 import com.example.ecommerce_rest_api.features.admin.dto.*;
-import com.example.ecommerce_rest_api.features.order.ENUM.OrderStatus;
-import com.example.ecommerce_rest_api.features.order.entity.Order;
-import com.example.ecommerce_rest_api.features.order.repository.OrderRepository;
-import com.example.ecommerce_rest_api.features.product.entity.ProductSku;
-import com.example.ecommerce_rest_api.features.product.repository.ProductRepository;
+import com.example.ecommerce_rest_api.features.admin.entity.DailySales;
+import com.example.ecommerce_rest_api.features.admin.repository.DailySalesRepository;
+import com.example.ecommerce_rest_api.features.product.ENUM.StockState;
 import com.example.ecommerce_rest_api.features.product.repository.ProductSkuRepository;
-import com.example.ecommerce_rest_api.features.review.repository.ReviewRepository;
-import com.example.ecommerce_rest_api.features.user.repository.UserRepository;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class AdminDashboardServiceImpl implements AdminDashboardService {
 
-    private final OrderRepository orderRepository;
-    private final ProductRepository productRepository;
+    // A report covers at most a leap year of days, so it never reads more rollup rows than that
+    static final int MAX_REPORT_DAYS = 366;
+
     private final ProductSkuRepository productSkuRepository;
-    private final UserRepository userRepository;
-    private final ReviewRepository reviewRepository;
+    private final DailySalesRepository dailySalesRepository;
+    private final DailySalesRollup dailySalesRollup;
+    private final ProductSalesTally productSalesTally;
+    private final DashboardStatsLoader dashboardStatsLoader;
+    private final DashboardLiveFeed dashboardLiveFeed;
+    private final ActivityFeed activityFeed;
 
     public AdminDashboardServiceImpl(
-            OrderRepository orderRepository,
-            ProductRepository productRepository,
             ProductSkuRepository productSkuRepository,
-            UserRepository userRepository,
-            ReviewRepository reviewRepository
+            DailySalesRepository dailySalesRepository,
+            DailySalesRollup dailySalesRollup,
+            ProductSalesTally productSalesTally,
+            DashboardStatsLoader dashboardStatsLoader,
+            DashboardLiveFeed dashboardLiveFeed,
+            ActivityFeed activityFeed
     ) {
-        this.orderRepository = orderRepository;
-        this.productRepository = productRepository;
         this.productSkuRepository = productSkuRepository;
-        this.userRepository = userRepository;
-        this.reviewRepository = reviewRepository;
+        this.dailySalesRepository = dailySalesRepository;
+        this.dailySalesRollup = dailySalesRollup;
+        this.productSalesTally = productSalesTally;
+        this.dashboardStatsLoader = dashboardStatsLoader;
+        this.dashboardLiveFeed = dashboardLiveFeed;
+        this.activityFeed = activityFeed;
     }
 
     @Override
     public DashboardStatsDTO getDashboardStats() {
-        Long totalProducts = productRepository.count();
-        Long totalUsers = userRepository.count();
-        Long totalOrders = orderRepository.count();
-
-        Long pendingOrders = orderRepository.countByStatus(OrderStatus.PENDING);
-        Long processingOrders = orderRepository.countByStatus(OrderStatus.PROCESSING);
-        Long deliveredOrders = orderRepository.countByStatus(OrderStatus.DELIVERED);
-
-        Double totalRevenue = orderRepository.sumTotalByStatus(OrderStatus.DELIVERED);
-        if (totalRevenue == null) totalRevenue = 0.0;
-
-        // Calculate today's stats
-        LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
-        LocalDateTime endOfDay = LocalDate.now().plusDays(1).atStartOfDay();
-
-        List<Order> todayOrders = orderRepository.findOrdersInDateRange(startOfDay, endOfDay);
-        Long todayOrdersCount = (long) todayOrders.size();
-        Double todayRevenue = todayOrders.stream()
-                .filter(o -> o.getStatus() == OrderStatus.DELIVERED)
-                .mapToDouble(Order::getTotal)
-                .sum();
-
-        // Get low stock count
-        List<ProductSku> lowStockSkus = productSkuRepository.findLowStockSkus();
-        Long lowStockCount = (long) lowStockSkus.size();
-
-        // Get pending reviews
-        Long pendingReviews = reviewRepository.findAll().stream()
-                .filter(r -> !r.getIsApproved())
-                .count();
-
-        return DashboardStatsDTO.builder()
-                .totalProducts(totalProducts)
-                .totalUsers(totalUsers)
-                .totalOrders(totalOrders)
-                .pendingOrders(pendingOrders)
-                .processingOrders(processingOrders)
-                .deliveredOrders(deliveredOrders)
-                .totalRevenue(totalRevenue)
-                .todayOrders(todayOrdersCount)
-                .todayRevenue(todayRevenue)
-                .lowStockProducts(lowStockCount)
-                .pendingReviews(pendingReviews)
-                .build();
+        return dashboardStatsLoader.get();
     }
 
     @Override
-    public SalesReportDTO getSalesReport(LocalDate startDate, LocalDate endDate) {
-        LocalDateTime start = startDate.atStartOfDay();
-        LocalDateTime end = endDate.plusDays(1).atStartOfDay();
-
-        List<Order> orders = orderRepository.findOrdersInDateRange(start, end);
-
-        Long totalOrders = (long) orders.size();
-        Double totalSales = orders.stream()
-                .filter(o -> o.getStatus() == OrderStatus.DELIVERED)
-                .mapToDouble(Order::getTotal)
-                .sum();
-
-        Long completedOrders = orders.stream()
-                .filter(o -> o.getStatus() == OrderStatus.DELIVERED)
-                .count();
+    public SseEmitter streamDashboard() {
+        return dashboardLiveFeed.subscribe();
+    }
 
-        Long cancelledOrders = orders.stream()
-                .filter(o -> o.getStatus() == OrderStatus.CANCELLED)
-                .count();
+    @Override
+    public SalesReportDTO getSalesReport(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("startDate must not be after endDate");
+        }
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= MAX_REPORT_DAYS) {
+            throw new IllegalArgumentException("A sales report covers at most " + MAX_REPORT_DAYS + " days");
+        }
+        // One rollup row per day, so the work does not grow with the number of orders
+        List<DailySales> days = dailySalesRepository.findBySaleDateBetweenOrderBySaleDate(startDate, endDate);
+
+        long totalOrders = 0;
+        long completedOrders = 0;
+        long cancelledOrders = 0;
+        double totalSales = 0;
+        Map<LocalDate, Double> dailySales = new LinkedHashMap<>();
+        for (DailySales day : days) {
+            totalOrders += day.getTotalOrders();
+            completedOrders += day.getDeliveredOrders();
+            cancelledOrders += day.getCancelledOrders();
+            totalSales += day.getDeliveredAmount();
+            if (day.getDeliveredOrders() > 0) {
+                dailySales.put(day.getSaleDate(), day.getDeliveredAmount());
+            }
+        }
 
         Double averageOrderValue = completedOrders > 0 ? totalSales / completedOrders : 0.0;
 
-        // Group by date for daily sales
-        Map<LocalDate, Double> dailySales = orders.stream()
-                .filter(o -> o.getStatus() == OrderStatus.DELIVERED)
-                .collect(Collectors.groupingBy(
-                        o -> o.getCreatedAt().toLocalDate(),
-                        Collectors.summingDouble(Order::getTotal)
-                ));
-
         return SalesReportDTO.builder()
                 .startDate(startDate)
                 .endDate(endDate)
@@ -133,68 +100,67 @@ public class AdminDashboardServiceImpl implements AdminDashboardService {
     }
 
     @Override
-    public RecentActivityDTO getRecentActivities(int limit) {
-        // Get recent orders
-        List<Order> recentOrders = orderRepository.findAll(
-                PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "createdAt"))
-        ).getContent();
-
-        List<ActivityItemDTO> activities = recentOrders.stream()
-                .map(order -> ActivityItemDTO.builder()
-                        .type("ORDER")
-                        .description("New order " + order.getOrderNumber())
-                        .timestamp(order.getCreatedAt())
-                        .build())
-                .toList();
+    public int rebuildSalesRollup(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("startDate must not be after endDate");
+        }
+        return dailySalesRollup.rebuild(startDate, endDate);
+    }
+
+    @Override
+    public RecentActivityDTO getRecentActivities(int limit, String types) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        Set<ActivityType> activityTypes = EnumSet.noneOf(ActivityType.class);
+        if (types != null) {
+            for (String type : types.split(",")) {
+                if (type.isBlank()) {
+                    continue;
+                }
+                try {
+                    activityTypes.add(ActivityType.valueOf(type.trim().toUpperCase()));
+                } catch (IllegalArgumentException ex) {
+                    throw new IllegalArgumentException("Unknown activity type: " + type.trim());
+                }
+            }
+        }
 
         return RecentActivityDTO.builder()
-                .activities(activities)
+                .activities(activityFeed.recent(limit, activityTypes))
                 .build();
     }
 
     @Override
-    public List<LowStockProductDTO> getLowStockProducts() {
-        List<ProductSku> lowStockSkus = productSkuRepository.findLowStockSkus();
-
-        return lowStockSkus.stream()
-                .map(sku -> LowStockProductDTO.builder()
-                        .productId(sku.getProduct().getId())
-                        .productName(sku.getProduct().getName())
-                        .skuCode(sku.getSku())
-                        .currentStock(sku.getQuantity())
-                        .lowStockThreshold(sku.getLowStockThreshold())
-                        .build())
-                .toList();
+    public PageResponse<LowStockProductDTO> getLowStockProducts(String state, int pageNo, int pageSize) {
+        Set<StockState> states = StockState.LOW_OR_OUT;
+        if (state != null && !state.isBlank()) {
+            try {
+                states = Set.of(StockState.valueOf(state.trim().toUpperCase()));
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Unknown stock state: " + state);
+            }
+        }
+        Pageable pageable = PageRequest.of(pageNo, pageSize, Sort.by("quantity", "id"));
+        return new PageResponse<>(productSkuRepository.findByStockState(states, pageable));
+    }
+
+    @Override
+    public List<TopProductDTO> getTopSellingProducts(int limit, Integer days) {
+        if (limit < 1 || limit > 100) {
+            throw new IllegalArgumentException("limit must be between 1 and 100");
+        }
+        if (days != null && days < 1) {
+            throw new IllegalArgumentException("days must be positive");
+        }
+        return productSalesTally.findTopSelling(limit, days);
     }
 
     @Override
-    public List<TopProductDTO> getTopSellingProducts(int limit) {
-        // This is a simplified version. For production, you'd want to track this in order_items
-        List<Order> allOrders = orderRepository.findAll();
-
-        Map<Long, Integer> productSales = new HashMap<>();
-        Map<Long, String> productNames = new HashMap<>();
-        Map<Long, Double> productRevenue = new HashMap<>();
-
-        allOrders.stream()
-                .filter(o -> o.getStatus() == OrderStatus.DELIVERED)
-                .flatMap(o -> o.getItems().stream())
-                .forEach(item -> {
-                    Long productId = item.getProductSku().getProduct().getId();
-                    productSales.merge(productId, item.getQuantity(), Integer::sum);
-                    productNames.put(productId, item.getProductName());
-                    productRevenue.merge(productId, item.getSubtotal(), Double::sum);
-                });
-
-        return productSales.entrySet().stream()
-                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed())
-                .limit(limit)
-                .map(entry -> TopProductDTO.builder()
-                        .productId(entry.getKey())
-                        .productName(productNames.get(entry.getKey()))
-                        .totalSold(entry.getValue())
-                        .revenue(productRevenue.get(entry.getKey()))
-                        .build())
-                .toList();
+    public int rebuildProductSales(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("startDate must not be after endDate");
+        }
+        return productSalesTally.rebuild(startDate, endDate);
     }
 }
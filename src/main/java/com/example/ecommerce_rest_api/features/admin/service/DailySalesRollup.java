@@ -0,0 +1,185 @@
+package com.example.ecommerce_rest_api.features.admin.service;
+
+import com.example.ecommerce_rest_api.features.admin.repository.DailySalesRepository;
+import com.example.ecommerce_rest_api.features.order.ENUM.OrderStatus;
+import com.example.ecommerce_rest_api.features.order.event.OrderStatusChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Maintains daily_sales from order events. Each placed order or status change is applied as a
+// delta just before the order transaction commits, so the order and its delta are committed
+// together and the lock on the day's row is held only for the commit itself. Rebuilding a day
+// takes that same row lock before reading the orders, which makes rebuilds and live deltas take
+// turns: an order either committed before the rebuild read (and is counted by it) or applies its
+// delta after the rebuild commits. Rebuilds also fill the rollup the first time.
+@Slf4j
+@Component
+public class DailySalesRollup {
+
+    private static final String INSERT_EMPTY_DAY =
+            "insert into daily_sales (sale_date, total_orders, pending_orders, confirmed_orders, " +
+            "processing_orders, shipped_orders, delivered_orders, cancelled_orders, refunded_orders, " +
+            "gross_amount, delivered_amount) values (?, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0)";
+
+    private static final String DAY_EXISTS =
+            "select count(*) from daily_sales where sale_date = ?";
+
+    private static final String LOCK_DAY =
+            "select sale_date from daily_sales where sale_date = ? for update";
+
+    private static final String DAY_TOTALS =
+            "select count(*), " +
+            "coalesce(sum(case when status = 'PENDING' then 1 else 0 end), 0), " +
+            "coalesce(sum(case when status = 'CONFIRMED' then 1 else 0 end), 0), " +
+            "coalesce(sum(case when status = 'PROCESSING' then 1 else 0 end), 0), " +
+            "coalesce(sum(case when status = 'SHIPPED' then 1 else 0 end), 0), " +
+            "coalesce(sum(case when status = 'DELIVERED' then 1 else 0 end), 0), " +
+            "coalesce(sum(case when status = 'CANCELLED' then 1 else 0 end), 0), " +
+            "coalesce(sum(case when status = 'REFUNDED' then 1 else 0 end), 0), " +
+            "coalesce(sum(total), 0), " +
+            "coalesce(sum(case when status = 'DELIVERED' then total else 0 end), 0) " +
+            "from orders where created_at >= ? and created_at < ?";
+
+    private static final String SET_DAY =
+            "update daily_sales set total_orders = ?, pending_orders = ?, confirmed_orders = ?, " +
+            "processing_orders = ?, shipped_orders = ?, delivered_orders = ?, cancelled_orders = ?, " +
+            "refunded_orders = ?, gross_amount = ?, delivered_amount = ? where sale_date = ?";
+
+    private static final int TOTALS_COLUMNS = 10;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DailySalesRepository dailySalesRepository;
+    private final TransactionTemplate rollupTransaction;
+
+    public DailySalesRollup(JdbcTemplate jdbcTemplate,
+                            DailySalesRepository dailySalesRepository,
+                            PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dailySalesRepository = dailySalesRepository;
+        this.rollupTransaction = new TransactionTemplate(transactionManager);
+        this.rollupTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // Runs in the order transaction: if the delta cannot be applied, the order is not saved either
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        apply(event);
+    }
+
+    // Recomputes the days in the range from the orders table, one short transaction per day so
+    // checkouts wait at most for one day's recount; returns the number of days rebuilt
+    public int rebuild(LocalDate startDate, LocalDate endDate) {
+        int days = 0;
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            rebuildDay(day);
+            days++;
+        }
+        return days;
+    }
+
+    // Fills the rollup once for orders placed before it existed
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (dailySalesRepository.count() > 0) {
+            return;
+        }
+        LocalDate[] range = jdbcTemplate.queryForObject(
+                "select min(created_at), max(created_at) from orders",
+                (rs, rowNum) -> rs.getTimestamp(1) == null ? null : new LocalDate[]{
+                        rs.getTimestamp(1).toLocalDateTime().toLocalDate(),
+                        rs.getTimestamp(2).toLocalDateTime().toLocalDate()});
+        if (range == null) {
+            return;
+        }
+        LocalDate first = range[0];
+        LocalDate last = range[1];
+        int days = rebuild(first, last);
+        log.info("Backfilled daily_sales with {} days from {} to {}", days, first, last);
+    }
+
+    private void apply(OrderStatusChangedEvent event) {
+        List<String> changes = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        if (event.isPlacement()) {
+            changes.add("total_orders = total_orders + 1");
+            changes.add("gross_amount = gross_amount + ?");
+            args.add(event.total());
+        } else {
+            String previous = column(event.previousStatus());
+            changes.add(previous + " = " + previous + " - 1");
+        }
+        String current = column(event.status());
+        changes.add(current + " = " + current + " + 1");
+
+        double delivered = (event.status() == OrderStatus.DELIVERED ? event.total() : 0)
+                - (event.previousStatus() == OrderStatus.DELIVERED ? event.total() : 0);
+        if (delivered != 0) {
+            changes.add("delivered_amount = delivered_amount + ?");
+            args.add(delivered);
+        }
+
+        Date day = Date.valueOf(event.orderCreatedAt().toLocalDate());
+        args.add(day);
+        String sql = "update daily_sales set " + String.join(", ", changes) + " where sale_date = ?";
+        Object[] params = args.toArray();
+
+        // The first order of a day creates the row beforehand: after an update that matched
+        // nothing, the insert would wait on the gap lock this transaction just took
+        if (!dayExists(day)) {
+            createDay(day);
+        }
+        jdbcTemplate.update(sql, params);
+    }
+
+    private void rebuildDay(LocalDate day) {
+        Date saleDate = Date.valueOf(day);
+        createDay(saleDate);
+        rollupTransaction.executeWithoutResult(status -> {
+            // Deltas for the day wait here until the recount commits
+            jdbcTemplate.queryForList(LOCK_DAY, Date.class, saleDate);
+            Object[] totals = jdbcTemplate.queryForObject(DAY_TOTALS, (rs, rowNum) -> {
+                Object[] values = new Object[TOTALS_COLUMNS + 1];
+                for (int i = 0; i < TOTALS_COLUMNS; i++) {
+                    values[i] = rs.getObject(i + 1);
+                }
+                values[TOTALS_COLUMNS] = saleDate;
+                return values;
+            }, Timestamp.valueOf(day.atStartOfDay()), Timestamp.valueOf(day.plusDays(1).atStartOfDay()));
+            jdbcTemplate.update(SET_DAY, totals);
+        });
+    }
+
+    private boolean dayExists(Date day) {
+        Integer rows = jdbcTemplate.queryForObject(DAY_EXISTS, Integer.class, day);
+        return rows != null && rows > 0;
+    }
+
+    // Committed on its own so the row can be locked, unless a concurrent order just created it
+    private void createDay(Date day) {
+        try {
+            rollupTransaction.executeWithoutResult(status -> jdbcTemplate.update(INSERT_EMPTY_DAY, day));
+        } catch (DuplicateKeyException ignored) {
+            // The row exists now either way
+        }
+    }
+
+    // Column names come from the enum, never from input
+    private static String column(OrderStatus status) {
+        return status.name().toLowerCase() + "_orders";
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.ecommerce_rest_api.features.admin.service;
+
+import com.example.ecommerce_rest_api.features.admin.ENUM.UniqueMetric;
+import com.example.ecommerce_rest_api.features.admin.dto.UniqueCountsDTO;
+import com.example.ecommerce_rest_api.security.UserPrincipal;
+import com.example.ecommerce_rest_api.utils.HyperLogLog;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Approximate distinct buyers and product visitors per day, counted in HyperLogLog sketches
+// instead of DISTINCT queries over orders and views. Today's sketches live in memory and take
+// every add; a scheduled flush merges them into daily_unique_sketch under a row lock and pulls
+// back what other nodes have merged. Week and month figures are the union of the stored days,
+// which is cached briefly, so memory stays at a few sketches whatever the traffic.
+@Slf4j
+@Component
+public class DailyUniqueCounter {
+
+    private static final String SELECT_FOR_UPDATE =
+            "select registers from daily_unique_sketch where sketch_date = ? and metric = ? for update";
+    private static final String UPDATE =
+            "update daily_unique_sketch set registers = ? where sketch_date = ? and metric = ?";
+    private static final String INSERT =
+            "insert into daily_unique_sketch (sketch_date, metric, registers) values (?, ?, ?)";
+    private static final String SELECT_RANGE =
+            "select sketch_date, metric, registers from daily_unique_sketch where sketch_date between ? and ?";
+
+    private static final int WEEK_DAYS = 7;
+    private static final int MONTH_DAYS = 30;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate flushTransaction;
+    private final long historyMaxAgeNanos;
+
+    private final Map<Key, HyperLogLog> sketches = new ConcurrentHashMap<>();
+    private final Object historyLock = new Object();
+    private volatile History history;
+
+    public DailyUniqueCounter(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.admin.unique.history-max-age-ms:60000}") long historyMaxAgeMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.flushTransaction = new TransactionTemplate(transactionManager);
+        this.flushTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.historyMaxAgeNanos = TimeUnit.MILLISECONDS.toNanos(historyMaxAgeMs);
+    }
+
+    // Counted once the order transaction commits, so a failed checkout is not a buyer
+    public void recordBuyer(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            sketch(UniqueMetric.BUYERS, LocalDate.now()).add(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                sketch(UniqueMetric.BUYERS, LocalDate.now()).add(userId);
+            }
+        });
+    }
+
+    // A visitor is the signed-in user, or the client address for anonymous requests
+    public void recordVisitor() {
+        String visitorKey = visitorKey();
+        if (visitorKey != null) {
+            sketch(UniqueMetric.VISITORS, LocalDate.now()).add(visitorKey);
+        }
+    }
+
+    public Map<UniqueMetric, UniqueCountsDTO> counts() {
+        LocalDate today = LocalDate.now();
+        History stored = history(today);
+
+        Map<UniqueMetric, UniqueCountsDTO> counts = new EnumMap<>(UniqueMetric.class);
+        for (UniqueMetric metric : UniqueMetric.values()) {
+            HyperLogLog todaySketch = stored.today.get(metric).copy();
+            HyperLogLog live = sketches.get(new Key(metric, today));
+            if (live != null) {
+                todaySketch.merge(live);
+            }
+            counts.put(metric, UniqueCountsDTO.builder()
+                    .today(todaySketch.estimate())
+                    .last7Days(stored.week.get(metric).copy().merge(todaySketch).estimate())
+                    .last30Days(stored.month.get(metric).copy().merge(todaySketch).estimate())
+                    .build());
+        }
+        return counts;
+    }
+
+    @Scheduled(fixedDelayString = "${app.admin.unique.flush-interval-ms:60000}")
+    public synchronized void flush() {
+        LocalDate today = LocalDate.now();
+        for (Map.Entry<Key, HyperLogLog> entry : sketches.entrySet()) {
+            Key key = entry.getKey();
+            HyperLogLog sketch = entry.getValue();
+            try {
+                sketch.merge(store(key, sketch));
+            } catch (RuntimeException ex) {
+                // Kept in memory; merging is idempotent, so the next flush simply tries again
+                log.warn("Could not save the {} sketch of {}, will retry", key.metric(), key.day(), ex);
+                continue;
+            }
+            if (key.day().isBefore(today)) {
+                sketches.remove(key, sketch);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private static String visitorKey() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return "user:" + principal.getId();
+        }
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return "ip:" + attributes.getRequest().getRemoteAddr();
+        }
+        return null;
+    }
+
+    private HyperLogLog sketch(UniqueMetric metric, LocalDate day) {
+        return sketches.computeIfAbsent(new Key(metric, day), key -> new HyperLogLog());
+    }
+
+    // Returns the stored sketch after merging this node's registers into it
+    private HyperLogLog store(Key key, HyperLogLog sketch) {
+        HyperLogLog stored = flushTransaction.execute(status -> mergeStored(key, sketch));
+        if (stored != null) {
+            return stored;
+        }
+        // First flush of the day: create the row, unless another node just did
+        try {
+            flushTransaction.executeWithoutResult(status -> jdbcTemplate.update(INSERT,
+                    Date.valueOf(key.day()), key.metric().name(), sketch.toBytes()));
+            return sketch;
+        } catch (DuplicateKeyException ex) {
+            return flushTransaction.execute(status -> mergeStored(key, sketch));
+        }
+    }
+
+    private HyperLogLog mergeStored(Key key, HyperLogLog sketch) {
+        Date day = Date.valueOf(key.day());
+        List<byte[]> rows = jdbcTemplate.query(SELECT_FOR_UPDATE, (rs, rowNum) -> rs.getBytes(1),
+                day, key.metric().name());
+        if (rows.isEmpty()) {
+            return null;
+        }
+        HyperLogLog stored = HyperLogLog.fromBytes(rows.getFirst()).merge(sketch);
+        jdbcTemplate.update(UPDATE, stored.toBytes(), day, key.metric().name());
+        return stored;
+    }
+
+    // Unions of the stored days; other nodes' adds show up here after their next flush
+    private History history(LocalDate today) {
+        History current = history;
+        if (current != null && current.isFresh(today, historyMaxAgeNanos)) {
+            return current;
+        }
+        synchronized (historyLock) {
+            current = history;
+            if (current != null && current.isFresh(today, historyMaxAgeNanos)) {
+                return current;
+            }
+            current = load(today);
+            history = current;
+            return current;
+        }
+    }
+
+    private History load(LocalDate today) {
+        Map<UniqueMetric, HyperLogLog> todays = empty();
+        Map<UniqueMetric, HyperLogLog> week = empty();
+        Map<UniqueMetric, HyperLogLog> month = empty();
+        LocalDate weekStart = today.minusDays(WEEK_DAYS - 1);
+        jdbcTemplate.query(SELECT_RANGE, rs -> {
+            LocalDate day = rs.getDate("sketch_date").toLocalDate();
+            UniqueMetric metric = UniqueMetric.valueOf(rs.getString("metric"));
+            HyperLogLog sketch = HyperLogLog.fromBytes(rs.getBytes("registers"));
+            if (day.equals(today)) {
+                todays.get(metric).merge(sketch);
+                return;
+            }
+            month.get(metric).merge(sketch);
+            if (!day.isBefore(weekStart)) {
+                week.get(metric).merge(sketch);
+            }
+        }, Date.valueOf(today.minusDays(MONTH_DAYS - 1)), Date.valueOf(today));
+
+        return new History(today, System.nanoTime(), todays, week, month);
+    }
+
+    private static Map<UniqueMetric, HyperLogLog> empty() {
+        Map<UniqueMetric, HyperLogLog> sketches = new EnumMap<>(UniqueMetric.class);
+        for (UniqueMetric metric : UniqueMetric.values()) {
+            sketches.put(metric, new HyperLogLog());
+        }
+        return sketches;
+    }
+
+    private record Key(UniqueMetric metric, LocalDate day) {
+    }
+
+    // week and month hold the days before today; today's stored registers are kept apart
+    private record History(LocalDate day,
+                           long loadedAtNanos,
+                           Map<UniqueMetric, HyperLogLog> today,
+                           Map<UniqueMetric, HyperLogLog> week,
+                           Map<UniqueMetric, HyperLogLog> month) {
+
+        boolean isFresh(LocalDate today, long maxAgeNanos) {
+            return day.equals(today) && System.nanoTime() - loadedAtNanos < maxAgeNanos;
+        }
+    }
+}
@@ -0,0 +1,386 @@
+package com.example.ecommerce_rest_api.features.admin.service;
+
+import com.example.ecommerce_rest_api.features.admin.dto.DashboardLiveDTO;
+import com.example.ecommerce_rest_api.features.admin.dto.DashboardStatsDTO;
+import com.example.ecommerce_rest_api.features.order.ENUM.OrderStatus;
+import com.example.ecommerce_rest_api.features.order.event.OrderStatusChangedEvent;
+import com.example.ecommerce_rest_api.features.admin.dto.StockTransitionDTO;
+import com.example.ecommerce_rest_api.features.product.ENUM.StockState;
+import com.example.ecommerce_rest_api.features.product.event.StockStateChangedEvent;
+import com.example.ecommerce_rest_api.features.review.event.PendingReviewsChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Pushes dashboard counters to admins over Server-Sent Events. The counters live in memory:
+// they are seeded from freshly computed dashboard stats, moved by order, stock and review events,
+// and re-seeded every resync interval to correct any drift. Events that arrive while a seed is
+// being computed are kept on top of it. Changes are coalesced: a single scheduled task
+// renders at most one update per push interval, carrying only the counters that changed, and
+// hands it to every subscriber. The writes happen on a small sender pool, one at a time per
+// subscriber, so the scheduler thread never blocks on a socket; a subscriber that falls more than
+// max-pending-events behind is completed and reconnects to a fresh snapshot. Idle subscribers are
+// parked async requests, not threads.
+@Slf4j
+@Component
+public class DashboardLiveFeed {
+
+    private final DashboardStatsLoader dashboardStatsLoader;
+    private final long emitterTimeoutMs;
+    private final long heartbeatIntervalMs;
+    private final int maxPendingEvents;
+    private final ExecutorService senders;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final SeededCounter todayOrders = new SeededCounter();
+    private final SeededCounter todayRevenueCents = new SeededCounter();
+    private final SeededCounter pendingOrders = new SeededCounter();
+    private final SeededCounter lowStockProducts = new SeededCounter();
+    private final SeededCounter pendingReviews = new SeededCounter();
+    private final AtomicLong placedSincePush = new AtomicLong();
+    // One seed at a time; seeding runs queries, so it does not hold the push lock
+    private final Object seedLock = new Object();
+    // Stock state transitions waiting for the next push; beyond the bound they are dropped
+    private final BlockingQueue<StockTransitionDTO> stockTransitions = new ArrayBlockingQueue<>(1000);
+    private volatile LocalDate day;
+    private volatile boolean seeded;
+
+    // Guarded by this: the counters every subscriber has seen so far
+    private DashboardLiveDTO lastPushed;
+    private long lastHeartbeatNanos = System.nanoTime();
+
+    public DashboardLiveFeed(DashboardStatsLoader dashboardStatsLoader,
+                             @Value("${app.admin.dashboard.live.emitter-timeout-ms:1800000}") long emitterTimeoutMs,
+                             @Value("${app.admin.dashboard.live.heartbeat-interval-ms:15000}") long heartbeatIntervalMs,
+                             @Value("${app.admin.dashboard.live.max-pending-events:20}") int maxPendingEvents,
+                             @Value("${app.admin.dashboard.live.sender-threads:4}") int senderThreads) {
+        this.dashboardStatsLoader = dashboardStatsLoader;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.heartbeatIntervalMs = heartbeatIntervalMs;
+        this.maxPendingEvents = maxPendingEvents;
+
+        AtomicInteger threads = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "dashboard-live-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public SseEmitter subscribe() {
+        if (!seeded) {
+            resync();
+        }
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(ex -> subscribers.remove(subscriber));
+
+        // Under the lock so the snapshot is queued before any update rendered after it
+        synchronized (this) {
+            if (lastPushed == null) {
+                lastPushed = current();
+            }
+            subscribers.add(subscriber);
+            subscriber.offer(SseEmitter.event().name("snapshot").data(lastPushed).build());
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        boolean placedToday = event.orderCreatedAt().toLocalDate().equals(day);
+        if (event.isPlacement()) {
+            placedSincePush.incrementAndGet();
+            if (placedToday) {
+                todayOrders.add(1);
+            }
+        }
+        pendingOrders.add((event.status() == OrderStatus.PENDING ? 1 : 0)
+                - (event.previousStatus() == OrderStatus.PENDING ? 1 : 0));
+
+        // Today's revenue is the delivered total of orders placed today, as in the stats
+        int delivered = (event.status() == OrderStatus.DELIVERED ? 1 : 0)
+                - (event.previousStatus() == OrderStatus.DELIVERED ? 1 : 0);
+        if (placedToday && delivered != 0) {
+            todayRevenueCents.add(delivered * Math.round(event.total() * 100));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockStateChanged(StockStateChangedEvent event) {
+        // Inactive and deleted SKUs are not in the low-stock count the seed reads
+        if (event.listed()) {
+            lowStockProducts.add((StockState.LOW_OR_OUT.contains(event.state()) ? 1 : 0)
+                    - (StockState.LOW_OR_OUT.contains(event.previousState()) ? 1 : 0));
+        }
+        if (!subscribers.isEmpty()) {
+            stockTransitions.offer(StockTransitionDTO.builder()
+                    .skuId(event.skuId())
+                    .productId(event.productId())
+                    .skuCode(event.sku())
+                    .previousState(event.previousState())
+                    .state(event.state())
+                    .quantity(event.quantity())
+                    .build());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPendingReviewsChanged(PendingReviewsChangedEvent event) {
+        pendingReviews.add(event.delta());
+    }
+
+    @Scheduled(fixedDelayString = "${app.admin.dashboard.live.push-interval-ms:500}")
+    public void push() {
+        if (subscribers.isEmpty()) {
+            placedSincePush.set(0);
+            stockTransitions.clear();
+            return;
+        }
+        if (!LocalDate.now().equals(day)) {
+            resync();
+        }
+
+        // Only rendering happens under the lock; the writes are queued to the sender pool
+        Set<ResponseBodyEmitter.DataWithMediaType> frames;
+        List<Subscriber> targets;
+        synchronized (this) {
+            DashboardLiveDTO current = current();
+            List<StockTransitionDTO> transitions = new ArrayList<>();
+            stockTransitions.drainTo(transitions);
+            DashboardLiveDTO update = changes(lastPushed, current, placedSincePush.getAndSet(0), transitions);
+            if (update != null) {
+                lastPushed = current;
+                frames = SseEmitter.event().name("update").data(update).build();
+            } else if (System.nanoTime() - lastHeartbeatNanos >= heartbeatIntervalMs * 1_000_000) {
+                // Keeps proxies from closing quiet streams and finds disconnected subscribers
+                frames = SseEmitter.event().comment("keep-alive").build();
+            } else {
+                return;
+            }
+            lastHeartbeatNanos = System.nanoTime();
+            targets = List.copyOf(subscribers);
+        }
+        for (Subscriber subscriber : targets) {
+            subscriber.offer(frames);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.admin.dashboard.live.resync-interval-ms:60000}")
+    public void resyncWhileSubscribed() {
+        if (!subscribers.isEmpty()) {
+            resync();
+        }
+    }
+
+    // The stats are computed after the marks are taken, so they include every event received
+    // before the marks; the events received after them are added on top. An event whose commit
+    // the stats queries already saw but that arrives after the marks is counted twice until the
+    // next resync.
+    private void resync() {
+        synchronized (seedLock) {
+            LocalDate previousDay = day;
+            day = LocalDate.now();
+            long todayOrdersMark = todayOrders.mark();
+            long todayRevenueMark = todayRevenueCents.mark();
+            long pendingOrdersMark = pendingOrders.mark();
+            long lowStockMark = lowStockProducts.mark();
+            long pendingReviewsMark = pendingReviews.mark();
+            DashboardStatsDTO stats;
+            try {
+                stats = dashboardStatsLoader.getFresh();
+            } catch (RuntimeException ex) {
+                day = previousDay;
+                if (!seeded) {
+                    throw ex;
+                }
+                log.warn("Could not re-seed the live dashboard counters", ex);
+                return;
+            }
+            todayOrders.seed(stats.getTodayOrders(), todayOrdersMark);
+            todayRevenueCents.seed(Math.round(stats.getTodayRevenue() * 100), todayRevenueMark);
+            pendingOrders.seed(stats.getPendingOrders(), pendingOrdersMark);
+            lowStockProducts.seed(stats.getLowStockProducts(), lowStockMark);
+            pendingReviews.seed(stats.getPendingReviews(), pendingReviewsMark);
+            seeded = true;
+        }
+    }
+
+    private DashboardLiveDTO current() {
+        return DashboardLiveDTO.builder()
+                .todayOrders(todayOrders.get())
+                .todayRevenue(todayRevenueCents.get() / 100.0)
+                .pendingOrders(pendingOrders.get())
+                .lowStockProducts(lowStockProducts.get())
+                .pendingReviews(pendingReviews.get())
+                .build();
+    }
+
+    // Null when nothing changed
+    private static DashboardLiveDTO changes(DashboardLiveDTO previous, DashboardLiveDTO current, long newOrders,
+                                            List<StockTransitionDTO> transitions) {
+        DashboardLiveDTO update = new DashboardLiveDTO();
+        boolean changed = false;
+        if (newOrders > 0) {
+            update.setNewOrders(newOrders);
+            changed = true;
+        }
+        if (!transitions.isEmpty()) {
+            update.setStockTransitions(transitions);
+            changed = true;
+        }
+        if (previous == null || !Objects.equals(previous.getTodayOrders(), current.getTodayOrders())) {
+            update.setTodayOrders(current.getTodayOrders());
+            changed = true;
+        }
+        if (previous == null || !Objects.equals(previous.getTodayRevenue(), current.getTodayRevenue())) {
+            update.setTodayRevenue(current.getTodayRevenue());
+            changed = true;
+        }
+        if (previous == null || !Objects.equals(previous.getPendingOrders(), current.getPendingOrders())) {
+            update.setPendingOrders(current.getPendingOrders());
+            changed = true;
+        }
+        if (previous == null || !Objects.equals(previous.getLowStockProducts(), current.getLowStockProducts())) {
+            update.setLowStockProducts(current.getLowStockProducts());
+            changed = true;
+        }
+        if (previous == null || !Objects.equals(previous.getPendingReviews(), current.getPendingReviews())) {
+            update.setPendingReviews(current.getPendingReviews());
+            changed = true;
+        }
+        return changed ? update : null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+
+    private static boolean send(SseEmitter emitter, Set<ResponseBodyEmitter.DataWithMediaType> frames) {
+        try {
+            emitter.send(frames);
+            return true;
+        } catch (IOException | IllegalStateException ex) {
+            // The client went away; completing releases the async request
+            emitter.completeWithError(ex);
+            return false;
+        }
+    }
+
+    // A seeded value plus everything events added since; seeding replaces what the events before
+    // the mark had added
+    private static final class SeededCounter {
+
+        private final AtomicLong added = new AtomicLong();
+        private volatile long base;
+
+        void add(long delta) {
+            added.addAndGet(delta);
+        }
+
+        long mark() {
+            return added.get();
+        }
+
+        void seed(long value, long mark) {
+            base = value - mark;
+        }
+
+        long get() {
+            return base + added.get();
+        }
+    }
+
+    // One stream: its events are written in order, by at most one sender thread at a time. The
+    // event is rendered once and the same frames are queued to every subscriber.
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Queue<Set<ResponseBodyEmitter.DataWithMediaType>> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean dropped;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(Set<ResponseBodyEmitter.DataWithMediaType> frames) {
+            if (dropped) {
+                return;
+            }
+            if (pendingCount.incrementAndGet() > maxPendingEvents) {
+                // Its writes are stuck; the sender thread writing to it completes the stream once
+                // the write returns, and the client reconnects to a new snapshot
+                dropped = true;
+                subscribers.remove(this);
+                log.debug("Dropping a dashboard subscriber {} events behind", maxPendingEvents);
+                return;
+            }
+            pending.add(frames);
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException ex) {
+                    // Shutting down
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            Set<ResponseBodyEmitter.DataWithMediaType> frames;
+            while (!dropped && (frames = pending.poll()) != null) {
+                pendingCount.decrementAndGet();
+                if (!send(emitter, frames)) {
+                    // send() has completed the stream
+                    dropped = true;
+                    subscribers.remove(this);
+                    pending.clear();
+                    return;
+                }
+            }
+            if (dropped) {
+                pending.clear();
+                emitter.complete();
+                return;
+            }
+            draining.set(false);
+            // An offer may have queued frames after the poll above came back empty
+            if (!pending.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+    }
+}
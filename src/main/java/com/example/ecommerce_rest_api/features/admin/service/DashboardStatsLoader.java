@@ -0,0 +1,226 @@
+package com.example.ecommerce_rest_api.features.admin.service;
+
+import com.example.ecommerce_rest_api.features.admin.ENUM.UniqueMetric;
+import com.example.ecommerce_rest_api.features.admin.dto.DashboardStatsDTO;
+import com.example.ecommerce_rest_api.features.admin.dto.UniqueCountsDTO;
+import com.example.ecommerce_rest_api.features.admin.entity.DailySales;
+import com.example.ecommerce_rest_api.features.admin.repository.DailySalesRepository;
+import com.example.ecommerce_rest_api.features.order.ENUM.OrderStatus;
+import com.example.ecommerce_rest_api.features.order.repository.OrderRepository;
+import com.example.ecommerce_rest_api.features.product.ENUM.StockState;
+import com.example.ecommerce_rest_api.features.product.repository.ProductRepository;
+import com.example.ecommerce_rest_api.features.product.repository.ProductSkuRepository;
+import com.example.ecommerce_rest_api.features.review.repository.ReviewRepository;
+import com.example.ecommerce_rest_api.features.user.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+// Dashboard stats, computed by running the independent aggregate queries side by side and then
+// cached for a short while. When the cached stats are stale, the first caller starts one
+// refresh and everyone else arriving meanwhile waits for that same refresh. Each query is timed
+// under admin.dashboard.stats.query, and the timings of the last refresh are part of the result.
+@Slf4j
+@Component
+public class DashboardStatsLoader {
+
+    private final OrderRepository orderRepository;
+    private final ProductRepository productRepository;
+    private final ProductSkuRepository productSkuRepository;
+    private final UserRepository userRepository;
+    private final ReviewRepository reviewRepository;
+    private final DailySalesRepository dailySalesRepository;
+    private final DailyUniqueCounter dailyUniqueCounter;
+    private final MeterRegistry meterRegistry;
+
+    private final long maxAgeNanos;
+    private final long timeoutMs;
+    private final ExecutorService executor;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    private final AtomicReference<CompletableFuture<DashboardStatsDTO>> refresh = new AtomicReference<>();
+    private volatile Snapshot snapshot;
+
+    public DashboardStatsLoader(OrderRepository orderRepository,
+                                ProductRepository productRepository,
+                                ProductSkuRepository productSkuRepository,
+                                UserRepository userRepository,
+                                ReviewRepository reviewRepository,
+                                DailySalesRepository dailySalesRepository,
+                                DailyUniqueCounter dailyUniqueCounter,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.admin.dashboard.stats.max-age-ms:5000}") long maxAgeMs,
+                                @Value("${app.admin.dashboard.stats.timeout-ms:10000}") long timeoutMs,
+                                @Value("${app.admin.dashboard.stats.parallelism:4}") int parallelism) {
+        this.orderRepository = orderRepository;
+        this.productRepository = productRepository;
+        this.productSkuRepository = productSkuRepository;
+        this.userRepository = userRepository;
+        this.reviewRepository = reviewRepository;
+        this.dailySalesRepository = dailySalesRepository;
+        this.dailyUniqueCounter = dailyUniqueCounter;
+        this.meterRegistry = meterRegistry;
+        this.maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxAgeMs);
+        this.timeoutMs = timeoutMs;
+
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "dashboard-stats-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public DashboardStatsDTO get() {
+        Snapshot current = snapshot;
+        if (current != null && current.isFresh(maxAgeNanos)) {
+            return current.stats;
+        }
+        try {
+            return startOrJoinRefresh().join();
+        } catch (CompletionException ex) {
+            // Stale stats beat no stats; without any, the caller gets the error
+            if (current != null) {
+                log.warn("Dashboard stats refresh failed, serving stats from {}", current.stats.getComputedAt(), ex.getCause());
+                return current.stats;
+            }
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Could not compute dashboard stats", ex.getCause());
+        }
+    }
+
+    // Computes the stats now, whatever the cache holds, for callers that need stats computed
+    // after a given moment; the result is cached for everyone else
+    public DashboardStatsDTO getFresh() {
+        try {
+            DashboardStatsDTO stats = compute().join();
+            snapshot = new Snapshot(stats, System.nanoTime());
+            return stats;
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Could not compute dashboard stats", ex.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private CompletableFuture<DashboardStatsDTO> startOrJoinRefresh() {
+        while (true) {
+            CompletableFuture<DashboardStatsDTO> running = refresh.get();
+            if (running != null) {
+                return running;
+            }
+            CompletableFuture<DashboardStatsDTO> mine = new CompletableFuture<>();
+            if (!refresh.compareAndSet(null, mine)) {
+                continue;
+            }
+            // A refresh may have finished between the staleness check and here
+            Snapshot current = snapshot;
+            if (current != null && current.isFresh(maxAgeNanos)) {
+                refresh.set(null);
+                mine.complete(current.stats);
+                return mine;
+            }
+            compute().whenComplete((stats, ex) -> {
+                if (ex == null) {
+                    snapshot = new Snapshot(stats, System.nanoTime());
+                }
+                refresh.set(null);
+                if (ex == null) {
+                    mine.complete(stats);
+                } else {
+                    mine.completeExceptionally(ex);
+                }
+            });
+            return mine;
+        }
+    }
+
+    private CompletableFuture<DashboardStatsDTO> compute() {
+        Map<String, Long> timings = new ConcurrentSkipListMap<>();
+        LocalDate today = LocalDate.now();
+
+        CompletableFuture<Long> totalProducts = query("totalProducts", timings, productRepository::count);
+        CompletableFuture<Long> totalUsers = query("totalUsers", timings, userRepository::count);
+        CompletableFuture<Long> totalOrders = query("totalOrders", timings, orderRepository::count);
+        CompletableFuture<Long> pendingOrders = query("pendingOrders", timings,
+                () -> orderRepository.countByStatus(OrderStatus.PENDING));
+        CompletableFuture<Long> processingOrders = query("processingOrders", timings,
+                () -> orderRepository.countByStatus(OrderStatus.PROCESSING));
+        CompletableFuture<Long> deliveredOrders = query("deliveredOrders", timings,
+                () -> orderRepository.countByStatus(OrderStatus.DELIVERED));
+        CompletableFuture<Double> totalRevenue = query("totalRevenue", timings,
+                () -> orderRepository.sumTotalByStatus(OrderStatus.DELIVERED));
+        CompletableFuture<Optional<DailySales>> todaySales = query("todaySales", timings,
+                () -> dailySalesRepository.findById(today));
+        CompletableFuture<Long> lowStockProducts = query("lowStockProducts", timings,
+                () -> productSkuRepository.countByStockState(StockState.LOW_OR_OUT));
+        CompletableFuture<Long> pendingReviews = query("pendingReviews", timings,
+                reviewRepository::countByIsApprovedFalse);
+        CompletableFuture<Map<UniqueMetric, UniqueCountsDTO>> uniqueCounts = query("uniqueCounts", timings,
+                dailyUniqueCounter::counts);
+
+        return CompletableFuture.allOf(totalProducts, totalUsers, totalOrders, pendingOrders, processingOrders,
+                        deliveredOrders, totalRevenue, todaySales, lowStockProducts, pendingReviews, uniqueCounts)
+                .orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                .thenApply(done -> DashboardStatsDTO.builder()
+                        .totalProducts(totalProducts.join())
+                        .totalUsers(totalUsers.join())
+                        .totalOrders(totalOrders.join())
+                        .pendingOrders(pendingOrders.join())
+                        .processingOrders(processingOrders.join())
+                        .deliveredOrders(deliveredOrders.join())
+                        .totalRevenue(Optional.ofNullable(totalRevenue.join()).orElse(0.0))
+                        .todayOrders(todaySales.join().map(DailySales::getTotalOrders).orElse(0L))
+                        .todayRevenue(todaySales.join().map(DailySales::getDeliveredAmount).orElse(0.0))
+                        .lowStockProducts(lowStockProducts.join())
+                        .pendingReviews(pendingReviews.join())
+                        .uniqueBuyers(uniqueCounts.join().get(UniqueMetric.BUYERS))
+                        .uniqueVisitors(uniqueCounts.join().get(UniqueMetric.VISITORS))
+                        .computedAt(LocalDateTime.now())
+                        .queryTimingsMs(Map.copyOf(timings))
+                        .build());
+    }
+
+    private <T> CompletableFuture<T> query(String name, Map<String, Long> timings, Supplier<T> query) {
+        Timer timer = timers.computeIfAbsent(name, key -> Timer.builder("admin.dashboard.stats.query")
+                .tag("query", key)
+                .register(meterRegistry));
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                return query.get();
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                timer.record(elapsed, TimeUnit.NANOSECONDS);
+                timings.put(name, TimeUnit.NANOSECONDS.toMillis(elapsed));
+            }
+        }, executor);
+    }
+
+    private record Snapshot(DashboardStatsDTO stats, long computedAtNanos) {
+
+        boolean isFresh(long maxAgeNanos) {
+            return System.nanoTime() - computedAtNanos < maxAgeNanos;
+        }
+    }
+}
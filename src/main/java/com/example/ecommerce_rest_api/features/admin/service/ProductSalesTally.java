@@ -0,0 +1,324 @@
+package com.example.ecommerce_rest_api.features.admin.service;
+
+import com.example.ecommerce_rest_api.features.admin.dto.TopProductDTO;
+import com.example.ecommerce_rest_api.features.admin.repository.ProductSalesDailyRepository;
+import com.example.ecommerce_rest_api.features.admin.repository.ProductSalesTotalRepository;
+import com.example.ecommerce_rest_api.features.order.ENUM.OrderStatus;
+import com.example.ecommerce_rest_api.features.order.event.OrderStatusChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Maintains product_sales_daily: an order's items are added to the day it was delivered when it
+// reaches DELIVERED, and taken off that day again if it later leaves DELIVERED (a refund). Like
+// the daily rollup, rebuild() recomputes days from the orders; unlike it, each change is applied
+// after the order commits, in a transaction of its own, since the delivery day is read back from
+// the saved order. Every change to a day row also goes to the product's product_sales_total row,
+// in the same transaction, which is what the all-time best sellers are read from.
+// Since a change runs after its order committed, a rebuild may already have counted the order.
+// orders.sales_tallied records whether the tally counts an order: a change applies only when it
+// flips the flag, and a rebuild sets the flags of the orders it recounts. Both lock the order
+// rows first and the tally rows after, so a change waits for a running recount of its day and
+// then finds the order already counted. Changes and total recounts lock the total rows before
+// the day rows.
+@Slf4j
+@Component
+public class ProductSalesTally {
+
+    private static final String ORDER_SALES =
+            "select ps.product_id, sum(oi.quantity) as units, sum(oi.subtotal) as revenue " +
+            "from order_items oi join product_skus ps on ps.id = oi.sku_id " +
+            "where oi.order_id = ? group by ps.product_id order by ps.product_id";
+
+    private static final String ADD_SALES =
+            "update product_sales_daily set units_sold = units_sold + ?, revenue = revenue + ? " +
+            "where product_id = ? and sale_date = ?";
+
+    private static final String ADD_TOTAL =
+            "update product_sales_total set units_sold = units_sold + ?, revenue = revenue + ? where product_id = ?";
+
+    private static final String INSERT_EMPTY_DAY =
+            "insert into product_sales_daily (product_id, sale_date, units_sold, revenue) values (?, ?, 0, 0)";
+
+    private static final String INSERT_EMPTY_TOTAL =
+            "insert into product_sales_total (product_id, units_sold, revenue) values (?, 0, 0)";
+
+    // Null flags are orders from before the flag: they were counted while delivered
+    private static final String FLIP_TALLIED =
+            "update orders set sales_tallied = ? where id = ? and (sales_tallied is null or sales_tallied <> ?)";
+
+    // The same orders as the two branches of REBUILD, each on its own index
+    private static final String MARK_DELIVERED_IN_RANGE =
+            "update orders set sales_tallied = case when status = 'DELIVERED' then true else false end " +
+            "where delivered_at >= ? and delivered_at < ?";
+
+    private static final String MARK_UNDATED_IN_RANGE =
+            "update orders set sales_tallied = case when status = 'DELIVERED' then true else false end " +
+            "where delivered_at is null and created_at >= ? and created_at < ?";
+
+    // Orders delivered before the delivery time was recorded count on the day they were placed.
+    // Each branch filters on a raw timestamp range, so idx_order_delivered_at and
+    // idx_order_created_at narrow the orders read. Only the orders just flagged are counted, so
+    // an order delivered after the flags were set is left to its own change.
+    private static final String REBUILD =
+            "insert into product_sales_daily (product_id, sale_date, units_sold, revenue) " +
+            "select product_id, sale_date, sum(quantity), sum(subtotal) from (" +
+            "select ps.product_id as product_id, cast(o.delivered_at as date) as sale_date, " +
+            "oi.quantity as quantity, oi.subtotal as subtotal " +
+            "from orders o join order_items oi on oi.order_id = o.id join product_skus ps on ps.id = oi.sku_id " +
+            "where o.status = 'DELIVERED' and o.sales_tallied = true and o.delivered_at >= ? and o.delivered_at < ? " +
+            "union all " +
+            "select ps.product_id, cast(o.created_at as date), oi.quantity, oi.subtotal " +
+            "from orders o join order_items oi on oi.order_id = o.id join product_skus ps on ps.id = oi.sku_id " +
+            "where o.status = 'DELIVERED' and o.sales_tallied = true " +
+            "and o.delivered_at is null and o.created_at >= ? and o.created_at < ?" +
+            ") sales group by product_id, sale_date";
+
+    private static final String PRODUCTS_IN_RANGE =
+            "select distinct product_id from product_sales_daily where sale_date between ? and ?";
+
+    private static final String ADD_MISSING_TOTALS =
+            "insert into product_sales_total (product_id, units_sold, revenue) " +
+            "select distinct d.product_id, 0, 0 from product_sales_daily d " +
+            "where d.product_id in (%s) " +
+            "and not exists (select 1 from product_sales_total t where t.product_id = d.product_id)";
+
+    // Updated in place rather than deleted and inserted, so a change waiting on a total row
+    // finds it again
+    private static final String SET_TOTALS =
+            "update product_sales_total set " +
+            "units_sold = (select coalesce(sum(d.units_sold), 0) from product_sales_daily d " +
+            "where d.product_id = product_sales_total.product_id), " +
+            "revenue = (select coalesce(sum(d.revenue), 0) from product_sales_daily d " +
+            "where d.product_id = product_sales_total.product_id) " +
+            "where product_id in (%s)";
+
+    private static final String FILL_ALL_TOTALS =
+            "insert into product_sales_total (product_id, units_sold, revenue) " +
+            "select product_id, sum(units_sold), sum(revenue) from product_sales_daily group by product_id";
+
+    // Served by idx_product_sales_date: only the rows of the window are read and grouped
+    private static final String TOP_SINCE =
+            "select s.product_id, p.name, sum(s.units_sold) as units, sum(s.revenue) as revenue " +
+            "from product_sales_daily s join products p on p.id = s.product_id " +
+            "where s.sale_date >= ? " +
+            "group by s.product_id, p.name order by units desc, s.product_id limit ?";
+
+    // Served by idx_product_sales_total_units: read in index order and stopped after `limit` rows
+    private static final String TOP_ALL_TIME =
+            "select t.product_id, p.name, t.units_sold as units, t.revenue as revenue " +
+            "from product_sales_total t join products p on p.id = t.product_id " +
+            "order by t.units_sold desc, t.product_id limit ?";
+
+    // Products per transaction when totals are recomputed after a rebuild
+    private static final int TOTALS_CHUNK = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductSalesDailyRepository productSalesDailyRepository;
+    private final ProductSalesTotalRepository productSalesTotalRepository;
+    private final TransactionTemplate tallyTransaction;
+
+    public ProductSalesTally(JdbcTemplate jdbcTemplate,
+                             ProductSalesDailyRepository productSalesDailyRepository,
+                             ProductSalesTotalRepository productSalesTotalRepository,
+                             PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.productSalesDailyRepository = productSalesDailyRepository;
+        this.productSalesTotalRepository = productSalesTotalRepository;
+        this.tallyTransaction = new TransactionTemplate(transactionManager);
+        this.tallyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        int sign = (event.status() == OrderStatus.DELIVERED ? 1 : 0)
+                - (event.previousStatus() == OrderStatus.DELIVERED ? 1 : 0);
+        if (sign == 0) {
+            return;
+        }
+        try {
+            apply(event.orderId(), sign);
+        } catch (RuntimeException ex) {
+            log.warn("Could not add order {} to product_sales_daily; rebuild its delivery day to correct it",
+                    event.orderId(), ex);
+        }
+    }
+
+    // Best sellers by units over the last `days` days including today, or over all time when null
+    public List<TopProductDTO> findTopSelling(int limit, Integer days) {
+        RowMapper<TopProductDTO> mapper = (rs, rowNum) -> TopProductDTO.builder()
+                .productId(rs.getLong("product_id"))
+                .productName(rs.getString("name"))
+                .totalSold((int) Math.min(rs.getLong("units"), Integer.MAX_VALUE))
+                .revenue(rs.getDouble("revenue"))
+                .build();
+        if (days == null) {
+            return jdbcTemplate.query(TOP_ALL_TIME, mapper, limit);
+        }
+        return jdbcTemplate.query(TOP_SINCE, mapper, Date.valueOf(LocalDate.now().minusDays(days - 1L)), limit);
+    }
+
+    // Recomputes the delivery days in the range, one short transaction per day, and then the
+    // totals of every product sold in them before or after; returns the number of day rows written
+    public int rebuild(LocalDate startDate, LocalDate endDate) {
+        Set<Long> products = new TreeSet<>();
+        int rows = 0;
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            rows += rebuildDay(day, products);
+        }
+        recomputeTotals(new ArrayList<>(products));
+        return rows;
+    }
+
+    // Fills the tally once for orders delivered before it existed, and the totals once for a
+    // tally kept before they existed
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (productSalesDailyRepository.count() > 0) {
+            if (productSalesTotalRepository.count() == 0) {
+                int products = jdbcTemplate.update(FILL_ALL_TOTALS);
+                log.info("Backfilled product_sales_total with {} products", products);
+            }
+            return;
+        }
+        LocalDate[] range = jdbcTemplate.queryForObject(
+                "select min(coalesce(delivered_at, created_at)), max(coalesce(delivered_at, created_at)) " +
+                "from orders where status = 'DELIVERED'",
+                (rs, rowNum) -> rs.getTimestamp(1) == null ? null : new LocalDate[]{
+                        rs.getTimestamp(1).toLocalDateTime().toLocalDate(),
+                        rs.getTimestamp(2).toLocalDateTime().toLocalDate()});
+        if (range == null) {
+            return;
+        }
+        LocalDate first = range[0];
+        LocalDate last = range[1];
+        int rows = rebuild(first, last);
+        log.info("Backfilled product_sales_daily with {} rows from {} to {}", rows, first, last);
+    }
+
+    private int rebuildDay(LocalDate day, Set<Long> products) {
+        Date saleDate = Date.valueOf(day);
+        Timestamp from = Timestamp.valueOf(day.atStartOfDay());
+        Timestamp to = Timestamp.valueOf(day.plusDays(1).atStartOfDay());
+        Integer rows = tallyTransaction.execute(status -> {
+            // Changes for these orders wait here until the recount commits, and then skip
+            jdbcTemplate.update(MARK_DELIVERED_IN_RANGE, from, to);
+            jdbcTemplate.update(MARK_UNDATED_IN_RANGE, from, to);
+            products.addAll(jdbcTemplate.queryForList(PRODUCTS_IN_RANGE, Long.class, saleDate, saleDate));
+            jdbcTemplate.update("delete from product_sales_daily where sale_date = ?", saleDate);
+            int written = jdbcTemplate.update(REBUILD, from, to, from, to);
+            products.addAll(jdbcTemplate.queryForList(PRODUCTS_IN_RANGE, Long.class, saleDate, saleDate));
+            return written;
+        });
+        return rows != null ? rows : 0;
+    }
+
+    private void apply(Long orderId, int sign) {
+        List<Timestamp> delivered = jdbcTemplate.queryForList(
+                "select coalesce(delivered_at, created_at) from orders where id = ?", Timestamp.class, orderId);
+        if (delivered.isEmpty()) {
+            return;
+        }
+        Date day = Date.valueOf(delivered.getFirst().toLocalDateTime().toLocalDate());
+
+        List<Object[]> changes = jdbcTemplate.query(ORDER_SALES, (rs, rowNum) -> new Object[]{
+                sign * rs.getLong("units"), sign * rs.getDouble("revenue"), rs.getLong("product_id"), day
+        }, orderId);
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        // The first sale of a product (that day) creates its rows, then the changes are applied again
+        List<Object[]> missing = addSales(orderId, sign, changes);
+        if (missing.isEmpty()) {
+            return;
+        }
+        for (Object[] change : missing) {
+            createRow(INSERT_EMPTY_DAY, change[2], day);
+            createRow(INSERT_EMPTY_TOTAL, change[2]);
+        }
+        missing = addSales(orderId, sign, changes);
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Sales rows of order " + orderId + " disappeared while being updated");
+        }
+    }
+
+    // Applies the day and total changes together, or none of them when a row does not exist yet;
+    // returns the changes that found no row. Nothing is applied when the order is already counted
+    // (or already taken off), by a rebuild or an earlier change.
+    private List<Object[]> addSales(Long orderId, int sign, List<Object[]> changes) {
+        List<Object[]> totals = new ArrayList<>();
+        for (Object[] change : changes) {
+            totals.add(new Object[]{change[0], change[1], change[2]});
+        }
+        boolean tallied = sign > 0;
+        List<Object[]> missing = tallyTransaction.execute(status -> {
+            if (jdbcTemplate.update(FLIP_TALLIED, tallied, orderId, tallied) == 0) {
+                return List.<Object[]>of();
+            }
+            // Totals before days, in the order a recount of the totals locks them
+            int[] products = jdbcTemplate.batchUpdate(ADD_TOTAL, totals);
+            int[] days = jdbcTemplate.batchUpdate(ADD_SALES, changes);
+            List<Object[]> notFound = new ArrayList<>();
+            for (int i = 0; i < changes.size(); i++) {
+                if (days[i] == 0 || products[i] == 0) {
+                    notFound.add(changes.get(i));
+                }
+            }
+            if (!notFound.isEmpty()) {
+                status.setRollbackOnly();
+            }
+            return notFound;
+        });
+        return missing != null ? missing : List.of();
+    }
+
+    // Committed on its own, unless a concurrent order just created the row
+    private void createRow(String sql, Object... args) {
+        try {
+            tallyTransaction.executeWithoutResult(status -> jdbcTemplate.update(sql, args));
+        } catch (DuplicateKeyException ignored) {
+            // The row exists now either way
+        }
+    }
+
+    // One transaction per chunk. A change committed in between is in both its day row and its
+    // total row, so a later recount of the total includes it exactly once.
+    private void recomputeTotals(List<Long> products) {
+        for (int from = 0; from < products.size(); from += TOTALS_CHUNK) {
+            List<Long> chunk = products.subList(from, Math.min(from + TOTALS_CHUNK, products.size()));
+            String in = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            Object[] ids = chunk.toArray();
+            try {
+                recomputeTotals(in, ids);
+            } catch (DuplicateKeyException ex) {
+                // A change created one of the rows meanwhile; it is found the second time
+                recomputeTotals(in, ids);
+            }
+        }
+    }
+
+    private void recomputeTotals(String in, Object[] ids) {
+        tallyTransaction.executeWithoutResult(status -> {
+            jdbcTemplate.update(ADD_MISSING_TOTALS.formatted(in), ids);
+            jdbcTemplate.update(SET_TOTALS.formatted(in), ids);
+        });
+    }
+}
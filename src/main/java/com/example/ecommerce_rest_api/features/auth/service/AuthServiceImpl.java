@@ -1,5 +1,7 @@
 package com.example.ecommerce_rest_api.features.auth.service;
 
+import com.example.ecommerce_rest_api.features.admin.ENUM.ActivityType;
+import com.example.ecommerce_rest_api.features.admin.event.ActivityEvent;
 import com.example.ecommerce_rest_api.features.auth.DTO.LoginDTO;
 import com.example.ecommerce_rest_api.features.auth.DTO.LoginResponse;
 import com.example.ecommerce_rest_api.features.auth.DTO.RegisterDTO;
@@ -8,6 +10,7 @@ import com.example.ecommerce_rest_api.features.user.entity.User;
 import com.example.ecommerce_rest_api.features.user.repository.UserRepository;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -25,19 +28,22 @@ public class AuthServiceImpl implements AuthService{
     private final JwtTokenProvider jwtTokenProvider;
     private final PasswordEncoder passwordEncoder;
     private final ModelMapper modelMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public AuthServiceImpl(UserRepository userRepository,
                            AuthenticationManager authenticationManager,
                            JwtTokenProvider jwtTokenProvider,
                            PasswordEncoder passwordEncoder,
-                           ModelMapper modelMapper
+                           ModelMapper modelMapper,
+                           ApplicationEventPublisher eventPublisher
     ) {
         this.userRepository = userRepository;
         this.authenticationManager = authenticationManager;
         this.jwtTokenProvider = jwtTokenProvider;
         this.passwordEncoder = passwordEncoder;
         this.modelMapper = modelMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -65,7 +71,9 @@ public class AuthServiceImpl implements AuthService{
         user.setGender(registerDTO.getGender());
         user.setCreatedAt(LocalDateTime.now());
 
-        userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(ActivityEvent.of(ActivityType.USER,
+                "New user " + savedUser.getUsername() + " registered", savedUser.getId()));
 
         return "User registered successfully";
     }
@@ -77,10 +85,10 @@ public class AuthServiceImpl implements AuthService{
         ));
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
-        String token = jwtTokenProvider.generateToken(authentication);
-        User user = userRepository.findByUsername(loginDTO.getUsername()).orElseThrow(
+        User user = userRepository.findByUsername(authentication.getName()).orElseThrow(
                 () -> new RuntimeException("User not found")
         );
+        String token = jwtTokenProvider.generateToken(user);
 
         LoginResponse response = new LoginResponse();
         response.setAccessToken(token);
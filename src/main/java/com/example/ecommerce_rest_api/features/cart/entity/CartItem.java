@@ -1,5 +1,6 @@
 package com.example.ecommerce_rest_api.features.cart.entity;
 
+import com.example.ecommerce_rest_api.common.persistence.IdSequences;
 import com.example.ecommerce_rest_api.features.product.entity.ProductSku;
 import jakarta.persistence.*;
 import lombok.*;
@@ -23,7 +24,8 @@ import java.time.LocalDateTime;
 )
 public class CartItem {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cart_items_id")
+    @SequenceGenerator(name = "cart_items_id", sequenceName = IdSequences.CART_ITEMS, allocationSize = IdSequences.ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -6,6 +6,7 @@ import com.example.ecommerce_rest_api.features.cart.entity.Cart;
 import com.example.ecommerce_rest_api.features.cart.entity.CartItem;
 import com.example.ecommerce_rest_api.features.cart.repository.CartItemRepository;
 import com.example.ecommerce_rest_api.features.cart.repository.CartRepository;
+import com.example.ecommerce_rest_api.features.inventory.service.InventoryReservationService;
 import com.example.ecommerce_rest_api.features.product.entity.ProductSku;
 import com.example.ecommerce_rest_api.features.product.repository.ProductSkuRepository;
 import com.example.ecommerce_rest_api.features.user.entity.User;
@@ -16,6 +17,7 @@ import jakarta.transaction.Transactional;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -25,15 +27,18 @@ public class CartServiceImpl implements CartService{
     private final CartItemRepository cartItemRepository;
     private final UserRepository userRepository;
     private final ProductSkuRepository productSkuRepository;
+    private final InventoryReservationService inventoryReservationService;
 
     public CartServiceImpl(CartRepository cartRepository,
                            CartItemRepository cartItemRepository,
                            UserRepository userRepository,
-                           ProductSkuRepository productSkuRepository) {
+                           ProductSkuRepository productSkuRepository,
+                           InventoryReservationService inventoryReservationService) {
         this.cartRepository = cartRepository;
         this.cartItemRepository = cartItemRepository;
         this.userRepository = userRepository;
         this.productSkuRepository = productSkuRepository;
+        this.inventoryReservationService = inventoryReservationService;
     }
 
     @Override
@@ -55,10 +60,6 @@ public class CartServiceImpl implements CartService{
             throw new RuntimeException("Product SKU is not available");
         }
 
-        if (productSku.getQuantity() < request.getQuantity()) {
-            throw new RuntimeException("Insufficient stock. Available: " + productSku.getQuantity());
-        }
-
         // Check if item already exists in cart
         Optional<CartItem> existingItem = cart.getItems().stream()
                 .filter(item -> item.getProductSku().getId().equals(request.getSkuId()))
@@ -68,10 +69,8 @@ public class CartServiceImpl implements CartService{
             CartItem item = existingItem.get();
             int newQuantity = item.getQuantity() + request.getQuantity();
 
-            if (productSku.getQuantity() < newQuantity) {
-                throw new RuntimeException("Insufficient stock. Available: " + productSku.getQuantity());
-            }
-
+            // The hold takes the extra stock or fails with insufficient stock
+            inventoryReservationService.hold(item, newQuantity);
             item.setQuantity(newQuantity);
             cartItemRepository.save(item);
         } else {
@@ -84,6 +83,7 @@ public class CartServiceImpl implements CartService{
 
             cart.addItem(newItem);
             cartItemRepository.save(newItem);
+            inventoryReservationService.hold(newItem, request.getQuantity());
         }
 
         Cart savedCart = cartRepository.save(cart);
@@ -108,9 +108,7 @@ public class CartServiceImpl implements CartService{
         }
 
         ProductSku productSku = cartItem.getProductSku();
-        if (productSku.getQuantity() < quantity) {
-            throw new RuntimeException("Insufficient stock. Available: " + productSku.getQuantity());
-        }
+        inventoryReservationService.hold(cartItem, quantity);
 
         cartItem.setQuantity(quantity);
         cartItem.setPrice(productSku.getPrice()); // Update price in case it changed
@@ -136,6 +134,7 @@ public class CartServiceImpl implements CartService{
             throw new RuntimeException("Cart item does not belong to this user");
         }
 
+        inventoryReservationService.release(List.of(cartItem));
         cart.removeItem(cartItem);
         cartItemRepository.delete(cartItem);
 
@@ -150,6 +149,7 @@ public class CartServiceImpl implements CartService{
     @Transactional
     public void clearCart(Long userId) {
         Cart cart = getOrCreateCart(userId);
+        inventoryReservationService.release(cart.getItems());
         cartItemRepository.deleteAll(cart.getItems());
         cart.getItems().clear();
         cartRepository.save(cart);
@@ -171,8 +171,9 @@ public class CartServiceImpl implements CartService{
     }
 
     private CartDTO mapToCartDTO(Cart cart) {
+        Map<Long, Integer> held = inventoryReservationService.heldQuantities(cart.getItems());
         List<CartItemDTO> items = cart.getItems().stream()
-                .map(this::mapToCartItemDTO)
+                .map(item -> mapToCartItemDTO(item, held.getOrDefault(item.getId(), 0)))
                 .toList();
 
         return CartDTO.builder()
@@ -186,8 +187,10 @@ public class CartServiceImpl implements CartService{
                 .build();
     }
 
-    private CartItemDTO mapToCartItemDTO(CartItem item) {
+    // Stock held for the line is no longer in the SKU quantity but is still available to this cart
+    private CartItemDTO mapToCartItemDTO(CartItem item, int held) {
         ProductSku sku = item.getProductSku();
+        int availableStock = sku.getQuantity() + held;
 
         return CartItemDTO.builder()
                 .id(item.getId())
@@ -200,8 +203,8 @@ public class CartServiceImpl implements CartService{
                 .price(item.getPrice())
                 .currentPrice(sku.getPrice())
                 .subtotal(item.getSubtotal())
-                .inStock(sku.getQuantity() >= item.getQuantity())
-                .availableStock(sku.getQuantity())
+                .inStock(availableStock >= item.getQuantity())
+                .availableStock(availableStock)
                 .build();
     }
 }
@@ -18,4 +18,7 @@ public interface SubCategoryRepository extends JpaRepository<SubCategory,Long> {
     @Query("select sc from SubCategory sc where sc.deleted_at is null ")
     List<SubCategory> findAllActive();
 
+    @Query("select sc.id from SubCategory sc where sc.deleted_at is null ")
+    List<Long> findAllActiveIds();
+
 }
@@ -0,0 +1,60 @@
+package com.example.ecommerce_rest_api.features.inventory.controller;
+
+import com.example.ecommerce_rest_api.common.response.ResponseApi;
+import com.example.ecommerce_rest_api.features.inventory.dto.FlashSaleRequest;
+import com.example.ecommerce_rest_api.features.inventory.dto.FlashSaleSkuDTO;
+import com.example.ecommerce_rest_api.features.inventory.service.FlashSaleStock;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/admin/flash-sales")
+@Tag(name = "Flash Sales", description = "APIs for switching hot SKUs to sharded flash-sale stock")
+@SecurityRequirement(name = "Bearer Authentication")
+@PreAuthorize("hasRole('ADMIN')")
+public class FlashSaleController {
+
+    private final FlashSaleStock flashSaleStock;
+
+    public FlashSaleController(FlashSaleStock flashSaleStock) {
+        this.flashSaleStock = flashSaleStock;
+    }
+
+    @Operation(summary = "List flash-sale SKUs", description = "SKUs in flash-sale mode on this instance")
+    @GetMapping
+    public ResponseEntity<ResponseApi<List<FlashSaleSkuDTO>>> getFlashSaleSkus() {
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(ResponseApi.success("Flash-sale SKUs retrieved successfully", flashSaleStock.list()));
+    }
+
+    @Operation(summary = "Enable flash-sale mode", description = "Serve checkouts of the SKU from sharded in-memory stock on every instance")
+    @PostMapping("/skus/{skuId}")
+    public ResponseEntity<ResponseApi<FlashSaleSkuDTO>> enableFlashSale(
+            @PathVariable Long skuId,
+            @Valid @RequestBody(required = false) FlashSaleRequest request
+    ) {
+        FlashSaleSkuDTO sku = request != null
+                ? flashSaleStock.enable(skuId, request.getShards(), request.getChunkSize())
+                : flashSaleStock.enable(skuId, null, null);
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(ResponseApi.success("Flash-sale mode enabled", sku));
+    }
+
+    @Operation(summary = "Disable flash-sale mode", description = "Return unsold leased stock to the SKU and use the normal checkout path")
+    @DeleteMapping("/skus/{skuId}")
+    public ResponseEntity<ResponseApi<FlashSaleSkuDTO>> disableFlashSale(@PathVariable Long skuId) {
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(ResponseApi.success("Flash-sale mode disabled", flashSaleStock.disable(skuId)));
+    }
+}
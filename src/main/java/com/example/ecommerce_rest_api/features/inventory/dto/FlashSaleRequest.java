@@ -0,0 +1,23 @@
+package com.example.ecommerce_rest_api.features.inventory.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Both fields fall back to the configured defaults
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlashSaleRequest {
+    @Min(value = 1, message = "At least one shard is required")
+    @Max(value = 256, message = "At most 256 shards")
+    private Integer shards;
+
+    @Min(value = 1, message = "Chunk size must be at least 1")
+    @Max(value = 10000, message = "Chunk size must be at most 10000")
+    private Integer chunkSize;
+}
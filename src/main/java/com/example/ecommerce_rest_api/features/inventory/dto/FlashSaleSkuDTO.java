@@ -0,0 +1,18 @@
+package com.example.ecommerce_rest_api.features.inventory.dto;
+
+import lombok.*;
+
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlashSaleSkuDTO {
+    private Long skuId;
+    private Long productId;
+    private Integer shards;
+    private Integer chunkSize;
+    // Units moved out of the SKU row into the shards and not sold yet
+    private Integer leased;
+    private Long sold;
+}
@@ -0,0 +1,54 @@
+package com.example.ecommerce_rest_api.features.inventory.entity;
+
+import com.example.ecommerce_rest_api.common.persistence.IdSequences;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+// Stock held for one cart line. While the row exists its quantity is already taken out of
+// product_skus.quantity; deleting the row either commits the stock to an order (checkout) or
+// gives it back (cart change, expiry).
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(
+        name = "inventory_reservations",
+        indexes = {
+                @Index(name = "idx_reservation_cart_item", columnList = "cart_item_id", unique = true),
+                @Index(name = "idx_reservation_cart", columnList = "cart_id"),
+                @Index(name = "idx_reservation_expires", columnList = "expires_at")
+        }
+)
+public class InventoryReservation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_reservations_id")
+    @SequenceGenerator(name = "inventory_reservations_id", sequenceName = IdSequences.INVENTORY_RESERVATIONS, allocationSize = IdSequences.ALLOCATION_SIZE)
+    private Long id;
+
+    @Column(name = "cart_id", nullable = false)
+    private Long cartId;
+
+    @Column(name = "cart_item_id", nullable = false)
+    private Long cartItemId;
+
+    @Column(name = "sku_id", nullable = false)
+    private Long skuId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,16 @@
+package com.example.ecommerce_rest_api.features.inventory.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface InventoryReservationBatchRepository {
+
+    record HoldRef(Long id, int quantity) {
+    }
+
+    // Deletes each reservation only if it still holds the given quantity; 1 per row deleted
+    int[] deleteHolds(List<HoldRef> holds);
+
+    // Deletes each reservation only if it is still expired; 1 per row deleted
+    int[] deleteExpired(List<Long> ids, LocalDateTime now);
+}
@@ -0,0 +1,51 @@
+package com.example.ecommerce_rest_api.features.inventory.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class InventoryReservationBatchRepositoryImpl implements InventoryReservationBatchRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String DELETE_HOLD =
+            "delete from inventory_reservations where id = ? and quantity = ?";
+
+    private static final String DELETE_EXPIRED =
+            "delete from inventory_reservations where id = ? and expires_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public InventoryReservationBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int[] deleteHolds(List<HoldRef> holds) {
+        return flatten(holds.size(), jdbcTemplate.batchUpdate(DELETE_HOLD, holds, BATCH_SIZE, (ps, hold) -> {
+            ps.setLong(1, hold.id());
+            ps.setInt(2, hold.quantity());
+        }));
+    }
+
+    @Override
+    public int[] deleteExpired(List<Long> ids, LocalDateTime now) {
+        Timestamp cutoff = Timestamp.valueOf(now);
+        return flatten(ids.size(), jdbcTemplate.batchUpdate(DELETE_EXPIRED, ids, BATCH_SIZE, (ps, id) -> {
+            ps.setLong(1, id);
+            ps.setTimestamp(2, cutoff);
+        }));
+    }
+
+    private static int[] flatten(int size, int[][] batches) {
+        int[] counts = new int[size];
+        int offset = 0;
+        for (int[] batch : batches) {
+            System.arraycopy(batch, 0, counts, offset, batch.length);
+            offset += batch.length;
+        }
+        return counts;
+    }
+}
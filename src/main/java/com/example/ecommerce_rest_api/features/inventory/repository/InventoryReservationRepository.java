@@ -0,0 +1,30 @@
+package com.example.ecommerce_rest_api.features.inventory.repository;
+
+import com.example.ecommerce_rest_api.features.inventory.entity.InventoryReservation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface InventoryReservationRepository extends JpaRepository<InventoryReservation, Long>,
+        InventoryReservationBatchRepository {
+
+    List<InventoryReservation> findByCartItemIdIn(Collection<Long> cartItemIds);
+
+    @Query("select r from InventoryReservation r where r.expiresAt < :now order by r.expiresAt")
+    List<InventoryReservation> findExpired(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Compare-and-set on the quantity this instance last saw; 0 rows means the hold changed or is gone
+    @Modifying
+    @Query("update InventoryReservation r set r.quantity = :quantity, r.expiresAt = :expiresAt " +
+            "where r.id = :id and r.quantity = :expectedQuantity")
+    int updateHold(@Param("id") Long id,
+                   @Param("expectedQuantity") int expectedQuantity,
+                   @Param("quantity") int quantity,
+                   @Param("expiresAt") LocalDateTime expiresAt);
+}
@@ -0,0 +1,554 @@
+package com.example.ecommerce_rest_api.features.inventory.service;
+
+import com.example.ecommerce_rest_api.common.exception.ResourceNotFoundException;
+import com.example.ecommerce_rest_api.features.inventory.dto.FlashSaleSkuDTO;
+import com.example.ecommerce_rest_api.features.product.entity.ProductSku;
+import com.example.ecommerce_rest_api.features.product.repository.ProductRepository;
+import com.example.ecommerce_rest_api.features.product.repository.ProductSkuBulkRepository;
+import com.example.ecommerce_rest_api.features.product.repository.ProductSkuRepository;
+import com.example.ecommerce_rest_api.features.product.service.ProductDetailCache;
+import com.example.ecommerce_rest_api.features.product.service.StockStateTracker;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Flash-sale mode for hot SKUs. Instead of every checkout locking the SKU row, stock is leased
+// from product_skus.quantity in chunks into N in-memory shards that checkouts decrement with CAS.
+// A unit can only be sold after it was moved out of the row, so shards never oversell, also
+// across instances; the cost is that a crashed instance loses its unsold leased units until the
+// stock is corrected. Idle shards are handed back to the row in one batch per reconcile tick.
+// Leases run on one background thread ahead of demand, so a checkout never waits for a lease or
+// needs a second pool connection; when its shards run dry it falls back to the guarded row update.
+// The mode itself is the flash_sale flag of the SKU row; every instance follows it on each tick.
+@Slf4j
+@Component
+public class FlashSaleStock {
+
+    public enum Result { TAKEN, SOLD_OUT, NOT_ACTIVE }
+
+    // Shards sit 16 ints (one cache line) apart so neighbouring shards do not false-share
+    private static final int PADDING = 16;
+
+    private final ProductSkuRepository productSkuRepository;
+    private final ProductRepository productRepository;
+    private final ProductDetailCache productDetailCache;
+    private final StockStateTracker stockStateTracker;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate leaseTransaction;
+    private final int defaultShards;
+    private final int defaultChunkSize;
+    private final long reconcileIntervalMs;
+    private final List<Long> startupSkuIds;
+    private final AtomicInteger threads = new AtomicInteger();
+    private final ExecutorService leaseExecutor;
+
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+    // Serialises turning the mode on and off with following the flags of the rows
+    private final Object modeLock = new Object();
+
+    public FlashSaleStock(ProductSkuRepository productSkuRepository,
+                          ProductRepository productRepository,
+                          ProductDetailCache productDetailCache,
+                          StockStateTracker stockStateTracker,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.inventory.flash-sale.shards:8}") int defaultShards,
+                          @Value("${app.inventory.flash-sale.chunk-size:50}") int defaultChunkSize,
+                          @Value("${app.inventory.flash-sale.reconcile-interval-ms:5000}") long reconcileIntervalMs,
+                          @Value("${app.inventory.flash-sale.sku-ids:}") List<Long> startupSkuIds) {
+        this.productSkuRepository = productSkuRepository;
+        this.productRepository = productRepository;
+        this.productDetailCache = productDetailCache;
+        this.stockStateTracker = stockStateTracker;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Leases commit on their own so the row lock is held only for the lease itself
+        this.leaseTransaction = new TransactionTemplate(transactionManager);
+        this.leaseTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.defaultShards = defaultShards;
+        this.defaultChunkSize = defaultChunkSize;
+        this.reconcileIntervalMs = reconcileIntervalMs;
+        this.startupSkuIds = startupSkuIds;
+        // One thread, so leases hold at most one pool connection at a time
+        this.leaseExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "flash-sale-lease-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("inventory.flash-sale.leased", this, FlashSaleStock::leasedCount)
+                .description("Units leased from SKU rows into flash-sale shards and not sold yet")
+                .register(meterRegistry);
+    }
+
+    // Configured SKUs are switched on unless another instance already did; SKUs already in
+    // flash-sale mode are picked up as well
+    @EventListener(ApplicationReadyEvent.class)
+    public void enableConfiguredSkus() {
+        for (Long skuId : startupSkuIds) {
+            try {
+                productSkuRepository.startFlashSale(skuId);
+            } catch (RuntimeException ex) {
+                log.warn("Could not enable flash-sale mode for SKU {}: {}", skuId, ex.getMessage());
+            }
+        }
+        try {
+            followRows();
+        } catch (RuntimeException ex) {
+            log.warn("Failed to read the flash-sale SKUs", ex);
+        }
+    }
+
+    public FlashSaleSkuDTO enable(Long skuId, Integer shards, Integer chunkSize) {
+        ProductSku sku = productSkuRepository.findById(skuId).orElseThrow(
+                () -> new ResourceNotFoundException("ProductSku", "id", skuId)
+        );
+        if (sku.getDeletedAt() != null) {
+            throw new ResourceNotFoundException("ProductSku", "id", skuId);
+        }
+
+        synchronized (modeLock) {
+            if (counters.containsKey(skuId) || productSkuRepository.startFlashSale(skuId) == 0) {
+                throw new RuntimeException("Flash-sale mode is already on for SKU " + skuId);
+            }
+            // Other instances use the default shards and chunk size
+            Counter counter = new Counter(skuId, sku.getProduct().getId(),
+                    shards != null ? shards : defaultShards,
+                    chunkSize != null ? chunkSize : defaultChunkSize);
+            counters.put(skuId, counter);
+            requestRefill(counter, 0);
+            return toDTO(counter);
+        }
+    }
+
+    // New checkouts go back to the row; the unsold leased units are returned to it, here at once
+    // and by the other instances on their next tick. Until then their quantity cannot be set.
+    public FlashSaleSkuDTO disable(Long skuId) {
+        Counter counter;
+        synchronized (modeLock) {
+            // Two ticks, so every instance has followed the flag and returned its units
+            LocalDateTime settlesAt = LocalDateTime.now().plus(Duration.ofMillis(2 * reconcileIntervalMs));
+            int ended = productSkuRepository.endFlashSale(skuId, settlesAt);
+            counter = counters.remove(skuId);
+            if (counter == null && ended == 0) {
+                throw new ResourceNotFoundException("Flash sale", "skuId", skuId);
+            }
+        }
+        if (counter == null) {
+            // Turned on elsewhere and not picked up here yet
+            return FlashSaleSkuDTO.builder().skuId(skuId).build();
+        }
+        counter.close();
+        returnToRows(List.of(counter));
+        return toDTO(counter);
+    }
+
+    public boolean isActive(Long skuId) {
+        return counters.containsKey(skuId);
+    }
+
+    public List<FlashSaleSkuDTO> list() {
+        return counters.values().stream()
+                .sorted(Comparator.comparing(counter -> counter.skuId))
+                .map(this::toDTO)
+                .toList();
+    }
+
+    // Takes the units from the SKU's shards without waiting for a lease. NOT_ACTIVE means the
+    // caller should use the guarded row update instead, also while a refill is on its way; SOLD_OUT
+    // means the shards cannot cover the quantity and the last lease found the row empty.
+    // Taken units go back to the shards if the transaction rolls back.
+    public Result take(Long skuId, int quantity) {
+        Counter counter = counters.get(skuId);
+        if (counter == null) {
+            return Result.NOT_ACTIVE;
+        }
+        if (!counter.take(quantity)) {
+            if (counter.closed) {
+                return Result.NOT_ACTIVE;
+            }
+            requestRefill(counter, quantity);
+            return counter.rowEmpty ? Result.SOLD_OUT : Result.NOT_ACTIVE;
+        }
+        if (counter.runningLow()) {
+            requestRefill(counter, 0);
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        counter.giveBack(quantity);
+                    }
+                }
+            });
+        }
+        return Result.TAKEN;
+    }
+
+    public long leasedCount() {
+        long total = 0;
+        for (Counter counter : counters.values()) {
+            total += counter.remaining();
+        }
+        return total;
+    }
+
+    // Follows the mode set on the rows by any instance. SKUs that sold nothing since the last tick
+    // hand their leased units back, so stock is not parked in memory after the rush; busy SKUs
+    // keep leasing chunk by chunk
+    @Scheduled(fixedDelayString = "${app.inventory.flash-sale.reconcile-interval-ms:5000}")
+    public void reconcile() {
+        try {
+            followRows();
+        } catch (RuntimeException ex) {
+            log.warn("Failed to read the flash-sale SKUs", ex);
+        }
+
+        List<Counter> idle = new ArrayList<>();
+        for (Counter counter : counters.values()) {
+            long sold = counter.sold.sum();
+            if (sold == counter.soldAtLastReconcile && counter.remaining() > 0) {
+                idle.add(counter);
+            }
+            counter.soldAtLastReconcile = sold;
+        }
+        if (!idle.isEmpty()) {
+            returnToRows(idle);
+        }
+    }
+
+    // Leases that land after the close go straight back to the row on the lease thread, so the
+    // thread is drained before the shards are
+    @PreDestroy
+    public void returnAll() {
+        List<Counter> all = new ArrayList<>(counters.values());
+        all.forEach(Counter::close);
+        leaseExecutor.shutdown();
+        try {
+            if (!leaseExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Flash-sale leases still running at shutdown");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        returnToRows(all);
+    }
+
+    private void followRows() {
+        List<Counter> ended = new ArrayList<>();
+        synchronized (modeLock) {
+            Map<Long, ProductSkuBulkRepository.SkuRef> flagged = new HashMap<>();
+            for (ProductSkuBulkRepository.SkuRef ref : productSkuRepository.findFlashSaleSkus()) {
+                flagged.put(ref.id(), ref);
+                if (!counters.containsKey(ref.id())) {
+                    Counter counter = new Counter(ref.id(), ref.productId(), defaultShards, defaultChunkSize);
+                    counters.put(ref.id(), counter);
+                    requestRefill(counter, 0);
+                }
+            }
+            for (Iterator<Counter> it = counters.values().iterator(); it.hasNext(); ) {
+                Counter counter = it.next();
+                if (!flagged.containsKey(counter.skuId)) {
+                    it.remove();
+                    counter.close();
+                    ended.add(counter);
+                }
+            }
+        }
+        if (!ended.isEmpty()) {
+            returnToRows(ended);
+        }
+    }
+
+    // At most one refill per SKU is queued; a shortfall bigger than the usual lease is leased whole
+    private void requestRefill(Counter counter, int shortfall) {
+        counter.shortfall.accumulateAndGet(shortfall, Math::max);
+        if (!counter.refillPending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            leaseExecutor.execute(() -> refill(counter));
+        } catch (RejectedExecutionException ex) {
+            counter.refillPending.set(false);
+        }
+    }
+
+    private void refill(Counter counter) {
+        try {
+            int wanted = counter.wanted();
+            if (counter.closed || wanted <= 0) {
+                return;
+            }
+            int leased = lease(counter.skuId, counter.productId, wanted);
+            if (leased < 0) {
+                // Turned off by another instance; the next tick drops the counter
+                return;
+            }
+            counter.rowEmpty = leased < wanted;
+            if (leased > 0 && !counter.fill(leased)) {
+                // Closed while the lease ran: the units belong to the row again
+                giveBackToRow(counter, leased);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Failed to lease flash-sale stock for SKU {}", counter.skuId, ex);
+        } finally {
+            counter.refillPending.set(false);
+        }
+    }
+
+    private void giveBackToRow(Counter counter, int units) {
+        leaseTransaction.executeWithoutResult(status -> productSkuRepository.incrementStock(
+                List.of(new ProductSkuBulkRepository.StockChange(counter.skuId, units))));
+    }
+
+    private void returnToRows(List<Counter> drained) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        Set<Long> productIds = new HashSet<>();
+        for (Counter counter : drained) {
+            int units = counter.drain();
+            if (units > 0) {
+                quantities.merge(counter.skuId, units, Integer::sum);
+                productIds.add(counter.productId);
+            }
+        }
+        if (quantities.isEmpty()) {
+            return;
+        }
+
+        List<ProductSkuBulkRepository.StockChange> changes = new ArrayList<>(quantities.size());
+        quantities.forEach((skuId, units) -> changes.add(new ProductSkuBulkRepository.StockChange(skuId, units)));
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                productSkuRepository.incrementStock(changes);
+                productRepository.refreshInventoryStats(productIds);
+                stockStateTracker.sync(productIds);
+            });
+            productDetailCache.invalidate(productIds);
+            for (Counter counter : drained) {
+                if (quantities.containsKey(counter.skuId)) {
+                    counter.rowEmpty = false;
+                }
+            }
+        } catch (RuntimeException ex) {
+            // Keep the units leased so the next reconcile retries; a closed counter cannot hold them
+            for (Counter counter : drained) {
+                Integer units = quantities.get(counter.skuId);
+                if (units != null && !counter.restore(units)) {
+                    log.error("Lost {} leased units of SKU {}; its quantity needs a manual correction", units, counter.skuId);
+                }
+            }
+            log.warn("Failed to return flash-sale stock for {} SKUs", quantities.size(), ex);
+        }
+    }
+
+    // Runs on the lease thread in its own transaction; the lease is committed before any unit of
+    // it is sold. -1 when the mode was turned off on the row.
+    private int lease(Long skuId, Long productId, int units) {
+        Integer leased = leaseTransaction.execute(status -> {
+            int taken = productSkuRepository.leaseStock(skuId, units);
+            if (taken > 0) {
+                productRepository.refreshInventoryStats(Set.of(productId));
+                stockStateTracker.sync(Set.of(productId));
+            }
+            return taken;
+        });
+        if (leased == null) {
+            return 0;
+        }
+        if (leased > 0) {
+            productDetailCache.invalidate(productId);
+        }
+        return leased;
+    }
+
+    private FlashSaleSkuDTO toDTO(Counter counter) {
+        return FlashSaleSkuDTO.builder()
+                .skuId(counter.skuId)
+                .productId(counter.productId)
+                .shards(counter.shardCount)
+                .chunkSize(counter.chunkSize)
+                .leased(counter.remaining())
+                .sold(counter.sold.sum())
+                .build();
+    }
+
+    private final class Counter {
+        private final Long skuId;
+        private final Long productId;
+        private final int shardCount;
+        private final int chunkSize;
+        private final AtomicIntegerArray shards;
+        private final LongAdder sold = new LongAdder();
+        private final Object leaseLock = new Object();
+        private final AtomicBoolean refillPending = new AtomicBoolean();
+        private final AtomicInteger shortfall = new AtomicInteger();
+        private volatile boolean closed;
+        private volatile boolean rowEmpty;
+        private long soldAtLastReconcile;
+
+        private Counter(Long skuId, Long productId, int shardCount, int chunkSize) {
+            this.skuId = skuId;
+            this.productId = productId;
+            this.shardCount = shardCount;
+            this.chunkSize = chunkSize;
+            this.shards = new AtomicIntegerArray(shardCount * PADDING);
+        }
+
+        private int home() {
+            return (int) (Thread.currentThread().threadId() % shardCount) * PADDING;
+        }
+
+        private boolean take(int quantity) {
+            // The home shard first; when it runs short, what the other shards hold together
+            if (takeFrom(home(), quantity) || gather(quantity)) {
+                sold.add(quantity);
+                return true;
+            }
+            return false;
+        }
+
+        // Half a chunk left in the home shard: lease the next one before checkouts run dry
+        private boolean runningLow() {
+            return !rowEmpty && shards.get(home()) < Math.max(1, chunkSize / 2);
+        }
+
+        // Tops every shard up to a chunk, and covers the largest quantity that missed
+        private int wanted() {
+            return Math.max(chunkSize * shardCount - remaining(), shortfall.getAndSet(0));
+        }
+
+        private boolean takeFrom(int index, int quantity) {
+            while (true) {
+                int available = shards.get(index);
+                if (available < quantity) {
+                    return false;
+                }
+                if (shards.compareAndSet(index, available, available - quantity)) {
+                    return true;
+                }
+            }
+        }
+
+        // Spreads leased units over the shards, emptiest first up to a chunk each; the rest goes
+        // to the first shard
+        private boolean fill(int units) {
+            synchronized (leaseLock) {
+                if (closed) {
+                    return false;
+                }
+                int left = units;
+                for (int shard = 0; shard < shardCount && left > 0; shard++) {
+                    int index = shard * PADDING;
+                    int part = Math.min(left, Math.max(0, chunkSize - shards.get(index)));
+                    if (part > 0) {
+                        shards.addAndGet(index, part);
+                        left -= part;
+                    }
+                }
+                if (left > 0) {
+                    shards.addAndGet(0, left);
+                }
+                return true;
+            }
+        }
+
+        private boolean gather(int quantity) {
+            int[] taken = new int[shardCount];
+            int needed = quantity;
+            for (int shard = 0; shard < shardCount && needed > 0; shard++) {
+                int index = shard * PADDING;
+                while (needed > 0) {
+                    int available = shards.get(index);
+                    if (available == 0) {
+                        break;
+                    }
+                    int part = Math.min(available, needed);
+                    if (shards.compareAndSet(index, available, available - part)) {
+                        taken[shard] += part;
+                        needed -= part;
+                    }
+                }
+            }
+            if (needed > 0) {
+                for (int shard = 0; shard < shardCount; shard++) {
+                    if (taken[shard] > 0) {
+                        shards.addAndGet(shard * PADDING, taken[shard]);
+                    }
+                }
+                return false;
+            }
+            return true;
+        }
+
+        private void giveBack(int quantity) {
+            sold.add(-quantity);
+            if (restore(quantity)) {
+                return;
+            }
+            // The counter was drained for good, so the units go straight back to the row, from the
+            // lease thread rather than next to the connection of the completing transaction
+            try {
+                leaseExecutor.execute(() -> giveBackToRow(this, quantity));
+            } catch (RejectedExecutionException ex) {
+                giveBackToRow(this, quantity);
+            }
+        }
+
+        private boolean restore(int quantity) {
+            synchronized (leaseLock) {
+                if (closed) {
+                    return false;
+                }
+                shards.addAndGet(0, quantity);
+                return true;
+            }
+        }
+
+        private int remaining() {
+            int total = 0;
+            for (int shard = 0; shard < shardCount; shard++) {
+                total += shards.get(shard * PADDING);
+            }
+            return total;
+        }
+
+        private int drain() {
+            int total = 0;
+            for (int shard = 0; shard < shardCount; shard++) {
+                total += shards.getAndSet(shard * PADDING, 0);
+            }
+            return total;
+        }
+
+        // Under the lease lock, so no lease lands in a counter that is being drained for good
+        private void close() {
+            synchronized (leaseLock) {
+                closed = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.ecommerce_rest_api.features.inventory.service;
+
+import com.example.ecommerce_rest_api.features.cart.entity.CartItem;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface InventoryReservationService {
+
+    // Sets the cart line's hold to the given quantity, taking or returning only the difference
+    void hold(CartItem item, int quantity);
+
+    // Gives the held stock of the cart lines back and drops their holds
+    void release(Collection<CartItem> items);
+
+    // Turns the holds of the cart lines into sold stock; returns the held quantity by cart item id
+    Map<Long, Integer> consume(Collection<CartItem> items);
+
+    // Held quantity by cart item id; lines without a hold are absent
+    Map<Long, Integer> heldQuantities(Collection<CartItem> items);
+
+    void releaseExpired();
+}
@@ -0,0 +1,333 @@
+package com.example.ecommerce_rest_api.features.inventory.service;
+
+import com.example.ecommerce_rest_api.features.cart.entity.CartItem;
+import com.example.ecommerce_rest_api.features.inventory.entity.InventoryReservation;
+import com.example.ecommerce_rest_api.features.inventory.repository.InventoryReservationBatchRepository;
+import com.example.ecommerce_rest_api.features.inventory.repository.InventoryReservationRepository;
+import com.example.ecommerce_rest_api.features.product.entity.ProductSku;
+import com.example.ecommerce_rest_api.features.product.repository.ProductRepository;
+import com.example.ecommerce_rest_api.features.product.repository.ProductSkuBulkRepository;
+import com.example.ecommerce_rest_api.features.product.repository.ProductSkuRepository;
+import com.example.ecommerce_rest_api.features.product.service.ProductDetailCache;
+import com.example.ecommerce_rest_api.features.product.service.StockStateTracker;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Cart lines hold their stock for a limited time. While a reservation row exists its quantity
+// is already taken out of product_skus.quantity, so deleting the row is what decides who gets
+// the stock: checkout keeps it, a cart change or the expiry sweep gives it back. Every delete
+// and update is conditional, which keeps concurrent requests and instances from releasing the
+// same hold twice. Admin stock edits set the stock on hand and subtract the outstanding holds
+// (see ProductSkuBulkRepositoryImpl), so releasing a hold afterwards does not inflate it.
+@Slf4j
+@Service
+public class InventoryReservationServiceImpl implements InventoryReservationService {
+
+    private final InventoryReservationRepository reservationRepository;
+    private final ProductSkuRepository productSkuRepository;
+    private final ProductRepository productRepository;
+    private final ProductDetailCache productDetailCache;
+    private final StockStateTracker stockStateTracker;
+    private final FlashSaleStock flashSaleStock;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final int sweepBatchSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Holds by cart item id as this instance last saw them. Writes compare against the row's
+    // quantity, so an entry gone stale through another instance only costs a reload.
+    private final Map<Long, Hold> holds = new ConcurrentHashMap<>();
+
+    private record Hold(Long id, Long skuId, Long productId, int quantity) {
+    }
+
+    public InventoryReservationServiceImpl(InventoryReservationRepository reservationRepository,
+                                           ProductSkuRepository productSkuRepository,
+                                           ProductRepository productRepository,
+                                           ProductDetailCache productDetailCache,
+                                           StockStateTracker stockStateTracker,
+                                           FlashSaleStock flashSaleStock,
+                                           TransactionTemplate transactionTemplate,
+                                           @Value("${app.inventory.reservation.ttl-minutes:15}") long ttlMinutes,
+                                           @Value("${app.inventory.reservation.sweep-batch-size:500}") int sweepBatchSize) {
+        this.reservationRepository = reservationRepository;
+        this.productSkuRepository = productSkuRepository;
+        this.productRepository = productRepository;
+        this.productDetailCache = productDetailCache;
+        this.stockStateTracker = stockStateTracker;
+        this.flashSaleStock = flashSaleStock;
+        this.transactionTemplate = transactionTemplate;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.sweepBatchSize = sweepBatchSize;
+    }
+
+    @Override
+    @Transactional
+    public void hold(CartItem item, int quantity) {
+        ProductSku sku = item.getProductSku();
+        Long productId = sku.getProduct().getId();
+        LocalDateTime expiresAt = LocalDateTime.now().plus(ttl);
+
+        Hold current = holds.get(item.getId());
+        if (current == null || !extend(current, quantity, expiresAt)) {
+            current = load(List.of(item.getId())).get(item.getId());
+            if (current != null && !extend(current, quantity, expiresAt)) {
+                throw new RuntimeException("Cart item was changed concurrently, please try again");
+            }
+        }
+
+        int held = 0;
+        Hold next;
+        if (current != null) {
+            held = current.quantity();
+            next = new Hold(current.id(), sku.getId(), productId, quantity);
+        } else {
+            InventoryReservation reservation = reservationRepository.save(InventoryReservation.builder()
+                    .cartId(item.getCart().getId())
+                    .cartItemId(item.getId())
+                    .skuId(sku.getId())
+                    .productId(productId)
+                    .quantity(quantity)
+                    .expiresAt(expiresAt)
+                    .build());
+            next = toHold(reservation);
+        }
+
+        int delta = quantity - held;
+        boolean rowChanged = delta != 0;
+        if (delta > 0) {
+            // Flash-sale SKUs take from their shards and leave the row alone
+            FlashSaleStock.Result flash = flashSaleStock.take(sku.getId(), delta);
+            if (flash == FlashSaleStock.Result.SOLD_OUT) {
+                throw new RuntimeException("Insufficient stock. Available: " + held);
+            }
+            if (flash == FlashSaleStock.Result.TAKEN) {
+                rowChanged = false;
+            } else if (productSkuRepository.decrementStock(
+                    List.of(new ProductSkuBulkRepository.StockChange(sku.getId(), delta)))[0] == 0) {
+                throw new RuntimeException("Insufficient stock. Available: " + (sku.getQuantity() + held));
+            }
+        } else if (delta < 0) {
+            productSkuRepository.incrementStock(
+                    List.of(new ProductSkuBulkRepository.StockChange(sku.getId(), -delta)));
+        }
+        if (rowChanged) {
+            // The stock moved underneath the managed entity; reload it for the response
+            if (entityManager.contains(sku)) {
+                entityManager.refresh(sku);
+            }
+            stockChanged(Set.of(productId));
+        }
+
+        Long cartItemId = item.getId();
+        afterCommit(() -> holds.put(cartItemId, next));
+    }
+
+    @Override
+    @Transactional
+    public void release(Collection<CartItem> items) {
+        Collection<Hold> released = deleteHolds(cartItemIds(items)).values();
+        if (released.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Integer> quantities = new TreeMap<>();
+        Set<Long> productIds = new HashSet<>();
+        for (Hold hold : released) {
+            quantities.merge(hold.skuId(), hold.quantity(), Integer::sum);
+            productIds.add(hold.productId());
+        }
+        returnStock(quantities, productIds);
+    }
+
+    @Override
+    @Transactional
+    public Map<Long, Integer> consume(Collection<CartItem> items) {
+        Map<Long, Integer> consumed = new HashMap<>();
+        deleteHolds(cartItemIds(items)).forEach((cartItemId, hold) -> consumed.put(cartItemId, hold.quantity()));
+        return consumed;
+    }
+
+    @Override
+    public Map<Long, Integer> heldQuantities(Collection<CartItem> items) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long cartItemId : cartItemIds(items)) {
+            Hold hold = holds.get(cartItemId);
+            if (hold != null) {
+                quantities.put(cartItemId, hold.quantity());
+            } else {
+                misses.add(cartItemId);
+            }
+        }
+        if (!misses.isEmpty()) {
+            load(misses).forEach((cartItemId, hold) -> quantities.put(cartItemId, hold.quantity()));
+        }
+        return quantities;
+    }
+
+    // Expired holds are released in batches of one transaction each until none are left
+    @Override
+    @Scheduled(fixedDelayString = "${app.inventory.reservation.sweep-interval-ms:30000}")
+    public void releaseExpired() {
+        int released = 0;
+        int batch;
+        do {
+            batch = Objects.requireNonNull(transactionTemplate.execute(status -> releaseExpiredBatch()));
+            released += batch;
+        } while (batch == sweepBatchSize);
+        if (released > 0) {
+            log.info("Released {} expired inventory reservations", released);
+        }
+    }
+
+    private int releaseExpiredBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<InventoryReservation> expired = reservationRepository.findExpired(now, PageRequest.of(0, sweepBatchSize));
+        if (expired.isEmpty()) {
+            return 0;
+        }
+
+        int[] counts = reservationRepository.deleteExpired(
+                expired.stream().map(InventoryReservation::getId).toList(), now);
+
+        // A row that was not deleted was extended or taken by a concurrent request
+        Map<Long, Integer> quantities = new TreeMap<>();
+        Set<Long> productIds = new HashSet<>();
+        Map<Long, Long> released = new HashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 1) {
+                InventoryReservation reservation = expired.get(i);
+                quantities.merge(reservation.getSkuId(), reservation.getQuantity(), Integer::sum);
+                productIds.add(reservation.getProductId());
+                released.put(reservation.getCartItemId(), reservation.getId());
+            }
+        }
+        if (!released.isEmpty()) {
+            returnStock(quantities, productIds);
+            afterCommit(() -> released.forEach(this::forget));
+        }
+        return expired.size();
+    }
+
+    private boolean extend(Hold hold, int quantity, LocalDateTime expiresAt) {
+        return reservationRepository.updateHold(hold.id(), hold.quantity(), quantity, expiresAt) == 1;
+    }
+
+    // Deletes the holds of the cart lines, trying the cached quantities first and the table for
+    // any that missed; returns the holds actually deleted by cart item id
+    private Map<Long, Hold> deleteHolds(List<Long> cartItemIds) {
+        Map<Long, Hold> deleted = new HashMap<>();
+        if (cartItemIds.isEmpty()) {
+            return deleted;
+        }
+
+        Map<Long, Hold> cached = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long cartItemId : cartItemIds) {
+            Hold hold = holds.get(cartItemId);
+            if (hold != null) {
+                cached.put(cartItemId, hold);
+            } else {
+                misses.add(cartItemId);
+            }
+        }
+        misses.addAll(deleteMatching(cached, deleted));
+        if (!misses.isEmpty()) {
+            deleteMatching(load(misses), deleted);
+        }
+
+        Map<Long, Long> deletedIds = new HashMap<>();
+        deleted.forEach((cartItemId, hold) -> deletedIds.put(cartItemId, hold.id()));
+        afterCommit(() -> deletedIds.forEach(this::forget));
+        return deleted;
+    }
+
+    // Returns the cart item ids whose hold was not deleted
+    private List<Long> deleteMatching(Map<Long, Hold> candidates, Map<Long, Hold> deleted) {
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+        List<Map.Entry<Long, Hold>> entries = new ArrayList<>(candidates.entrySet());
+        int[] counts = reservationRepository.deleteHolds(entries.stream()
+                .map(entry -> new InventoryReservationBatchRepository.HoldRef(entry.getValue().id(), entry.getValue().quantity()))
+                .toList());
+
+        List<Long> missed = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            Map.Entry<Long, Hold> entry = entries.get(i);
+            if (counts[i] == 1) {
+                deleted.put(entry.getKey(), entry.getValue());
+            } else {
+                missed.add(entry.getKey());
+            }
+        }
+        return missed;
+    }
+
+    // Reads the holds from the table and refreshes the in-memory copies
+    private Map<Long, Hold> load(List<Long> cartItemIds) {
+        Map<Long, Hold> loaded = new HashMap<>();
+        for (InventoryReservation reservation : reservationRepository.findByCartItemIdIn(cartItemIds)) {
+            Hold hold = toHold(reservation);
+            loaded.put(reservation.getCartItemId(), hold);
+            holds.put(reservation.getCartItemId(), hold);
+        }
+        return loaded;
+    }
+
+    private void returnStock(Map<Long, Integer> quantitiesBySkuId, Set<Long> productIds) {
+        List<ProductSkuBulkRepository.StockChange> changes = new ArrayList<>(quantitiesBySkuId.size());
+        quantitiesBySkuId.forEach((skuId, quantity) -> changes.add(new ProductSkuBulkRepository.StockChange(skuId, quantity)));
+        productSkuRepository.incrementStock(changes);
+        stockChanged(productIds);
+    }
+
+    private void stockChanged(Set<Long> productIds) {
+        productRepository.refreshInventoryStats(productIds);
+        stockStateTracker.sync(productIds);
+        productDetailCache.invalidate(productIds);
+    }
+
+    // Drops the cached hold unless it was replaced by a newer reservation meanwhile
+    private void forget(Long cartItemId, Long reservationId) {
+        holds.computeIfPresent(cartItemId, (id, hold) -> hold.id().equals(reservationId) ? null : hold);
+    }
+
+    private static List<Long> cartItemIds(Collection<CartItem> items) {
+        return items.stream().map(CartItem::getId).filter(Objects::nonNull).toList();
+    }
+
+    private static Hold toHold(InventoryReservation reservation) {
+        return new Hold(reservation.getId(), reservation.getSkuId(), reservation.getProductId(), reservation.getQuantity());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -5,6 +5,8 @@ import com.example.ecommerce_rest_api.common.response.ResponseApi;
 import com.example.ecommerce_rest_api.features.order.dto.OrderCreateRequest;
 import com.example.ecommerce_rest_api.features.order.dto.OrderDTO;
 import com.example.ecommerce_rest_api.features.order.dto.OrderStatusUpdateRequest;
+import com.example.ecommerce_rest_api.features.order.export.OrderExportFormat;
+import com.example.ecommerce_rest_api.features.order.service.OrderExportService;
 import com.example.ecommerce_rest_api.features.order.service.OrderService;
 import com.example.ecommerce_rest_api.utils.AppConstants;
 import com.example.ecommerce_rest_api.utils.SecurityUtils;
@@ -12,10 +14,17 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
 
 @RestController
 @RequestMapping("/api/v1/orders")
@@ -24,10 +33,12 @@ import org.springframework.web.bind.annotation.*;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderExportService orderExportService;
     private final SecurityUtils securityUtils;
 
-    public OrderController(OrderService orderService, SecurityUtils securityUtils) {
+    public OrderController(OrderService orderService, OrderExportService orderExportService, SecurityUtils securityUtils) {
         this.orderService = orderService;
+        this.orderExportService = orderExportService;
         this.securityUtils = securityUtils;
     }
 
@@ -49,7 +60,7 @@ public class OrderController {
     @GetMapping("/{orderId}")
     public ResponseEntity<ResponseApi<OrderDTO>> getOrderById(@PathVariable Long orderId) {
         Long userId = securityUtils.getCurrentUserId();
-        String role = securityUtils.getCurrentUser().getRole().name();
+        String role = securityUtils.getCurrentRole().name();
 
         OrderDTO order = orderService.getOrderById(orderId, userId, role);
 
@@ -65,10 +76,11 @@ public class OrderController {
             @RequestParam(value = "pageNo", defaultValue = AppConstants.DEFAULT_PAGE_NUMBER, required = false) int pageNo,
             @RequestParam(value = "pageSize", defaultValue = AppConstants.DEFAULT_PAGE_SIZE, required = false) int pageSize,
             @RequestParam(value = "sortBy", defaultValue = "createdAt", required = false) String sortBy,
-            @RequestParam(value = "sortDir", defaultValue = "DESC", required = false) String sortDir
+            @RequestParam(value = "sortDir", defaultValue = "DESC", required = false) String sortDir,
+            @RequestParam(value = "after", required = false) String after
     ) {
         Long userId = securityUtils.getCurrentUserId();
-        PageResponse<OrderDTO> orders = orderService.getUserOrders(userId, pageNo, pageSize, sortBy, sortDir);
+        PageResponse<OrderDTO> orders = orderService.getUserOrders(userId, pageNo, pageSize, sortBy, sortDir, after);
         return ResponseEntity
                 .status(HttpStatus.OK)
                 .body(ResponseApi.success("Orders retrieved successfully", orders));
@@ -82,14 +94,36 @@ public class OrderController {
             @RequestParam(value = "pageSize", defaultValue = AppConstants.DEFAULT_PAGE_SIZE, required = false) int pageSize,
             @RequestParam(value = "sortBy", defaultValue = "createdAt", required = false) String sortBy,
             @RequestParam(value = "sortDir", defaultValue = "DESC", required = false) String sortDir,
-            @RequestParam(value = "status", required = false) String status
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "after", required = false) String after
     ) {
-        PageResponse<OrderDTO> orders = orderService.getAllOrders(pageNo, pageSize, sortBy, sortDir, status);
+        PageResponse<OrderDTO> orders = orderService.getAllOrders(pageNo, pageSize, sortBy, sortDir, status, after);
         return ResponseEntity
                 .status(HttpStatus.OK)
                 .body(ResponseApi.success("Orders retrieved successfully", orders));
     }
 
+    @Operation(summary = "Export orders", description = "Stream orders and their line items created in a date range as CSV or NDJSON. Admin only.")
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(value = "format", defaultValue = "csv", required = false) String format,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "gzip", defaultValue = "false", required = false) boolean gzip
+    ) {
+        OrderExportFormat exportFormat = OrderExportFormat.fromName(format);
+        StreamingResponseBody body = orderExportService.exportOrders(exportFormat, startDate, endDate, status, gzip);
+
+        String filename = "orders-" + startDate + "-" + endDate + exportFormat.extension() + (gzip ? ".gz" : "");
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip") : exportFormat.mediaType())
+                .body(body);
+    }
+
     @Operation(summary = "Update order status", description = "Update order status. Admin only.")
     @PreAuthorize("hasRole('ADMIN')")
     @PatchMapping("/{orderId}/status")
@@ -1,5 +1,6 @@
 package com.example.ecommerce_rest_api.features.order.entity;
 
+import com.example.ecommerce_rest_api.common.persistence.IdSequences;
 import com.example.ecommerce_rest_api.features.order.ENUM.OrderStatus;
 import com.example.ecommerce_rest_api.features.order.ENUM.PaymentMethod;
 import com.example.ecommerce_rest_api.features.order.ENUM.PaymentStatus;
@@ -24,13 +25,16 @@ import java.util.List;
         indexes = {
                 @Index(name = "idx_order_user", columnList = "user_id"),
                 @Index(name = "idx_order_number", columnList = "order_number", unique = true),
-                @Index(name = "idx_order_status", columnList = "status")
+                @Index(name = "idx_order_status", columnList = "status"),
+                @Index(name = "idx_order_created_at", columnList = "created_at, id"),
+                @Index(name = "idx_order_delivered_at", columnList = "delivered_at")
         }
 )
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_id")
+    @SequenceGenerator(name = "orders_id", sequenceName = IdSequences.ORDERS, allocationSize = IdSequences.ALLOCATION_SIZE)
     private Long id;
 
     @Column(name = "order_number", nullable = false, unique = true)
@@ -40,6 +44,10 @@ public class Order {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    // Copy of user.username so order listings need no join to users
+    @Column(name = "username")
+    private String username;
+
     @Builder.Default
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<OrderItem> items = new ArrayList<>();
@@ -107,6 +115,11 @@ public class Order {
     @Column(name = "delivered_at")
     private LocalDateTime deliveredAt;
 
+    // Whether product_sales_daily counts the order; written only by ProductSalesTally. Null for
+    // orders from before the flag, which were counted while they were delivered.
+    @Column(name = "sales_tallied", insertable = false, updatable = false)
+    private Boolean salesTallied;
+
     public void addItem(OrderItem item) {
         items.add(item);
         item.setOrder(this);
@@ -1,5 +1,6 @@
 package com.example.ecommerce_rest_api.features.order.entity;
 
+import com.example.ecommerce_rest_api.common.persistence.IdSequences;
 import com.example.ecommerce_rest_api.features.product.entity.ProductSku;
 import jakarta.persistence.*;
 import lombok.*;
@@ -10,11 +11,15 @@ import lombok.*;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "order_items")
+@Table(
+        name = "order_items",
+        indexes = @Index(name = "idx_order_item_order", columnList = "order_id, id")
+)
 public class OrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_id")
+    @SequenceGenerator(name = "order_items_id", sequenceName = IdSequences.ORDER_ITEMS, allocationSize = IdSequences.ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
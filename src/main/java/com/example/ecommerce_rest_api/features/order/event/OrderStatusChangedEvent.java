@@ -0,0 +1,21 @@
+package com.example.ecommerce_rest_api.features.order.event;
+
+import com.example.ecommerce_rest_api.features.order.ENUM.OrderStatus;
+
+import java.time.LocalDateTime;
+
+// Published when an order is placed (previousStatus is null) or moves to another status
+public record OrderStatusChangedEvent(Long orderId,
+                                      LocalDateTime orderCreatedAt,
+                                      OrderStatus previousStatus,
+                                      OrderStatus status,
+                                      double total) {
+
+    public static OrderStatusChangedEvent placed(Long orderId, LocalDateTime createdAt, OrderStatus status, double total) {
+        return new OrderStatusChangedEvent(orderId, createdAt, null, status, total);
+    }
+
+    public boolean isPlacement() {
+        return previousStatus == null;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.ecommerce_rest_api.features.order.export;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+
+// RFC 4180 CSV with a header row; fields are quoted only when they need it. Text that a
+// spreadsheet would run as a formula (usernames and product names come from users) is prefixed
+// with an apostrophe; numbers and dates are written as they are, so negative amounts stay numbers.
+public class CsvOrderExportWriter implements OrderExportWriter {
+
+    private static final String HEADER = "orderId,orderNumber,createdAt,deliveredAt,status,paymentMethod,paymentStatus," +
+            "username,subtotal,shippingCost,tax,discount,total,sku,productName,quantity,unitPrice,lineSubtotal\r\n";
+
+    private final Writer writer;
+    private boolean headerWritten;
+
+    public CsvOrderExportWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void write(OrderExportRow row) throws IOException {
+        if (!headerWritten) {
+            writeHeader();
+        }
+        field(row.orderId(), false);
+        field(row.orderNumber(), true);
+        field(row.createdAt(), true);
+        field(row.deliveredAt(), true);
+        field(row.status(), true);
+        field(row.paymentMethod(), true);
+        field(row.paymentStatus(), true);
+        field(row.username(), true);
+        field(row.subtotal(), true);
+        field(row.shippingCost(), true);
+        field(row.tax(), true);
+        field(row.discount(), true);
+        field(row.total(), true);
+        field(row.sku(), true);
+        field(row.productName(), true);
+        field(row.quantity(), true);
+        field(row.unitPrice(), true);
+        field(row.lineSubtotal(), true);
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void close() throws IOException {
+        // An empty export still gets its header
+        if (!headerWritten) {
+            writeHeader();
+        }
+        writer.close();
+    }
+
+    private void writeHeader() throws IOException {
+        writer.write(HEADER);
+        headerWritten = true;
+    }
+
+    private void field(Object value, boolean separator) throws IOException {
+        if (separator) {
+            writer.write(',');
+        }
+        if (value == null) {
+            return;
+        }
+        // Plain notation for amounts: 12500000.0, not 1.25E7
+        String text = value instanceof Double amount ? BigDecimal.valueOf(amount).toPlainString() : value.toString();
+        if (value instanceof String && startsFormula(text)) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static boolean startsFormula(String text) {
+        if (text.isEmpty()) {
+            return false;
+        }
+        char first = text.charAt(0);
+        return first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r';
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.ecommerce_rest_api.features.order.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.Writer;
+
+// One OrderExportRow JSON object per line
+public class NdjsonOrderExportWriter implements OrderExportWriter {
+
+    private final Writer writer;
+    private final ObjectMapper objectMapper;
+
+    public NdjsonOrderExportWriter(Writer writer, ObjectMapper objectMapper) {
+        this.writer = writer;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void write(OrderExportRow row) throws IOException {
+        writer.write(objectMapper.writeValueAsString(row));
+        writer.write('\n');
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
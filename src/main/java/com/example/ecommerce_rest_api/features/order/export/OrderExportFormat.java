@@ -0,0 +1,33 @@
+package com.example.ecommerce_rest_api.features.order.export;
+
+import org.springframework.http.MediaType;
+
+public enum OrderExportFormat {
+    CSV("text/csv", ".csv"),
+    NDJSON("application/x-ndjson", ".ndjson");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    OrderExportFormat(String mediaType, String extension) {
+        this.mediaType = MediaType.parseMediaType(mediaType + ";charset=UTF-8");
+        this.extension = extension;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public static OrderExportFormat fromName(String name) {
+        for (OrderExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported export format: " + name);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.ecommerce_rest_api.features.order.export;
+
+import java.time.LocalDateTime;
+
+// One line item with the columns of its order; an order without items has null item columns
+public record OrderExportRow(Long orderId,
+                             String orderNumber,
+                             LocalDateTime createdAt,
+                             LocalDateTime deliveredAt,
+                             String status,
+                             String paymentMethod,
+                             String paymentStatus,
+                             String username,
+                             Double subtotal,
+                             Double shippingCost,
+                             Double tax,
+                             Double discount,
+                             Double total,
+                             String sku,
+                             String productName,
+                             Integer quantity,
+                             Double unitPrice,
+                             Double lineSubtotal) {
+}
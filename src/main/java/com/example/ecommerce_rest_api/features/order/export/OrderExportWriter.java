@@ -0,0 +1,9 @@
+package com.example.ecommerce_rest_api.features.order.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+public interface OrderExportWriter extends Closeable {
+
+    void write(OrderExportRow row) throws IOException;
+}
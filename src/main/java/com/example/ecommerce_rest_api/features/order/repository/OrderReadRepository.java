@@ -0,0 +1,18 @@
+package com.example.ecommerce_rest_api.features.order.repository;
+
+import com.example.ecommerce_rest_api.features.order.ENUM.OrderStatus;
+import com.example.ecommerce_rest_api.features.order.dto.OrderDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+// Order history read model: pages are projected straight into DTOs, one query for the orders
+// and one for all of their items, without loading Order entities. Null filters match everything.
+public interface OrderReadRepository {
+
+    Page<OrderDTO> findOrderPage(Long userId, OrderStatus status, Pageable pageable);
+
+    Window<OrderDTO> findOrderWindow(Long userId, OrderStatus status, ScrollPosition position, Sort sort, int limit);
+}
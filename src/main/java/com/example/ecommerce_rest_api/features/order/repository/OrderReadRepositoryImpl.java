@@ -0,0 +1,212 @@
+package com.example.ecommerce_rest_api.features.order.repository;
+
+import com.example.ecommerce_rest_api.features.order.ENUM.OrderStatus;
+import com.example.ecommerce_rest_api.features.order.ENUM.PaymentMethod;
+import com.example.ecommerce_rest_api.features.order.ENUM.PaymentStatus;
+import com.example.ecommerce_rest_api.features.order.dto.OrderDTO;
+import com.example.ecommerce_rest_api.features.order.dto.OrderItemDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.*;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+
+public class OrderReadRepositoryImpl implements OrderReadRepository {
+
+    private static final String ORDER_COLUMNS =
+            "o.id as id, o.orderNumber as orderNumber, o.user.id as userId, o.username as username, " +
+            "o.status as status, o.paymentMethod as paymentMethod, o.paymentStatus as paymentStatus, " +
+            "o.subtotal as subtotal, o.shippingCost as shippingCost, o.tax as tax, o.discount as discount, " +
+            "o.total as total, o.shippingName as shippingName, o.shippingPhone as shippingPhone, " +
+            "o.shippingAddressLine1 as shippingAddressLine1, o.shippingAddressLine2 as shippingAddressLine2, " +
+            "o.shippingCity as shippingCity, o.shippingCountry as shippingCountry, " +
+            "o.shippingPostalCode as shippingPostalCode, o.notes as notes, o.createdAt as createdAt, " +
+            "o.deliveredAt as deliveredAt";
+
+    private static final String ITEM_COLUMNS =
+            "select i.order.id as orderId, i.id as id, i.productName as productName, i.skuCode as skuCode, " +
+            "i.quantity as quantity, i.price as price, i.subtotal as subtotal " +
+            "from OrderItem i where i.order.id in :orderIds order by i.id";
+
+    // Sort keys from requests are checked against this map before they reach the query;
+    // the getters give the keyset position of a row. Cursors use only the non-null ones.
+    private static final Map<String, Function<OrderDTO, Object>> SORT_KEYS = Map.of(
+            "id", OrderDTO::getId,
+            "orderNumber", OrderDTO::getOrderNumber,
+            "status", OrderDTO::getStatus,
+            "paymentStatus", OrderDTO::getPaymentStatus,
+            "subtotal", OrderDTO::getSubtotal,
+            "total", OrderDTO::getTotal,
+            "createdAt", OrderDTO::getCreatedAt,
+            "deliveredAt", OrderDTO::getDeliveredAt
+    );
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<OrderDTO> findOrderPage(Long userId, OrderStatus status, Pageable pageable) {
+        Map<String, Object> params = new HashMap<>();
+        String where = where(userId, status, params);
+
+        TypedQuery<Tuple> query = entityManager.createQuery(
+                "select " + ORDER_COLUMNS + " from Order o" + where + orderBy(pageable.getSort()), Tuple.class);
+        params.forEach(query::setParameter);
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize());
+        List<OrderDTO> orders = withItems(query.getResultList());
+
+        TypedQuery<Long> count = entityManager.createQuery("select count(o) from Order o" + where, Long.class);
+        params.forEach(count::setParameter);
+        return new PageImpl<>(orders, pageable, count.getSingleResult());
+    }
+
+    @Override
+    public Window<OrderDTO> findOrderWindow(Long userId, OrderStatus status, ScrollPosition position, Sort sort, int limit) {
+        if (!(position instanceof KeysetScrollPosition keyset)) {
+            throw new IllegalArgumentException("Only keyset positions are supported");
+        }
+
+        Map<String, Object> params = new HashMap<>();
+        String where = where(userId, status, params);
+        String seek = seek(sort, keyset.getKeys(), params);
+        if (!seek.isEmpty()) {
+            where = where.isEmpty() ? " where " + seek : where + " and " + seek;
+        }
+
+        TypedQuery<Tuple> query = entityManager.createQuery(
+                "select " + ORDER_COLUMNS + " from Order o" + where + orderBy(sort), Tuple.class);
+        params.forEach(query::setParameter);
+        // One extra row tells whether there is a next window
+        query.setMaxResults(limit + 1);
+        List<Tuple> rows = query.getResultList();
+        boolean hasNext = rows.size() > limit;
+
+        List<OrderDTO> orders = withItems(hasNext ? rows.subList(0, limit) : rows);
+        return Window.from(orders, index -> positionOf(orders.get(index), sort), hasNext);
+    }
+
+    private static String where(Long userId, OrderStatus status, Map<String, Object> params) {
+        List<String> conditions = new ArrayList<>();
+        if (userId != null) {
+            conditions.add("o.user.id = :userId");
+            params.put("userId", userId);
+        }
+        if (status != null) {
+            conditions.add("o.status = :status");
+            params.put("status", status);
+        }
+        return conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions);
+    }
+
+    private static String orderBy(Sort sort) {
+        if (sort.isUnsorted()) {
+            return " order by o.id desc";
+        }
+        StringJoiner orderBy = new StringJoiner(", ", " order by ", "");
+        for (Sort.Order order : sort) {
+            orderBy.add("o." + sortKey(order.getProperty()) + (order.isAscending() ? " asc" : " desc"));
+        }
+        return orderBy.toString();
+    }
+
+    // (k1 > v1) or (k1 = v1 and k2 > v2) or ..., with < for descending keys
+    private static String seek(Sort sort, Map<String, Object> keys, Map<String, Object> params) {
+        if (keys.isEmpty()) {
+            return "";
+        }
+        List<String> alternatives = new ArrayList<>();
+        List<String> equalities = new ArrayList<>();
+        int index = 0;
+        for (Sort.Order order : sort) {
+            String property = sortKey(order.getProperty());
+            String param = "k" + index++;
+            Object key = keys.get(order.getProperty());
+            // "o.x < null" matches nothing, so a null key would silently end the listing
+            if (key == null) {
+                throw new IllegalArgumentException("Cannot page orders by '" + order.getProperty() + "' with a cursor");
+            }
+            params.put(param, key);
+
+            List<String> terms = new ArrayList<>(equalities);
+            terms.add("o." + property + (order.isAscending() ? " > :" : " < :") + param);
+            alternatives.add("(" + String.join(" and ", terms) + ")");
+            equalities.add("o." + property + " = :" + param);
+        }
+        return "(" + String.join(" or ", alternatives) + ")";
+    }
+
+    private static String sortKey(String property) {
+        if (!SORT_KEYS.containsKey(property)) {
+            throw new IllegalArgumentException("Cannot sort orders by '" + property + "'");
+        }
+        return property;
+    }
+
+    private static ScrollPosition positionOf(OrderDTO order, Sort sort) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (Sort.Order sortOrder : sort) {
+            keys.put(sortOrder.getProperty(), SORT_KEYS.get(sortOrder.getProperty()).apply(order));
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    // Second query: the items of all orders on the page, grouped in memory
+    private List<OrderDTO> withItems(List<Tuple> rows) {
+        if (rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, OrderDTO> orders = new LinkedHashMap<>();
+        for (Tuple row : rows) {
+            OrderDTO order = toOrderDTO(row);
+            order.setItems(new ArrayList<>());
+            orders.put(order.getId(), order);
+        }
+
+        List<Tuple> items = entityManager.createQuery(ITEM_COLUMNS, Tuple.class)
+                .setParameter("orderIds", orders.keySet())
+                .getResultList();
+        for (Tuple item : items) {
+            orders.get(item.get("orderId", Long.class)).getItems().add(OrderItemDTO.builder()
+                    .id(item.get("id", Long.class))
+                    .productName(item.get("productName", String.class))
+                    .skuCode(item.get("skuCode", String.class))
+                    .quantity(item.get("quantity", Integer.class))
+                    .price(item.get("price", Double.class))
+                    .subtotal(item.get("subtotal", Double.class))
+                    .build());
+        }
+        return new ArrayList<>(orders.values());
+    }
+
+    private static OrderDTO toOrderDTO(Tuple row) {
+        return OrderDTO.builder()
+                .id(row.get("id", Long.class))
+                .orderNumber(row.get("orderNumber", String.class))
+                .userId(row.get("userId", Long.class))
+                .username(row.get("username", String.class))
+                .status(row.get("status", OrderStatus.class))
+                .paymentMethod(row.get("paymentMethod", PaymentMethod.class))
+                .paymentStatus(row.get("paymentStatus", PaymentStatus.class))
+                .subtotal(row.get("subtotal", Double.class))
+                .shippingCost(row.get("shippingCost", Double.class))
+                .tax(row.get("tax", Double.class))
+                .discount(row.get("discount", Double.class))
+                .total(row.get("total", Double.class))
+                .shippingName(row.get("shippingName", String.class))
+                .shippingPhone(row.get("shippingPhone", String.class))
+                .shippingAddressLine1(row.get("shippingAddressLine1", String.class))
+                .shippingAddressLine2(row.get("shippingAddressLine2", String.class))
+                .shippingCity(row.get("shippingCity", String.class))
+                .shippingCountry(row.get("shippingCountry", String.class))
+                .shippingPostalCode(row.get("shippingPostalCode", String.class))
+                .notes(row.get("notes", String.class))
+                .createdAt(row.get("createdAt", LocalDateTime.class))
+                .deliveredAt(row.get("deliveredAt", LocalDateTime.class))
+                .build();
+    }
+}
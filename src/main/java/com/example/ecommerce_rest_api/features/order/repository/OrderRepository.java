@@ -2,16 +2,18 @@ package com.example.ecommerce_rest_api.features.order.repository;
 
 import com.example.ecommerce_rest_api.features.order.ENUM.OrderStatus;
 import com.example.ecommerce_rest_api.features.order.entity.Order;
+import jakarta.transaction.Transactional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderReadRepository {
 
     Page<Order> findByUserId(Long userId, Pageable pageable);
 
@@ -26,4 +28,17 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
     @Query("SELECT SUM(o.total) FROM Order o WHERE o.status = :status")
     Double sumTotalByStatus(@Param("status") OrderStatus status);
+
+    // Keeps the denormalized username in line when a user renames themselves
+    @Transactional
+    @Modifying
+    @Query("UPDATE Order o SET o.username = :username WHERE o.user.id = :userId")
+    int updateUsername(@Param("userId") Long userId, @Param("username") String username);
+
+    // Orders placed before orders.username existed
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE orders SET username = (SELECT u.username FROM users u WHERE u.id = orders.user_id) " +
+            "WHERE username IS NULL", nativeQuery = true)
+    int backfillUsernames();
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.example.ecommerce_rest_api.features.order.service;
+
+import com.example.ecommerce_rest_api.features.order.export.OrderExportFormat;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+public interface OrderExportService {
+    StreamingResponseBody exportOrders(OrderExportFormat format, LocalDate startDate, LocalDate endDate, String status, boolean gzip);
+}
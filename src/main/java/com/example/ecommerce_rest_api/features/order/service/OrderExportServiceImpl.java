@@ -0,0 +1,148 @@
+package com.example.ecommerce_rest_api.features.order.service;
+
+import com.example.ecommerce_rest_api.common.persistence.IdBlockAllocator;
+import com.example.ecommerce_rest_api.features.order.ENUM.OrderStatus;
+import com.example.ecommerce_rest_api.features.order.export.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPOutputStream;
+
+// Order exports are written straight from a forward-only result set into the response, one line
+// item per row, so memory stays flat however large the range is. MySQL streams rows one by one
+// when the fetch size is Integer.MIN_VALUE; PostgreSQL fetches fetch-size rows at a time when
+// the query runs in a transaction, which is why the export is read in a read-only one.
+@Service
+public class OrderExportServiceImpl implements OrderExportService {
+
+    private static final String EXPORT =
+            "select o.id, o.order_number, o.created_at, o.delivered_at, o.status, o.payment_method, " +
+            "o.payment_status, o.username, o.subtotal, o.shipping_cost, o.tax, o.discount, o.total, " +
+            "oi.sku_code, oi.product_name, oi.quantity, oi.price, oi.subtotal as line_subtotal " +
+            "from orders o left join order_items oi on oi.order_id = o.id " +
+            "where o.created_at >= ? and o.created_at < ?";
+
+    private static final String ORDER_BY = " order by o.created_at, o.id, oi.id";
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IdBlockAllocator idBlockAllocator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate exportTransaction;
+    private final int fetchSize;
+
+    public OrderExportServiceImpl(JdbcTemplate jdbcTemplate,
+                                  IdBlockAllocator idBlockAllocator,
+                                  ObjectMapper objectMapper,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${app.order.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idBlockAllocator = idBlockAllocator;
+        this.objectMapper = objectMapper;
+        this.exportTransaction = new TransactionTemplate(transactionManager);
+        this.exportTransaction.setReadOnly(true);
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public StreamingResponseBody exportOrders(OrderExportFormat format, LocalDate startDate, LocalDate endDate,
+                                              String status, boolean gzip) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("startDate must not be after endDate");
+        }
+        OrderStatus orderStatus = parseStatus(status);
+        Timestamp start = Timestamp.valueOf(startDate.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(endDate.plusDays(1).atStartOfDay());
+
+        // Nothing touches the database until the body is written, after the headers are sent
+        return output -> {
+            OutputStream target = gzip ? new GZIPOutputStream(output, WRITE_BUFFER_SIZE) : output;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+            try (OrderExportWriter exportWriter = format == OrderExportFormat.CSV
+                    ? new CsvOrderExportWriter(writer)
+                    : new NdjsonOrderExportWriter(writer, objectMapper)) {
+                exportTransaction.executeWithoutResult(tx -> jdbcTemplate.query(
+                        statement(start, end, orderStatus),
+                        rs -> {
+                            try {
+                                exportWriter.write(toRow(rs));
+                            } catch (IOException ex) {
+                                throw new UncheckedIOException(ex);
+                            }
+                        }));
+            } catch (UncheckedIOException ex) {
+                // The client went away; rethrown as is so the request ends quietly
+                throw ex.getCause();
+            }
+        };
+    }
+
+    private static OrderStatus parseStatus(String status) {
+        if (status == null || status.isBlank()) {
+            return null;
+        }
+        try {
+            return OrderStatus.valueOf(status.trim().toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unknown order status: " + status);
+        }
+    }
+
+    private PreparedStatementCreator statement(Timestamp start, Timestamp end, OrderStatus status) {
+        boolean postgres = idBlockAllocator.isPostgres();
+        return connection -> {
+            String sql = EXPORT + (status != null ? " and o.status = ?" : "") + ORDER_BY;
+            PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(postgres ? fetchSize : Integer.MIN_VALUE);
+            statement.setTimestamp(1, start);
+            statement.setTimestamp(2, end);
+            if (status != null) {
+                statement.setString(3, status.name());
+            }
+            return statement;
+        };
+    }
+
+    private static OrderExportRow toRow(ResultSet rs) throws SQLException {
+        int quantity = rs.getInt("quantity");
+        Integer itemQuantity = rs.wasNull() ? null : quantity;
+        return new OrderExportRow(
+                rs.getLong("id"),
+                rs.getString("order_number"),
+                toLocalDateTime(rs.getTimestamp("created_at")),
+                toLocalDateTime(rs.getTimestamp("delivered_at")),
+                rs.getString("status"),
+                rs.getString("payment_method"),
+                rs.getString("payment_status"),
+                rs.getString("username"),
+                rs.getObject("subtotal", Double.class),
+                rs.getObject("shipping_cost", Double.class),
+                rs.getObject("tax", Double.class),
+                rs.getObject("discount", Double.class),
+                rs.getObject("total", Double.class),
+                rs.getString("sku_code"),
+                rs.getString("product_name"),
+                itemQuantity,
+                rs.getObject("price", Double.class),
+                rs.getObject("line_subtotal", Double.class));
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.ecommerce_rest_api.features.order.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Snowflake-style order numbers: 41 bits of milliseconds since 2025-01-01, 10 bits of node id
+// and a 12-bit sequence per millisecond. Numbers are unique across nodes with distinct ids,
+// strictly increasing per node and roughly time-ordered overall, so inserts append to the
+// order_number index instead of landing at random pages. They are rendered as zero-padded
+// base36 so they also sort as strings: ORD-01SX6J83ZJUGZ.
+// The logical clock can run ahead of the wall clock, so after a restart the generator resumes
+// after the highest number in the orders table instead of trusting the clock. The factory
+// dependency makes that read run after the schema update.
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class OrderNumberGenerator {
+
+    private static final String PREFIX = "ORD-";
+    private static final long EPOCH = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    // Long.MAX_VALUE in base36
+    private static final int WIDTH = 13;
+
+    // Numbers of this format start with ORD-0 until 2060; older random numbers are shorter, and
+    // the prefix keeps the lookup on the order_number index
+    private static final String LATEST_NUMBER =
+            "select order_number from orders where order_number like 'ORD-0%' and char_length(order_number) = "
+                    + (PREFIX.length() + WIDTH) + " order by order_number desc limit 1";
+
+    private final long nodeId;
+    private final JdbcTemplate jdbcTemplate;
+
+    // Last issued (millisecond << SEQUENCE_BITS | sequence). When a millisecond runs out of
+    // sequence numbers, or the clock steps back, ids continue on the logical clock instead of
+    // waiting or repeating.
+    private final AtomicLong last = new AtomicLong();
+
+    public OrderNumberGenerator(@Value("${app.order.node-id:}") String nodeId, JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.nodeId = nodeId == null || nodeId.isBlank() ? hostNodeId() : Long.parseLong(nodeId.trim());
+        if (this.nodeId < 0 || this.nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("app.order.node-id must be between 0 and " + MAX_NODE_ID);
+        }
+    }
+
+    @PostConstruct
+    public void resumeAfterIssuedNumbers() {
+        try {
+            List<String> latest = jdbcTemplate.queryForList(LATEST_NUMBER, String.class);
+            if (!latest.isEmpty()) {
+                resumeAfter(Long.parseLong(latest.getFirst().substring(PREFIX.length()), 36));
+            }
+        } catch (DataAccessException | NumberFormatException ex) {
+            log.warn("Could not read the last issued order number, numbering follows the clock", ex);
+        }
+    }
+
+    // Numbers issued from now on are greater than issuedId, whichever node issued it
+    void resumeAfter(long issuedId) {
+        long issued = ((issuedId >>> (NODE_BITS + SEQUENCE_BITS)) << SEQUENCE_BITS) | (issuedId & SEQUENCE_MASK);
+        last.accumulateAndGet(issued, Math::max);
+        long aheadMillis = (issued >>> SEQUENCE_BITS) - (System.currentTimeMillis() - EPOCH);
+        if (aheadMillis > 0) {
+            log.warn("Last issued order number is {} ms ahead of the clock; numbering continues after it", aheadMillis);
+        }
+    }
+
+    public String next() {
+        return PREFIX + pad(Long.toString(nextId(), 36).toUpperCase());
+    }
+
+    public long nextId() {
+        long now = (System.currentTimeMillis() - EPOCH) << SEQUENCE_BITS;
+        long current;
+        long next;
+        do {
+            current = last.get();
+            next = Math.max(now, current + 1);
+        } while (!last.compareAndSet(current, next));
+
+        long millis = next >>> SEQUENCE_BITS;
+        long sequence = next & SEQUENCE_MASK;
+        return (millis << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+
+    private static String pad(String value) {
+        return value.length() >= WIDTH ? value : "0".repeat(WIDTH - value.length()) + value;
+    }
+
+    // Without a configured id the host name picks one; set ORDER_NODE_ID when running several nodes
+    private static long hostNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException ex) {
+            host = "localhost";
+        }
+        long nodeId = Math.floorMod(host.hashCode(), MAX_NODE_ID + 1);
+        log.info("No app.order.node-id configured, using node id {} derived from host '{}'", nodeId, host);
+        return nodeId;
+    }
+}
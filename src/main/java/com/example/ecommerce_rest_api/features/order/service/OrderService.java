@@ -8,8 +8,8 @@ import com.example.ecommerce_rest_api.features.order.dto.OrderStatusUpdateReques
 public interface OrderService {
     OrderDTO createOrder(Long userId, OrderCreateRequest request);
     OrderDTO getOrderById(Long orderId, Long userId, String role);
-    PageResponse<OrderDTO> getUserOrders(Long userId, int pageNo, int pageSize, String sortBy, String sortDir);
-    PageResponse<OrderDTO> getAllOrders(int pageNo, int pageSize, String sortBy, String sortDir, String status);
+    PageResponse<OrderDTO> getUserOrders(Long userId, int pageNo, int pageSize, String sortBy, String sortDir, String after);
+    PageResponse<OrderDTO> getAllOrders(int pageNo, int pageSize, String sortBy, String sortDir, String status, String after);
     OrderDTO updateOrderStatus(Long orderId, OrderStatusUpdateRequest request);
     OrderDTO cancelOrder(Long orderId, Long userId);
 }
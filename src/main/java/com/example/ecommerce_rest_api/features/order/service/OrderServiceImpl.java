@@ -2,47 +2,88 @@ package com.example.ecommerce_rest_api.features.order.service;
 
 import com.example.ecommerce_rest_api.common.exception.ResourceNotFoundException;
 import com.example.ecommerce_rest_api.common.response.PageResponse;
+import com.example.ecommerce_rest_api.features.admin.ENUM.ActivityType;
+import com.example.ecommerce_rest_api.features.admin.event.ActivityEvent;
+import com.example.ecommerce_rest_api.features.admin.service.DailyUniqueCounter;
 import com.example.ecommerce_rest_api.features.cart.entity.Cart;
 import com.example.ecommerce_rest_api.features.cart.entity.CartItem;
 import com.example.ecommerce_rest_api.features.cart.repository.CartRepository;
+import com.example.ecommerce_rest_api.features.inventory.service.FlashSaleStock;
+import com.example.ecommerce_rest_api.features.inventory.service.InventoryReservationService;
 import com.example.ecommerce_rest_api.features.order.ENUM.OrderStatus;
 import com.example.ecommerce_rest_api.features.order.ENUM.PaymentStatus;
 import com.example.ecommerce_rest_api.features.order.dto.*;
 import com.example.ecommerce_rest_api.features.order.entity.Order;
 import com.example.ecommerce_rest_api.features.order.entity.OrderItem;
+import com.example.ecommerce_rest_api.features.order.event.OrderStatusChangedEvent;
 import com.example.ecommerce_rest_api.features.order.repository.OrderRepository;
 import com.example.ecommerce_rest_api.features.product.entity.ProductSku;
+import com.example.ecommerce_rest_api.features.product.repository.ProductRepository;
+import com.example.ecommerce_rest_api.features.product.repository.ProductSkuBulkRepository;
 import com.example.ecommerce_rest_api.features.product.repository.ProductSkuRepository;
+import com.example.ecommerce_rest_api.features.product.service.ProductDetailCache;
+import com.example.ecommerce_rest_api.features.product.service.StockStateTracker;
 import com.example.ecommerce_rest_api.features.user.entity.User;
 import com.example.ecommerce_rest_api.features.user.repository.UserRepository;
+import com.example.ecommerce_rest_api.utils.CursorCodec;
 import jakarta.transaction.Transactional;
-import org.springframework.data.domain.Page;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
 public class OrderServiceImpl implements OrderService {
 
+    // Non-null columns that can be paged by cursor; deliveredAt is empty until delivery, so it
+    // sorts offset pages only
+    private static final Set<String> CURSOR_SORT_KEYS =
+            Set.of("id", "orderNumber", "status", "paymentStatus", "subtotal", "total", "createdAt");
+
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
     private final CartRepository cartRepository;
     private final ProductSkuRepository productSkuRepository;
+    private final ProductRepository productRepository;
+    private final ProductDetailCache productDetailCache;
+    private final StockStateTracker stockStateTracker;
+    private final InventoryReservationService inventoryReservationService;
+    private final FlashSaleStock flashSaleStock;
+    private final OrderNumberGenerator orderNumberGenerator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DailyUniqueCounter dailyUniqueCounter;
 
     public OrderServiceImpl(OrderRepository orderRepository,
                             UserRepository userRepository,
                             CartRepository cartRepository,
-                            ProductSkuRepository productSkuRepository) {
+                            ProductSkuRepository productSkuRepository,
+                            ProductRepository productRepository,
+                            ProductDetailCache productDetailCache,
+                            StockStateTracker stockStateTracker,
+                            InventoryReservationService inventoryReservationService,
+                            FlashSaleStock flashSaleStock,
+                            OrderNumberGenerator orderNumberGenerator,
+                            ApplicationEventPublisher eventPublisher,
+                            DailyUniqueCounter dailyUniqueCounter) {
         this.orderRepository = orderRepository;
         this.userRepository = userRepository;
         this.cartRepository = cartRepository;
         this.productSkuRepository = productSkuRepository;
+        this.productRepository = productRepository;
+        this.productDetailCache = productDetailCache;
+        this.stockStateTracker = stockStateTracker;
+        this.inventoryReservationService = inventoryReservationService;
+        this.flashSaleStock = flashSaleStock;
+        this.orderNumberGenerator = orderNumberGenerator;
+        this.eventPublisher = eventPublisher;
+        this.dailyUniqueCounter = dailyUniqueCounter;
     }
 
     @Override
@@ -60,18 +101,54 @@ public class OrderServiceImpl implements OrderService {
             throw new RuntimeException("Cart is empty");
         }
 
-        // Validate stock availability
+        // Stock held by the cart lines was taken when they were added, so converting the holds
+        // needs no SKU reads. Whatever is not covered by a hold (it expired and was released) is
+        // taken from the flash-sale shards or with guarded updates; any line without enough stock
+        // rolls the order back.
+        Map<Long, Integer> held = inventoryReservationService.consume(cart.getItems());
+        Map<Long, Integer> quantities = new TreeMap<>();
+        Map<Long, Integer> surplus = new TreeMap<>();
+        Map<Long, ProductSku> skus = new HashMap<>();
         for (CartItem cartItem : cart.getItems()) {
             ProductSku sku = cartItem.getProductSku();
-            if (sku.getQuantity() < cartItem.getQuantity()) {
-                throw new RuntimeException("Insufficient stock for: " + sku.getProduct().getName());
+            int missing = cartItem.getQuantity() - held.getOrDefault(cartItem.getId(), 0);
+            if (missing > 0) {
+                quantities.merge(sku.getId(), missing, Integer::sum);
+            } else if (missing < 0) {
+                surplus.merge(sku.getId(), -missing, Integer::sum);
+            }
+            skus.put(sku.getId(), sku);
+        }
+        Iterator<Map.Entry<Long, Integer>> flashLines = quantities.entrySet().iterator();
+        while (flashLines.hasNext()) {
+            Map.Entry<Long, Integer> line = flashLines.next();
+            FlashSaleStock.Result flash = flashSaleStock.take(line.getKey(), line.getValue());
+            if (flash == FlashSaleStock.Result.SOLD_OUT) {
+                throw new RuntimeException("Insufficient stock for: " + skus.get(line.getKey()).getProduct().getName());
+            }
+            if (flash == FlashSaleStock.Result.TAKEN) {
+                flashLines.remove();
             }
         }
+        if (!quantities.isEmpty()) {
+            List<ProductSkuBulkRepository.StockChange> changes = toStockChanges(quantities);
+            int[] counts = productSkuRepository.decrementStock(changes);
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    throw new RuntimeException("Insufficient stock for: "
+                            + skus.get(changes.get(i).skuId()).getProduct().getName());
+                }
+            }
+        }
+        if (!surplus.isEmpty()) {
+            productSkuRepository.incrementStock(toStockChanges(surplus));
+        }
 
         // Create order
         Order order = Order.builder()
-                .orderNumber(generateOrderNumber())
+                .orderNumber(orderNumberGenerator.next())
                 .user(user)
+                .username(user.getUsername())
                 .status(OrderStatus.PENDING)
                 .paymentMethod(request.getPaymentMethod())
                 .paymentStatus(PaymentStatus.PENDING)
@@ -103,14 +180,25 @@ public class OrderServiceImpl implements OrderService {
 
             orderItem.calculateSubtotal();
             order.addItem(orderItem);
-
-            // Update stock
-            sku.setQuantity(sku.getQuantity() - cartItem.getQuantity());
-            productSkuRepository.save(sku);
         }
 
         order.calculateTotal();
         Order savedOrder = orderRepository.save(order);
+        eventPublisher.publishEvent(OrderStatusChangedEvent.placed(
+                savedOrder.getId(), createdAt(savedOrder), savedOrder.getStatus(), savedOrder.getTotal()));
+        eventPublisher.publishEvent(ActivityEvent.of(ActivityType.ORDER,
+                "New order " + savedOrder.getOrderNumber() + " by " + savedOrder.getUsername(), savedOrder.getId()));
+        dailyUniqueCounter.recordBuyer(userId);
+
+        // Only rows changed here need new summaries; held and flash-sale stock left them alone
+        Set<Long> productIds = new HashSet<>();
+        quantities.keySet().forEach(skuId -> productIds.add(skus.get(skuId).getProduct().getId()));
+        surplus.keySet().forEach(skuId -> productIds.add(skus.get(skuId).getProduct().getId()));
+        if (!productIds.isEmpty()) {
+            productRepository.refreshInventoryStats(productIds);
+            stockStateTracker.sync(productIds);
+            productDetailCache.invalidate(productIds);
+        }
 
         // Clear cart after successful order
         cart.getItems().clear();
@@ -132,34 +220,32 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
-    public PageResponse<OrderDTO> getUserOrders(Long userId, int pageNo, int pageSize, String sortBy, String sortDir) {
-        Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name())
-                ? Sort.by(sortBy).ascending()
-                : Sort.by(sortBy).descending();
-
-        Pageable pageable = PageRequest.of(pageNo, pageSize, sort);
-        Page<Order> orders = orderRepository.findByUserId(userId, pageable);
-
-        return new PageResponse<>(orders.map(this::mapToOrderDTO));
+    public PageResponse<OrderDTO> getUserOrders(Long userId, int pageNo, int pageSize, String sortBy, String sortDir, String after) {
+        return findOrders(userId, null, pageNo, pageSize, sortBy, sortDir, after);
     }
 
     @Override
-    public PageResponse<OrderDTO> getAllOrders(int pageNo, int pageSize, String sortBy, String sortDir, String status) {
+    public PageResponse<OrderDTO> getAllOrders(int pageNo, int pageSize, String sortBy, String sortDir, String status, String after) {
+        OrderStatus orderStatus = status != null && !status.isEmpty() ? OrderStatus.valueOf(status.toUpperCase()) : null;
+        return findOrders(null, orderStatus, pageNo, pageSize, sortBy, sortDir, after);
+    }
+
+    // Listings go through the read model: orders and their items in two queries, no entities
+    private PageResponse<OrderDTO> findOrders(Long userId, OrderStatus status, int pageNo, int pageSize,
+                                              String sortBy, String sortDir, String after) {
         Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name())
                 ? Sort.by(sortBy).ascending()
                 : Sort.by(sortBy).descending();
 
-        Pageable pageable = PageRequest.of(pageNo, pageSize, sort);
-
-        Page<Order> orders;
-        if (status != null && !status.isEmpty()) {
-            OrderStatus orderStatus = OrderStatus.valueOf(status.toUpperCase());
-            orders = orderRepository.findByStatus(orderStatus, pageable);
-        } else {
-            orders = orderRepository.findAll(pageable);
+        if (after != null) {
+            Sort keysetSort = CursorCodec.withTieBreaker(sort, CURSOR_SORT_KEYS);
+            ScrollPosition position = CursorCodec.decode(after, keysetSort);
+            Window<OrderDTO> window = orderRepository.findOrderWindow(userId, status, position, keysetSort, pageSize);
+            return new PageResponse<>(window, pageSize, after.isBlank());
         }
 
-        return new PageResponse<>(orders.map(this::mapToOrderDTO));
+        Pageable pageable = PageRequest.of(pageNo, pageSize, sort);
+        return new PageResponse<>(orderRepository.findOrderPage(userId, status, pageable));
     }
 
     @Override
@@ -169,6 +255,7 @@ public class OrderServiceImpl implements OrderService {
                 () -> new ResourceNotFoundException("Order", "id", orderId)
         );
 
+        OrderStatus previousStatus = order.getStatus();
         order.setStatus(request.getStatus());
 
         if (request.getPaymentStatus() != null) {
@@ -180,6 +267,12 @@ public class OrderServiceImpl implements OrderService {
         }
 
         Order savedOrder = orderRepository.save(order);
+        if (previousStatus != savedOrder.getStatus()) {
+            eventPublisher.publishEvent(new OrderStatusChangedEvent(savedOrder.getId(), createdAt(savedOrder),
+                    previousStatus, savedOrder.getStatus(), savedOrder.getTotal()));
+            eventPublisher.publishEvent(ActivityEvent.of(ActivityType.ORDER,
+                    "Order " + savedOrder.getOrderNumber() + " is now " + savedOrder.getStatus(), savedOrder.getId()));
+        }
         return mapToOrderDTO(savedOrder);
     }
 
@@ -198,22 +291,46 @@ public class OrderServiceImpl implements OrderService {
             throw new RuntimeException("Cannot cancel order in current status");
         }
 
+        OrderStatus previousStatus = order.getStatus();
         order.setStatus(OrderStatus.CANCELLED);
 
         // Restore stock
+        Map<Long, Integer> quantities = new TreeMap<>();
         for (OrderItem item : order.getItems()) {
-            ProductSku sku = item.getProductSku();
-            sku.setQuantity(sku.getQuantity() + item.getQuantity());
-            productSkuRepository.save(sku);
+            quantities.merge(item.getProductSku().getId(), item.getQuantity(), Integer::sum);
         }
+        productSkuRepository.incrementStock(toStockChanges(quantities));
 
         Order savedOrder = orderRepository.save(order);
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(savedOrder.getId(), createdAt(savedOrder),
+                previousStatus, OrderStatus.CANCELLED, savedOrder.getTotal()));
+        eventPublisher.publishEvent(ActivityEvent.of(ActivityType.ORDER,
+                "Order " + savedOrder.getOrderNumber() + " cancelled by " + savedOrder.getUsername(), savedOrder.getId()));
+        Set<Long> productIds = collectProductIds(savedOrder);
+        productRepository.refreshInventoryStats(productIds);
+        stockStateTracker.sync(productIds);
+        productDetailCache.invalidate(productIds);
         return mapToOrderDTO(savedOrder);
     }
 
     // Helper methods
-    private String generateOrderNumber() {
-        return "ORD-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    // Sorted by SKU id so concurrent checkouts touch rows in the same order
+    private List<ProductSkuBulkRepository.StockChange> toStockChanges(Map<Long, Integer> quantitiesBySkuId) {
+        return quantitiesBySkuId.entrySet().stream()
+                .map(entry -> new ProductSkuBulkRepository.StockChange(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    // Rollups bucket orders by the day they were placed; a just-persisted order may not have
+    // its creation timestamp filled in yet, and then it was placed now
+    private static LocalDateTime createdAt(Order order) {
+        return order.getCreatedAt() != null ? order.getCreatedAt() : LocalDateTime.now();
+    }
+
+    private Set<Long> collectProductIds(Order order) {
+        return order.getItems().stream()
+                .map(item -> item.getProductSku().getProduct().getId())
+                .collect(Collectors.toSet());
     }
 
     private OrderDTO mapToOrderDTO(Order order) {
@@ -225,7 +342,7 @@ public class OrderServiceImpl implements OrderService {
                 .id(order.getId())
                 .orderNumber(order.getOrderNumber())
                 .userId(order.getUser().getId())
-                .username(order.getUser().getUsername())
+                .username(order.getUsername())
                 .items(items)
                 .status(order.getStatus())
                 .paymentMethod(order.getPaymentMethod())
@@ -0,0 +1,28 @@
+package com.example.ecommerce_rest_api.features.order.service;
+
+import com.example.ecommerce_rest_api.features.order.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+// Copies the username onto orders placed before orders.username existed.
+// Only rows with a NULL username are touched, so after the first run this is a no-op.
+@Slf4j
+@Component
+public class OrderUsernameBackfill {
+
+    private final OrderRepository orderRepository;
+
+    public OrderUsernameBackfill(OrderRepository orderRepository) {
+        this.orderRepository = orderRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        int updated = orderRepository.backfillUsernames();
+        if (updated > 0) {
+            log.info("Backfilled username on {} orders", updated);
+        }
+    }
+}
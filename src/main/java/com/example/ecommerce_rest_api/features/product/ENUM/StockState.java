@@ -0,0 +1,19 @@
+package com.example.ecommerce_rest_api.features.product.ENUM;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+public enum StockState {
+    IN_STOCK, LOW_STOCK, OUT_OF_STOCK;
+
+    // What the admin dashboard counts as low stock
+    public static final Set<StockState> LOW_OR_OUT = EnumSet.of(LOW_STOCK, OUT_OF_STOCK);
+
+    // A SKU without a threshold uses the default of 10
+    public static StockState of(int quantity, Integer lowStockThreshold) {
+        if (quantity <= 0) {
+            return OUT_OF_STOCK;
+        }
+        return quantity <= (lowStockThreshold != null ? lowStockThreshold : 10) ? LOW_STOCK : IN_STOCK;
+    }
+}
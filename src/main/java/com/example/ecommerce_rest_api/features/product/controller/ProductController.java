@@ -3,6 +3,8 @@ package com.example.ecommerce_rest_api.features.product.controller;
 import com.example.ecommerce_rest_api.common.response.PageResponse;
 import com.example.ecommerce_rest_api.common.response.ResponseApi;
 import com.example.ecommerce_rest_api.features.product.dto.*;
+import com.example.ecommerce_rest_api.features.product.importer.ProductImportFormat;
+import com.example.ecommerce_rest_api.features.product.service.ProductImportService;
 import com.example.ecommerce_rest_api.features.product.service.ProductService;
 import com.example.ecommerce_rest_api.utils.AppConstants;
 import io.swagger.v3.oas.annotations.Operation;
@@ -11,6 +13,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -18,6 +21,8 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -26,9 +31,12 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService,
+                             ProductImportService productImportService) {
         this.productService = productService;
+        this.productImportService = productImportService;
     }
 
     // ============= PRODUCT CRUD =============
@@ -91,44 +99,65 @@ public class ProductController {
                 .body(ResponseApi.success("Product retrieved successfully",response));
     }
 
-    @Operation(summary = "Get all products", description = "Retrieve paginated list of all products")
+    @Operation(summary = "Get all products", description = "Retrieve paginated list of all products. Pass \"after\" (empty for the first page) to page by cursor")
     @GetMapping()
     public ResponseEntity<ResponseApi<PageResponse<ProductDTO>>> getAllProducts(
             @RequestParam(value = "pageNo" , defaultValue = AppConstants.DEFAULT_PAGE_NUMBER, required = false) int pageNo,
             @RequestParam(value = "pageSize" , defaultValue = AppConstants.DEFAULT_PAGE_SIZE, required = false) int pageSize,
             @RequestParam(value = "sortBy", defaultValue = AppConstants.DEFAULT_SORT_BY, required = false) String sortBy,
-            @RequestParam(value = "sortDir", defaultValue = AppConstants.DEFAULT_SORT_DIRECTION, required = false) String sortDir
+            @RequestParam(value = "sortDir", defaultValue = AppConstants.DEFAULT_SORT_DIRECTION, required = false) String sortDir,
+            @RequestParam(value = "after", required = false) String after
     ){
         PageResponse<ProductDTO> response =
-                productService.getAllProducts(pageNo,pageSize,sortBy,sortDir);
+                productService.getAllProducts(pageNo,pageSize,sortBy,sortDir,after);
         return ResponseEntity
                 .status(HttpStatus.OK)
                 .body(ResponseApi.success("Products retrieved successfully",response));
     }
 
-    @Operation(summary = "Search products", description = "Search and filter products with multiple criteria")
+    @Operation(summary = "Search products", description = "Search and filter products with multiple criteria, with brand, sub-category and price facet counts")
     @PostMapping("/search")
-    public ResponseEntity<ResponseApi<PageResponse<ProductDTO>>> searchProducts(
+    public ResponseEntity<ResponseApi<ProductSearchResponse>> searchProducts(
             @RequestBody ProductSearchRequest request,
             @RequestParam(value = "pageNo" , defaultValue = AppConstants.DEFAULT_PAGE_NUMBER, required = false) int pageNo,
             @RequestParam(value = "pageSize" , defaultValue = AppConstants.DEFAULT_PAGE_SIZE, required = false) int pageSize
     ){
-        PageResponse<ProductDTO> response =
+        ProductSearchResponse response =
                 productService.searchProducts(request, pageNo,pageSize);
         return ResponseEntity
                 .status(HttpStatus.OK)
                 .body(ResponseApi.success("Search completed successfully",response));
     }
 
-    @Operation(summary = "Get featured products", description = "Retrieve featured products")
+    @Operation(
+            summary = "Bulk import products",
+            description = "Stream products as NDJSON (one product create request per line) or CSV (one SKU per row). " +
+                    "Valid rows are imported in batches; invalid rows are reported with their row number. Admin only."
+    )
+    @SecurityRequirement(name = "Bearer Authentication")
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/import", consumes = {ProductImportFormat.NDJSON_VALUE, ProductImportFormat.CSV_VALUE})
+    public ResponseEntity<ResponseApi<ProductImportResultDTO>> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body
+    ) throws IOException {
+        ProductImportResultDTO response =
+                productImportService.importProducts(body, ProductImportFormat.fromContentType(contentType));
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(ResponseApi.success("Import completed", response));
+    }
+
+    @Operation(summary = "Get featured products", description = "Retrieve featured products. Pass \"after\" (empty for the first page) to page by cursor")
     @GetMapping("/featured")
     public ResponseEntity<ResponseApi<PageResponse<ProductDTO>>> getFeaturedProducts(
             @RequestParam(value = "pageNo" , defaultValue = AppConstants.DEFAULT_PAGE_NUMBER, required = false) int pageNo,
             @RequestParam(value = "pageSize" , defaultValue = AppConstants.DEFAULT_PAGE_SIZE, required = false) int pageSize,
             @RequestParam(value = "sortBy", defaultValue = AppConstants.DEFAULT_SORT_BY, required = false) String sortBy,
-            @RequestParam(value = "sortDir", defaultValue = AppConstants.DEFAULT_SORT_DIRECTION, required = false) String sortDir
+            @RequestParam(value = "sortDir", defaultValue = AppConstants.DEFAULT_SORT_DIRECTION, required = false) String sortDir,
+            @RequestParam(value = "after", required = false) String after
     ) {
-        PageResponse<ProductDTO> products = productService.getFeaturedProducts(pageNo,pageSize,sortBy,sortDir);
+        PageResponse<ProductDTO> products = productService.getFeaturedProducts(pageNo,pageSize,sortBy,sortDir,after);
         return ResponseEntity
                 .status(HttpStatus.OK)
                 .body(ResponseApi.success("Featured products retrieved", products));
@@ -4,6 +4,8 @@ import com.example.ecommerce_rest_api.common.response.ResponseApi;
 import com.example.ecommerce_rest_api.features.product.dto.ProductSkuCreateRequest;
 import com.example.ecommerce_rest_api.features.product.dto.ProductSkuDTO;
 import com.example.ecommerce_rest_api.features.product.dto.ProductSkuUpdateRequest;
+import com.example.ecommerce_rest_api.features.product.dto.SkuBulkUpdateRequest;
+import com.example.ecommerce_rest_api.features.product.dto.SkuBulkUpdateResultDTO;
 import com.example.ecommerce_rest_api.features.product.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -55,6 +57,23 @@ public class ProductSkuController {
                 .body(ResponseApi.success("Sku updated successfully",response));
     }
 
+    @Operation(
+            summary = "Bulk update SKUs",
+            description = "Update price, compare-at price, quantity and active flag of many SKUs, identified by id or code. " +
+                    "Returns a status per change. Admin only."
+    )
+    @SecurityRequirement(name = "Bearer Authentication")
+    @PreAuthorize("hasRole('ADMIN')")
+    @PatchMapping("/skus/bulk")
+    public ResponseEntity<ResponseApi<SkuBulkUpdateResultDTO>> bulkUpdateSkus(
+            @Valid @RequestBody SkuBulkUpdateRequest request
+    ) {
+        SkuBulkUpdateResultDTO response = productService.bulkUpdateSkus(request);
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(ResponseApi.success("Skus updated",response));
+    }
+
     @Operation(summary = "Get SKU by ID", description = "Retrieve SKU details by ID")
     @GetMapping("/skus/{skuId}")
     public ResponseEntity<ResponseApi<ProductSkuDTO>> getSkuById(@PathVariable Long skuId) {
@@ -0,0 +1,14 @@
+package com.example.ecommerce_rest_api.features.product.dto;
+
+import lombok.*;
+
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetCountDTO {
+    private String key;
+    private String label;
+    private Long count;
+}
@@ -0,0 +1,16 @@
+package com.example.ecommerce_rest_api.features.product.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFacetsDTO {
+    private List<FacetCountDTO> brands;
+    private List<FacetCountDTO> subCategories;
+    private List<FacetCountDTO> priceRanges;
+}
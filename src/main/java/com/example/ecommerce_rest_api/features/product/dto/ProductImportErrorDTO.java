@@ -0,0 +1,15 @@
+package com.example.ecommerce_rest_api.features.product.dto;
+
+import lombok.*;
+
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportErrorDTO {
+    // Line (NDJSON) or record (CSV, header is 1) where the product starts
+    private long row;
+    private String name;
+    private String message;
+}
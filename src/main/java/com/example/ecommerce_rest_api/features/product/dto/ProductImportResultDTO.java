@@ -0,0 +1,21 @@
+package com.example.ecommerce_rest_api.features.product.dto;
+
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportResultDTO {
+    private long totalRows;
+    private long imported;
+    private long failed;
+    private long durationMs;
+    // Capped; failed is the full count
+    @Builder.Default
+    private List<ProductImportErrorDTO> errors = new ArrayList<>();
+}
@@ -19,6 +19,6 @@ public class ProductSearchRequest {
     private String brand;
     private Boolean isActive = true;
     private Boolean isFeatured;
-    private String sortBy = "createdAt"; // createdAt, name, price, popularity
+    private String sortBy = "relevance"; // relevance, createdAt, name, price, popularity
     private String sortDirection = "DESC"; // ASC, DESC
 }
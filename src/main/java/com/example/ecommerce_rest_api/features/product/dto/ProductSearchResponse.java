@@ -0,0 +1,14 @@
+package com.example.ecommerce_rest_api.features.product.dto;
+
+import com.example.ecommerce_rest_api.common.response.PageResponse;
+import lombok.*;
+
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchResponse {
+    private PageResponse<ProductDTO> results;
+    private ProductFacetsDTO facets;
+}
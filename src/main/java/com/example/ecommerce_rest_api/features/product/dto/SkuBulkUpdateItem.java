@@ -0,0 +1,30 @@
+package com.example.ecommerce_rest_api.features.product.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// One SKU change; the SKU is identified by id or by code, null fields are left unchanged
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SkuBulkUpdateItem {
+    private Long id;
+
+    private String sku;
+
+    @DecimalMin(value = "0.01", message = "Price must be greater than 0")
+    private Double price;
+
+    @DecimalMin(value = "0.00", message = "Compare price must be positive")
+    private Double compareAtPrice;
+
+    @Min(value = 0, message = "Quantity cannot be negative")
+    private Integer quantity;
+
+    private Boolean isActive;
+}
@@ -0,0 +1,23 @@
+package com.example.ecommerce_rest_api.features.product.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SkuBulkUpdateRequest {
+    @NotEmpty(message = "At least one SKU change is required")
+    @Size(max = 10000, message = "At most 10000 SKU changes per request")
+    @Valid
+    private List<SkuBulkUpdateItem> items = new ArrayList<>();
+}
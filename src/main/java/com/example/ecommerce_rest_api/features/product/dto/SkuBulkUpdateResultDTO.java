@@ -0,0 +1,17 @@
+package com.example.ecommerce_rest_api.features.product.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SkuBulkUpdateResultDTO {
+    private int updated;
+    private int failed;
+    private int affectedProducts;
+    private List<SkuBulkUpdateRowDTO> results;
+}
@@ -0,0 +1,19 @@
+package com.example.ecommerce_rest_api.features.product.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SkuBulkUpdateRowDTO {
+    // Position of the change in the request
+    private int index;
+    private Long skuId;
+    // UPDATED, NOT_FOUND or INVALID
+    private String status;
+    private String message;
+}
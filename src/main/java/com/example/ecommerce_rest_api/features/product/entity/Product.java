@@ -1,5 +1,6 @@
 package com.example.ecommerce_rest_api.features.product.entity;
 
+import com.example.ecommerce_rest_api.common.persistence.IdSequences;
 import com.example.ecommerce_rest_api.features.category.entity.SubCategory;
 import com.example.ecommerce_rest_api.features.review.entity.Review;
 import jakarta.persistence.*;
@@ -17,19 +18,27 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@NamedEntityGraph(
+        name = "Product.detail",
+        attributeNodes = @NamedAttributeNode("skus")
+)
 @Table(
         name = "products",
         indexes = {
-                @Index(name = "idx_product_slug", columnList = "slug"),
                 @Index(name = "idx_product_name", columnList = "name"),
                 @Index(name = "idx_product_active", columnList = "is_active"),
                 @Index(name = "idx_product_featured", columnList = "is_featured"),
+                @Index(name = "idx_product_min_price", columnList = "min_price"),
+        },
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_product_slug", columnNames = "slug")
         }
 )
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_id")
+    @SequenceGenerator(name = "products_id", sequenceName = IdSequences.PRODUCTS, allocationSize = IdSequences.ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false)
@@ -57,6 +66,22 @@ public class Product {
     @Column(name = "view_count")
     private Integer viewCount;
 
+    // Denormalized summary, maintained on write (see ProductRepository.refresh*Stats)
+    @Column(name = "min_price")
+    private Double minPrice;
+
+    @Column(name = "max_price")
+    private Double maxPrice;
+
+    @Column(name = "total_stock")
+    private Integer totalStock;
+
+    @Column(name = "average_rating")
+    private Double averageRating;
+
+    @Column(name = "review_count")
+    private Integer reviewCount;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -108,35 +133,16 @@ public class Product {
         sku.setProduct(null);
     }
 
-    public Double getMinPrice() {
-        return skus.stream()
+    // Recomputes the SKU based summary from the in-memory SKUs, for products not persisted yet.
+    // Persisted products are refreshed with ProductRepository.refreshInventoryStats.
+    public void recalculateInventoryStats() {
+        List<ProductSku> sellable = skus.stream()
                 .filter(sku -> sku.getIsActive() && sku.getDeletedAt() == null)
-                .map(ProductSku::getPrice)
-                .min(Double::compareTo)
-                .orElse(0.0);
-    }
-
-    public Double getMaxPrice() {
-        return skus.stream()
-                .filter(sku -> sku.getIsActive() && sku.getDeletedAt() == null)
-                .map(ProductSku::getPrice)
-                .max(Double::compareTo)
-                .orElse(0.0);
-    }
-
-    public Integer getTotalStock() {
-        return skus.stream()
-                .filter(sku -> sku.getIsActive() && sku.getDeletedAt() == null)
-                .mapToInt(ProductSku::getQuantity)
-                .sum();
-    }
+                .toList();
 
-    public Double getAverageRating() {
-        return reviews.stream()
-                .filter(review -> review.getIsApproved() != null && review.getIsApproved())
-                .mapToInt(Review::getRating)
-                .average()
-                .orElse(0.0);
+        this.minPrice = sellable.stream().map(ProductSku::getPrice).min(Double::compareTo).orElse(0.0);
+        this.maxPrice = sellable.stream().map(ProductSku::getPrice).max(Double::compareTo).orElse(0.0);
+        this.totalStock = sellable.stream().mapToInt(ProductSku::getQuantity).sum();
     }
 
 }
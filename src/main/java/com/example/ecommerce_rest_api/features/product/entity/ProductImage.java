@@ -1,6 +1,7 @@
 package com.example.ecommerce_rest_api.features.product.entity;
 
 
+import com.example.ecommerce_rest_api.common.persistence.IdSequences;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -22,7 +23,8 @@ import java.time.LocalDateTime;
 public class ProductImage {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_images_id")
+    @SequenceGenerator(name = "product_images_id", sequenceName = IdSequences.PRODUCT_IMAGES, allocationSize = IdSequences.ALLOCATION_SIZE)
     private Long id;
 
     @Column(name = "image_url",nullable = false,length = 500)
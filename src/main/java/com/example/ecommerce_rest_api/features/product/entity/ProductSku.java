@@ -1,5 +1,7 @@
 package com.example.ecommerce_rest_api.features.product.entity;
 
+import com.example.ecommerce_rest_api.common.persistence.IdSequences;
+import com.example.ecommerce_rest_api.features.product.ENUM.StockState;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -20,13 +22,15 @@ import java.util.List;
         indexes = {
                 @Index(name = "idx_sku_code", columnList = "sku", unique = true),
                 @Index(name = "idx_sku_product",columnList = "product_id"),
-                @Index(name = "idx_sku_active", columnList = "is_active")
+                @Index(name = "idx_sku_active", columnList = "is_active"),
+                @Index(name = "idx_sku_stock_state", columnList = "stock_state, id")
         }
 )
 public class ProductSku {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_skus_id")
+    @SequenceGenerator(name = "product_skus_id", sequenceName = IdSequences.PRODUCT_SKUS, allocationSize = IdSequences.ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false,unique = true,length = 100)
@@ -41,7 +45,10 @@ public class ProductSku {
     @Column(name = "cost_price")
     private Double costPrice;
 
-    @Column(nullable = false)
+    // Available stock: on hand minus cart holds. Written on insert and afterwards only by
+    // conditional SQL updates (ProductSkuBulkRepository), so saving a loaded SKU never puts back
+    // a quantity that holds or orders changed in the meantime
+    @Column(nullable = false, updatable = false)
     private Integer quantity;
 
     @Column(name = "low_stock_threshold")
@@ -53,6 +60,20 @@ public class ProductSku {
     @Column(name = "is_active")
     private Boolean isActive = true;
 
+    // Written on insert and afterwards only by StockStateTracker, which publishes the transitions
+    @Enumerated(EnumType.STRING)
+    @Column(name = "stock_state", length = 16, updatable = false)
+    private StockState stockState;
+
+    // Flash-sale mode, shared by every instance; written only by FlashSaleStock. While it is on,
+    // and until the settle time after it is turned off, instances may hold leased units, so the
+    // quantity must not be set to an absolute value
+    @Column(name = "flash_sale", updatable = false)
+    private Boolean flashSale;
+
+    @Column(name = "flash_sale_settles_at", updatable = false)
+    private LocalDateTime flashSaleSettlesAt;
+
     @CreationTimestamp
     @Column(name = "created_at",updatable = false)
     private LocalDateTime createdAt;
@@ -77,6 +98,13 @@ public class ProductSku {
     )
     private List<ProductAttribute> attributes = new ArrayList<>();
 
+    @PrePersist
+    void initStockState() {
+        if (stockState == null && quantity != null) {
+            stockState = StockState.of(quantity, lowStockThreshold);
+        }
+    }
+
     public boolean isLowStock(){
         return quantity <= lowStockThreshold;
     }
@@ -85,6 +113,10 @@ public class ProductSku {
         return quantity <= 0;
     }
 
+    public boolean hasLeasedStock(LocalDateTime now){
+        return Boolean.TRUE.equals(flashSale) || (flashSaleSettlesAt != null && flashSaleSettlesAt.isAfter(now));
+    }
+
     public Double getDiscountPercentage(){
         if (compareAtPrice != null && compareAtPrice > price){
             return ((compareAtPrice - price)/ compareAtPrice) * 100 ;
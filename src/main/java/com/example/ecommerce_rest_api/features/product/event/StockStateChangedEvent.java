@@ -0,0 +1,14 @@
+package com.example.ecommerce_rest_api.features.product.event;
+
+import com.example.ecommerce_rest_api.features.product.ENUM.StockState;
+
+// Published when a SKU moves between in stock, low stock and out of stock. Listed SKUs are
+// active and not deleted; only they are counted as low stock.
+public record StockStateChangedEvent(Long skuId,
+                                     Long productId,
+                                     String sku,
+                                     StockState previousState,
+                                     StockState state,
+                                     int quantity,
+                                     boolean listed) {
+}
@@ -0,0 +1,218 @@
+package com.example.ecommerce_rest_api.features.product.importer;
+
+import com.example.ecommerce_rest_api.features.product.dto.ProductCreateRequest;
+import com.example.ecommerce_rest_api.features.product.dto.ProductSkuCreateRequest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.*;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+// CSV with a header row and one SKU per record. Consecutive records with the same "handle"
+// (or "name" when there is no handle column) form one product; its product columns are taken
+// from the first record. Id lists (subCategoryIds, attributeIds) are separated by '|'.
+public class CsvProductImportReader implements ProductImportReader {
+
+    private static final Pattern ID_SEPARATOR = Pattern.compile("\\|");
+
+    private final Reader reader;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private long recordNumber;
+    private List<String> pending;
+    private long pendingRecordNumber;
+    private int lookahead = -2;
+
+    public CsvProductImportReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public ProductImportRow next() throws IOException {
+        if (columns.isEmpty()) {
+            readHeader();
+        }
+        if (pending == null) {
+            readPending();
+            if (pending == null) {
+                return null;
+            }
+        }
+
+        long rowNumber = pendingRecordNumber;
+        List<String> first = pending;
+        String groupKey = groupKey(first);
+
+        List<List<String>> records = new ArrayList<>();
+        do {
+            records.add(pending);
+            readPending();
+        } while (pending != null && groupKey.equals(groupKey(pending)));
+
+        try {
+            return ProductImportRow.of(rowNumber, toRequest(first, records));
+        } catch (IllegalArgumentException ex) {
+            return ProductImportRow.failed(rowNumber, ex.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void readHeader() throws IOException {
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV input is empty");
+        }
+        header.set(0, header.getFirst().replace("\uFEFF", ""));
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(), i);
+        }
+        for (String required : List.of("name", "sku", "price", "quantity")) {
+            if (!columns.containsKey(required.toLowerCase())) {
+                throw new IllegalArgumentException("CSV header is missing column '" + required + "'");
+            }
+        }
+    }
+
+    private void readPending() throws IOException {
+        do {
+            pending = readRecord();
+            pendingRecordNumber = recordNumber;
+        } while (pending != null && pending.stream().allMatch(String::isBlank));
+    }
+
+    private String groupKey(List<String> record) {
+        String handle = value(record, "handle");
+        return handle != null ? handle : Objects.toString(value(record, "name"), "");
+    }
+
+    private ProductCreateRequest toRequest(List<String> first, List<List<String>> records) {
+        ProductCreateRequest request = new ProductCreateRequest();
+        request.setName(value(first, "name"));
+        request.setDescription(value(first, "description"));
+        request.setSummary(value(first, "summary"));
+        request.setBrand(value(first, "brand"));
+        request.setIsActive(parse(first, "isActive", Boolean::valueOf, true));
+        request.setIsFeatured(parse(first, "isFeatured", Boolean::valueOf, false));
+        request.setSubCategoryIds(ids(first, "subCategoryIds"));
+
+        List<ProductSkuCreateRequest> skus = new ArrayList<>(records.size());
+        for (List<String> record : records) {
+            ProductSkuCreateRequest sku = new ProductSkuCreateRequest();
+            sku.setSku(value(record, "sku"));
+            sku.setPrice(parse(record, "price", Double::valueOf, null));
+            sku.setCompareAtPrice(parse(record, "compareAtPrice", Double::valueOf, null));
+            sku.setCostPrice(parse(record, "costPrice", Double::valueOf, null));
+            sku.setQuantity(parse(record, "quantity", Integer::valueOf, null));
+            sku.setLowStockThreshold(parse(record, "lowStockThreshold", Integer::valueOf, 10));
+            sku.setWeight(parse(record, "weight", Double::valueOf, null));
+            sku.setIsActive(parse(record, "skuIsActive", Boolean::valueOf, true));
+            sku.setAttributeIds(ids(record, "attributeIds"));
+            skus.add(sku);
+        }
+        request.setSkus(skus);
+        return request;
+    }
+
+    private String value(List<String> record, String column) {
+        Integer index = columns.get(column.toLowerCase());
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private <T> T parse(List<String> record, String column, Function<String, T> parser, T defaultValue) {
+        String value = value(record, column);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return parser.apply(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid value '" + value + "' in column '" + column + "'");
+        }
+    }
+
+    private List<Long> ids(List<String> record, String column) {
+        String value = value(record, column);
+        if (value == null) {
+            return new ArrayList<>();
+        }
+        List<Long> ids = new ArrayList<>();
+        for (String id : ID_SEPARATOR.split(value)) {
+            if (id.isBlank()) {
+                continue;
+            }
+            try {
+                ids.add(Long.valueOf(id.trim()));
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Invalid id '" + id + "' in column '" + column + "'");
+            }
+        }
+        return ids;
+    }
+
+    // RFC 4180 record: quoted fields may contain separators, doubled quotes and line breaks
+    private List<String> readRecord() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        recordNumber++;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("Unterminated quoted field in record " + recordNumber);
+                }
+                if (c == '"') {
+                    int nextChar = read();
+                    if (nextChar == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = nextChar;
+                        continue;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                break;
+            } else if (c == '\r') {
+                int nextChar = read();
+                if (nextChar != '\n') {
+                    lookahead = nextChar;
+                }
+                break;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private int read() throws IOException {
+        if (lookahead != -2) {
+            int c = lookahead;
+            lookahead = -2;
+            return c;
+        }
+        return reader.read();
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.ecommerce_rest_api.features.product.importer;
+
+import com.example.ecommerce_rest_api.features.product.dto.ProductCreateRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+// One ProductCreateRequest JSON object per line; blank lines are skipped
+public class NdjsonProductImportReader implements ProductImportReader {
+
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+    private long lineNumber;
+
+    public NdjsonProductImportReader(BufferedReader reader, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public ProductImportRow next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            lineNumber++;
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+
+        try {
+            return ProductImportRow.of(lineNumber, objectMapper.readValue(line, ProductCreateRequest.class));
+        } catch (JsonProcessingException ex) {
+            return ProductImportRow.failed(lineNumber, "Invalid JSON: " + ex.getOriginalMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.ecommerce_rest_api.features.product.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+// Reads an import file one product at a time, so the whole file is never held in memory
+public interface ProductImportReader extends Closeable {
+
+    // Next product, or null at the end of the input
+    ProductImportRow next() throws IOException;
+}
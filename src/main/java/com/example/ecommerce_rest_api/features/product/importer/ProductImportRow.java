@@ -0,0 +1,27 @@
+package com.example.ecommerce_rest_api.features.product.importer;
+
+import com.example.ecommerce_rest_api.features.product.dto.ProductCreateRequest;
+import lombok.Getter;
+
+// One product read from an import file. Rows that could not be parsed carry the error instead.
+@Getter
+public class ProductImportRow {
+
+    private final long rowNumber;
+    private final ProductCreateRequest request;
+    private final String error;
+
+    private ProductImportRow(long rowNumber, ProductCreateRequest request, String error) {
+        this.rowNumber = rowNumber;
+        this.request = request;
+        this.error = error;
+    }
+
+    public static ProductImportRow of(long rowNumber, ProductCreateRequest request) {
+        return new ProductImportRow(rowNumber, request, null);
+    }
+
+    public static ProductImportRow failed(long rowNumber, String error) {
+        return new ProductImportRow(rowNumber, null, error);
+    }
+}
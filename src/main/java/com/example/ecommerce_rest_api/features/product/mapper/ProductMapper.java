@@ -39,12 +39,12 @@ public class ProductMapper {
 
         ProductDTO productDTO = modelMapper.map(product, ProductDTO.class);
         productDTO.setAverageRating(product.getAverageRating() != null ? product.getAverageRating() : 0.0);
-        productDTO.setReviewCount(product.getReviews().size());
+        productDTO.setReviewCount(product.getReviewCount() != null ? product.getReviewCount() : 0);
         productDTO.setSkus(skus);
         productDTO.setImages(images);
-        productDTO.setMinPrice(product.getMinPrice());
-        productDTO.setMaxPrice(product.getMaxPrice());
-        productDTO.setTotalStock(product.getTotalStock());
+        productDTO.setMinPrice(product.getMinPrice() != null ? product.getMinPrice() : 0.0);
+        productDTO.setMaxPrice(product.getMaxPrice() != null ? product.getMaxPrice() : 0.0);
+        productDTO.setTotalStock(product.getTotalStock() != null ? product.getTotalStock() : 0);
         productDTO.setCategoryNames(categoryNames);
 
         return productDTO;
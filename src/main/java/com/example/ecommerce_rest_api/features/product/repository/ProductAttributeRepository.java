@@ -19,4 +19,7 @@ public interface ProductAttributeRepository  extends JpaRepository<ProductAttrib
 
     @Query("select pa from ProductAttribute pa join pa.skus ps where ps.product.id = :productId")
     List<ProductAttribute> findByProductId(@Param("productId") Long productId);
+
+    @Query("select pa.id from ProductAttribute pa")
+    List<Long> findAllIds();
 }
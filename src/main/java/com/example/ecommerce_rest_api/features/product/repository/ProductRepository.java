@@ -1,19 +1,33 @@
 package com.example.ecommerce_rest_api.features.product.repository;
 
 import com.example.ecommerce_rest_api.features.product.entity.Product;
+import jakarta.transaction.Transactional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface ProductRepository extends JpaRepository<Product,Long> {
+public interface ProductRepository extends JpaRepository<Product,Long>,
+        JpaSpecificationExecutor<Product>,
+        ProductSearchRepository {
 
     Optional<Product> findBySlug(String slug);
 
+    // Detail view: SKUs are joined in, the remaining collections are batch fetched
+    @EntityGraph("Product.detail")
+    Optional<Product> findDetailById(Long id);
+
+    @EntityGraph("Product.detail")
+    Optional<Product> findDetailBySlug(String slug);
+
     boolean existsBySlug(String slug);
 
     @Query("select p from Product p where p.isActive = true and p.deletedAt is null ")
@@ -22,10 +36,8 @@ public interface ProductRepository extends JpaRepository<Product,Long> {
     @Query("select p from Product p where p.isFeatured=true and p.isActive=true and p.deletedAt is null ")
     Page<Product> findAllFeatured(Pageable pageable);
 
-    @Query("select p from Product p where p.deletedAt is null and "+
-            "lower(p.name) like lower(concat('%', :keyword , '%')) or "+
-            "lower(p.description) like lower(concat('%', :keyword , '%')) " )
-    Page<Product> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
+    @Query("select p from Product p where p.deletedAt is null and p.id > :afterId order by p.id")
+    List<Product> findIndexBatch(@Param("afterId") Long afterId, Pageable pageable);
 
     @Query("select p from Product p join p.subCategories sc where sc.id in :categoryIds and p.deletedAt is null")
     Page<Product> findBySubCategoriesIds(@Param("categoryIds")List<Long> categoryIds, Pageable pageable);
@@ -35,4 +47,39 @@ public interface ProductRepository extends JpaRepository<Product,Long> {
 
     @Query("select distinct p.brand from Product p where p.brand is not null and p.deletedAt is null order by p.brand")
     List<String> findAllBrands();
+
+    // =============== Denormalized summary columns ===============
+
+    String SELLABLE_SKUS = " from product_skus s where s.product_id = products.id and s.is_active = true and s.deleted_at is null)";
+
+    String INVENTORY_STATS =
+            "min_price = coalesce((select min(s.price)" + SELLABLE_SKUS + ", 0), " +
+            "max_price = coalesce((select max(s.price)" + SELLABLE_SKUS + ", 0), " +
+            "total_stock = coalesce((select sum(s.quantity)" + SELLABLE_SKUS + ", 0)";
+
+    String APPROVED_REVIEWS = " from reviews r where r.product_id = products.id and r.is_approved = true)";
+
+    String REVIEW_STATS =
+            "review_count = (select count(*)" + APPROVED_REVIEWS + ", " +
+            "average_rating = coalesce((select avg(r.rating)" + APPROVED_REVIEWS + ", 0)";
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = "update products set " + INVENTORY_STATS + " where id in (:productIds)", nativeQuery = true)
+    int refreshInventoryStats(@Param("productIds") Collection<Long> productIds);
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = "update products set " + REVIEW_STATS + " where id in (:productIds)", nativeQuery = true)
+    int refreshReviewStats(@Param("productIds") Collection<Long> productIds);
+
+    @Transactional
+    @Modifying
+    @Query(value = "update products set " + INVENTORY_STATS + " where min_price is null", nativeQuery = true)
+    int backfillInventoryStats();
+
+    @Transactional
+    @Modifying
+    @Query(value = "update products set " + REVIEW_STATS + " where review_count is null", nativeQuery = true)
+    int backfillReviewStats();
 }
@@ -0,0 +1,21 @@
+package com.example.ecommerce_rest_api.features.product.repository;
+
+import com.example.ecommerce_rest_api.features.product.dto.FacetCountDTO;
+import com.example.ecommerce_rest_api.features.product.entity.Product;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface ProductSearchRepository {
+
+    List<Long> findMatchingIds(Specification<Product> spec);
+
+    // Rows of {id, value of the property} for the matching products
+    List<Object[]> findSortKeys(Specification<Product> spec, String property);
+
+    List<FacetCountDTO> countByBrand(Specification<Product> spec);
+
+    List<FacetCountDTO> countBySubCategory(Specification<Product> spec);
+
+    List<FacetCountDTO> countByPriceRange(Specification<Product> spec);
+}
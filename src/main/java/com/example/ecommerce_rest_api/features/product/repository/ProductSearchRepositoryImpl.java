@@ -0,0 +1,135 @@
+package com.example.ecommerce_rest_api.features.product.repository;
+
+import com.example.ecommerce_rest_api.features.category.entity.SubCategory;
+import com.example.ecommerce_rest_api.features.product.dto.FacetCountDTO;
+import com.example.ecommerce_rest_api.features.product.entity.Product;
+import com.example.ecommerce_rest_api.features.product.entity.ProductSku;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductSearchRepositoryImpl implements ProductSearchRepository {
+
+    // Lower bounds of the price buckets; the last bucket is open-ended
+    private static final double[] PRICE_BUCKETS = {0, 25, 50, 100, 250, 500};
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Long> findMatchingIds(Specification<Product> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> product = query.from(Product.class);
+
+        query.select(product.get("id"))
+                .where(spec.toPredicate(product, query, cb));
+
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public List<Object[]> findSortKeys(Specification<Product> spec, String property) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Product> product = query.from(Product.class);
+
+        query.multiselect(product.get("id"), product.get(property))
+                .where(spec.toPredicate(product, query, cb));
+
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public List<FacetCountDTO> countByBrand(Specification<Product> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Product> product = query.from(Product.class);
+        Path<String> brand = product.get("brand");
+        Expression<Long> count = cb.countDistinct(product);
+
+        query.multiselect(brand, count)
+                .where(spec.toPredicate(product, query, cb), cb.isNotNull(brand))
+                .groupBy(brand)
+                .orderBy(cb.desc(count));
+
+        return entityManager.createQuery(query).getResultList().stream()
+                .map(tuple -> new FacetCountDTO(
+                        tuple.get(0, String.class),
+                        tuple.get(0, String.class),
+                        tuple.get(1, Long.class)
+                ))
+                .toList();
+    }
+
+    @Override
+    public List<FacetCountDTO> countBySubCategory(Specification<Product> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Product> product = query.from(Product.class);
+        Join<Product, SubCategory> subCategory = product.join("subCategories");
+        Expression<Long> count = cb.countDistinct(product);
+
+        query.multiselect(subCategory.get("id"), subCategory.get("name"), count)
+                .where(spec.toPredicate(product, query, cb))
+                .groupBy(subCategory.get("id"), subCategory.get("name"))
+                .orderBy(cb.desc(count));
+
+        return entityManager.createQuery(query).getResultList().stream()
+                .map(tuple -> new FacetCountDTO(
+                        String.valueOf(tuple.get(0, Long.class)),
+                        tuple.get(1, String.class),
+                        tuple.get(2, Long.class)
+                ))
+                .toList();
+    }
+
+    @Override
+    public List<FacetCountDTO> countByPriceRange(Specification<Product> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Product> product = query.from(Product.class);
+        Join<Product, ProductSku> sku = product.join("skus");
+        Path<Double> price = sku.get("price");
+        Path<Long> productId = product.get("id");
+
+        // One conditional count per bucket, so all buckets come back in a single row
+        List<Selection<?>> selections = new ArrayList<>();
+        for (int i = 0; i < PRICE_BUCKETS.length; i++) {
+            Predicate inBucket = i + 1 < PRICE_BUCKETS.length
+                    ? cb.and(cb.ge(price, PRICE_BUCKETS[i]), cb.lt(price, PRICE_BUCKETS[i + 1]))
+                    : cb.ge(price, PRICE_BUCKETS[i]);
+            selections.add(cb.countDistinct(
+                    cb.<Long>selectCase().when(inBucket, productId).otherwise(cb.nullLiteral(Long.class))
+            ));
+        }
+
+        query.multiselect(selections)
+                .where(
+                        spec.toPredicate(product, query, cb),
+                        cb.isTrue(sku.get("isActive")),
+                        cb.isNull(sku.get("deletedAt"))
+                );
+
+        Tuple tuple = entityManager.createQuery(query).getSingleResult();
+
+        List<FacetCountDTO> buckets = new ArrayList<>();
+        for (int i = 0; i < PRICE_BUCKETS.length; i++) {
+            String label = i + 1 < PRICE_BUCKETS.length
+                    ? formatBound(PRICE_BUCKETS[i]) + "-" + formatBound(PRICE_BUCKETS[i + 1])
+                    : formatBound(PRICE_BUCKETS[i]) + "+";
+            Long count = tuple.get(i, Long.class);
+            buckets.add(new FacetCountDTO(label, label, count != null ? count : 0L));
+        }
+        return buckets;
+    }
+
+    private String formatBound(double bound) {
+        return String.valueOf((long) bound);
+    }
+}
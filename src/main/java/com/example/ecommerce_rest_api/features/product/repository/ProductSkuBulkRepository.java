@@ -0,0 +1,44 @@
+package com.example.ecommerce_rest_api.features.product.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ProductSkuBulkRepository {
+
+    // leasedStock: flash-sale instances may hold units of the SKU, so its quantity cannot be set
+    record SkuRef(Long id, String sku, Long productId, boolean leasedStock) {
+    }
+
+    // Null fields keep the current value; quantity is the stock on hand, including held units
+    record SkuChange(Long id, Double price, Double compareAtPrice, Integer quantity, Boolean isActive) {
+    }
+
+    record StockChange(Long skuId, int quantity) {
+    }
+
+    // Live (not deleted) SKUs matching any of the ids or codes
+    List<SkuRef> findRefs(Collection<Long> ids, Collection<String> codes);
+
+    // Applies the changes as batched UPDATEs; returns the affected row count per change. A change
+    // that sets the quantity of a SKU with leased stock is not applied (count 0).
+    int[] applyChanges(List<SkuChange> changes);
+
+    // Takes the quantities only where enough stock is left; a count of 0 means insufficient stock.
+    // Callers pass the changes sorted by SKU id and roll back on any 0.
+    int[] decrementStock(List<StockChange> changes);
+
+    int[] incrementStock(List<StockChange> changes);
+
+    // Moves up to max units out of the quantity of a flash-sale SKU under a row lock; returns the
+    // units taken, or -1 when the SKU is not (or no longer) in flash-sale mode
+    int leaseStock(Long skuId, int max);
+
+    // Turns flash-sale mode on; 0 when it already is on or the SKU is gone
+    int startFlashSale(Long skuId);
+
+    // Turns flash-sale mode off; quantities stay locked until settlesAt. 0 when it was not on.
+    int endFlashSale(Long skuId, LocalDateTime settlesAt);
+
+    List<SkuRef> findFlashSaleSkus();
+}
@@ -0,0 +1,162 @@
+package com.example.ecommerce_rest_api.features.product.repository;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.*;
+
+public class ProductSkuBulkRepositoryImpl implements ProductSkuBulkRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    // The quantity of a change is the stock on hand. Cart holds are already taken out of the
+    // column and are added back when released, so the column becomes on hand minus held; it can
+    // go negative when fewer units are on hand than carts hold.
+    private static final String UPDATE_SKU =
+            "update product_skus set " +
+            "price = coalesce(?, price), " +
+            "compare_at_price = coalesce(?, compare_at_price), " +
+            "quantity = coalesce(? - (select coalesce(sum(r.quantity), 0) from inventory_reservations r " +
+            "where r.sku_id = product_skus.id), quantity), " +
+            "is_active = coalesce(?, is_active), " +
+            "updated_at = ? " +
+            "where id = ? and deleted_at is null " +
+            "and (? is null or ((flash_sale is null or flash_sale = false) " +
+            "and (flash_sale_settles_at is null or flash_sale_settles_at <= ?)))";
+
+    private static final String DECREMENT_STOCK =
+            "update product_skus set quantity = quantity - ? where id = ? and quantity >= ?";
+
+    private static final String INCREMENT_STOCK =
+            "update product_skus set quantity = quantity + ? where id = ?";
+
+    private static final String LEASED_STOCK =
+            "case when flash_sale = true or flash_sale_settles_at > :now then 1 else 0 end as leased_stock";
+
+    private static final RowMapper<SkuRef> SKU_REF = (rs, rowNum) -> new SkuRef(
+            rs.getLong("id"), rs.getString("sku"), rs.getLong("product_id"), rs.getInt("leased_stock") == 1);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public ProductSkuBulkRepositoryImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<SkuRef> findRefs(Collection<Long> ids, Collection<String> codes) {
+        List<String> conditions = new ArrayList<>();
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        if (!ids.isEmpty()) {
+            conditions.add("id in (:ids)");
+            params.addValue("ids", ids);
+        }
+        if (!codes.isEmpty()) {
+            conditions.add("sku in (:codes)");
+            params.addValue("codes", codes);
+        }
+        if (conditions.isEmpty()) {
+            return List.of();
+        }
+
+        params.addValue("now", Timestamp.valueOf(LocalDateTime.now()));
+        return jdbcTemplate.query(
+                "select id, sku, product_id, " + LEASED_STOCK + " from product_skus where deleted_at is null and (" +
+                        String.join(" or ", conditions) + ")",
+                params,
+                SKU_REF);
+    }
+
+    @Override
+    public int[] applyChanges(List<SkuChange> changes) {
+        // Row locks first: a hold that is being taken or released commits before the holds are
+        // summed, and one that starts afterwards applies its change on top of the new quantity
+        List<Long> stockIds = changes.stream().filter(change -> change.quantity() != null).map(SkuChange::id).toList();
+        if (!stockIds.isEmpty()) {
+            jdbcTemplate.queryForList("select id from product_skus where id in (:ids) order by id for update",
+                    new MapSqlParameterSource("ids", stockIds), Long.class);
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return flatten(changes.size(), jdbcTemplate.getJdbcTemplate().batchUpdate(UPDATE_SKU, changes, BATCH_SIZE, (ps, change) -> {
+            ps.setObject(1, change.price(), Types.DOUBLE);
+            ps.setObject(2, change.compareAtPrice(), Types.DOUBLE);
+            ps.setObject(3, change.quantity(), Types.INTEGER);
+            ps.setObject(4, change.isActive(), Types.BOOLEAN);
+            ps.setTimestamp(5, now);
+            ps.setLong(6, change.id());
+            ps.setObject(7, change.quantity(), Types.INTEGER);
+            ps.setTimestamp(8, now);
+        }));
+    }
+
+    @Override
+    public int[] decrementStock(List<StockChange> changes) {
+        return flatten(changes.size(), jdbcTemplate.getJdbcTemplate().batchUpdate(DECREMENT_STOCK, changes, BATCH_SIZE, (ps, change) -> {
+            ps.setInt(1, change.quantity());
+            ps.setLong(2, change.skuId());
+            ps.setInt(3, change.quantity());
+        }));
+    }
+
+    @Override
+    public int[] incrementStock(List<StockChange> changes) {
+        return flatten(changes.size(), jdbcTemplate.getJdbcTemplate().batchUpdate(INCREMENT_STOCK, changes, BATCH_SIZE, (ps, change) -> {
+            ps.setInt(1, change.quantity());
+            ps.setLong(2, change.skuId());
+        }));
+    }
+
+    @Override
+    public int leaseStock(Long skuId, int max) {
+        MapSqlParameterSource params = new MapSqlParameterSource("id", skuId);
+        List<Integer> quantity = jdbcTemplate.queryForList(
+                "select quantity from product_skus where id = :id and deleted_at is null and flash_sale = true for update",
+                params, Integer.class);
+        if (quantity.isEmpty()) {
+            return -1;
+        }
+        int leased = quantity.getFirst() == null ? 0 : Math.min(Math.max(quantity.getFirst(), 0), max);
+        if (leased > 0) {
+            jdbcTemplate.update("update product_skus set quantity = quantity - :leased where id = :id",
+                    params.addValue("leased", leased));
+        }
+        return leased;
+    }
+
+    @Override
+    public int startFlashSale(Long skuId) {
+        return jdbcTemplate.update("update product_skus set flash_sale = true, flash_sale_settles_at = null " +
+                        "where id = :id and deleted_at is null and (flash_sale is null or flash_sale = false)",
+                new MapSqlParameterSource("id", skuId));
+    }
+
+    @Override
+    public int endFlashSale(Long skuId, LocalDateTime settlesAt) {
+        return jdbcTemplate.update("update product_skus set flash_sale = false, flash_sale_settles_at = :settlesAt " +
+                        "where id = :id and flash_sale = true",
+                new MapSqlParameterSource("id", skuId).addValue("settlesAt", Timestamp.valueOf(settlesAt)));
+    }
+
+    @Override
+    public List<SkuRef> findFlashSaleSkus() {
+        return jdbcTemplate.query(
+                "select id, sku, product_id, " + LEASED_STOCK + " from product_skus " +
+                        "where flash_sale = true and deleted_at is null",
+                new MapSqlParameterSource("now", Timestamp.valueOf(LocalDateTime.now())),
+                SKU_REF);
+    }
+
+    private static int[] flatten(int size, int[][] batches) {
+        int[] counts = new int[size];
+        int offset = 0;
+        for (int[] batch : batches) {
+            System.arraycopy(batch, 0, counts, offset, batch.length);
+            offset += batch.length;
+        }
+        return counts;
+    }
+}
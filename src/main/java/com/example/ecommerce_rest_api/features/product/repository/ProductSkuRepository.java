@@ -1,27 +1,45 @@
 package com.example.ecommerce_rest_api.features.product.repository;
 
+import com.example.ecommerce_rest_api.features.admin.dto.LowStockProductDTO;
+import com.example.ecommerce_rest_api.features.product.ENUM.StockState;
 import com.example.ecommerce_rest_api.features.product.entity.ProductSku;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface ProductSkuRepository extends JpaRepository<ProductSku,Long> {
+public interface ProductSkuRepository extends JpaRepository<ProductSku,Long>,
+        ProductSkuBulkRepository {
 
     Optional<ProductSku> findBySku(String sku);
 
     boolean existsBySku(String sku);
 
+    @Query("select ps.sku from ProductSku ps where ps.sku in :skus")
+    List<String> findExistingSkus(@Param("skus") Collection<String> skus);
+
     @Query("select ps from ProductSku ps where ps.product.id = :productId and ps.deletedAt is null ")
     List<ProductSku> findByProductId(@Param("productId") Long productId);
 
     @Query("select ps from ProductSku ps where ps.product.id = :productId and ps.isActive=true and ps.deletedAt is null ")
     List<ProductSku> findActiveByProductId(@Param("productId") Long productId);
 
-    @Query("select ps from ProductSku ps where ps.quantity <= ps.lowStockThreshold and ps.isActive=true and ps.deletedAt is null ")
-    List<ProductSku> findLowStockSkus();
+    // Served by the stock_state index; the state is kept current by StockStateTracker
+    @Query(value = "select new com.example.ecommerce_rest_api.features.admin.dto.LowStockProductDTO(" +
+            "p.id, p.name, ps.id, ps.sku, ps.quantity, ps.lowStockThreshold, ps.stockState) " +
+            "from ProductSku ps join ps.product p " +
+            "where ps.stockState in :states and ps.isActive=true and ps.deletedAt is null ",
+            countQuery = "select count(ps) from ProductSku ps " +
+                    "where ps.stockState in :states and ps.isActive=true and ps.deletedAt is null ")
+    Page<LowStockProductDTO> findByStockState(@Param("states") Collection<StockState> states, Pageable pageable);
+
+    @Query("select count(ps) from ProductSku ps where ps.stockState in :states and ps.isActive=true and ps.deletedAt is null ")
+    long countByStockState(@Param("states") Collection<StockState> states);
 
     @Query("select ps from ProductSku ps where ps.quantity = 0 and ps.isActive=true and ps.deletedAt is null ")
     List<ProductSku> findOutOfStock();
@@ -0,0 +1,123 @@
+package com.example.ecommerce_rest_api.features.product.repository;
+
+import com.example.ecommerce_rest_api.features.category.entity.SubCategory;
+import com.example.ecommerce_rest_api.features.product.dto.ProductSearchRequest;
+import com.example.ecommerce_rest_api.features.product.entity.Product;
+import com.example.ecommerce_rest_api.features.product.entity.ProductSku;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public final class ProductSpecifications {
+
+    // Facet dimensions; a facet is counted with every filter except its own
+    public enum Facet {
+        BRAND, SUB_CATEGORY, PRICE
+    }
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> forSearch(ProductSearchRequest request, Collection<Long> keywordMatches) {
+        return forSearch(request, keywordMatches, null);
+    }
+
+    // keywordMatches are the ids returned by the search index; null means the keyword is matched in SQL
+    public static Specification<Product> forSearch(ProductSearchRequest request,
+                                                   Collection<Long> keywordMatches,
+                                                   Facet excluded) {
+        List<Specification<Product>> specs = new ArrayList<>();
+        specs.add(notDeleted());
+
+        if (keywordMatches != null) {
+            specs.add(idIn(keywordMatches));
+        } else if (StringUtils.hasText(request.getKeyword())) {
+            specs.add(keyword(request.getKeyword()));
+        }
+        if (excluded != Facet.SUB_CATEGORY && request.getCategoryIds() != null && !request.getCategoryIds().isEmpty()) {
+            specs.add(inSubCategories(request.getCategoryIds()));
+        }
+        if (excluded != Facet.PRICE && (request.getMinPrice() != null || request.getMaxPrice() != null)) {
+            specs.add(priceBetween(request.getMinPrice(), request.getMaxPrice()));
+        }
+        if (excluded != Facet.BRAND && StringUtils.hasText(request.getBrand())) {
+            specs.add(brand(request.getBrand()));
+        }
+        if (request.getIsActive() != null) {
+            specs.add(active(request.getIsActive()));
+        }
+        if (request.getIsFeatured() != null) {
+            specs.add(featured(request.getIsFeatured()));
+        }
+
+        return Specification.allOf(specs);
+    }
+
+    public static Specification<Product> notDeleted() {
+        return (root, query, cb) -> cb.isNull(root.get("deletedAt"));
+    }
+
+    public static Specification<Product> idIn(Collection<Long> ids) {
+        return (root, query, cb) -> ids.isEmpty() ? cb.disjunction() : root.get("id").in(ids);
+    }
+
+    public static Specification<Product> keyword(String keyword) {
+        String pattern = "%" + keyword.toLowerCase() + "%";
+        return (root, query, cb) -> cb.or(
+                cb.like(cb.lower(root.get("name")), pattern),
+                cb.like(cb.lower(root.get("description")), pattern)
+        );
+    }
+
+    public static Specification<Product> inSubCategories(List<Long> subCategoryIds) {
+        return (root, query, cb) -> {
+            Subquery<Long> subquery = query.subquery(Long.class);
+            Root<Product> correlated = subquery.correlate(root);
+            Join<Product, SubCategory> subCategory = correlated.join("subCategories");
+            subquery.select(subCategory.get("id"))
+                    .where(subCategory.get("id").in(subCategoryIds));
+            return cb.exists(subquery);
+        };
+    }
+
+    // A product matches when at least one of its sellable SKUs is in range
+    public static Specification<Product> priceBetween(Double minPrice, Double maxPrice) {
+        return (root, query, cb) -> {
+            Subquery<Long> subquery = query.subquery(Long.class);
+            Root<ProductSku> sku = subquery.from(ProductSku.class);
+
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.equal(sku.get("product"), root));
+            predicates.add(cb.isTrue(sku.get("isActive")));
+            predicates.add(cb.isNull(sku.get("deletedAt")));
+            if (minPrice != null) {
+                predicates.add(cb.ge(sku.get("price"), minPrice));
+            }
+            if (maxPrice != null) {
+                predicates.add(cb.le(sku.get("price"), maxPrice));
+            }
+
+            subquery.select(sku.get("id")).where(predicates.toArray(new Predicate[0]));
+            return cb.exists(subquery);
+        };
+    }
+
+    public static Specification<Product> brand(String brand) {
+        return (root, query, cb) -> cb.equal(root.get("brand"), brand);
+    }
+
+    public static Specification<Product> active(Boolean isActive) {
+        return (root, query, cb) -> cb.equal(root.get("isActive"), isActive);
+    }
+
+    public static Specification<Product> featured(Boolean isFeatured) {
+        return (root, query, cb) -> cb.equal(root.get("isFeatured"), isFeatured);
+    }
+}
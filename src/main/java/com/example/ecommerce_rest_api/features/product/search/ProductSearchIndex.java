@@ -0,0 +1,281 @@
+package com.example.ecommerce_rest_api.features.product.search;
+
+import com.example.ecommerce_rest_api.features.product.entity.Product;
+import com.example.ecommerce_rest_api.features.product.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+// In-memory inverted index over product name, brand, summary and description.
+// Keyword searches get their ranked matches from here (BM25) instead of a LIKE scan.
+// A rebuild scans the products without holding the lock and swaps the new postings in at the
+// end; updates committed while it runs are replayed onto the new postings before the swap.
+// A search returns at most max-candidates ids, the best scoring ones, so a broad term hands the
+// database a bounded candidate set to filter instead of every product that mentions it.
+@Slf4j
+@Component
+public class ProductSearchIndex {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int BUILD_BATCH_SIZE = 500;
+    private static final int MIN_PREFIX_LENGTH = 3;
+
+    // BM25 parameters
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Field weights: a term in the name counts three times a term in the description
+    private static final int NAME_WEIGHT = 3;
+    private static final int BRAND_WEIGHT = 2;
+    private static final int SUMMARY_WEIGHT = 1;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final ProductRepository productRepository;
+    private final int maxCandidates;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object rebuildLock = new Object();
+    // Guarded by lock
+    private Postings index = new Postings();
+    // Guarded by lock; non-null while a rebuild runs. A null value is a removal.
+    private Map<Long, Map<String, Integer>> replay;
+    private volatile boolean ready;
+
+    public ProductSearchIndex(ProductRepository productRepository,
+                              @Value("${app.product.search.max-candidates:1000}") int maxCandidates) {
+        this.productRepository = productRepository;
+        this.maxCandidates = maxCandidates;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        CompletableFuture.runAsync(this::rebuild);
+    }
+
+    // Searches keep using the current postings while the new ones are built
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            withWriteLock(() -> replay = new HashMap<>());
+            try {
+                Postings fresh = new Postings();
+                long afterId = 0L;
+                List<Product> batch;
+                do {
+                    batch = productRepository.findIndexBatch(afterId, PageRequest.of(0, BUILD_BATCH_SIZE));
+                    for (Product product : batch) {
+                        fresh.add(product.getId(), analyze(product));
+                        afterId = product.getId();
+                    }
+                } while (batch.size() == BUILD_BATCH_SIZE);
+
+                withWriteLock(() -> {
+                    replay.forEach((productId, terms) -> fresh.put(productId, terms));
+                    replay = null;
+                    index = fresh;
+                });
+                ready = true;
+                log.info("Product search index built with {} documents and {} terms",
+                        fresh.documents.size(), fresh.postings.size());
+            } catch (RuntimeException ex) {
+                withWriteLock(() -> replay = null);
+                log.error("Failed to build product search index, keyword search falls back to SQL", ex);
+            }
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Re-indexes the product once the surrounding transaction commits
+    public void indexAfterCommit(Product product) {
+        Long productId = product.getId();
+        Map<String, Integer> terms = product.getDeletedAt() == null ? analyze(product) : null;
+        afterCommit(() -> update(productId, terms));
+    }
+
+    public void removeAfterCommit(Long productId) {
+        afterCommit(() -> update(productId, null));
+    }
+
+    // Returns the ids of the best max-candidates products matching any query term, best match first.
+    // The last query term also matches as a prefix ("lapt" finds "laptop"); a document counts
+    // once per query term, with its best-scoring expansion.
+    public List<Long> search(String query) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            Postings current = index;
+            int documentCount = current.documents.size();
+            double averageLength = documentCount == 0 ? 0 : (double) current.totalLength / documentCount;
+
+            for (int i = 0; i < terms.size(); i++) {
+                String term = terms.get(i);
+                boolean prefix = i == terms.size() - 1 && term.length() >= MIN_PREFIX_LENGTH;
+                Map<Long, Integer> exact = current.postings.get(term);
+                Collection<Map<Long, Integer>> matches = prefix
+                        ? current.postings.subMap(term, true, term + Character.MAX_VALUE, false).values()
+                        : exact != null ? List.of(exact) : List.of();
+
+                Map<Long, Double> termScores = new HashMap<>();
+                for (Map<Long, Integer> posting : matches) {
+                    double idf = Math.log(1 + (documentCount - posting.size() + 0.5) / (posting.size() + 0.5));
+                    for (Map.Entry<Long, Integer> entry : posting.entrySet()) {
+                        int frequency = entry.getValue();
+                        int length = current.documentLengths.get(entry.getKey());
+                        double norm = K1 * (1 - B + B * length / averageLength);
+                        double score = idf * frequency * (K1 + 1) / (frequency + norm);
+                        termScores.merge(entry.getKey(), score, Math::max);
+                    }
+                }
+                termScores.forEach((productId, score) -> scores.merge(productId, score, Double::sum));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return rank(scores, maxCandidates);
+    }
+
+    // ============== Helper Methods ==============
+
+    // Best first, ties by id; keeps only the top entries in a heap whose head is the worst kept
+    private static List<Long> rank(Map<Long, Double> scores, int limit) {
+        Comparator<Map.Entry<Long, Double>> best = Map.Entry.<Long, Double>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey());
+        PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>(best.reversed());
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            if (top.size() < limit) {
+                top.add(entry);
+            } else if (best.compare(entry, top.peek()) < 0) {
+                top.poll();
+                top.add(entry);
+            }
+        }
+        List<Map.Entry<Long, Double>> entries = new ArrayList<>(top);
+        entries.sort(best);
+        List<Long> ranked = new ArrayList<>(entries.size());
+        for (Map.Entry<Long, Double> entry : entries) {
+            ranked.add(entry.getKey());
+        }
+        return ranked;
+    }
+
+    private void update(Long productId, Map<String, Integer> terms) {
+        withWriteLock(() -> {
+            index.put(productId, terms);
+            if (replay != null) {
+                replay.put(productId, terms);
+            }
+        });
+    }
+
+    private void withWriteLock(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Map<String, Integer> analyze(Product product) {
+        Map<String, Integer> terms = new HashMap<>();
+        addField(terms, product.getName(), NAME_WEIGHT);
+        addField(terms, product.getBrand(), BRAND_WEIGHT);
+        addField(terms, product.getSummary(), SUMMARY_WEIGHT);
+        addField(terms, product.getDescription(), DESCRIPTION_WEIGHT);
+        return terms;
+    }
+
+    private void addField(Map<String, Integer> terms, String text, int weight) {
+        for (String token : tokenize(text)) {
+            terms.merge(token, weight, Integer::sum);
+        }
+    }
+
+    private List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (token.length() > 1 || (!token.isEmpty() && Character.isDigit(token.charAt(0)))) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static final class Postings {
+        private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+        private final Map<Long, Map<String, Integer>> documents = new HashMap<>();
+        private final Map<Long, Integer> documentLengths = new HashMap<>();
+        private long totalLength;
+
+        // Replaces the document; null terms remove it
+        private void put(Long productId, Map<String, Integer> terms) {
+            remove(productId);
+            if (terms != null) {
+                add(productId, terms);
+            }
+        }
+
+        private void add(Long productId, Map<String, Integer> terms) {
+            int length = 0;
+            for (Map.Entry<String, Integer> entry : terms.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), key -> new HashMap<>()).put(productId, entry.getValue());
+                length += entry.getValue();
+            }
+            documents.put(productId, terms);
+            documentLengths.put(productId, length);
+            totalLength += length;
+        }
+
+        private void remove(Long productId) {
+            Map<String, Integer> terms = documents.remove(productId);
+            if (terms == null) {
+                return;
+            }
+            for (String term : terms.keySet()) {
+                Map<Long, Integer> posting = postings.get(term);
+                if (posting != null) {
+                    posting.remove(productId);
+                    if (posting.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+            totalLength -= documentLengths.remove(productId);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.ecommerce_rest_api.features.product.service;
+
+import com.example.ecommerce_rest_api.features.product.dto.ProductAttributeDTO;
+import com.example.ecommerce_rest_api.features.product.dto.ProductDTO;
+import com.example.ecommerce_rest_api.features.product.dto.ProductImageDTO;
+import com.example.ecommerce_rest_api.features.product.dto.ProductSkuDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Bounded LRU cache of product detail DTOs, looked up by id or slug. The bound is an estimated
+// size in bytes rather than an entry count, since a product with many SKUs and images is much
+// larger than a simple one. Cached DTOs are shared between requests and must not be mutated.
+// Hits, view counts and invalidations take no lock: the maps are concurrent, each entry stamps
+// its last access, and the weight is one atomic counter. Only eviction is serialized, and a put
+// that finds another thread already evicting just moves on. Eviction drops the least recently
+// used entries down to a low-water mark, so one sort pays for many puts.
+@Component
+public class ProductDetailCache {
+
+    private final long maxWeight;
+    private final long evictToWeight;
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>(256);
+    private final ConcurrentHashMap<String, Long> idsBySlug = new ConcurrentHashMap<>(256);
+    private final AtomicLong totalWeight = new AtomicLong();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    // Bumped on every invalidation; a load that started before an invalidation is not cached
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public ProductDetailCache(@Value("${app.product.detail-cache.max-weight-kb:65536}") long maxWeightKb,
+                              MeterRegistry meterRegistry) {
+        this.maxWeight = maxWeightKb * 1024;
+        this.evictToWeight = maxWeight / 10 * 9;
+        this.hits = Counter.builder("product.detail.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("product.detail.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("product.detail.cache.evictions").register(meterRegistry);
+        Gauge.builder("product.detail.cache.size", this, ProductDetailCache::size).register(meterRegistry);
+        Gauge.builder("product.detail.cache.weight.bytes", this, ProductDetailCache::weight).register(meterRegistry);
+    }
+
+    public ProductDTO getById(Long productId) {
+        return hit(entries.get(productId));
+    }
+
+    public ProductDTO getBySlug(String slug) {
+        Long productId = idsBySlug.get(slug);
+        Entry entry = productId != null ? entries.get(productId) : null;
+        if (productId != null && (entry == null || !slug.equals(entry.product.getSlug()))) {
+            // Left behind by a put racing a removal, or the product was renamed
+            idsBySlug.remove(slug, productId);
+            entry = null;
+        }
+        return hit(entry);
+    }
+
+    // Take before reading the product from the database and pass to put()
+    public long beginLoad() {
+        return invalidations.get();
+    }
+
+    public void put(ProductDTO product, long loadToken) {
+        long entryWeight = estimateWeight(product);
+        if (entryWeight > maxWeight || invalidations.get() != loadToken) {
+            return;
+        }
+        Entry entry = new Entry(product, entryWeight);
+        Entry previous = entries.put(product.getId(), entry);
+        totalWeight.addAndGet(entryWeight - (previous != null ? previous.weight : 0));
+        if (previous != null && !previous.product.getSlug().equals(product.getSlug())) {
+            idsBySlug.remove(previous.product.getSlug(), product.getId());
+        }
+        idsBySlug.put(product.getSlug(), product.getId());
+
+        // An invalidation counts up before it removes, so one that began after the check above
+        // either removes this entry itself or is seen here
+        if (invalidations.get() != loadToken) {
+            removeEntry(product.getId(), entry);
+            return;
+        }
+        if (totalWeight.get() > maxWeight) {
+            evict();
+        }
+    }
+
+    // Views counted since the entry was cached; its DTO holds the count as of loading
+    public long recordView(Long productId) {
+        Entry entry = entries.get(productId);
+        return entry != null ? entry.viewsSinceLoad.incrementAndGet() : 0L;
+    }
+
+    // Drops the products now and again once the current transaction commits, so a request
+    // reading the old rows in between cannot leave a stale entry behind
+    public void invalidate(Collection<Long> productIds) {
+        evict(productIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<Long> ids = List.copyOf(productIds);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(ids);
+                }
+            });
+        }
+    }
+
+    public void invalidate(Long productId) {
+        invalidate(List.of(productId));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long weight() {
+        return totalWeight.get();
+    }
+
+    private ProductDTO hit(Entry entry) {
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        entry.lastAccess = System.nanoTime();
+        hits.increment();
+        return entry.product;
+    }
+
+    private void evict(Collection<Long> productIds) {
+        invalidations.incrementAndGet();
+        for (Long productId : productIds) {
+            Entry entry = entries.get(productId);
+            if (entry != null) {
+                removeEntry(productId, entry);
+            }
+        }
+    }
+
+    // Least recently used first; access times are copied first, since hits keep changing them
+    private void evict() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            List<Candidate> candidates = new ArrayList<>(entries.size());
+            entries.forEach((productId, entry) -> candidates.add(new Candidate(productId, entry, entry.lastAccess)));
+            candidates.sort(Comparator.comparingLong(Candidate::lastAccess));
+            for (Candidate candidate : candidates) {
+                if (totalWeight.get() <= evictToWeight) {
+                    break;
+                }
+                if (removeEntry(candidate.productId(), candidate.entry())) {
+                    evictions.increment();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    // Only removes this very entry, so a newer one put meanwhile stays and keeps its weight
+    private boolean removeEntry(Long productId, Entry entry) {
+        if (!entries.remove(productId, entry)) {
+            return false;
+        }
+        idsBySlug.remove(entry.product.getSlug(), productId);
+        totalWeight.addAndGet(-entry.weight);
+        return true;
+    }
+
+    // Rough retained size: object headers plus two bytes per character
+    private static long estimateWeight(ProductDTO product) {
+        long weight = 512 + chars(product.getName()) + chars(product.getSlug()) + chars(product.getDescription())
+                + chars(product.getSummary()) + chars(product.getCoverImage()) + chars(product.getBrand());
+        if (product.getCategoryNames() != null) {
+            for (String name : product.getCategoryNames()) {
+                weight += 48 + chars(name);
+            }
+        }
+        if (product.getImages() != null) {
+            for (ProductImageDTO image : product.getImages()) {
+                weight += 128 + chars(image.getImageUrl());
+            }
+        }
+        if (product.getSkus() != null) {
+            for (ProductSkuDTO sku : product.getSkus()) {
+                weight += 256 + chars(sku.getSku());
+                if (sku.getAttributes() != null) {
+                    for (ProductAttributeDTO attribute : sku.getAttributes()) {
+                        weight += 96 + chars(attribute.getValue()) + chars(attribute.getDisplayValue());
+                    }
+                }
+            }
+        }
+        return weight;
+    }
+
+    private static long chars(String value) {
+        return value != null ? 40 + 2L * value.length() : 0;
+    }
+
+    private static final class Entry {
+        private final ProductDTO product;
+        private final long weight;
+        private final AtomicLong viewsSinceLoad = new AtomicLong();
+        private volatile long lastAccess = System.nanoTime();
+
+        private Entry(ProductDTO product, long weight) {
+            this.product = product;
+            this.weight = weight;
+        }
+    }
+
+    private record Candidate(Long productId, Entry entry, long lastAccess) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.ecommerce_rest_api.features.product.service;
+
+import com.example.ecommerce_rest_api.features.product.dto.ProductImportResultDTO;
+import com.example.ecommerce_rest_api.features.product.importer.ProductImportFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface ProductImportService {
+
+    ProductImportResultDTO importProducts(InputStream input, ProductImportFormat format) throws IOException;
+}
@@ -0,0 +1,357 @@
+package com.example.ecommerce_rest_api.features.product.service;
+
+import com.example.ecommerce_rest_api.common.persistence.IdBlockAllocator;
+import com.example.ecommerce_rest_api.common.persistence.IdSequences;
+import com.example.ecommerce_rest_api.features.category.repository.SubCategoryRepository;
+import com.example.ecommerce_rest_api.features.product.ENUM.StockState;
+import com.example.ecommerce_rest_api.features.product.dto.ProductCreateRequest;
+import com.example.ecommerce_rest_api.features.product.dto.ProductImportErrorDTO;
+import com.example.ecommerce_rest_api.features.product.dto.ProductImportResultDTO;
+import com.example.ecommerce_rest_api.features.product.dto.ProductSkuCreateRequest;
+import com.example.ecommerce_rest_api.features.product.entity.Product;
+import com.example.ecommerce_rest_api.features.product.importer.*;
+import com.example.ecommerce_rest_api.features.product.repository.ProductAttributeRepository;
+import com.example.ecommerce_rest_api.features.product.repository.ProductSkuRepository;
+import com.example.ecommerce_rest_api.features.product.search.ProductSearchIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Bulk catalog import. The input is read one product at a time and handled in chunks: each
+// chunk is validated in memory against preloaded sub-category/attribute ids, checked for
+// existing SKU codes with one query, and written with batched JDBC inserts in its own
+// transaction. A failing row is reported and skipped; a failing chunk is rolled back as a whole.
+@Slf4j
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final String INSERT_PRODUCT =
+            "insert into products (id, name, slug, description, summary, brand, is_active, is_featured, view_count, " +
+            "min_price, max_price, total_stock, average_rating, review_count, created_at, updated_at) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?, 0, ?, ?, ?, 0, 0, ?, ?)";
+    private static final String INSERT_PRODUCT_CATEGORY =
+            "insert into product_categories (product_id, sub_category_id) values (?, ?)";
+    private static final String INSERT_SKU =
+            "insert into product_skus (id, sku, price, compare_at_price, cost_price, quantity, low_stock_threshold, " +
+            "weight, is_active, created_at, updated_at, product_id, stock_state) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_SKU_ATTRIBUTE =
+            "insert into sku_attributes (sku_id, attribute_id) values (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final SubCategoryRepository subCategoryRepository;
+    private final ProductAttributeRepository productAttributeRepository;
+    private final ProductSkuRepository productSkuRepository;
+    private final ProductSlugAllocator productSlugAllocator;
+    private final ProductSearchIndex productSearchIndex;
+    private final IdBlockAllocator idBlockAllocator;
+    private final int chunkSize;
+
+    public ProductImportServiceImpl(JdbcTemplate jdbcTemplate,
+                                    TransactionTemplate transactionTemplate,
+                                    ObjectMapper objectMapper,
+                                    Validator validator,
+                                    SubCategoryRepository subCategoryRepository,
+                                    ProductAttributeRepository productAttributeRepository,
+                                    ProductSkuRepository productSkuRepository,
+                                    ProductSlugAllocator productSlugAllocator,
+                                    ProductSearchIndex productSearchIndex,
+                                    IdBlockAllocator idBlockAllocator,
+                                    @Value("${app.product.import.chunk-size:500}") int chunkSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.subCategoryRepository = subCategoryRepository;
+        this.productAttributeRepository = productAttributeRepository;
+        this.productSkuRepository = productSkuRepository;
+        this.productSlugAllocator = productSlugAllocator;
+        this.productSearchIndex = productSearchIndex;
+        this.idBlockAllocator = idBlockAllocator;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public ProductImportResultDTO importProducts(InputStream input, ProductImportFormat format) throws IOException {
+        long startedAt = System.nanoTime();
+        ImportContext context = new ImportContext(
+                new HashSet<>(subCategoryRepository.findAllActiveIds()),
+                new HashSet<>(productAttributeRepository.findAllIds())
+        );
+
+        try (ProductImportReader reader = openReader(input, format)) {
+            List<ProductImportRow> chunk = new ArrayList<>(chunkSize);
+            ProductImportRow row;
+            while ((row = reader.next()) != null) {
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, context);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(chunk, context);
+            }
+        }
+
+        ProductImportResultDTO result = context.result;
+        result.setDurationMs((System.nanoTime() - startedAt) / 1_000_000);
+        log.info("Product import finished: {} rows, {} imported, {} failed in {} ms",
+                result.getTotalRows(), result.getImported(), result.getFailed(), result.getDurationMs());
+        return result;
+    }
+
+    private ProductImportReader openReader(InputStream input, ProductImportFormat format) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        return switch (format) {
+            case NDJSON -> new NdjsonProductImportReader(reader, objectMapper);
+            case CSV -> new CsvProductImportReader(reader);
+        };
+    }
+
+    private void importChunk(List<ProductImportRow> chunk, ImportContext context) {
+        List<ProductImportRow> accepted = new ArrayList<>(chunk.size());
+        Set<String> chunkSkus = new HashSet<>();
+        for (ProductImportRow row : chunk) {
+            context.result.setTotalRows(context.result.getTotalRows() + 1);
+            String error = row.getError() != null ? row.getError() : validate(row.getRequest(), context, chunkSkus);
+            if (error != null) {
+                context.fail(row, error);
+            } else {
+                accepted.add(row);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        // One set query for the whole chunk instead of existsBySku per SKU
+        Set<String> existing = new HashSet<>(productSkuRepository.findExistingSkus(accepted.stream()
+                .flatMap(row -> row.getRequest().getSkus().stream())
+                .map(ProductSkuCreateRequest::getSku)
+                .toList()));
+        if (!existing.isEmpty()) {
+            accepted.removeIf(row -> {
+                List<String> clashes = row.getRequest().getSkus().stream()
+                        .map(ProductSkuCreateRequest::getSku)
+                        .filter(existing::contains)
+                        .toList();
+                if (clashes.isEmpty()) {
+                    return false;
+                }
+                context.fail(row, "SKU code already exists: " + String.join(", ", clashes));
+                return true;
+            });
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> insertChunk(accepted));
+            context.result.setImported(context.result.getImported() + accepted.size());
+            // Only committed codes block later rows; a rolled back chunk leaves them free
+            accepted.forEach(row -> row.getRequest().getSkus()
+                    .forEach(sku -> context.seenSkus.add(sku.getSku())));
+        } catch (DataAccessException | TransactionException ex) {
+            String cause = NestedExceptionUtils.getMostSpecificCause(ex).getMessage();
+            log.warn("Product import chunk of {} rows rolled back: {}", accepted.size(), cause);
+            accepted.forEach(row -> context.fail(row, "Chunk rolled back: " + cause));
+        }
+    }
+
+    // chunkSkus collects the codes of rows accepted so far in this chunk
+    private String validate(ProductCreateRequest request, ImportContext context, Set<String> chunkSkus) {
+        List<String> violations = new ArrayList<>();
+        validator.validate(request).forEach(violation -> violations.add(describe(violation)));
+        if (request.getSkus() != null) {
+            request.getSkus().forEach(sku -> validator.validate(sku).forEach(violation -> violations.add(describe(violation))));
+        }
+        if (!violations.isEmpty()) {
+            return String.join("; ", violations);
+        }
+
+        List<Long> unknownSubCategories = request.getSubCategoryIds().stream()
+                .filter(id -> !context.subCategoryIds.contains(id))
+                .toList();
+        if (!unknownSubCategories.isEmpty()) {
+            return "Unknown sub-category id(s): " + unknownSubCategories;
+        }
+
+        Set<String> codes = new HashSet<>();
+        for (ProductSkuCreateRequest sku : request.getSkus()) {
+            if (sku.getAttributeIds() != null) {
+                List<Long> unknownAttributes = sku.getAttributeIds().stream()
+                        .filter(id -> !context.attributeIds.contains(id))
+                        .toList();
+                if (!unknownAttributes.isEmpty()) {
+                    return "Unknown attribute id(s) on SKU " + sku.getSku() + ": " + unknownAttributes;
+                }
+            }
+            if (!codes.add(sku.getSku()) || chunkSkus.contains(sku.getSku())
+                    || context.seenSkus.contains(sku.getSku())) {
+                return "Duplicate SKU code in import: " + sku.getSku();
+            }
+        }
+        chunkSkus.addAll(codes);
+        return null;
+    }
+
+    private static String describe(ConstraintViolation<?> violation) {
+        return violation.getPropertyPath() + ": " + violation.getMessage();
+    }
+
+    private void insertChunk(List<ProductImportRow> rows) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<ProductCreateRequest> requests = rows.stream().map(ProductImportRow::getRequest).toList();
+        List<String> slugs = productSlugAllocator.allocateAll(
+                requests.stream().map(ProductCreateRequest::getName).toList());
+
+        List<Integer> indexes = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            indexes.add(i);
+        }
+        List<Long> productIds = idBlockAllocator.allocate(IdSequences.PRODUCTS, requests.size());
+        batchInsert(INSERT_PRODUCT, indexes, (ps, i) -> {
+            ProductCreateRequest request = requests.get(i);
+            List<ProductSkuCreateRequest> sellable = request.getSkus().stream()
+                    .filter(sku -> !Boolean.FALSE.equals(sku.getIsActive()))
+                    .toList();
+            ps.setLong(1, productIds.get(i));
+            ps.setString(2, request.getName());
+            ps.setString(3, slugs.get(i));
+            ps.setString(4, request.getDescription());
+            ps.setString(5, request.getSummary());
+            ps.setString(6, request.getBrand());
+            ps.setObject(7, request.getIsActive() == null || request.getIsActive(), Types.BOOLEAN);
+            ps.setObject(8, Boolean.TRUE.equals(request.getIsFeatured()), Types.BOOLEAN);
+            ps.setDouble(9, sellable.stream().mapToDouble(ProductSkuCreateRequest::getPrice).min().orElse(0.0));
+            ps.setDouble(10, sellable.stream().mapToDouble(ProductSkuCreateRequest::getPrice).max().orElse(0.0));
+            ps.setInt(11, sellable.stream().mapToInt(ProductSkuCreateRequest::getQuantity).sum());
+            ps.setTimestamp(12, now);
+            ps.setTimestamp(13, now);
+        });
+
+        List<long[]> categoryLinks = new ArrayList<>();
+        List<SkuInsert> skus = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            Long productId = productIds.get(i);
+            requests.get(i).getSubCategoryIds().stream().distinct()
+                    .forEach(subCategoryId -> categoryLinks.add(new long[]{productId, subCategoryId}));
+            requests.get(i).getSkus().forEach(sku -> skus.add(new SkuInsert(productId, sku)));
+        }
+        batchInsertLinks(INSERT_PRODUCT_CATEGORY, categoryLinks);
+
+        List<Long> skuIds = idBlockAllocator.allocate(IdSequences.PRODUCT_SKUS, skus.size());
+        List<Integer> skuIndexes = new ArrayList<>(skus.size());
+        for (int i = 0; i < skus.size(); i++) {
+            skuIndexes.add(i);
+        }
+        batchInsert(INSERT_SKU, skuIndexes, (ps, i) -> {
+            ProductSkuCreateRequest request = skus.get(i).request();
+            ps.setLong(1, skuIds.get(i));
+            ps.setString(2, request.getSku());
+            ps.setDouble(3, request.getPrice());
+            ps.setObject(4, request.getCompareAtPrice(), Types.DOUBLE);
+            ps.setObject(5, request.getCostPrice(), Types.DOUBLE);
+            ps.setInt(6, request.getQuantity());
+            int lowStockThreshold = request.getLowStockThreshold() != null ? request.getLowStockThreshold() : 10;
+            ps.setInt(7, lowStockThreshold);
+            ps.setObject(8, request.getWeight(), Types.DOUBLE);
+            ps.setObject(9, request.getIsActive() == null || request.getIsActive(), Types.BOOLEAN);
+            ps.setTimestamp(10, now);
+            ps.setTimestamp(11, now);
+            ps.setLong(12, skus.get(i).productId());
+            ps.setString(13, StockState.of(request.getQuantity(), lowStockThreshold).name());
+        });
+
+        List<long[]> attributeLinks = new ArrayList<>();
+        for (int i = 0; i < skus.size(); i++) {
+            Long skuId = skuIds.get(i);
+            List<Long> attributeIds = skus.get(i).request().getAttributeIds();
+            if (attributeIds != null) {
+                attributeIds.stream().distinct()
+                        .forEach(attributeId -> attributeLinks.add(new long[]{skuId, attributeId}));
+            }
+        }
+        batchInsertLinks(INSERT_SKU_ATTRIBUTE, attributeLinks);
+
+        for (int i = 0; i < requests.size(); i++) {
+            ProductCreateRequest request = requests.get(i);
+            productSearchIndex.indexAfterCommit(Product.builder()
+                    .id(productIds.get(i))
+                    .name(request.getName())
+                    .brand(request.getBrand())
+                    .summary(request.getSummary())
+                    .description(request.getDescription())
+                    .build());
+        }
+    }
+
+    // Ids come from the entity sequences, so rows can be inserted in plain batches
+    private <T> void batchInsert(String sql, List<T> items, ParameterizedPreparedStatementSetter<T> setter) {
+        if (!items.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, items, items.size(), setter);
+        }
+    }
+
+    private void batchInsertLinks(String sql, List<long[]> links) {
+        if (!links.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, links, links.size(), (ps, link) -> {
+                ps.setLong(1, link[0]);
+                ps.setLong(2, link[1]);
+            });
+        }
+    }
+
+    private record SkuInsert(Long productId, ProductSkuCreateRequest request) {
+    }
+
+    // Per-import state: the preloaded id dictionaries, SKU codes of committed chunks and the result
+    private static final class ImportContext {
+        private final Set<Long> subCategoryIds;
+        private final Set<Long> attributeIds;
+        private final Set<String> seenSkus = new HashSet<>();
+        private final ProductImportResultDTO result = ProductImportResultDTO.builder().build();
+
+        private ImportContext(Set<Long> subCategoryIds, Set<Long> attributeIds) {
+            this.subCategoryIds = subCategoryIds;
+            this.attributeIds = attributeIds;
+        }
+
+        private void fail(ProductImportRow row, String message) {
+            result.setFailed(result.getFailed() + 1);
+            if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+                result.getErrors().add(ProductImportErrorDTO.builder()
+                        .row(row.getRowNumber())
+                        .name(row.getRequest() != null ? row.getRequest().getName() : null)
+                        .message(message)
+                        .build());
+            }
+        }
+    }
+}
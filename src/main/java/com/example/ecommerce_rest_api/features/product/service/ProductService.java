@@ -13,8 +13,8 @@ public interface ProductService {
     ProductDTO updateProduct(Long productId, ProductUpdateRequest request);
     ProductDTO getProductById(Long productId);
     ProductDTO getProductBySlug(String slug);
-    PageResponse<ProductDTO> getAllProducts(int pageNo, int pageSize, String sortBy, String sortDir);
-    PageResponse<ProductDTO> searchProducts(ProductSearchRequest request,int pageNo, int pageSize);
+    PageResponse<ProductDTO> getAllProducts(int pageNo, int pageSize, String sortBy, String sortDir, String after);
+    ProductSearchResponse searchProducts(ProductSearchRequest request,int pageNo, int pageSize);
     void deleteProduct(Long productId);
     void softDeleteProduct(Long productId);
 
@@ -28,6 +28,7 @@ public interface ProductService {
     ProductSkuDTO addProductSku(Long productId, ProductSkuCreateRequest request);
     ProductSkuDTO updateProductSku(Long skuId, ProductSkuUpdateRequest request);
     void deleteProductSku(Long skuId);
+    SkuBulkUpdateResultDTO bulkUpdateSkus(SkuBulkUpdateRequest request);
     ProductSkuDTO getSkuById(Long skuId);
     List<ProductSkuDTO> getProductSkus(Long productId);
 
@@ -39,7 +40,7 @@ public interface ProductService {
     // Featured & Active
     void toggleFeatured(Long productId);
     void toggleActive(Long productId);
-    PageResponse<ProductDTO> getFeaturedProducts(int pageNo, int pageSize, String sortBy, String sortDir);
+    PageResponse<ProductDTO> getFeaturedProducts(int pageNo, int pageSize, String sortBy, String sortDir, String after);
 
     // Utility
     List<String> getAllBrands();
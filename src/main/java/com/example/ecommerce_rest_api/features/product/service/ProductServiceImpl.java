@@ -4,6 +4,7 @@ import com.example.ecommerce_rest_api.common.exception.ResourceNotFoundException
 import com.example.ecommerce_rest_api.common.response.ImgBBUploadResponse;
 import com.example.ecommerce_rest_api.common.response.PageResponse;
 import com.example.ecommerce_rest_api.common.service.ImgBBService;
+import com.example.ecommerce_rest_api.features.admin.service.DailyUniqueCounter;
 import com.example.ecommerce_rest_api.features.category.entity.SubCategory;
 import com.example.ecommerce_rest_api.features.category.repository.SubCategoryRepository;
 import com.example.ecommerce_rest_api.features.product.ENUM.AttributeType;
@@ -16,23 +17,41 @@ import com.example.ecommerce_rest_api.features.product.mapper.ProductMapper;
 import com.example.ecommerce_rest_api.features.product.repository.ProductAttributeRepository;
 import com.example.ecommerce_rest_api.features.product.repository.ProductImageRepository;
 import com.example.ecommerce_rest_api.features.product.repository.ProductRepository;
+import com.example.ecommerce_rest_api.features.product.repository.ProductSkuBulkRepository;
 import com.example.ecommerce_rest_api.features.product.repository.ProductSkuRepository;
+import com.example.ecommerce_rest_api.features.product.repository.ProductSpecifications;
+import com.example.ecommerce_rest_api.features.product.search.ProductSearchIndex;
+import com.example.ecommerce_rest_api.utils.CursorCodec;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class ProductServiceImpl implements ProductService{
 
+    private static final int SKU_BULK_LOOKUP_SIZE = 500;
+    // Leased units go back to the row as increments, so a stock level set during the sale
+    // would be raised by whatever the shards still hold when it ends
+    private static final String FLASH_SALE_STOCK_MESSAGE =
+            "SKU is in flash-sale mode; disable it before setting the stock";
+    // Non-null columns that can be paged by cursor
+    private static final Set<String> CURSOR_SORT_KEYS = Set.of("id", "name", "slug", "createdAt", "updatedAt");
+
     private final ProductRepository productRepository;
     private final ProductSkuRepository productSkuRepository;
     private final ProductImageRepository productImageRepository;
@@ -40,6 +59,15 @@ public class ProductServiceImpl implements ProductService{
     private final SubCategoryRepository subCategoryRepository;
     private final ImgBBService imgBBService;
     private final ProductMapper productMapper;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductViewCounter productViewCounter;
+    private final DailyUniqueCounter dailyUniqueCounter;
+    private final ProductDetailCache productDetailCache;
+    private final StockStateTracker stockStateTracker;
+    private final ProductSlugAllocator productSlugAllocator;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     public ProductServiceImpl(ProductRepository productRepository,
                               ProductSkuRepository productSkuRepository,
@@ -47,7 +75,13 @@ public class ProductServiceImpl implements ProductService{
                               ProductAttributeRepository productAttributeRepository,
                               SubCategoryRepository subCategoryRepository,
                               ImgBBService imgBBService,
-                              ProductMapper productMapper
+                              ProductMapper productMapper,
+                              ProductSearchIndex productSearchIndex,
+                              ProductViewCounter productViewCounter,
+                              DailyUniqueCounter dailyUniqueCounter,
+                              ProductDetailCache productDetailCache,
+                              StockStateTracker stockStateTracker,
+                              ProductSlugAllocator productSlugAllocator
     ) {
         this.productRepository = productRepository;
         this.productSkuRepository = productSkuRepository;
@@ -56,6 +90,12 @@ public class ProductServiceImpl implements ProductService{
         this.subCategoryRepository = subCategoryRepository;
         this.imgBBService = imgBBService;
         this.productMapper = productMapper;
+        this.productSearchIndex = productSearchIndex;
+        this.productViewCounter = productViewCounter;
+        this.dailyUniqueCounter = dailyUniqueCounter;
+        this.productDetailCache = productDetailCache;
+        this.stockStateTracker = stockStateTracker;
+        this.productSlugAllocator = productSlugAllocator;
     }
 
     // =============== Product CRUD Methods ===============
@@ -70,7 +110,7 @@ public class ProductServiceImpl implements ProductService{
             throw new ResourceNotFoundException("SubCategory", "id", 0);
         }
 
-        String slug = generateSlug(request.getName());
+        String slug = productSlugAllocator.allocate(request.getName());
 
         Product product = Product.builder()
                 .name(request.getName())
@@ -125,7 +165,12 @@ public class ProductServiceImpl implements ProductService{
             product.addSku(sku);
         }
 
+        product.recalculateInventoryStats();
+        product.setAverageRating(0.0);
+        product.setReviewCount(0);
+
         Product savedProduct = productRepository.save(product);
+        productSearchIndex.indexAfterCommit(savedProduct);
 
         return productMapper.toDTO(savedProduct);
     }
@@ -139,7 +184,8 @@ public class ProductServiceImpl implements ProductService{
 
         if (request.getName() != null){
             if (!request.getName().equals(product.getName())){
-                product.setSlug(generateSlug(request.getName()));
+                product.setName(request.getName());
+                product.setSlug(productSlugAllocator.allocate(request.getName()));
             }
         }
 
@@ -173,32 +219,47 @@ public class ProductServiceImpl implements ProductService{
         }
 
         Product savedProduct = productRepository.save(product);
+        productSearchIndex.indexAfterCommit(savedProduct);
+        productDetailCache.invalidate(productId);
         return productMapper.toDTO(savedProduct);
     }
 
     @Override
     public ProductDTO getProductById(Long productId) {
-        Product product = productRepository.findById(productId).orElseThrow(
-                () -> new ResourceNotFoundException("Product", "id", productId)
-        );
-        incrementViewCount(product);
-        return productMapper.toDTO(product);
+        ProductDTO cached = productDetailCache.getById(productId);
+        if (cached == null) {
+            long loadToken = productDetailCache.beginLoad();
+            Product product = productRepository.findDetailById(productId).orElseThrow(
+                    () -> new ResourceNotFoundException("Product", "id", productId)
+            );
+            cached = cacheDetail(product, loadToken);
+        }
+        return toDetailDTO(cached);
     }
 
     @Override
     public ProductDTO getProductBySlug(String slug) {
-        Product product = productRepository.findBySlug(slug).orElseThrow(
-                () -> new ResourceNotFoundException("Product", "slug", 0L)
-        );
-        incrementViewCount(product);
-        return productMapper.toDTO(product);
+        ProductDTO cached = productDetailCache.getBySlug(slug);
+        if (cached == null) {
+            long loadToken = productDetailCache.beginLoad();
+            Product product = productRepository.findDetailBySlug(slug).orElseThrow(
+                    () -> new ResourceNotFoundException("Product", "slug", 0L)
+            );
+            cached = cacheDetail(product, loadToken);
+        }
+        return toDetailDTO(cached);
     }
 
     @Override
-    public PageResponse<ProductDTO> getAllProducts(int pageNo, int pageSize, String sortBy, String sortDir) {
+    public PageResponse<ProductDTO> getAllProducts(int pageNo, int pageSize, String sortBy, String sortDir, String after) {
         Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.by(sortBy).ascending() :
                 Sort.by(sortBy).descending();
 
+        if (after != null) {
+            return scrollProducts(Specification.allOf(ProductSpecifications.notDeleted(),
+                    ProductSpecifications.active(true)), sort, after, pageSize);
+        }
+
         Pageable pageable = PageRequest.of(pageNo,pageSize, sort);
 
         Page<Product> productPage = productRepository.findAllActive(pageable);
@@ -208,18 +269,45 @@ public class ProductServiceImpl implements ProductService{
     }
 
     @Override
-    public PageResponse<ProductDTO> searchProducts(ProductSearchRequest request,int pageNo, int pageSize) {
-        String sortBy = request.getSortBy() != null ? request.getSortBy() : "createdAt";
-        String sortDir = request.getSortDirection() != null ? request.getSortDirection() : "DESC";
-
-        Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.by(sortBy).ascending() :
-                Sort.by(sortBy).descending();
-        Pageable pageable = PageRequest.of(pageNo,pageSize, sort);
-
-        Page<Product> productPage = productRepository.searchByKeyword(request.getKeyword(), pageable);
+    public ProductSearchResponse searchProducts(ProductSearchRequest request,int pageNo, int pageSize) {
+        // Keyword matches come ranked from the in-memory index; until it is built the keyword is matched in SQL
+        List<Long> keywordMatches = StringUtils.hasText(request.getKeyword()) && productSearchIndex.isReady()
+                ? productSearchIndex.search(request.getKeyword())
+                : null;
+
+        Page<Product> productPage;
+
+        if (keywordMatches != null) {
+            // Paged in memory; the database only applies the other filters to the bounded candidate set
+            List<Long> ordered = isRelevanceSort(request.getSortBy())
+                    ? filterKeywordMatches(request, keywordMatches)
+                    : sortKeywordMatches(request, keywordMatches);
+            productPage = loadPage(ordered, PageRequest.of(pageNo, pageSize));
+        } else {
+            String sortBy = resolveSearchSortProperty(request.getSortBy());
+            String sortDir = request.getSortDirection() != null ? request.getSortDirection() : "DESC";
+
+            Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.by(sortBy).ascending() :
+                    Sort.by(sortBy).descending();
+            Pageable pageable = PageRequest.of(pageNo,pageSize, sort);
+
+            productPage = productRepository.findAll(ProductSpecifications.forSearch(request, null), pageable);
+        }
         Page<ProductDTO> productDTOPage =productPage.map(productMapper::toDTO);
 
-        return new PageResponse<>(productDTOPage);
+        ProductFacetsDTO facets = ProductFacetsDTO.builder()
+                .brands(countFacet(request, keywordMatches, ProductSpecifications.Facet.BRAND,
+                        productRepository::countByBrand))
+                .subCategories(countFacet(request, keywordMatches, ProductSpecifications.Facet.SUB_CATEGORY,
+                        productRepository::countBySubCategory))
+                .priceRanges(countFacet(request, keywordMatches, ProductSpecifications.Facet.PRICE,
+                        productRepository::countByPriceRange))
+                .build();
+
+        return ProductSearchResponse.builder()
+                .results(new PageResponse<>(productDTOPage))
+                .facets(facets)
+                .build();
     }
 
     @Override
@@ -229,6 +317,8 @@ public class ProductServiceImpl implements ProductService{
                 () -> new ResourceNotFoundException("Product", "id", productId)
         );
         productRepository.delete(product);
+        productSearchIndex.removeAfterCommit(productId);
+        productDetailCache.invalidate(productId);
     }
 
     @Override
@@ -238,6 +328,8 @@ public class ProductServiceImpl implements ProductService{
         );
         product.setDeletedAt(LocalDateTime.now());
         productRepository.save(product);
+        productSearchIndex.removeAfterCommit(productId);
+        productDetailCache.invalidate(productId);
     }
 
     @Override
@@ -264,6 +356,7 @@ public class ProductServiceImpl implements ProductService{
                 .build();
 
         ProductImage savedImage = productImageRepository.save(productImage);
+        productDetailCache.invalidate(productId);
 
         return productMapper.mapToImageDTO(savedImage);
     }
@@ -297,6 +390,7 @@ public class ProductServiceImpl implements ProductService{
 
         newPrimary.setIsPrimary(true);
         productImageRepository.save(newPrimary);
+        productDetailCache.invalidate(productId);
     }
 
     @Override
@@ -315,6 +409,7 @@ public class ProductServiceImpl implements ProductService{
                 productImageRepository.save(images.getFirst());
             }
         }
+        productDetailCache.invalidate(image.getProduct().getId());
 
     }
 
@@ -330,6 +425,9 @@ public class ProductServiceImpl implements ProductService{
         }
 
         createSkuForProduct(product,request);
+        productRepository.refreshInventoryStats(List.of(productId));
+        stockStateTracker.sync(List.of(productId));
+        productDetailCache.invalidate(productId);
 
         ProductSku sku = productSkuRepository.findBySku(request.getSku())
                 .orElseThrow(() -> new RuntimeException("Error creating SKU"));
@@ -343,6 +441,9 @@ public class ProductServiceImpl implements ProductService{
         ProductSku sku = productSkuRepository.findById(skuId).orElseThrow(
                 () -> new ResourceNotFoundException("SKU", "id", skuId)
         );
+        if (request.getQuantity() != null && sku.hasLeasedStock(LocalDateTime.now())) {
+            throw new IllegalArgumentException(FLASH_SALE_STOCK_MESSAGE);
+        }
 
         if (request.getPrice() != null){
             sku.setPrice(request.getPrice());
@@ -350,9 +451,6 @@ public class ProductServiceImpl implements ProductService{
         if (request.getCompareAtPrice() != null){
             sku.setCompareAtPrice(request.getCompareAtPrice());
         }
-        if (request.getQuantity() != null){
-            sku.setQuantity(request.getQuantity());
-        }
         if (request.getIsActive() != null){
             sku.setIsActive(request.getIsActive());
         }
@@ -361,7 +459,20 @@ public class ProductServiceImpl implements ProductService{
             sku.setAttributes(attributes);
         }
 
-        ProductSku savedSku = productSkuRepository.save(sku);
+        ProductSku savedSku = productSkuRepository.saveAndFlush(sku);
+        if (request.getQuantity() != null){
+            // The requested quantity is the stock on hand; the update accounts for cart holds
+            int[] counts = productSkuRepository.applyChanges(List.of(
+                    new ProductSkuBulkRepository.SkuChange(skuId, null, null, request.getQuantity(), null)));
+            if (counts[0] == 0) {
+                // Flash-sale mode was turned on by another instance since the SKU was read
+                throw new IllegalArgumentException(FLASH_SALE_STOCK_MESSAGE);
+            }
+            entityManager.refresh(savedSku);
+        }
+        productRepository.refreshInventoryStats(List.of(sku.getProduct().getId()));
+        stockStateTracker.sync(List.of(sku.getProduct().getId()));
+        productDetailCache.invalidate(sku.getProduct().getId());
 
         return productMapper.mapToSkuDTO(savedSku);
     }
@@ -375,6 +486,106 @@ public class ProductServiceImpl implements ProductService{
         sku.setIsActive(false);
         sku.setDeletedAt(LocalDateTime.now());
         productSkuRepository.save(sku);
+        productRepository.refreshInventoryStats(List.of(sku.getProduct().getId()));
+        stockStateTracker.sync(List.of(sku.getProduct().getId()));
+        productDetailCache.invalidate(sku.getProduct().getId());
+    }
+
+    @Override
+    @Transactional
+    public SkuBulkUpdateResultDTO bulkUpdateSkus(SkuBulkUpdateRequest request) {
+        List<SkuBulkUpdateItem> items = request.getItems();
+
+        // Resolve ids and codes to SKU rows, a few hundred per query
+        Map<Long, ProductSkuBulkRepository.SkuRef> refsById = new HashMap<>();
+        Map<String, ProductSkuBulkRepository.SkuRef> refsByCode = new HashMap<>();
+        for (int from = 0; from < items.size(); from += SKU_BULK_LOOKUP_SIZE) {
+            List<SkuBulkUpdateItem> chunk = items.subList(from, Math.min(from + SKU_BULK_LOOKUP_SIZE, items.size()));
+            Set<Long> ids = chunk.stream().map(SkuBulkUpdateItem::getId)
+                    .filter(Objects::nonNull).collect(Collectors.toSet());
+            Set<String> codes = chunk.stream().filter(item -> item.getId() == null).map(SkuBulkUpdateItem::getSku)
+                    .filter(StringUtils::hasText).collect(Collectors.toSet());
+            for (ProductSkuBulkRepository.SkuRef ref : productSkuRepository.findRefs(ids, codes)) {
+                refsById.put(ref.id(), ref);
+                refsByCode.put(ref.sku(), ref);
+            }
+        }
+
+        SkuBulkUpdateRowDTO[] results = new SkuBulkUpdateRowDTO[items.size()];
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            SkuBulkUpdateItem item = items.get(i);
+            if (item.getId() == null && !StringUtils.hasText(item.getSku())) {
+                results[i] = bulkRow(i, null, "INVALID", "SKU id or code is required");
+            } else if (item.getPrice() == null && item.getCompareAtPrice() == null
+                    && item.getQuantity() == null && item.getIsActive() == null) {
+                results[i] = bulkRow(i, item.getId(), "INVALID", "Nothing to update");
+            } else {
+                ProductSkuBulkRepository.SkuRef ref = item.getId() != null
+                        ? refsById.get(item.getId())
+                        : refsByCode.get(item.getSku());
+                if (ref == null) {
+                    results[i] = bulkRow(i, item.getId(), "NOT_FOUND", "SKU not found");
+                } else if (item.getQuantity() != null && ref.leasedStock()) {
+                    results[i] = bulkRow(i, ref.id(), "INVALID", FLASH_SALE_STOCK_MESSAGE);
+                } else {
+                    results[i] = bulkRow(i, ref.id(), null, null);
+                    pending.add(i);
+                }
+            }
+        }
+
+        // Rows are updated in id order so concurrent bulk updates lock them in the same order
+        pending.sort(Comparator.comparing(i -> results[i].getSkuId()));
+        List<ProductSkuBulkRepository.SkuChange> changes = pending.stream()
+                .map(i -> new ProductSkuBulkRepository.SkuChange(results[i].getSkuId(), items.get(i).getPrice(),
+                        items.get(i).getCompareAtPrice(), items.get(i).getQuantity(), items.get(i).getIsActive()))
+                .toList();
+        int[] counts = changes.isEmpty() ? new int[0] : productSkuRepository.applyChanges(changes);
+
+        // A stock change misses either a SKU deleted since the lookup or one whose flash-sale mode
+        // was turned on by another instance; look the misses up again to tell them apart
+        Set<Long> missedStock = new HashSet<>();
+        for (int k = 0; k < pending.size(); k++) {
+            if (counts[k] == 0 && changes.get(k).quantity() != null) {
+                missedStock.add(changes.get(k).id());
+            }
+        }
+        Set<Long> leased = missedStock.isEmpty() ? Set.of() : productSkuRepository.findRefs(missedStock, Set.of()).stream()
+                .filter(ProductSkuBulkRepository.SkuRef::leasedStock)
+                .map(ProductSkuBulkRepository.SkuRef::id)
+                .collect(Collectors.toSet());
+
+        Set<Long> productIds = new HashSet<>();
+        int updated = 0;
+        for (int k = 0; k < pending.size(); k++) {
+            SkuBulkUpdateRowDTO row = results[pending.get(k)];
+            if (counts[k] == 0 && leased.contains(row.getSkuId())) {
+                row.setStatus("INVALID");
+                row.setMessage(FLASH_SALE_STOCK_MESSAGE);
+            } else if (counts[k] == 0) {
+                row.setStatus("NOT_FOUND");
+                row.setMessage("SKU not found");
+            } else {
+                row.setStatus("UPDATED");
+                productIds.add(refsById.get(row.getSkuId()).productId());
+                updated++;
+            }
+        }
+
+        // Summaries and cached details once per affected product, not once per row
+        if (!productIds.isEmpty()) {
+            productRepository.refreshInventoryStats(productIds);
+            stockStateTracker.sync(productIds);
+            productDetailCache.invalidate(productIds);
+        }
+
+        return SkuBulkUpdateResultDTO.builder()
+                .updated(updated)
+                .failed(items.size() - updated)
+                .affectedProducts(productIds.size())
+                .results(Arrays.asList(results))
+                .build();
     }
 
     @Override
@@ -433,6 +644,7 @@ public class ProductServiceImpl implements ProductService{
         Product product = findProductById(productId);
         product.setIsFeatured(!product.getIsFeatured());
         productRepository.save(product);
+        productDetailCache.invalidate(productId);
     }
 
     @Override
@@ -441,13 +653,19 @@ public class ProductServiceImpl implements ProductService{
         Product product = findProductById(productId);
         product.setIsActive(!product.getIsActive());
         productRepository.save(product);
+        productDetailCache.invalidate(productId);
     }
 
     @Override
-    public PageResponse<ProductDTO> getFeaturedProducts(int pageNo, int pageSize, String sortBy, String sortDir) {
+    public PageResponse<ProductDTO> getFeaturedProducts(int pageNo, int pageSize, String sortBy, String sortDir, String after) {
         Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.by(sortBy).ascending() :
                 Sort.by(sortBy).descending();
 
+        if (after != null) {
+            return scrollProducts(Specification.allOf(ProductSpecifications.notDeleted(),
+                    ProductSpecifications.active(true), ProductSpecifications.featured(true)), sort, after, pageSize);
+        }
+
         Pageable pageable = PageRequest.of(pageNo,pageSize, sort);
         Page<Product> products = productRepository.findAllFeatured(pageable);
         return new PageResponse<>(products.map(productMapper::toDTO));
@@ -459,29 +677,123 @@ public class ProductServiceImpl implements ProductService{
     }
 
     // =============== Helper Methods ===============
+
+    private SkuBulkUpdateRowDTO bulkRow(int index, Long skuId, String status, String message) {
+        return SkuBulkUpdateRowDTO.builder()
+                .index(index)
+                .skuId(skuId)
+                .status(status)
+                .message(message)
+                .build();
+    }
+
+    // Cursor mode: seeks past the row encoded in "after" (empty for the first page), skips the COUNT
+    private PageResponse<ProductDTO> scrollProducts(Specification<Product> spec, Sort sort, String after, int pageSize) {
+        Sort keysetSort = CursorCodec.withTieBreaker(sort, CURSOR_SORT_KEYS);
+        Window<Product> window = productRepository.findBy(spec, query -> query
+                .sortBy(keysetSort)
+                .limit(pageSize)
+                .scroll(CursorCodec.decode(after, keysetSort)));
+        return new PageResponse<>(window.map(productMapper::toDTO), pageSize, after.isBlank());
+    }
     private Product findProductById(Long productId) {
         return productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
     }
 
-    private String generateSlug(String name) {
-        String baseSlug = name.toLowerCase()
-                .replaceAll("[^a-z0-9\\s-]", "")
-                .replaceAll("\\s+", "-")
-                .replaceAll("-+", "-")
-                .trim();
+    private boolean isRelevanceSort(String sortBy) {
+        return sortBy == null || sortBy.equalsIgnoreCase("relevance");
+    }
+
+    // Keeps the index ranking: the database only narrows the matches down by the remaining filters
+    private List<Long> filterKeywordMatches(ProductSearchRequest request, List<Long> keywordMatches) {
+        Set<Long> passing = new HashSet<>(productRepository.findMatchingIds(
+                ProductSpecifications.forSearch(request, keywordMatches)));
+        return keywordMatches.stream()
+                .filter(passing::contains)
+                .toList();
+    }
+
+    // Reads the sort key of every filtered match and orders them like the SQL sort would,
+    // with missing values last and the id as tie-breaker
+    private List<Long> sortKeywordMatches(ProductSearchRequest request, List<Long> keywordMatches) {
+        String property = resolveSearchSortProperty(request.getSortBy());
+        boolean ascending = Sort.Direction.ASC.name().equalsIgnoreCase(request.getSortDirection());
+
+        List<Object[]> keyed = new ArrayList<>(productRepository.findSortKeys(
+                ProductSpecifications.forSearch(request, keywordMatches), property));
+        keyed.sort((a, b) -> {
+            if (a[1] == null || b[1] == null) {
+                int nulls = a[1] == null ? (b[1] == null ? 0 : 1) : -1;
+                return nulls != 0 ? nulls : Long.compare((Long) a[0], (Long) b[0]);
+            }
+            int byKey = compareSortKeys(a[1], b[1]);
+            return byKey != 0 ? (ascending ? byKey : -byKey) : Long.compare((Long) a[0], (Long) b[0]);
+        });
+        return keyed.stream().map(row -> (Long) row[0]).toList();
+    }
 
-        String slug = baseSlug;
-        int counter = 1;
-        while (productRepository.existsBySlug(slug)) {
-            slug = baseSlug + "-" + counter++;
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareSortKeys(Object a, Object b) {
+        if (a instanceof String left && b instanceof String right) {
+            return left.compareToIgnoreCase(right);
         }
-        return slug;
+        return ((Comparable) a).compareTo(b);
     }
 
-    private void incrementViewCount(Product product){
-        product.setViewCount(product.getViewCount() + 1);
-        productRepository.save(product);
+    private Page<Product> loadPage(List<Long> orderedIds, Pageable pageable) {
+        int from = (int) Math.min(pageable.getOffset(), orderedIds.size());
+        int to = Math.min(from + pageable.getPageSize(), orderedIds.size());
+        List<Long> pageIds = orderedIds.subList(from, to);
+
+        Map<Long, Product> productsById = productRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        // A product deleted since the index lookup is left out, and out of the total
+        List<Product> content = pageIds.stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+
+        return new PageImpl<>(content, pageable, orderedIds.size() - (pageIds.size() - content.size()));
+    }
+
+    private List<FacetCountDTO> countFacet(ProductSearchRequest request,
+                                           List<Long> keywordMatches,
+                                           ProductSpecifications.Facet facet,
+                                           Function<Specification<Product>, List<FacetCountDTO>> counter) {
+        return counter.apply(ProductSpecifications.forSearch(request, keywordMatches, facet));
+    }
+
+    private String resolveSearchSortProperty(String sortBy) {
+        if (sortBy == null) {
+            return "createdAt";
+        }
+        return switch (sortBy) {
+            case "name" -> "name";
+            case "price" -> "minPrice";
+            case "popularity" -> "viewCount";
+            default -> "createdAt";
+        };
+    }
+
+    // The cached DTO carries the view count as of loading, including views not yet flushed
+    private ProductDTO cacheDetail(Product product, long loadToken) {
+        ProductDTO productDTO = productMapper.toDTO(product);
+        long stored = product.getViewCount() != null ? product.getViewCount() : 0;
+        productDTO.setViewCount(Math.toIntExact(stored + productViewCounter.pendingFor(product.getId())));
+        productDetailCache.put(productDTO, loadToken);
+        return productDTO;
+    }
+
+    // Counts the view in memory (flushed in batches by ProductViewCounter) and shows it right away.
+    // Cached DTOs are shared, so the response is a copy.
+    private ProductDTO toDetailDTO(ProductDTO cached) {
+        productViewCounter.increment(cached.getId());
+        dailyUniqueCounter.recordVisitor();
+        long viewsSinceLoad = productDetailCache.recordView(cached.getId());
+        return cached.toBuilder()
+                .viewCount(Math.toIntExact(cached.getViewCount() + Math.max(viewsSinceLoad, 1)))
+                .build();
     }
 
 
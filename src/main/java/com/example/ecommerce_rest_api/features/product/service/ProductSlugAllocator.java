@@ -0,0 +1,87 @@
+package com.example.ecommerce_rest_api.features.product.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+// Turns product names into unique slugs ("blue-shirt", "blue-shirt-1", ...).
+// All taken variants of the base slugs are read with one indexed prefix query, and slugs handed
+// out to transactions that have not committed yet are reserved in memory so concurrent creates
+// in this instance never pick the same one. The unique constraint on products.slug is the
+// final guard across instances.
+@Component
+public class ProductSlugAllocator {
+
+    private static final Pattern NON_SLUG_CHARS = Pattern.compile("[^a-z0-9\\s-]");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern DASHES = Pattern.compile("-+");
+    private static final String FALLBACK_SLUG = "product";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Set<String> reserved = ConcurrentHashMap.newKeySet();
+
+    public ProductSlugAllocator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public String allocate(String name) {
+        return allocateAll(List.of(name)).getFirst();
+    }
+
+    // One slug per name, in order; names sharing a base slug get distinct suffixes
+    public List<String> allocateAll(List<String> names) {
+        List<String> baseSlugs = names.stream().map(this::toBaseSlug).toList();
+        Set<String> taken = findTaken(new LinkedHashSet<>(baseSlugs));
+
+        List<String> slugs = new ArrayList<>(names.size());
+        for (String baseSlug : baseSlugs) {
+            String slug = baseSlug;
+            int counter = 1;
+            while (taken.contains(slug) || !reserved.add(slug)) {
+                slug = baseSlug + "-" + counter++;
+            }
+            slugs.add(slug);
+        }
+        releaseAfterTransaction(slugs);
+        return slugs;
+    }
+
+    private String toBaseSlug(String name) {
+        String slug = NON_SLUG_CHARS.matcher(name.toLowerCase()).replaceAll("");
+        slug = WHITESPACE.matcher(slug.trim()).replaceAll("-");
+        slug = DASHES.matcher(slug).replaceAll("-");
+        return slug.isEmpty() ? FALLBACK_SLUG : slug;
+    }
+
+    // Slugs only contain [a-z0-9-], so the base needs no LIKE escaping
+    private Set<String> findTaken(Collection<String> baseSlugs) {
+        StringJoiner where = new StringJoiner(" or ");
+        List<Object> params = new ArrayList<>(baseSlugs.size() * 2);
+        for (String baseSlug : baseSlugs) {
+            where.add("slug = ? or slug like ?");
+            params.add(baseSlug);
+            params.add(baseSlug + "-%");
+        }
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "select slug from products where " + where, String.class, params.toArray()));
+    }
+
+    // Once the transaction is over the slugs are either in the table or free again
+    private void releaseAfterTransaction(List<String> slugs) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            slugs.forEach(reserved::remove);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                slugs.forEach(reserved::remove);
+            }
+        });
+    }
+}
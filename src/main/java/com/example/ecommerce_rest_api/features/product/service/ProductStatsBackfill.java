@@ -0,0 +1,29 @@
+package com.example.ecommerce_rest_api.features.product.service;
+
+import com.example.ecommerce_rest_api.features.product.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+// Fills the denormalized price/stock/rating columns for rows created before they existed.
+// Only rows with NULL summaries are touched, so after the first run this is a no-op.
+@Slf4j
+@Component
+public class ProductStatsBackfill {
+
+    private final ProductRepository productRepository;
+
+    public ProductStatsBackfill(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        int inventory = productRepository.backfillInventoryStats();
+        int reviews = productRepository.backfillReviewStats();
+        if (inventory > 0 || reviews > 0) {
+            log.info("Backfilled product summary columns: {} inventory rows, {} review rows", inventory, reviews);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.ecommerce_rest_api.features.product.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Write-behind product view counter: GET requests only bump an in-memory LongAdder,
+// and the accumulated deltas are written to products.view_count in one JDBC batch.
+@Slf4j
+@Component
+public class ProductViewCounter {
+
+    private static final String FLUSH_SQL =
+            "update products set view_count = coalesce(view_count, 0) + ? where id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+    public ProductViewCounter(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        Gauge.builder("product.views.pending", this, ProductViewCounter::pendingCount)
+                .description("Product views counted in memory but not yet written to the database")
+                .register(meterRegistry);
+    }
+
+    public void increment(Long productId) {
+        pending.computeIfAbsent(productId, id -> new LongAdder()).increment();
+    }
+
+    // Views recorded for this product since the last flush
+    public long pendingFor(Long productId) {
+        LongAdder adder = pending.get(productId);
+        return adder != null ? adder.sum() : 0L;
+    }
+
+    public long pendingCount() {
+        long total = 0;
+        for (LongAdder adder : pending.values()) {
+            total += adder.sum();
+        }
+        return total;
+    }
+
+    @Scheduled(fixedDelayString = "${app.product.view-count.flush-interval-ms:10000}")
+    public void flush() {
+        List<Object[]> batch = new ArrayList<>();
+        for (Map.Entry<Long, LongAdder> entry : pending.entrySet()) {
+            long delta = entry.getValue().sumThenReset();
+            if (delta > 0) {
+                batch.add(new Object[]{delta, entry.getKey()});
+            } else {
+                evictIdle(entry.getKey(), entry.getValue());
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+        } catch (RuntimeException ex) {
+            // Put the deltas back so the next flush retries them
+            for (Object[] row : batch) {
+                pending.computeIfAbsent((Long) row[1], id -> new LongAdder()).add((Long) row[0]);
+            }
+            log.warn("Failed to flush {} product view counters, will retry", batch.size(), ex);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    // Drops the counter of a product nobody viewed since the last flush. An increment that
+    // raced with the removal landed on the detached adder, so carry it over.
+    private void evictIdle(Long productId, LongAdder adder) {
+        if (pending.remove(productId, adder)) {
+            long late = adder.sumThenReset();
+            if (late > 0) {
+                pending.computeIfAbsent(productId, id -> new LongAdder()).add(late);
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.ecommerce_rest_api.features.product.service;
+
+import com.example.ecommerce_rest_api.features.product.ENUM.StockState;
+import com.example.ecommerce_rest_api.features.product.event.StockStateChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Keeps product_skus.stock_state in line with quantity and threshold. Every path that changes
+// stock already refreshes the summaries of the products it touched; it calls sync() for the
+// same products, which rewrites only the SKUs whose state moved and publishes one
+// StockStateChangedEvent per move. Low-stock lists and alerts then read the indexed state and
+// the events instead of comparing two columns across the whole catalog.
+@Slf4j
+@Component
+public class StockStateTracker {
+
+    private static final String SKU_STATES =
+            "select id, product_id, sku, quantity, low_stock_threshold, stock_state, is_active, deleted_at " +
+            "from product_skus where product_id in (:productIds)";
+
+    private static final String STATE_OF =
+            "case when quantity <= 0 then 'OUT_OF_STOCK' " +
+            "when quantity <= coalesce(low_stock_threshold, 10) then 'LOW_STOCK' else 'IN_STOCK' end";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public StockStateTracker(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.eventPublisher = eventPublisher;
+    }
+
+    // Call in the transaction that changed the stock, after the change is written
+    public void sync(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        List<StockStateChangedEvent> changes = new ArrayList<>();
+        namedParameterJdbcTemplate.query(SKU_STATES, new MapSqlParameterSource("productIds", productIds), rs -> {
+            String stored = rs.getString("stock_state");
+            StockState previous = stored != null ? StockState.valueOf(stored) : null;
+            int lowStockThreshold = rs.getInt("low_stock_threshold");
+            StockState state = StockState.of(rs.getInt("quantity"), rs.wasNull() ? null : lowStockThreshold);
+            if (state != previous) {
+                boolean listed = rs.getBoolean("is_active") && rs.getTimestamp("deleted_at") == null;
+                changes.add(new StockStateChangedEvent(rs.getLong("id"), rs.getLong("product_id"),
+                        rs.getString("sku"), previous, state, rs.getInt("quantity"), listed));
+            }
+        });
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate("update product_skus set stock_state = ? where id = ?",
+                changes.stream().map(change -> new Object[]{change.state().name(), change.skuId()}).toList());
+        // Rows without a state yet are being filled in, not moving
+        changes.stream()
+                .filter(change -> change.previousState() != null)
+                .forEach(eventPublisher::publishEvent);
+    }
+
+    // Fills the state of SKUs written before the column existed
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        int filled = jdbcTemplate.update("update product_skus set stock_state = " + STATE_OF + " where stock_state is null");
+        if (filled > 0) {
+            log.info("Filled stock_state for {} SKUs", filled);
+        }
+    }
+}
@@ -50,9 +50,10 @@ public class ReviewController {
             @RequestParam(value = "pageNo" , defaultValue = AppConstants.DEFAULT_PAGE_NUMBER, required = false) int pageNo,
             @RequestParam(value = "pageSize" , defaultValue = AppConstants.DEFAULT_PAGE_SIZE, required = false) int pageSize,
             @RequestParam(value = "sortBy", defaultValue = AppConstants.DEFAULT_SORT_BY, required = false) String sortBy,
-            @RequestParam(value = "sortDir", defaultValue = AppConstants.DEFAULT_SORT_DIRECTION, required = false) String sortDir
+            @RequestParam(value = "sortDir", defaultValue = AppConstants.DEFAULT_SORT_DIRECTION, required = false) String sortDir,
+            @RequestParam(value = "after", required = false) String after
     ) {
-        PageResponse<ReviewDTO> reviews = reviewService.getProductReviews(productId, pageNo,pageSize,sortBy,sortDir);
+        PageResponse<ReviewDTO> reviews = reviewService.getProductReviews(productId, pageNo,pageSize,sortBy,sortDir,after);
         return ResponseEntity
                 .status(HttpStatus.OK)
                 .body(ResponseApi.success("Reviews retrieved", reviews));
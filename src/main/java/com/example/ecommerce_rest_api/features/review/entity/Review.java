@@ -1,5 +1,6 @@
 package com.example.ecommerce_rest_api.features.review.entity;
 
+import com.example.ecommerce_rest_api.common.persistence.IdSequences;
 import com.example.ecommerce_rest_api.features.product.entity.Product;
 import com.example.ecommerce_rest_api.features.user.entity.User;
 import jakarta.persistence.*;
@@ -26,7 +27,8 @@ import java.time.LocalDateTime;
 public class Review {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reviews_id")
+    @SequenceGenerator(name = "reviews_id", sequenceName = IdSequences.REVIEWS, allocationSize = IdSequences.ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false)
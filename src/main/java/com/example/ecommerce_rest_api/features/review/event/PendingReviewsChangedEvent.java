@@ -0,0 +1,5 @@
+package com.example.ecommerce_rest_api.features.review.event;
+
+// Published when a review starts (+1) or stops (-1) waiting for approval
+public record PendingReviewsChangedEvent(int delta) {
+}
@@ -1,8 +1,12 @@
 package com.example.ecommerce_rest_api.features.review.repository;
 
 import com.example.ecommerce_rest_api.features.review.entity.Review;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -14,6 +18,9 @@ public interface ReviewRepository extends JpaRepository<Review,Long> {
     @Query("select r from Review r where r.product.id=:productId and r.isApproved=true order by r.createdAt desc ")
     Page<Review> findReviewApprovedByProductId (@Param("productId") Long productId, Pageable pageable);
 
+    // Keyset (cursor) variant of findReviewApprovedByProductId
+    Window<Review> findByProductIdAndIsApprovedTrue(Long productId, ScrollPosition position, Sort sort, Limit limit);
+
     List<Review> findByProductId(Long productId);
 
     Page<Review> findByUserId(Long userId, Pageable pageable);
@@ -26,4 +33,6 @@ public interface ReviewRepository extends JpaRepository<Review,Long> {
 
     boolean existsByProductIdAndUserId(Long productId, Long userId);
 
+    long countByIsApprovedFalse();
+
 }
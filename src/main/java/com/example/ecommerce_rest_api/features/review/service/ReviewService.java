@@ -6,7 +6,7 @@ import com.example.ecommerce_rest_api.features.review.dto.ReviewDTO;
 
 public interface ReviewService {
     ReviewDTO addReview(Long userId, ReviewCreateRequest request);
-    PageResponse<ReviewDTO> getProductReviews(Long productId, int pageNo, int pageSize, String sortBy, String sortDir);
+    PageResponse<ReviewDTO> getProductReviews(Long productId, int pageNo, int pageSize, String sortBy, String sortDir, String after);
     void approveReview(Long reviewId);
     void deleteReview(Long reviewId);
 }
@@ -2,35 +2,56 @@ package com.example.ecommerce_rest_api.features.review.service;
 
 import com.example.ecommerce_rest_api.common.exception.ResourceNotFoundException;
 import com.example.ecommerce_rest_api.common.response.PageResponse;
+import com.example.ecommerce_rest_api.features.admin.ENUM.ActivityType;
+import com.example.ecommerce_rest_api.features.admin.event.ActivityEvent;
 import com.example.ecommerce_rest_api.features.product.entity.Product;
 import com.example.ecommerce_rest_api.features.product.repository.ProductRepository;
+import com.example.ecommerce_rest_api.features.product.service.ProductDetailCache;
 import com.example.ecommerce_rest_api.features.review.dto.ReviewCreateRequest;
 import com.example.ecommerce_rest_api.features.review.dto.ReviewDTO;
 import com.example.ecommerce_rest_api.features.review.entity.Review;
+import com.example.ecommerce_rest_api.features.review.event.PendingReviewsChangedEvent;
 import com.example.ecommerce_rest_api.features.review.repository.ReviewRepository;
 import com.example.ecommerce_rest_api.features.user.entity.User;
 import com.example.ecommerce_rest_api.features.user.repository.UserRepository;
+import com.example.ecommerce_rest_api.utils.CursorCodec;
 import jakarta.transaction.Transactional;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.Set;
+
 @Service
 public class ReviewServiceImpl implements ReviewService{
 
+    // Non-null columns that can be paged by cursor
+    private static final Set<String> CURSOR_SORT_KEYS = Set.of("id", "rating", "createdAt", "updatedAt");
+
     private final ReviewRepository reviewRepository;
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
+    private final ProductDetailCache productDetailCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     public ReviewServiceImpl(ReviewRepository reviewRepository,
                              UserRepository userRepository,
-                             ProductRepository productRepository
+                             ProductRepository productRepository,
+                             ProductDetailCache productDetailCache,
+                             ApplicationEventPublisher eventPublisher
     ) {
         this.reviewRepository = reviewRepository;
         this.userRepository = userRepository;
         this.productRepository = productRepository;
+        this.productDetailCache = productDetailCache;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -55,14 +76,25 @@ public class ReviewServiceImpl implements ReviewService{
                 .build();
 
         Review savedReview = reviewRepository.save(review);
+        eventPublisher.publishEvent(new PendingReviewsChangedEvent(1));
+        eventPublisher.publishEvent(ActivityEvent.of(ActivityType.REVIEW,
+                user.getUsername() + " reviewed " + product.getName() + " (" + request.getRating() + "/5)", savedReview.getId()));
         return mapToReviewDTO(savedReview);
     }
 
     @Override
-    public PageResponse<ReviewDTO> getProductReviews(Long productId, int pageNo, int pageSize, String sortBy, String sortDir) {
+    public PageResponse<ReviewDTO> getProductReviews(Long productId, int pageNo, int pageSize, String sortBy, String sortDir, String after) {
         Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.by(sortBy).ascending() :
                 Sort.by(sortBy).descending();
 
+        if (after != null) {
+            Sort keysetSort = CursorCodec.withTieBreaker(sort, CURSOR_SORT_KEYS);
+            ScrollPosition position = CursorCodec.decode(after, keysetSort);
+            Window<Review> window = reviewRepository.findByProductIdAndIsApprovedTrue(
+                    productId, position, keysetSort, Limit.of(pageSize));
+            return new PageResponse<>(window.map(this::mapToReviewDTO), pageSize, after.isBlank());
+        }
+
         Pageable pageable = PageRequest.of(pageNo,pageSize, sort);
 
         Page<Review> reviews = reviewRepository.findReviewApprovedByProductId(productId, pageable);
@@ -76,8 +108,16 @@ public class ReviewServiceImpl implements ReviewService{
         Review review = reviewRepository.findById(reviewId).orElseThrow(
                 () -> new ResourceNotFoundException("Review", "id", reviewId)
         );
+        boolean wasPending = !Boolean.TRUE.equals(review.getIsApproved());
         review.setIsApproved(true);
         reviewRepository.save(review);
+        if (wasPending) {
+            eventPublisher.publishEvent(new PendingReviewsChangedEvent(-1));
+            eventPublisher.publishEvent(ActivityEvent.of(ActivityType.REVIEW,
+                    "Review of " + review.getProduct().getName() + " approved", review.getId()));
+        }
+        productRepository.refreshReviewStats(List.of(review.getProduct().getId()));
+        productDetailCache.invalidate(review.getProduct().getId());
     }
 
     @Override
@@ -86,7 +126,14 @@ public class ReviewServiceImpl implements ReviewService{
         Review review = reviewRepository.findById(reviewId).orElseThrow(
                 () -> new ResourceNotFoundException("Review", "id", reviewId)
         );
+        Long productId = review.getProduct().getId();
         reviewRepository.delete(review);
+        if (Boolean.TRUE.equals(review.getIsApproved())) {
+            productRepository.refreshReviewStats(List.of(productId));
+            productDetailCache.invalidate(productId);
+        } else {
+            eventPublisher.publishEvent(new PendingReviewsChangedEvent(-1));
+        }
     }
 
     private Product findProductById(Long productId) {
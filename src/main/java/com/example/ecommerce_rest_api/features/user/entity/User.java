@@ -67,6 +67,10 @@ public class User {
     @Column(updatable = false)
     private LocalDateTime createdAt;
 
+    // Carried in issued tokens; bumping it turns away every token issued before (null means 0)
+    @Column(name = "token_version")
+    private Integer tokenVersion;
+
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Address> addresses;
 
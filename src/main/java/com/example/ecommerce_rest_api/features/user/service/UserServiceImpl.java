@@ -3,6 +3,7 @@ package com.example.ecommerce_rest_api.features.user.service;
 import com.example.ecommerce_rest_api.common.exception.ResourceNotFoundException;
 import com.example.ecommerce_rest_api.common.response.ImgBBUploadResponse;
 import com.example.ecommerce_rest_api.common.service.ImgBBService;
+import com.example.ecommerce_rest_api.features.order.repository.OrderRepository;
 import com.example.ecommerce_rest_api.features.user.DTO.AddressDTO;
 import com.example.ecommerce_rest_api.features.user.DTO.UserDTO;
 import com.example.ecommerce_rest_api.features.user.DTO.UserUpdateRequest;
@@ -10,6 +11,8 @@ import com.example.ecommerce_rest_api.features.user.entity.Address;
 import com.example.ecommerce_rest_api.features.user.entity.User;
 import com.example.ecommerce_rest_api.features.user.repository.AddressRepository;
 import com.example.ecommerce_rest_api.features.user.repository.UserRepository;
+import com.example.ecommerce_rest_api.security.TokenVersionCache;
+import com.example.ecommerce_rest_api.security.UserPrincipal;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -27,6 +30,8 @@ public class UserServiceImpl implements UserService {
     private final ImgBBService imgBBService;
     private final PasswordEncoder passwordEncoder;
     private final AddressRepository addressRepository;
+    private final OrderRepository orderRepository;
+    private final TokenVersionCache tokenVersionCache;
 
     @Autowired
     public UserServiceImpl(
@@ -34,13 +39,17 @@ public class UserServiceImpl implements UserService {
             UserRepository userRepository,
             ImgBBService imgBBService,
             PasswordEncoder passwordEncoder,
-            AddressRepository addressRepository
+            AddressRepository addressRepository,
+            OrderRepository orderRepository,
+            TokenVersionCache tokenVersionCache
     ) {
         this.modelMapper = modelMapper;
         this.userRepository = userRepository;
         this.imgBBService = imgBBService;
         this.passwordEncoder = passwordEncoder;
         this.addressRepository = addressRepository;
+        this.orderRepository = orderRepository;
+        this.tokenVersionCache = tokenVersionCache;
     }
 
     @Override
@@ -69,6 +78,12 @@ public class UserServiceImpl implements UserService {
             throw new RuntimeException("Email already exists");
         }
 
+        boolean renamed = !request.getUsername().equals(user.getUsername());
+        // Tokens carry the username and role, so old ones stop working once either changes
+        boolean revokeTokens = renamed || request.getRole() != user.getRole();
+        if (revokeTokens) {
+            user.setTokenVersion(UserPrincipal.tokenVersion(user) + 1);
+        }
         user.setUsername(request.getUsername());
         user.setEmail(request.getEmail());
         user.setPassword(passwordEncoder.encode(request.getPassword()));
@@ -87,6 +102,12 @@ public class UserServiceImpl implements UserService {
         }
 
         User updatedUser = userRepository.save(user);
+        if (renamed) {
+            orderRepository.updateUsername(userId, updatedUser.getUsername());
+        }
+        if (revokeTokens) {
+            tokenVersionCache.invalidate(userId);
+        }
 
         return mapToDTO(updatedUser);
     }
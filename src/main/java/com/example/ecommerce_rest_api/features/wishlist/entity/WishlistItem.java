@@ -1,6 +1,7 @@
 package com.example.ecommerce_rest_api.features.wishlist.entity;
 
 
+import com.example.ecommerce_rest_api.common.persistence.IdSequences;
 import com.example.ecommerce_rest_api.features.product.entity.Product;
 import jakarta.persistence.*;
 import lombok.*;
@@ -25,7 +26,8 @@ import java.time.LocalDateTime;
 public class WishlistItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "wishlist_items_id")
+    @SequenceGenerator(name = "wishlist_items_id", sequenceName = IdSequences.WISHLIST_ITEMS, allocationSize = IdSequences.ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -153,7 +153,7 @@ public class WishlistServiceImpl implements WishlistService {
                 .productSlug(product.getSlug())
                 .productImage(product.getCoverImage())
                 .price(product.getMinPrice())
-                .isAvailable(product.getIsActive() && product.getTotalStock() > 0)
+                .isAvailable(product.getIsActive() && product.getTotalStock() != null && product.getTotalStock() > 0)
                 .addedAt(item.getAddedAt())
                 .build();
     }
@@ -1,31 +1,46 @@
 package com.example.ecommerce_rest_api.security;
 
+import com.example.ecommerce_rest_api.common.exception.TokenException;
+import com.example.ecommerce_rest_api.features.user.repository.UserRepository;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
 
 import java.io.IOException;
 
+// Authenticates from the token's claims alone; the only database access is the token
+// version check, which TokenVersionCache answers from memory almost always. A bad token is
+// answered through the exception handlers, which never see exceptions thrown by a filter, so it
+// gets the same 400 as any other TokenException.
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     public final JwtTokenProvider jwtTokenProvider;
-    public final UserDetailsService userDetailsService;
+    public final TokenVersionCache tokenVersionCache;
+    public final UserRepository userRepository;
+    public final HandlerExceptionResolver handlerExceptionResolver;
 
     @Autowired
-    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider,
+                                   TokenVersionCache tokenVersionCache,
+                                   UserRepository userRepository,
+                                   @Qualifier("handlerExceptionResolver") HandlerExceptionResolver handlerExceptionResolver) {
         this.jwtTokenProvider = jwtTokenProvider;
-        this.userDetailsService = userDetailsService;
+        this.tokenVersionCache = tokenVersionCache;
+        this.userRepository = userRepository;
+        this.handlerExceptionResolver = handlerExceptionResolver;
     }
 
     @Override
@@ -35,19 +50,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     {
         String token = getTokenFromRequest(request);
 
-        // validate token
-        if (StringUtils.hasText(token) && jwtTokenProvider.validateToken(token)){
+        if (StringUtils.hasText(token)){
 
-            // get username from token
-            String username = jwtTokenProvider.getUsername(token);
-
-            // load the user associated with token
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            // validate token and read the user from it
+            UserPrincipal principal;
+            try {
+                principal = authenticate(token);
+            } catch (TokenException ex) {
+                SecurityContextHolder.clearContext();
+                handlerExceptionResolver.resolveException(request, response, null, ex);
+                return;
+            }
 
             UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
-                    userDetails,
+                    principal,
                     null,
-                    userDetails.getAuthorities()
+                    principal.getAuthorities()
             );
 
             authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -58,6 +76,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request,response);
     }
 
+    private UserPrincipal authenticate(String token) {
+        Claims claims = jwtTokenProvider.parseClaims(token);
+        UserPrincipal principal = jwtTokenProvider.toPrincipal(claims);
+        if (principal == null) {
+            return loadLegacyPrincipal(claims.getSubject());
+        }
+        if (!tokenVersionCache.isCurrent(principal.getId(), principal.getTokenVersion())) {
+            throw new TokenException(HttpStatus.BAD_REQUEST, "JWT Token has been revoked");
+        }
+        return principal;
+    }
+
+    // Tokens issued before the uid/role claims still work until they expire
+    private UserPrincipal loadLegacyPrincipal(String username){
+        return userRepository.findByUsername(username)
+                .map(UserPrincipal::of)
+                .orElseThrow(() -> new TokenException(HttpStatus.BAD_REQUEST, "JWT Token has been revoked"));
+    }
+
     private String getTokenFromRequest(HttpServletRequest request){
 
         String bearerToken = request.getHeader("Authorization");
@@ -1,15 +1,20 @@
 package com.example.ecommerce_rest_api.security;
 
 import com.example.ecommerce_rest_api.common.exception.TokenException;
+import com.example.ecommerce_rest_api.features.user.ENUM.Role;
+import com.example.ecommerce_rest_api.features.user.entity.User;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
@@ -25,9 +30,24 @@ public class JwtTokenProvider {
     @Value("${app-jwt-expiration-millisecond}")
     private long jwtExpirationDate;
 
+    // Claims next to "sub" that let a request be authenticated without loading the user
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLE_CLAIM = "role";
+    public static final String TOKEN_VERSION_CLAIM = "ver";
+
+    // Decoding the secret and building the parser once, not on every request
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        parser = Jwts.parser().verifyWith(signingKey).build();
+    }
+
     // generate JWT Token
-    public String generateToken(Authentication authentication){
-        String username = authentication.getName();
+    public String generateToken(User user){
+        String username = user.getUsername();
         Date currentDate = new Date();
         Date expireDate = new Date(currentDate.getTime() + jwtExpirationDate);
 
@@ -35,6 +55,9 @@ public class JwtTokenProvider {
 
         return Jwts.builder()    // بيبدأ يبني التوكن
                 .subject(username)       // بيسجّل اسم المستخدم في الـ payload (claim: sub)
+                .claim(USER_ID_CLAIM, user.getId())
+                .claim(ROLE_CLAIM, user.getRole().name())
+                .claim(TOKEN_VERSION_CLAIM, UserPrincipal.tokenVersion(user))
                 .issuedAt(new Date())    // بيحدد وقت إصدار التوكن
                 .expiration(expireDate)  // بيحدد وقت انتهاء صلاحية التوكن
                 .signWith(key())         // بيوقّع التوكن بالمفتاح السري
@@ -44,33 +67,19 @@ public class JwtTokenProvider {
 
 
     public Key key(){
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
-    }
-
-    // get username from JWT token
-    public String getUsername(String token){
-        return Jwts.parser()
-                .verifyWith((SecretKey) key())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
+        return signingKey;
     }
 
-    // validate JWT token
-    public boolean validateToken(String token){
+    // verify the JWT token and return its claims
+    public Claims parseClaims(String token){
 
         try{
             // if there is a problem it will throw exception
-            Jwts.parser()
-                    .verifyWith((SecretKey) key())
-                    .build()
-                    .parse(token);
-
-            // else it will return true
-            return true;
+            return parser.parseSignedClaims(token).getPayload();
         } catch (MalformedJwtException malformedJwtException) {
             throw new TokenException(HttpStatus.BAD_REQUEST, "Invalid JWT Token");
+        } catch (SignatureException signatureException) {
+            throw new TokenException(HttpStatus.BAD_REQUEST, "Invalid JWT signature");
         } catch (ExpiredJwtException expiredJwtException){
             throw new TokenException(HttpStatus.BAD_REQUEST, "Expired JWT Token");
         } catch (UnsupportedJwtException unsupportedJwtException){
@@ -81,6 +90,20 @@ public class JwtTokenProvider {
 
     }
 
-
+    // Tokens issued before the uid claim existed have only a subject
+    public UserPrincipal toPrincipal(Claims claims){
+        Long userId = claims.get(USER_ID_CLAIM, Long.class);
+        String role = claims.get(ROLE_CLAIM, String.class);
+        if (userId == null || role == null) {
+            return null;
+        }
+        Integer tokenVersion = claims.get(TOKEN_VERSION_CLAIM, Integer.class);
+        try {
+            return new UserPrincipal(userId, claims.getSubject(), Role.valueOf(role),
+                    tokenVersion != null ? tokenVersion : 0);
+        } catch (IllegalArgumentException ex) {
+            throw new TokenException(HttpStatus.BAD_REQUEST, "Invalid JWT Token");
+        }
+    }
 
 }
@@ -0,0 +1,94 @@
+package com.example.ecommerce_rest_api.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Current token version per user, so a token issued before a role change or rename can be
+// turned away without loading the user on every request. Versions are read with a primary key
+// lookup and kept for max-age; changes made on this instance take effect at once, changes made
+// on another instance within max-age.
+@Component
+public class TokenVersionCache {
+
+    private static final String SELECT_VERSION = "select coalesce(token_version, 0) from users where id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long maxAgeNanos;
+    private final int maxEntries;
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    // Bumped on every invalidation; a load that started before an invalidation is not cached
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public TokenVersionCache(JdbcTemplate jdbcTemplate,
+                             @Value("${app.security.token-version.max-age-ms:30000}") long maxAgeMs,
+                             @Value("${app.security.token-version.max-entries:100000}") int maxEntries) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxAgeMs);
+        this.maxEntries = maxEntries;
+    }
+
+    // False when the user is gone or the token's version is no longer the current one
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(userId);
+        if (entry == null || now - entry.loadedAtNanos >= maxAgeNanos) {
+            entry = load(userId, now);
+        }
+        return entry.version != null && entry.version == tokenVersion;
+    }
+
+    // Drops the user now and again once the current transaction commits, so a request
+    // reading the old version in between cannot leave it cached
+    public void invalidate(Long userId) {
+        evict(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId);
+                }
+            });
+        }
+    }
+
+    // A load that raced an invalidation still answers its own request, which read the
+    // database before the change committed, but is not cached
+    private Entry load(Long userId, long now) {
+        long loadToken = invalidations.get();
+        List<Integer> versions = jdbcTemplate.queryForList(SELECT_VERSION, Integer.class, userId);
+        Entry entry = new Entry(versions.isEmpty() ? null : versions.getFirst(), now);
+        if (invalidations.get() != loadToken) {
+            return entry;
+        }
+        if (entries.size() >= maxEntries) {
+            // Everything here can be reloaded, so a full cache simply starts over
+            entries.clear();
+        }
+        entries.put(userId, entry);
+
+        // An invalidation counts up before it removes, so one that began after the check above
+        // either removes this entry itself or is seen here
+        if (invalidations.get() != loadToken) {
+            entries.remove(userId, entry);
+        }
+        return entry;
+    }
+
+    private void evict(Long userId) {
+        invalidations.incrementAndGet();
+        entries.remove(userId);
+    }
+
+    private record Entry(Integer version, long loadedAtNanos) {
+    }
+}
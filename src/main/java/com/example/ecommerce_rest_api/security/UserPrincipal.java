@@ -0,0 +1,43 @@
+package com.example.ecommerce_rest_api.security;
+
+import com.example.ecommerce_rest_api.features.user.ENUM.Role;
+import com.example.ecommerce_rest_api.features.user.entity.User;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Set;
+
+// The authenticated user as read from a verified token, so requests need no user lookup.
+// It carries no password; it only ever comes from a token that was already checked.
+@Getter
+public class UserPrincipal implements UserDetails {
+
+    private final Long id;
+    private final String username;
+    private final Role role;
+    private final int tokenVersion;
+    private final Set<GrantedAuthority> authorities;
+
+    public UserPrincipal(Long id, String username, Role role, int tokenVersion) {
+        this.id = id;
+        this.username = username;
+        this.role = role;
+        this.tokenVersion = tokenVersion;
+        this.authorities = Set.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    public static UserPrincipal of(User user) {
+        return new UserPrincipal(user.getId(), user.getUsername(), user.getRole(), tokenVersion(user));
+    }
+
+    public static int tokenVersion(User user) {
+        return user.getTokenVersion() != null ? user.getTokenVersion() : 0;
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+}
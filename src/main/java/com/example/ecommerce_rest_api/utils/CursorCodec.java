@@ -0,0 +1,124 @@
+package com.example.ecommerce_rest_api.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Opaque "after" tokens for keyset pagination. A token is the base64url JSON of the sort
+// keys (plus id) of the last row of a page; each value carries a type tag so it binds back
+// to the right parameter type.
+public final class CursorCodec {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private CursorCodec() {
+    }
+
+    // Keyset paging needs a total order, so id is always the last sort key. Only properties
+    // that are never null can be cursor keys: a seek predicate skips rows with a null key and
+    // a null cannot be encoded, so any other property is rejected before the query runs.
+    public static Sort withTieBreaker(Sort sort, Set<String> cursorProperties) {
+        for (Sort.Order order : sort) {
+            if (!cursorProperties.contains(order.getProperty())) {
+                throw new IllegalArgumentException("Cannot page by '" + order.getProperty() + "' with a cursor");
+            }
+        }
+        return withTieBreaker(sort);
+    }
+
+    public static Sort withTieBreaker(Sort sort) {
+        if (sort.getOrderFor("id") != null) {
+            return sort;
+        }
+        Sort.Direction direction = sort.isSorted()
+                ? sort.toList().get(sort.toList().size() - 1).getDirection()
+                : Sort.Direction.ASC;
+        return sort.and(Sort.by(direction, "id"));
+    }
+
+    // An empty token starts from the first row
+    public static ScrollPosition decode(String after, Sort sort) {
+        if (after == null || after.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+
+        Map<String, String> tagged;
+        try {
+            tagged = MAPPER.readValue(DECODER.decode(after), new TypeReference<LinkedHashMap<String, String>>() {});
+        } catch (IllegalArgumentException | java.io.IOException ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+
+        Set<String> sortProperties = new HashSet<>();
+        sort.forEach(order -> sortProperties.add(order.getProperty()));
+        if (!sortProperties.equals(tagged.keySet())) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort");
+        }
+
+        Map<String, Object> keys = new LinkedHashMap<>();
+        tagged.forEach((property, value) -> keys.put(property, untag(value)));
+        return ScrollPosition.forward(keys);
+    }
+
+    public static String encode(ScrollPosition position) {
+        if (!(position instanceof KeysetScrollPosition keyset)) {
+            throw new IllegalArgumentException("Only keyset positions can be encoded");
+        }
+
+        Map<String, String> tagged = new LinkedHashMap<>();
+        keyset.getKeys().forEach((property, value) -> tagged.put(property, tag(property, value)));
+        try {
+            return ENCODER.encodeToString(MAPPER.writeValueAsBytes(tagged));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not encode cursor", ex);
+        }
+    }
+
+    private static String tag(String property, Object value) {
+        if (value == null) {
+            throw new IllegalStateException("Cursor key '" + property + "' is null");
+        }
+        if (value instanceof Long) return "L:" + value;
+        if (value instanceof Integer) return "I:" + value;
+        if (value instanceof Double) return "D:" + value;
+        if (value instanceof BigDecimal) return "N:" + value;
+        if (value instanceof Boolean) return "B:" + value;
+        if (value instanceof LocalDateTime) return "T:" + value;
+        if (value instanceof LocalDate) return "A:" + value;
+        if (value instanceof String) return "S:" + value;
+        throw new IllegalArgumentException("Cannot page by '" + property + "' with a cursor");
+    }
+
+    private static Object untag(String value) {
+        if (value == null || value.length() < 2 || value.charAt(1) != ':') {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        String raw = value.substring(2);
+        try {
+            return switch (value.charAt(0)) {
+                case 'L' -> Long.valueOf(raw);
+                case 'I' -> Integer.valueOf(raw);
+                case 'D' -> Double.valueOf(raw);
+                case 'N' -> new BigDecimal(raw);
+                case 'B' -> Boolean.valueOf(raw);
+                case 'T' -> LocalDateTime.parse(raw);
+                case 'A' -> LocalDate.parse(raw);
+                case 'S' -> raw;
+                default -> throw new IllegalArgumentException("Invalid cursor");
+            };
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.ecommerce_rest_api.utils;
 
+import com.example.ecommerce_rest_api.features.user.ENUM.Role;
 import com.example.ecommerce_rest_api.features.user.entity.User;
 import com.example.ecommerce_rest_api.features.user.repository.UserRepository;
+import com.example.ecommerce_rest_api.security.UserPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -17,19 +19,9 @@ public class SecurityUtils {
         this.userRepository = userRepository;
     }
 
+    // Loads the full user; callers that only need the id or role should use the methods below
     public User getCurrentUser(){
-
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-
-        if (authentication == null){
-            throw new RuntimeException("No authenticated user found");
-        }
-
-        String username = authentication.getName();
-        System.out.println(username);
-
-        return userRepository.findByUsername(username).orElseThrow(() -> new RuntimeException("User not found"));
-
+        return userRepository.findById(getCurrentUserId()).orElseThrow(() -> new RuntimeException("User not found"));
     }
 
     public String getCurrentUsername(){
@@ -37,9 +29,24 @@ public class SecurityUtils {
         return authentication != null ? authentication.getName() : null;
     }
 
+    // Read from the verified token, no query
     public Long getCurrentUserId(){
-        return getCurrentUser().getId();
+        return getCurrentPrincipal().getId();
     }
 
-}
+    public Role getCurrentRole(){
+        return getCurrentPrincipal().getRole();
+    }
 
+    public UserPrincipal getCurrentPrincipal(){
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal principal)){
+            throw new RuntimeException("No authenticated user found");
+        }
+
+        return principal;
+    }
+
+}
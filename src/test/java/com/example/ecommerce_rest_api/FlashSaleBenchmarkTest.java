@@ -0,0 +1,118 @@
+package com.example.ecommerce_rest_api;
+
+import com.example.ecommerce_rest_api.features.cart.dto.CartItemRequest;
+import com.example.ecommerce_rest_api.features.cart.service.CartService;
+import com.example.ecommerce_rest_api.features.inventory.service.FlashSaleStock;
+import com.example.ecommerce_rest_api.features.order.ENUM.PaymentMethod;
+import com.example.ecommerce_rest_api.features.order.dto.OrderCreateRequest;
+import com.example.ecommerce_rest_api.features.order.service.OrderService;
+import com.example.ecommerce_rest_api.features.product.entity.ProductSku;
+import com.example.ecommerce_rest_api.support.MySqlIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Checkout throughput on one hot SKU: N threads each add the SKU to their cart and check out,
+// first on the guarded row update, then with the SKU in flash-sale mode. Prints checkouts per
+// second and p50/p99 latency per mode, and checks that every sold unit left the row exactly
+// once. Opt-in, since it takes a while:
+//
+//   mvn test -Dtest=FlashSaleBenchmarkTest -Dbenchmark=true [-Dbenchmark.threads=32] [-Dbenchmark.iterations=50]
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class FlashSaleBenchmarkTest extends MySqlIntegrationTest {
+
+	private static final int STOCK = 1_000_000;
+	private static final int THREADS = Integer.getInteger("benchmark.threads", 32);
+	private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 50);
+
+	private static final OrderCreateRequest ORDER = new OrderCreateRequest(PaymentMethod.CASH_ON_DELIVERY, 5.0, 0.0, 0.0,
+			"Bench Buyer", "0100000000", "1 Test Street", null, "Cairo", "Egypt", "11511", null);
+
+	@Autowired
+	private CartService cartService;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private FlashSaleStock flashSaleStock;
+
+	@Test
+	void oneHotSku() throws Exception {
+		ProductSku rowSku = newSku("hot-row", 10.0, STOCK);
+		double rowRate = run("guarded row", rowSku.getId());
+
+		ProductSku flashSku = newSku("hot-flash", 10.0, STOCK);
+		flashSaleStock.enable(flashSku.getId(), null, null);
+		double flashRate;
+		try {
+			flashRate = run("flash sale", flashSku.getId());
+		} finally {
+			flashSaleStock.disable(flashSku.getId());
+		}
+
+		System.out.printf("flash sale / guarded row: %.2fx%n", flashRate / rowRate);
+		for (ProductSku sku : List.of(rowSku, flashSku)) {
+			assertThat(jdbcTemplate.queryForObject("select quantity from product_skus where id = ?", Integer.class, sku.getId()))
+					.isEqualTo(STOCK - THREADS * ITERATIONS);
+		}
+	}
+
+	// Buyers are created untimed; each thread then checks out ITERATIONS times, one unit each
+	private double run(String mode, Long skuId) throws Exception {
+		List<Long> buyers = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			buyers.add(newUser("bench").getId());
+		}
+
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		long[] nanos = new long[THREADS * ITERATIONS];
+		long elapsed;
+		try {
+			List<Future<?>> workers = new ArrayList<>();
+			for (int t = 0; t < THREADS; t++) {
+				int thread = t;
+				workers.add(executor.submit(() -> {
+					start.await();
+					for (int i = 0; i < ITERATIONS; i++) {
+						long begin = System.nanoTime();
+						cartService.addItemToCart(buyers.get(thread), new CartItemRequest(skuId, 1));
+						orderService.createOrder(buyers.get(thread), ORDER);
+						nanos[thread * ITERATIONS + i] = System.nanoTime() - begin;
+					}
+					return null;
+				}));
+			}
+			long begin = System.nanoTime();
+			start.countDown();
+			for (Future<?> worker : workers) {
+				worker.get();
+			}
+			elapsed = System.nanoTime() - begin;
+		} finally {
+			executor.shutdownNow();
+		}
+
+		Arrays.sort(nanos);
+		double rate = nanos.length / (elapsed / 1e9);
+		System.out.printf("%-12s %3d threads  %8.1f checkouts/s  p50 %7.2f ms  p99 %7.2f ms%n",
+				mode, THREADS, rate, millis(nanos, 0.50), millis(nanos, 0.99));
+		return rate;
+	}
+
+	private static double millis(long[] sorted, double percentile) {
+		int index = (int) Math.ceil(percentile * sorted.length) - 1;
+		return sorted[Math.max(index, 0)] / 1e6;
+	}
+}
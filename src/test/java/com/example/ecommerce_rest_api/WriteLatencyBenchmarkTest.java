@@ -0,0 +1,182 @@
+package com.example.ecommerce_rest_api;
+
+import com.example.ecommerce_rest_api.features.cart.dto.CartItemRequest;
+import com.example.ecommerce_rest_api.features.cart.service.CartService;
+import com.example.ecommerce_rest_api.features.category.entity.Category;
+import com.example.ecommerce_rest_api.features.category.entity.SubCategory;
+import com.example.ecommerce_rest_api.features.category.repository.CategoryRepository;
+import com.example.ecommerce_rest_api.features.category.repository.SubCategoryRepository;
+import com.example.ecommerce_rest_api.features.order.ENUM.PaymentMethod;
+import com.example.ecommerce_rest_api.features.order.dto.OrderCreateRequest;
+import com.example.ecommerce_rest_api.features.order.service.OrderService;
+import com.example.ecommerce_rest_api.features.product.dto.ProductCreateRequest;
+import com.example.ecommerce_rest_api.features.product.dto.ProductDTO;
+import com.example.ecommerce_rest_api.features.product.dto.ProductSkuCreateRequest;
+import com.example.ecommerce_rest_api.features.product.service.ProductService;
+import com.example.ecommerce_rest_api.support.MySqlIntegrationTest;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Checkout and product-create latency with JDBC insert batching on and off. Batching off
+// (a session batch size of 1) sends one INSERT per row, which is the round-trip count the
+// IDENTITY ids forced before; the pooled sequence ids are kept in both runs. Opt-in, since it
+// takes a while:
+//
+//   mvn test -Dtest=WriteLatencyBenchmarkTest -Dbenchmark=true [-Dbenchmark.iterations=200]
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class WriteLatencyBenchmarkTest extends MySqlIntegrationTest {
+
+	private static final int WARMUP = 20;
+	private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 100);
+	private static final int PRODUCT_SKUS = 30;
+	private static final int CART_LINES = 20;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private CartService cartService;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private SubCategoryRepository subCategoryRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private Long subCategoryId;
+	private List<Long> skuIds;
+
+	@BeforeAll
+	void seed() {
+		Category category = new Category();
+		category.setName("Benchmark");
+		categoryRepository.save(category);
+		SubCategory subCategory = new SubCategory();
+		subCategory.setName("Benchmark items");
+		subCategory.setCategory(category);
+		subCategoryId = subCategoryRepository.save(subCategory).getId();
+
+		// Enough stock that no checkout in the run sells out
+		skuIds = new ArrayList<>();
+		for (int i = 0; i < CART_LINES; i++) {
+			ProductDTO product = productService.createProduct(productRequest(1, 1_000_000), null);
+			skuIds.add(product.getSkus().getFirst().getId());
+		}
+	}
+
+	@Test
+	void productCreate() {
+		Result batched = measure("product create", true, () -> null,
+				ignored -> productService.createProduct(productRequest(PRODUCT_SKUS, 100), null));
+		Result unbatched = measure("product create", false, () -> null,
+				ignored -> productService.createProduct(productRequest(PRODUCT_SKUS, 100), null));
+
+		assertThat(batched.statements()).isLessThan(unbatched.statements());
+	}
+
+	@Test
+	void checkout() {
+		OrderCreateRequest request = new OrderCreateRequest(PaymentMethod.CASH_ON_DELIVERY, 5.0, 0.0, 0.0,
+				"Bench Buyer", "0100000000", "1 Test Street", null, "Cairo", "Egypt", "11511", null);
+
+		Result batched = measure("checkout", true, this::buyerWithCart,
+				userId -> orderService.createOrder(userId, request));
+		Result unbatched = measure("checkout", false, this::buyerWithCart,
+				userId -> orderService.createOrder(userId, request));
+
+		assertThat(batched.statements()).isLessThan(unbatched.statements());
+	}
+
+	// Times only the operation, inside a transaction whose session batch size is set up front;
+	// setup runs untimed before each call. Statements are those Hibernate prepared, so the
+	// guarded stock updates sent through JdbcTemplate are timed but not counted.
+	private <T> Result measure(String operation, boolean batching, Supplier<T> setup,
+							   Consumer<T> action) {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		long[] nanos = new long[ITERATIONS];
+		long statements = 0;
+
+		for (int i = -WARMUP; i < ITERATIONS; i++) {
+			T input = setup.get();
+			statistics.clear();
+			long start = System.nanoTime();
+			transaction.executeWithoutResult(status -> {
+				if (!batching) {
+					entityManager.unwrap(Session.class).setJdbcBatchSize(1);
+				}
+				action.accept(input);
+			});
+			long elapsed = System.nanoTime() - start;
+			if (i >= 0) {
+				nanos[i] = elapsed;
+				statements += statistics.getPrepareStatementCount();
+			}
+		}
+
+		Arrays.sort(nanos);
+		Result result = new Result(statements / ITERATIONS);
+		System.out.printf("%-15s batching %-3s  p50 %7.2f ms  p95 %7.2f ms  p99 %7.2f ms  max %7.2f ms  %4d statements%n",
+				operation, batching ? "on" : "off",
+				millis(nanos, 0.50), millis(nanos, 0.95), millis(nanos, 0.99),
+				nanos[ITERATIONS - 1] / 1e6, result.statements());
+		return result;
+	}
+
+	private Long buyerWithCart() {
+		Long userId = newUser("bench").getId();
+
+		for (Long skuId : skuIds) {
+			cartService.addItemToCart(userId, new CartItemRequest(skuId, 1));
+		}
+		return userId;
+	}
+
+	private ProductCreateRequest productRequest(int skuCount, int stock) {
+		String suffix = suffix();
+		List<ProductSkuCreateRequest> skus = new ArrayList<>();
+		for (int i = 0; i < skuCount; i++) {
+			skus.add(new ProductSkuCreateRequest("BENCH-" + suffix + "-" + i,
+					19.99, null, 9.5, stock, 10, 0.5, true, null));
+		}
+		return new ProductCreateRequest("Benchmark product " + suffix,
+				"A product created by the write latency benchmark", null, "Bench",
+				true, false, List.of(subCategoryId), skus);
+	}
+
+	private static double millis(long[] sorted, double percentile) {
+		int index = (int) Math.ceil(percentile * sorted.length) - 1;
+		return sorted[Math.max(index, 0)] / 1e6;
+	}
+
+	private record Result(long statements) {
+	}
+}
@@ -0,0 +1,42 @@
+package com.example.ecommerce_rest_api.config;
+
+import com.example.ecommerce_rest_api.support.MySqlIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Metrics carry business counters and pool internals, so customers must not read them
+@AutoConfigureMockMvc
+class ActuatorSecurityTest extends MySqlIntegrationTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void healthIsPublic() throws Exception {
+		mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+	}
+
+	@Test
+	void metricsNeedAToken() throws Exception {
+		mockMvc.perform(get("/actuator/metrics")).andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	@WithMockUser(roles = "USER")
+	void customersCannotReadMetrics() throws Exception {
+		mockMvc.perform(get("/actuator/metrics")).andExpect(status().isForbidden());
+		mockMvc.perform(get("/actuator/metrics/product.views.pending")).andExpect(status().isForbidden());
+	}
+
+	@Test
+	@WithMockUser(roles = "ADMIN")
+	void adminsCanReadMetrics() throws Exception {
+		mockMvc.perform(get("/actuator/metrics")).andExpect(status().isOk());
+	}
+}
@@ -0,0 +1,181 @@
+package com.example.ecommerce_rest_api.features.admin.service;
+
+import com.example.ecommerce_rest_api.features.admin.ENUM.ActivityType;
+import com.example.ecommerce_rest_api.features.admin.dto.ActivityItemDTO;
+import com.example.ecommerce_rest_api.features.admin.event.ActivityEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+// Writers, readers and the flush run at once against the lock-free ring; readers must only see
+// whole entries in order, and every entry must be saved exactly once
+@ExtendWith(MockitoExtension.class)
+class ActivityFeedTest {
+
+	private static final int WRITERS = 4;
+	private static final int PER_WRITER = 200;
+
+	@Mock
+	private JdbcTemplate jdbcTemplate;
+
+	private ActivityFeed activityFeed;
+
+	@BeforeEach
+	void setUp() {
+		// Room for every entry, so nothing is overwritten before the flush gets to it
+		activityFeed = new ActivityFeed(jdbcTemplate, 1024, 50, 30);
+	}
+
+	@Test
+	void readersSeeWholeEntriesNewestFirstWhileWritersRecord() throws Exception {
+		AtomicBoolean writing = new AtomicBoolean(true);
+		ExecutorService executor = Executors.newFixedThreadPool(WRITERS + 2);
+		try {
+			List<Future<?>> readers = new ArrayList<>();
+			for (int r = 0; r < 2; r++) {
+				readers.add(executor.submit(() -> {
+					while (writing.get()) {
+						assertNewestFirst(activityFeed.recent(100, Set.of()));
+					}
+				}));
+			}
+			runWriters(executor);
+			writing.set(false);
+			for (Future<?> reader : readers) {
+				reader.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		List<ActivityItemDTO> all = activityFeed.recent(WRITERS * PER_WRITER, Set.of());
+		assertThat(all).hasSize(WRITERS * PER_WRITER);
+		assertNewestFirst(all);
+	}
+
+	@Test
+	void recentFiltersByType() {
+		activityFeed.onActivity(ActivityEvent.of(ActivityType.ORDER, "order placed", 1L));
+		activityFeed.onActivity(ActivityEvent.of(ActivityType.USER, "user joined", 2L));
+
+		assertThat(activityFeed.recent(10, Set.of(ActivityType.USER)))
+				.extracting(ActivityItemDTO::getDescription)
+				.containsExactly("user joined");
+	}
+
+	@Test
+	void flushRacingWritersSavesEveryEntryOnce() throws Exception {
+		List<String> saved = capturedInserts();
+		AtomicBoolean writing = new AtomicBoolean(true);
+		ExecutorService executor = Executors.newFixedThreadPool(WRITERS + 1);
+		try {
+			Future<?> flusher = executor.submit(() -> {
+				while (writing.get()) {
+					activityFeed.flush();
+				}
+			});
+			runWriters(executor);
+			writing.set(false);
+			flusher.get();
+		} finally {
+			executor.shutdownNow();
+		}
+		activityFeed.flush();
+
+		assertThat(saved).hasSize(WRITERS * PER_WRITER).doesNotHaveDuplicates();
+	}
+
+	@Test
+	void missingDescriptionIsRecordedEmpty() {
+		List<String> saved = capturedInserts();
+		activityFeed.onActivity(ActivityEvent.of(ActivityType.REVIEW, null, 5L));
+
+		assertThat(activityFeed.recent(1, Set.of()))
+				.extracting(ActivityItemDTO::getDescription)
+				.containsExactly("");
+		activityFeed.flush();
+		assertThat(saved).containsExactly("");
+	}
+
+	private void runWriters(ExecutorService executor) throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> writers = new ArrayList<>();
+		for (int w = 0; w < WRITERS; w++) {
+			int writer = w;
+			writers.add(executor.submit(() -> {
+				start.await();
+				for (int i = 0; i < PER_WRITER; i++) {
+					activityFeed.onActivity(ActivityEvent.of(ActivityType.ORDER, writer + ":" + i, (long) i));
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> writer : writers) {
+			writer.get();
+		}
+	}
+
+	// Runs the real statement setter against a mock statement and keeps the descriptions it binds
+	@SuppressWarnings("unchecked")
+	private List<String> capturedInserts() {
+		List<String> saved = new ArrayList<>();
+		doAnswer(invocation -> {
+			Collection<Object> batch = invocation.getArgument(1);
+			ParameterizedPreparedStatementSetter<Object> setter = invocation.getArgument(3);
+			PreparedStatement statement = mock(PreparedStatement.class);
+			doAnswer(set -> saved.add(set.getArgument(1))).when(statement).setString(eq(2), any());
+			for (Object activity : batch) {
+				setter.setValues(statement, activity);
+			}
+			return new int[0][];
+		}).when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(),
+				any(ParameterizedPreparedStatementSetter.class));
+		return saved;
+	}
+
+	// Each writer records 0, 1, 2, ... in turn, so its entries must count down and never repeat
+	private static void assertNewestFirst(List<ActivityItemDTO> items) {
+		Map<String, Integer> lastSeen = new HashMap<>();
+		Set<String> descriptions = new HashSet<>();
+		for (ActivityItemDTO item : items) {
+			assertThat(item.getType()).isEqualTo(ActivityType.ORDER.name());
+			assertThat(item.getTimestamp()).isNotNull();
+			assertThat(descriptions.add(item.getDescription())).isTrue();
+			String[] parts = item.getDescription().split(":");
+			int index = Integer.parseInt(parts[1]);
+			Integer previous = lastSeen.put(parts[0], index);
+			if (previous != null) {
+				assertThat(index).isLessThan(previous);
+			}
+			assertThat(item.getReferenceId()).isEqualTo((long) index);
+		}
+	}
+}
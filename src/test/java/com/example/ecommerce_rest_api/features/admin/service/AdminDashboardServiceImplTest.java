@@ -0,0 +1,65 @@
+package com.example.ecommerce_rest_api.features.admin.service;
+
+import com.example.ecommerce_rest_api.features.admin.dto.SalesReportDTO;
+import com.example.ecommerce_rest_api.features.admin.entity.DailySales;
+import com.example.ecommerce_rest_api.features.admin.repository.DailySalesRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AdminDashboardServiceImplTest {
+
+	@Mock
+	private DailySalesRepository dailySalesRepository;
+
+	@InjectMocks
+	private AdminDashboardServiceImpl dashboardService;
+
+	@Test
+	void reportCoversUpToALeapYear() {
+		LocalDate start = LocalDate.of(2024, 1, 1);
+		LocalDate end = LocalDate.of(2024, 12, 31);
+		DailySales day = new DailySales();
+		day.setSaleDate(LocalDate.of(2024, 6, 1));
+		day.setTotalOrders(3L);
+		day.setDeliveredOrders(2L);
+		day.setCancelledOrders(1L);
+		day.setDeliveredAmount(50.0);
+		when(dailySalesRepository.findBySaleDateBetweenOrderBySaleDate(start, end)).thenReturn(List.of(day));
+
+		SalesReportDTO report = dashboardService.getSalesReport(start, end);
+
+		assertThat(report.getTotalOrders()).isEqualTo(3L);
+		assertThat(report.getCompletedOrders()).isEqualTo(2L);
+		assertThat(report.getAverageOrderValue()).isEqualTo(25.0);
+		assertThat(report.getDailySales()).containsEntry(LocalDate.of(2024, 6, 1), 50.0);
+	}
+
+	@Test
+	void longerRangesAreRejected() {
+		assertThatThrownBy(() -> dashboardService.getSalesReport(LocalDate.of(2024, 1, 1), LocalDate.of(2025, 1, 1)))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("366");
+		assertThatThrownBy(() -> dashboardService.getSalesReport(LocalDate.of(2000, 1, 1), LocalDate.of(2024, 1, 1)))
+				.isInstanceOf(IllegalArgumentException.class);
+		verifyNoInteractions(dailySalesRepository);
+	}
+
+	@Test
+	void reversedRangesAreRejected() {
+		assertThatThrownBy(() -> dashboardService.getSalesReport(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 1, 1)))
+				.isInstanceOf(IllegalArgumentException.class);
+		verifyNoInteractions(dailySalesRepository);
+	}
+}
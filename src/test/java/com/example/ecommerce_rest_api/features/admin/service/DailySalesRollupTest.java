@@ -0,0 +1,168 @@
+package com.example.ecommerce_rest_api.features.admin.service;
+
+import com.example.ecommerce_rest_api.features.order.ENUM.OrderStatus;
+import com.example.ecommerce_rest_api.features.order.entity.Order;
+import com.example.ecommerce_rest_api.features.order.event.OrderStatusChangedEvent;
+import com.example.ecommerce_rest_api.features.order.repository.OrderRepository;
+import com.example.ecommerce_rest_api.features.user.entity.User;
+import com.example.ecommerce_rest_api.support.MySqlIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Deltas are applied with the order transaction and rebuilds take turns with them, so the
+// rollup row always matches a recount of the orders, even while both run at once
+class DailySalesRollupTest extends MySqlIntegrationTest {
+
+	private static final String ROW =
+			"select total_orders, pending_orders, confirmed_orders, delivered_orders, cancelled_orders, " +
+			"gross_amount, delivered_amount from daily_sales where sale_date = ?";
+
+	private static final String RECOUNT =
+			"select count(*) as total_orders, " +
+			"coalesce(sum(case when status = 'PENDING' then 1 else 0 end), 0) as pending_orders, " +
+			"coalesce(sum(case when status = 'CONFIRMED' then 1 else 0 end), 0) as confirmed_orders, " +
+			"coalesce(sum(case when status = 'DELIVERED' then 1 else 0 end), 0) as delivered_orders, " +
+			"coalesce(sum(case when status = 'CANCELLED' then 1 else 0 end), 0) as cancelled_orders, " +
+			"coalesce(sum(total), 0) as gross_amount, " +
+			"coalesce(sum(case when status = 'DELIVERED' then total else 0 end), 0) as delivered_amount " +
+			"from orders where created_at >= ? and created_at < ?";
+
+	@Autowired
+	private DailySalesRollup dailySalesRollup;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	private User buyer;
+
+	@BeforeEach
+	void setUp() {
+		buyer = newUser("rollup");
+		// Other classes sharing the database write orders without going through the rollup
+		dailySalesRollup.rebuild(LocalDate.now(), LocalDate.now());
+	}
+
+	@Test
+	void placedOrderIsCountedOnCommitOnly() {
+		LocalDate today = LocalDate.now();
+		Map<String, Object> before = row(today);
+
+		inTransactionWithoutResult(status -> {
+			place(40);
+			status.setRollbackOnly();
+		});
+		assertThat(row(today)).isEqualTo(before);
+
+		place(40);
+		assertThat(((Number) row(today).get("total_orders")).longValue())
+				.isEqualTo(((Number) before.get("total_orders")).longValue() + 1);
+		assertThat(row(today)).isEqualTo(recount(today));
+	}
+
+	@Test
+	void statusChangesMoveCountsAndDeliveredAmount() {
+		LocalDate today = LocalDate.now();
+		Order order = place(25);
+		changeStatus(order.getId(), OrderStatus.DELIVERED);
+		changeStatus(order.getId(), OrderStatus.CANCELLED);
+
+		assertThat(row(today)).isEqualTo(recount(today));
+	}
+
+	@Test
+	void rebuildsRacingLiveOrdersNeitherDropNorDoubleCount() throws Exception {
+		LocalDate today = LocalDate.now();
+		AtomicBoolean running = new AtomicBoolean(true);
+		ExecutorService executor = Executors.newFixedThreadPool(5);
+		try {
+			List<Future<?>> writers = new ArrayList<>();
+			for (int t = 0; t < 4; t++) {
+				writers.add(executor.submit(() -> {
+					ThreadLocalRandom random = ThreadLocalRandom.current();
+					for (int i = 0; i < 40; i++) {
+						Order order = place(random.nextInt(1, 100));
+						if (random.nextBoolean()) {
+							changeStatus(order.getId(), random.nextBoolean() ? OrderStatus.DELIVERED : OrderStatus.CANCELLED);
+						}
+					}
+				}));
+			}
+			Future<?> rebuilder = executor.submit(() -> {
+				while (running.get()) {
+					dailySalesRollup.rebuild(today, today);
+				}
+			});
+
+			for (Future<?> writer : writers) {
+				writer.get();
+			}
+			running.set(false);
+			rebuilder.get();
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(row(today)).isEqualTo(recount(today));
+	}
+
+	private Order place(double total) {
+		return inTransaction(status -> {
+			Order order = orderRepository.save(pendingOrder(buyer, "rollup")
+					.subtotal(total)
+					.total(total)
+					.build());
+			orderRepository.flush();
+			eventPublisher.publishEvent(OrderStatusChangedEvent.placed(
+					order.getId(), order.getCreatedAt(), order.getStatus(), order.getTotal()));
+			return order;
+		});
+	}
+
+	private void changeStatus(Long orderId, OrderStatus status) {
+		inTransactionWithoutResult(tx -> {
+			Order order = orderRepository.findById(orderId).orElseThrow();
+			OrderStatus previous = order.getStatus();
+			order.setStatus(status);
+			eventPublisher.publishEvent(new OrderStatusChangedEvent(
+					order.getId(), order.getCreatedAt(), previous, status, order.getTotal()));
+		});
+	}
+
+	private Map<String, Object> row(LocalDate day) {
+		return normalized(jdbcTemplate.queryForMap(ROW, Date.valueOf(day)));
+	}
+
+	private Map<String, Object> recount(LocalDate day) {
+		return normalized(jdbcTemplate.queryForMap(RECOUNT,
+				Timestamp.valueOf(day.atStartOfDay()), Timestamp.valueOf(day.plusDays(1).atStartOfDay())));
+	}
+
+	// The rollup row and the recount come back with different numeric types
+	private static Map<String, Object> normalized(Map<String, Object> row) {
+		Map<String, Object> values = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		row.forEach((column, value) -> values.put(column, column.toLowerCase().endsWith("_amount")
+				? ((Number) value).doubleValue()
+				: ((Number) value).longValue()));
+		return values;
+	}
+}
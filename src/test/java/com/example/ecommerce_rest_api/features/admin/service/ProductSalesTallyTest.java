@@ -0,0 +1,175 @@
+package com.example.ecommerce_rest_api.features.admin.service;
+
+import com.example.ecommerce_rest_api.features.admin.dto.TopProductDTO;
+import com.example.ecommerce_rest_api.features.order.ENUM.OrderStatus;
+import com.example.ecommerce_rest_api.features.order.entity.Order;
+import com.example.ecommerce_rest_api.features.order.entity.OrderItem;
+import com.example.ecommerce_rest_api.features.order.event.OrderStatusChangedEvent;
+import com.example.ecommerce_rest_api.features.order.repository.OrderRepository;
+import com.example.ecommerce_rest_api.features.product.entity.ProductSku;
+import com.example.ecommerce_rest_api.features.user.entity.User;
+import com.example.ecommerce_rest_api.support.MySqlIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Deliveries and refunds move per-product sales; the all-time ranking comes from the totals and
+// must agree with the day rows, also after a rebuild recounts the orders
+class ProductSalesTallyTest extends MySqlIntegrationTest {
+
+	@Autowired
+	private ProductSalesTally productSalesTally;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	private User buyer;
+
+	@BeforeEach
+	void setUp() {
+		buyer = newUser("tally");
+	}
+
+	@Test
+	void allTimeRankingFollowsDeliveredUnits() {
+		// Far more units than other tests deliver, so these lead the all-time ranking
+		ProductSku first = sku();
+		ProductSku second = sku();
+		ProductSku undelivered = sku();
+		deliver(order(first, 900_000));
+		deliver(order(second, 600_000));
+		deliver(order(second, 200_000));
+		order(undelivered, 5_000_000);
+
+		List<TopProductDTO> top = productSalesTally.findTopSelling(2, null);
+
+		assertThat(top).extracting(TopProductDTO::getProductId)
+				.containsExactly(first.getProduct().getId(), second.getProduct().getId());
+		assertThat(top).extracting(TopProductDTO::getTotalSold).containsExactly(900_000, 800_000);
+	}
+
+	@Test
+	void windowAndAllTimeAgreeForTodaysSales() {
+		ProductSku sku = sku();
+		deliver(order(sku, 4));
+		deliver(order(sku, 3));
+
+		assertThat(sold(productSalesTally.findTopSelling(100, 1), sku)).isEqualTo(7);
+		assertThat(total(sku)).containsEntry("units_sold", 7L);
+	}
+
+	@Test
+	void refundTakesTheSaleOffDayAndTotal() {
+		ProductSku sku = sku();
+		Order order = order(sku, 5);
+		deliver(order);
+		changeStatus(order.getId(), OrderStatus.DELIVERED, OrderStatus.REFUNDED);
+
+		assertThat(total(sku)).containsEntry("units_sold", 0L);
+		assertThat(jdbcTemplate.queryForObject(
+				"select units_sold from product_sales_daily where product_id = ? and sale_date = ?",
+				Long.class, sku.getProduct().getId(), Date.valueOf(LocalDate.now()))).isZero();
+	}
+
+	@Test
+	void rebuildMatchesLiveTallyAndCountsUndatedDeliveries() {
+		ProductSku live = sku();
+		deliver(order(live, 6));
+		deliver(order(live, 2));
+		ProductSku undated = sku();
+		// Delivered before the delivery time was recorded: no event, no delivered_at
+		Order old = order(undated, 9);
+		jdbcTemplate.update("update orders set status = 'DELIVERED', delivered_at = null where id = ?", old.getId());
+
+		LocalDate today = LocalDate.now();
+		productSalesTally.rebuild(today, today);
+
+		assertThat(total(live)).containsEntry("units_sold", 8L);
+		assertThat(total(undated)).containsEntry("units_sold", 9L);
+		assertThat(sold(productSalesTally.findTopSelling(100, 1), undated)).isEqualTo(9);
+	}
+
+	@Test
+	void deliveryRecountedByARebuildIsNotAddedAgainByItsLateChange() {
+		ProductSku sku = sku();
+		Order order = order(sku, 4);
+		// Committed as delivered; its change runs only after a rebuild has recounted the day
+		jdbcTemplate.update("update orders set status = 'DELIVERED', delivered_at = ? where id = ?",
+				Timestamp.valueOf(LocalDateTime.now()), order.getId());
+		LocalDate today = LocalDate.now();
+		productSalesTally.rebuild(today, today);
+		productSalesTally.onOrderStatusChanged(new OrderStatusChangedEvent(
+				order.getId(), order.getCreatedAt(), OrderStatus.PENDING, OrderStatus.DELIVERED, order.getTotal()));
+
+		assertThat(total(sku)).containsEntry("units_sold", 4L);
+		assertThat(sold(productSalesTally.findTopSelling(100, 1), sku)).isEqualTo(4);
+
+		// A later refund still takes it off
+		changeStatus(order.getId(), OrderStatus.DELIVERED, OrderStatus.REFUNDED);
+		assertThat(total(sku)).containsEntry("units_sold", 0L);
+	}
+
+	private ProductSku sku() {
+		return newSku("tally", 2.0, 10);
+	}
+
+	private Order order(ProductSku sku, int quantity) {
+		return inTransaction(status -> {
+			Order order = pendingOrder(buyer, "tally").build();
+			OrderItem item = OrderItem.builder()
+					.order(order)
+					.productSku(sku)
+					.productName(sku.getProduct().getName())
+					.skuCode(sku.getSku())
+					.quantity(quantity)
+					.price(sku.getPrice())
+					.build();
+			item.calculateSubtotal();
+			order.addItem(item);
+			order.calculateTotal();
+			return orderRepository.save(order);
+		});
+	}
+
+	private void deliver(Order order) {
+		changeStatus(order.getId(), OrderStatus.PENDING, OrderStatus.DELIVERED);
+	}
+
+	private void changeStatus(Long orderId, OrderStatus previous, OrderStatus status) {
+		inTransactionWithoutResult(tx -> {
+			Order order = orderRepository.findById(orderId).orElseThrow();
+			order.setStatus(status);
+			if (status == OrderStatus.DELIVERED) {
+				order.setDeliveredAt(LocalDateTime.now());
+			}
+			eventPublisher.publishEvent(new OrderStatusChangedEvent(
+					order.getId(), order.getCreatedAt(), previous, status, order.getTotal()));
+		});
+	}
+
+	private Map<String, Object> total(ProductSku sku) {
+		return jdbcTemplate.queryForMap("select units_sold, revenue from product_sales_total where product_id = ?",
+				sku.getProduct().getId());
+	}
+
+	private static int sold(List<TopProductDTO> top, ProductSku sku) {
+		return top.stream()
+				.filter(product -> product.getProductId().equals(sku.getProduct().getId()))
+				.mapToInt(TopProductDTO::getTotalSold)
+				.findFirst()
+				.orElse(0);
+	}
+}
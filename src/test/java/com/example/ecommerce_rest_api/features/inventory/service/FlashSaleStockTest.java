@@ -0,0 +1,281 @@
+package com.example.ecommerce_rest_api.features.inventory.service;
+
+import com.example.ecommerce_rest_api.features.product.entity.Product;
+import com.example.ecommerce_rest_api.features.product.entity.ProductSku;
+import com.example.ecommerce_rest_api.features.product.repository.ProductRepository;
+import com.example.ecommerce_rest_api.features.product.repository.ProductSkuBulkRepository;
+import com.example.ecommerce_rest_api.features.product.repository.ProductSkuRepository;
+import com.example.ecommerce_rest_api.features.product.service.ProductDetailCache;
+import com.example.ecommerce_rest_api.features.product.service.StockStateTracker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Many threads take from the shards of one SKU while some of their transactions roll back.
+// Every unit moved out of the row must end up either sold or back in the row. Checkouts that
+// find the shards empty fall back to the row, as OrderServiceImpl does.
+class FlashSaleStockTest {
+
+	private static final long SKU_ID = 7L;
+	private static final int THREADS = 16;
+
+	private final AtomicLong row = new AtomicLong();
+	private final AtomicLong leased = new AtomicLong();
+	private final AtomicLong returned = new AtomicLong();
+	private final AtomicLong soldFromRow = new AtomicLong();
+	private final Set<String> leaseThreads = ConcurrentHashMap.newKeySet();
+	private volatile CountDownLatch leaseGate = new CountDownLatch(0);
+
+	private ProductSkuRepository productSkuRepository;
+	private FlashSaleStock flashSaleStock;
+
+	@BeforeEach
+	void setUp() {
+		productSkuRepository = mock(ProductSkuRepository.class);
+		Product product = new Product();
+		product.setId(1L);
+		ProductSku sku = new ProductSku();
+		sku.setId(SKU_ID);
+		sku.setProduct(product);
+		when(productSkuRepository.findById(SKU_ID)).thenReturn(Optional.of(sku));
+		when(productSkuRepository.startFlashSale(SKU_ID)).thenReturn(1);
+		when(productSkuRepository.endFlashSale(eq(SKU_ID), any())).thenReturn(1);
+
+		// The row: leases take what is left up to the chunk, returns add to it
+		when(productSkuRepository.leaseStock(eq(SKU_ID), anyInt())).thenAnswer(invocation -> {
+			leaseThreads.add(Thread.currentThread().getName());
+			leaseGate.await();
+			int max = invocation.getArgument(1);
+			synchronized (row) {
+				int taken = (int) Math.min(row.get(), max);
+				row.addAndGet(-taken);
+				leased.addAndGet(taken);
+				return taken;
+			}
+		});
+		when(productSkuRepository.incrementStock(anyList())).thenAnswer(invocation -> {
+			List<ProductSkuBulkRepository.StockChange> changes = invocation.getArgument(0);
+			for (ProductSkuBulkRepository.StockChange change : changes) {
+				row.addAndGet(change.quantity());
+				returned.addAndGet(change.quantity());
+			}
+			return new int[changes.size()];
+		});
+
+		flashSaleStock = new FlashSaleStock(productSkuRepository, mock(ProductRepository.class),
+				mock(ProductDetailCache.class), mock(StockStateTracker.class), mock(PlatformTransactionManager.class),
+				new SimpleMeterRegistry(), 4, 25, 5_000, List.of());
+	}
+
+	@AfterEach
+	void tearDown() {
+		flashSaleStock.returnAll();
+	}
+
+	@Test
+	void soldPlusReturnedEqualsLeasedUnderContention() throws Exception {
+		row.set(20_000);
+		flashSaleStock.enable(SKU_ID, null, null);
+
+		List<Future<Long>> sold = runBuyers(() -> {
+			long units = 0;
+			while (true) {
+				int quantity = ThreadLocalRandom.current().nextInt(1, 4);
+				boolean rollback = ThreadLocalRandom.current().nextInt(10) == 0;
+				FlashSaleStock.Result result = inTransaction(rollback, () -> flashSaleStock.take(SKU_ID, quantity));
+				if (result == FlashSaleStock.Result.SOLD_OUT) {
+					return units;
+				}
+				if (result == FlashSaleStock.Result.TAKEN && !rollback) {
+					units += quantity;
+				} else if (result == FlashSaleStock.Result.NOT_ACTIVE && !rollback) {
+					takeFromRow(quantity);
+				}
+			}
+		});
+		long totalSold = total(sold);
+		flashSaleStock.disable(SKU_ID);
+		flashSaleStock.returnAll();
+
+		assertThat(totalSold + returned.get()).isEqualTo(leased.get());
+		assertThat(totalSold + soldFromRow.get() + row.get()).isEqualTo(20_000);
+		assertThat(flashSaleStock.leasedCount()).isZero();
+		assertThat(leaseThreads).allMatch(name -> name.startsWith("flash-sale-lease-"));
+	}
+
+	@Test
+	void disableWhileBuyingHandsBackEveryUnsoldUnit() throws Exception {
+		row.set(1_000_000);
+		flashSaleStock.enable(SKU_ID, 8, 10);
+
+		List<Future<Long>> sold = runBuyers(() -> {
+			long units = 0;
+			for (int i = 0; i < 5_000; i++) {
+				boolean rollback = i % 7 == 0;
+				FlashSaleStock.Result result = inTransaction(rollback, () -> flashSaleStock.take(SKU_ID, 2));
+				assertThat(result).isNotEqualTo(FlashSaleStock.Result.SOLD_OUT);
+				if (result == FlashSaleStock.Result.TAKEN) {
+					units += rollback ? 0 : 2;
+				} else if (!flashSaleStock.isActive(SKU_ID)) {
+					// Disabled: checkouts go back to the row
+					return units;
+				} else if (!rollback) {
+					takeFromRow(2);
+				}
+			}
+			return units;
+		}, () -> {
+			Thread.sleep(20);
+			flashSaleStock.disable(SKU_ID);
+		});
+		long totalSold = total(sold);
+		flashSaleStock.returnAll();
+
+		// Takes rolled back after the disable, and leases that landed after it, went to the row
+		assertThat(totalSold + returned.get()).isEqualTo(leased.get());
+		assertThat(totalSold + soldFromRow.get() + row.get()).isEqualTo(1_000_000);
+	}
+
+	@Test
+	void takeNeverWaitsForALease() throws Exception {
+		row.set(1_000);
+		leaseGate = new CountDownLatch(1);
+		flashSaleStock.enable(SKU_ID, null, null);
+
+		// The first lease is stuck on the row lock; checkouts use the row meanwhile
+		assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+			for (int i = 0; i < 100; i++) {
+				assertThat(flashSaleStock.take(SKU_ID, 1)).isEqualTo(FlashSaleStock.Result.NOT_ACTIVE);
+			}
+		});
+
+		leaseGate.countDown();
+		await(() -> flashSaleStock.leasedCount() == 4 * 25);
+		assertThat(flashSaleStock.take(SKU_ID, 1)).isEqualTo(FlashSaleStock.Result.TAKEN);
+		assertThat(leaseThreads).allMatch(name -> name.startsWith("flash-sale-lease-"));
+	}
+
+	@Test
+	void followsTheModeSetByAnotherInstance() throws Exception {
+		row.set(1_000);
+		when(productSkuRepository.findFlashSaleSkus()).thenReturn(
+				List.of(new ProductSkuBulkRepository.SkuRef(SKU_ID, "FLASH", 1L, true)));
+
+		flashSaleStock.reconcile();
+		assertThat(flashSaleStock.isActive(SKU_ID)).isTrue();
+		await(() -> flashSaleStock.take(SKU_ID, 3) == FlashSaleStock.Result.TAKEN);
+
+		// Turned off elsewhere: the unsold units go back on the next tick
+		when(productSkuRepository.findFlashSaleSkus()).thenReturn(List.of());
+		flashSaleStock.reconcile();
+
+		assertThat(flashSaleStock.isActive(SKU_ID)).isFalse();
+		assertThat(flashSaleStock.leasedCount()).isZero();
+		assertThat(row.get()).isEqualTo(1_000 - 3);
+	}
+
+	// The guarded row update a checkout falls back to
+	private void takeFromRow(int quantity) {
+		synchronized (row) {
+			if (row.get() >= quantity) {
+				row.addAndGet(-quantity);
+				soldFromRow.addAndGet(quantity);
+			}
+		}
+	}
+
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!condition.getAsBoolean()) {
+			assertThat(System.nanoTime()).isLessThan(deadline);
+			Thread.sleep(5);
+		}
+	}
+
+	private List<Future<Long>> runBuyers(Buyer buyer, Action... others) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS + others.length);
+		try {
+			List<Future<Long>> futures = new ArrayList<>();
+			for (int i = 0; i < THREADS; i++) {
+				futures.add(executor.submit(buyer::buy));
+			}
+			List<Future<?>> otherFutures = new ArrayList<>();
+			for (Action other : others) {
+				otherFutures.add(executor.submit(() -> {
+					other.run();
+					return null;
+				}));
+			}
+			for (Future<?> future : otherFutures) {
+				future.get();
+			}
+			for (Future<Long> future : futures) {
+				future.get();
+			}
+			return futures;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	// Runs the take with transaction synchronization active and completes it as the
+	// transaction manager would, committed or rolled back
+	private static FlashSaleStock.Result inTransaction(boolean rollback, Supplier<FlashSaleStock.Result> take) {
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			FlashSaleStock.Result result = take.get();
+			int status = rollback ? TransactionSynchronization.STATUS_ROLLED_BACK : TransactionSynchronization.STATUS_COMMITTED;
+			for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+				synchronization.afterCompletion(status);
+			}
+			return result;
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	private static long total(List<Future<Long>> futures) throws Exception {
+		long total = 0;
+		for (Future<Long> future : futures) {
+			total += future.get();
+		}
+		return total;
+	}
+
+	private interface Buyer {
+		long buy() throws Exception;
+	}
+
+	private interface Action {
+		void run() throws Exception;
+	}
+}
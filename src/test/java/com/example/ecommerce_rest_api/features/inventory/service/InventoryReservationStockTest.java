@@ -0,0 +1,95 @@
+package com.example.ecommerce_rest_api.features.inventory.service;
+
+import com.example.ecommerce_rest_api.features.cart.entity.Cart;
+import com.example.ecommerce_rest_api.features.cart.entity.CartItem;
+import com.example.ecommerce_rest_api.features.cart.repository.CartRepository;
+import com.example.ecommerce_rest_api.features.product.dto.ProductSkuUpdateRequest;
+import com.example.ecommerce_rest_api.features.product.dto.SkuBulkUpdateItem;
+import com.example.ecommerce_rest_api.features.product.dto.SkuBulkUpdateRequest;
+import com.example.ecommerce_rest_api.features.product.entity.ProductSku;
+import com.example.ecommerce_rest_api.features.product.service.ProductService;
+import com.example.ecommerce_rest_api.features.user.entity.User;
+import com.example.ecommerce_rest_api.support.MySqlIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Absolute stock writes happen while carts hold stock; releasing the holds afterwards must
+// leave exactly the stock on hand that was set, not that plus the held units
+class InventoryReservationStockTest extends MySqlIntegrationTest {
+
+	@Autowired
+	private InventoryReservationService inventoryReservationService;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private CartRepository cartRepository;
+
+	@Test
+	void skuUpdateSetsStockOnHandWhileHoldsExist() {
+		CartItem item = cartLine(10, 3);
+		Long skuId = item.getProductSku().getId();
+
+		inventoryReservationService.hold(item, 3);
+		assertThat(quantity(skuId)).isEqualTo(7);
+
+		productService.updateProductSku(skuId, new ProductSkuUpdateRequest(25.0, null, 20, null, null));
+		assertThat(quantity(skuId)).isEqualTo(17);
+
+		inventoryReservationService.release(List.of(item));
+		assertThat(quantity(skuId)).isEqualTo(20);
+	}
+
+	@Test
+	void bulkUpdateSetsStockOnHandWhileHoldsExist() {
+		CartItem item = cartLine(10, 4);
+		Long skuId = item.getProductSku().getId();
+
+		inventoryReservationService.hold(item, 4);
+		productService.bulkUpdateSkus(new SkuBulkUpdateRequest(List.of(
+				new SkuBulkUpdateItem(skuId, null, null, null, 2, null))));
+		// Fewer units on hand than held: nothing is available until the holds go
+		assertThat(quantity(skuId)).isEqualTo(-2);
+
+		inventoryReservationService.release(List.of(item));
+		assertThat(quantity(skuId)).isEqualTo(2);
+	}
+
+	@Test
+	void priceUpdateKeepsStockTakenByHolds() {
+		CartItem item = cartLine(10, 5);
+		Long skuId = item.getProductSku().getId();
+
+		// A price-only update leaves the stock, and the held units, alone
+		inventoryReservationService.hold(item, 5);
+		productService.updateProductSku(skuId, new ProductSkuUpdateRequest(30.0, null, null, null, null));
+		assertThat(quantity(skuId)).isEqualTo(5);
+
+		inventoryReservationService.release(List.of(item));
+		assertThat(quantity(skuId)).isEqualTo(10);
+	}
+
+	private CartItem cartLine(int stock, int quantity) {
+		User user = newUser("buyer");
+		ProductSku sku = newSku("held", 25.0, stock);
+		Cart cart = Cart.builder().user(user).build();
+		CartItem item = CartItem.builder()
+				.cart(cart)
+				.productSku(sku)
+				.quantity(quantity)
+				.price(sku.getPrice())
+				.build();
+		cart.getItems().add(item);
+		cartRepository.saveAndFlush(cart);
+		return item;
+	}
+
+	private int quantity(Long skuId) {
+		return jdbcTemplate.queryForObject("select quantity from product_skus where id = ?", Integer.class, skuId);
+	}
+}
@@ -0,0 +1,104 @@
+package com.example.ecommerce_rest_api.features.order.export;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvOrderExportWriterTest {
+
+	private static final String HEADER = "orderId,orderNumber,createdAt,deliveredAt,status,paymentMethod,paymentStatus," +
+			"username,subtotal,shippingCost,tax,discount,total,sku,productName,quantity,unitPrice,lineSubtotal\r\n";
+
+	@Test
+	void emptyExportIsJustTheHeader() throws IOException {
+		StringWriter out = new StringWriter();
+		new CsvOrderExportWriter(out).close();
+
+		assertThat(out.toString()).isEqualTo(HEADER);
+	}
+
+	@Test
+	void plainFieldsAreNotQuoted() throws IOException {
+		assertThat(lines(row("alice", "Blue Shirt", 25.0))[1]).isEqualTo(
+				"7,ORD-1,2026-03-01T10:15,,DELIVERED,CASH_ON_DELIVERY,PAID,alice,25.0,0.0,0.0,0.0,25.0,SKU-1,Blue Shirt,1,25.0,25.0");
+	}
+
+	@Test
+	void fieldsWithCommasQuotesOrNewlinesAreQuoted() throws IOException {
+		String csv = write(row("alice", "Shirt, \"blue\"\r\nsize M", 25.0));
+
+		assertThat(csv).contains(",SKU-1,\"Shirt, \"\"blue\"\"\r\nsize M\",1,");
+	}
+
+	@Test
+	void textThatLooksLikeAFormulaIsNeutralised() throws IOException {
+		assertThat(lines(row("=HYPERLINK(\"http://evil\")", "+1 cable", 25.0))[1])
+				.contains(",\"'=HYPERLINK(\"\"http://evil\"\")\",")
+				.contains(",'+1 cable,");
+		assertThat(lines(row("-alice", "@mention", 25.0))[1])
+				.contains(",'-alice,")
+				.contains(",'@mention,");
+		assertThat(lines(row("\talice", "\rShirt", 25.0))[1])
+				.contains(",'\talice,");
+		assertThat(write(row("alice", "\rShirt", 25.0)))
+				.contains(",\"'\rShirt\",");
+	}
+
+	@Test
+	void negativeAmountsStayNumbers() throws IOException {
+		OrderExportRow refund = new OrderExportRow(7L, "ORD-1", LocalDateTime.of(2026, 3, 1, 10, 15), null,
+				"DELIVERED", "CASH_ON_DELIVERY", "PAID", "alice", 25.0, 0.0, 0.0, -5.0, 20.0,
+				"SKU-1", "Shirt", 1, 25.0, 25.0);
+
+		assertThat(lines(refund)[1]).contains(",0.0,-5.0,20.0,");
+	}
+
+	@Test
+	void amountsUsePlainNotation() throws IOException {
+		assertThat(lines(row("alice", "Car", 12_500_000.0))[1]).contains(",12500000.0,");
+	}
+
+	@Test
+	void gzippedExportDecompressesToTheSameCsv() throws IOException {
+		OrderExportRow row = row("alice", "Blue Shirt", 25.0);
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		try (CsvOrderExportWriter writer = new CsvOrderExportWriter(
+				new OutputStreamWriter(new GZIPOutputStream(compressed), StandardCharsets.UTF_8))) {
+			writer.write(row);
+		}
+
+		String csv;
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+			csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+		assertThat(csv).isEqualTo(write(row));
+	}
+
+	private static String[] lines(OrderExportRow row) throws IOException {
+		return write(row).split("\r\n");
+	}
+
+	private static String write(OrderExportRow row) throws IOException {
+		StringWriter out = new StringWriter();
+		try (CsvOrderExportWriter writer = new CsvOrderExportWriter(out)) {
+			writer.write(row);
+		}
+		return out.toString();
+	}
+
+	private static OrderExportRow row(String username, String productName, double price) {
+		return new OrderExportRow(7L, "ORD-1", LocalDateTime.of(2026, 3, 1, 10, 15), null,
+				"DELIVERED", "CASH_ON_DELIVERY", "PAID", username, price, 0.0, 0.0, 0.0, price,
+				"SKU-1", productName, 1, price, price);
+	}
+}
@@ -0,0 +1,134 @@
+package com.example.ecommerce_rest_api.features.order.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OrderNumberGeneratorTest {
+
+	private static final int THREADS = 8;
+	private static final int PER_THREAD = 250_000;
+
+	@Test
+	void numbersAreUniqueAndIncreasingUnderContention() throws Exception {
+		OrderNumberGenerator generator = generator("7");
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		List<Future<long[]>> futures = new ArrayList<>();
+		long started = System.nanoTime();
+		for (int t = 0; t < THREADS; t++) {
+			futures.add(executor.submit(() -> {
+				long[] ids = new long[PER_THREAD];
+				for (int i = 0; i < PER_THREAD; i++) {
+					ids[i] = generator.nextId();
+				}
+				return ids;
+			}));
+		}
+		List<long[]> issued = new ArrayList<>();
+		for (Future<long[]> future : futures) {
+			issued.add(future.get());
+		}
+		long elapsedNanos = System.nanoTime() - started;
+		executor.shutdown();
+
+		Set<Long> unique = new HashSet<>(THREADS * PER_THREAD * 2);
+		int outOfOrder = 0;
+		int wrongNode = 0;
+		for (long[] ids : issued) {
+			for (int i = 0; i < ids.length; i++) {
+				unique.add(ids[i]);
+				if (i > 0 && ids[i] <= ids[i - 1]) {
+					outOfOrder++;
+				}
+				if (((ids[i] >>> 12) & 1023) != 7) {
+					wrongNode++;
+				}
+			}
+		}
+		assertThat(unique).hasSize(THREADS * PER_THREAD);
+		assertThat(outOfOrder).isZero();
+		assertThat(wrongNode).isZero();
+
+		double perSecond = THREADS * PER_THREAD / (elapsedNanos / 1e9);
+		System.out.printf("OrderNumberGenerator: %d ids on %d threads in %d ms (%.0f ids/s)%n",
+				THREADS * PER_THREAD, THREADS, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), perSecond);
+	}
+
+	@Test
+	void stringsSortLikeIds() {
+		OrderNumberGenerator generator = generator("1");
+		String previous = generator.next();
+		for (int i = 0; i < 10_000; i++) {
+			String next = generator.next();
+			assertThat(next).startsWith("ORD-0").hasSize(17);
+			assertThat(next).isGreaterThan(previous);
+			previous = next;
+		}
+	}
+
+	@Test
+	void restartResumesAfterNumbersIssuedAheadOfTheClock() {
+		OrderNumberGenerator before = generator("3");
+		// A burst or a clock step back pushed the logical clock ten seconds ahead
+		long aheadId = (before.nextId() >>> 22) + 10_000 << 22 | 3L << 12 | 4095;
+		before.resumeAfter(aheadId);
+		long lastBeforeRestart = before.nextId();
+		assertThat(lastBeforeRestart).isGreaterThan(aheadId);
+
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+		when(jdbcTemplate.queryForList(anyString(), eq(String.class)))
+				.thenReturn(List.of("ORD-" + Long.toString(lastBeforeRestart, 36).toUpperCase()));
+		OrderNumberGenerator restarted = new OrderNumberGenerator("3", jdbcTemplate);
+		restarted.resumeAfterIssuedNumbers();
+
+		assertThat(restarted.nextId()).isGreaterThan(lastBeforeRestart);
+	}
+
+	@Test
+	void resumesAfterNumbersOfOtherNodes() {
+		OrderNumberGenerator node = generator("2");
+		long otherNodeId = (node.nextId() >>> 22) + 5_000 << 22 | 900L << 12 | 17;
+		node.resumeAfter(otherNodeId);
+
+		assertThat(node.nextId()).isGreaterThan(otherNodeId);
+	}
+
+	@Test
+	void startsFromClockWithoutIssuedNumbers() {
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+		when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of());
+		OrderNumberGenerator generator = new OrderNumberGenerator("4", jdbcTemplate);
+		generator.resumeAfterIssuedNumbers();
+
+		long millis = generator.nextId() >>> 22;
+		long clock = System.currentTimeMillis() - Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+		assertThat(millis).isBetween(clock - 1000, clock + 1000);
+	}
+
+	@Test
+	void rejectsNodeIdsOutsideTenBits() {
+		assertThatThrownBy(() -> generator("1024")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> generator("-1")).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static OrderNumberGenerator generator(String nodeId) {
+		return new OrderNumberGenerator(nodeId, mock(JdbcTemplate.class));
+	}
+}
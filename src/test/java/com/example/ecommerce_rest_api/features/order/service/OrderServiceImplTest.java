@@ -0,0 +1,69 @@
+package com.example.ecommerce_rest_api.features.order.service;
+
+import com.example.ecommerce_rest_api.common.response.PageResponse;
+import com.example.ecommerce_rest_api.features.order.dto.OrderDTO;
+import com.example.ecommerce_rest_api.features.order.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderServiceImplTest {
+
+	@Mock
+	private OrderRepository orderRepository;
+
+	@InjectMocks
+	private OrderServiceImpl orderService;
+
+	@Test
+	void cursorOverDeliveredAtIsRejected() {
+		// Undelivered orders have no deliveredAt, which a keyset can neither encode nor seek past
+		assertThatThrownBy(() -> orderService.getAllOrders(0, 10, "deliveredAt", "desc", null, ""))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("deliveredAt");
+		verifyNoInteractions(orderRepository);
+	}
+
+	@Test
+	void offsetPagesCanStillSortByDeliveredAt() {
+		when(orderRepository.findOrderPage(isNull(), isNull(), any())).thenReturn(Page.empty());
+
+		orderService.getAllOrders(0, 10, "deliveredAt", "desc", null, null);
+
+		verify(orderRepository).findOrderPage(isNull(), isNull(), any());
+	}
+
+	@Test
+	void cursorOverCreatedAtBreaksTiesById() {
+		OrderDTO order = OrderDTO.builder().id(7L).createdAt(LocalDateTime.of(2024, 5, 1, 10, 0)).build();
+		Sort expected = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+		when(orderRepository.findOrderWindow(isNull(), isNull(), any(ScrollPosition.class), eq(expected), eq(1)))
+				.thenReturn(Window.from(List.of(order), index -> ScrollPosition.forward(
+						Map.of("createdAt", order.getCreatedAt(), "id", order.getId())), true));
+
+		PageResponse<OrderDTO> page = orderService.getAllOrders(0, 1, "createdAt", "desc", null, "");
+
+		assertThat(page.getPageContent()).containsExactly(order);
+		assertThat(page.getNextCursor()).isNotBlank();
+	}
+}
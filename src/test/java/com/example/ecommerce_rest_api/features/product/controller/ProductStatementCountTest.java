@@ -0,0 +1,115 @@
+package com.example.ecommerce_rest_api.features.product.controller;
+
+import com.example.ecommerce_rest_api.features.product.ENUM.AttributeType;
+import com.example.ecommerce_rest_api.features.product.entity.Product;
+import com.example.ecommerce_rest_api.features.product.entity.ProductAttribute;
+import com.example.ecommerce_rest_api.features.product.entity.ProductImage;
+import com.example.ecommerce_rest_api.features.product.entity.ProductSku;
+import com.example.ecommerce_rest_api.features.product.repository.ProductAttributeRepository;
+import com.example.ecommerce_rest_api.support.MySqlIntegrationTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Guards the fetch plan of the product list and detail views: the number of prepared statements
+// must not grow with the page size or with the number of images, SKUs and attributes per product
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ProductStatementCountTest extends MySqlIntegrationTest {
+
+	private static final int PRODUCTS = 30;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ProductAttributeRepository productAttributeRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private final List<Long> productIds = new ArrayList<>();
+
+	@BeforeAll
+	void seedCatalog() {
+		inTransactionWithoutResult(status -> {
+			ProductAttribute red = productAttributeRepository.save(attribute(AttributeType.COLOR, "red"));
+			ProductAttribute large = productAttributeRepository.save(attribute(AttributeType.SIZE, "L"));
+			for (int i = 1; i <= PRODUCTS; i++) {
+				Product product = Product.builder()
+						.name("Product " + i)
+						.slug("product-" + i)
+						.isActive(true)
+						.isFeatured(false)
+						.viewCount(0)
+						.build();
+				for (int image = 0; image < 2; image++) {
+					product.addImage(ProductImage.builder()
+							.imageUrl("https://img.example.com/" + i + "-" + image + ".png")
+							.displayOrder(image)
+							.isPrimary(image == 0)
+							.build());
+				}
+				for (int sku = 0; sku < 3; sku++) {
+					product.addSku(ProductSku.builder()
+							.sku("SKU-" + i + "-" + sku)
+							.price(10.0 + sku)
+							.quantity(100)
+							.lowStockThreshold(10)
+							.isActive(true)
+							.attributes(new ArrayList<>(List.of(red, large)))
+							.build());
+				}
+				product.recalculateInventoryStats();
+				productIds.add(productRepository.save(product).getId());
+			}
+		});
+	}
+
+	@Test
+	void listViewUsesFixedNumberOfStatements() throws Exception {
+		long smallPage = statementsFor("/api/v1/products?pageSize=5");
+		long largePage = statementsFor("/api/v1/products?pageSize=25");
+
+		// page + count, then one batch per collection: sub-categories, images, SKUs, SKU attributes
+		assertThat(largePage).isEqualTo(smallPage);
+		assertThat(largePage).isLessThanOrEqualTo(6);
+	}
+
+	@Test
+	void detailViewJoinsSkusAndBatchesTheRest() throws Exception {
+		long byId = statementsFor("/api/v1/products/" + productIds.get(0));
+		long bySlug = statementsFor("/api/v1/products/slug/product-2");
+
+		// product with its SKUs, then sub-categories, images and SKU attributes
+		assertThat(byId).isLessThanOrEqualTo(4);
+		assertThat(bySlug).isLessThanOrEqualTo(4);
+	}
+
+	private long statementsFor(String url) throws Exception {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		mockMvc.perform(get(url)).andExpect(status().isOk());
+		return statistics.getPrepareStatementCount();
+	}
+
+	private static ProductAttribute attribute(AttributeType type, String value) {
+		ProductAttribute attribute = new ProductAttribute();
+		attribute.setType(type);
+		attribute.setValue(value);
+		return attribute;
+	}
+}
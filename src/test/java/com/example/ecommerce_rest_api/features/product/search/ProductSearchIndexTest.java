@@ -0,0 +1,164 @@
+package com.example.ecommerce_rest_api.features.product.search;
+
+import com.example.ecommerce_rest_api.features.product.entity.Product;
+import com.example.ecommerce_rest_api.features.product.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductSearchIndexTest {
+
+	private static final int MAX_CANDIDATES = 1000;
+
+	private final List<Product> catalog = new ArrayList<>();
+	private ProductRepository productRepository;
+	private ProductSearchIndex index;
+
+	@BeforeEach
+	void setUp() {
+		productRepository = mock(ProductRepository.class);
+		when(productRepository.findIndexBatch(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+			long afterId = invocation.getArgument(0);
+			Pageable pageable = invocation.getArgument(1);
+			return catalog.stream()
+					.filter(product -> product.getId() > afterId)
+					.limit(pageable.getPageSize())
+					.toList();
+		});
+		index = new ProductSearchIndex(productRepository, MAX_CANDIDATES);
+	}
+
+	@Test
+	void notReadyUntilBuilt() {
+		assertThat(index.isReady()).isFalse();
+		index.rebuild();
+		assertThat(index.isReady()).isTrue();
+	}
+
+	@Test
+	void ranksNameMatchesAboveDescriptionMatches() {
+		catalog.add(product(1L, "Garden hose", null, "Works with any phone charger"));
+		catalog.add(product(2L, "Phone charger", null, "Fast charging"));
+		catalog.add(product(3L, "Desk lamp", null, "Warm light"));
+		index.rebuild();
+
+		assertThat(index.search("charger")).containsExactly(2L, 1L);
+		assertThat(index.search("lamp")).containsExactly(3L);
+		assertThat(index.search("bicycle")).isEmpty();
+		assertThat(index.search("  ")).isEmpty();
+	}
+
+	@Test
+	void rarerTermsWeighMore() {
+		catalog.add(product(1L, "Red shirt", null, null));
+		catalog.add(product(2L, "Blue shirt", null, null));
+		catalog.add(product(3L, "Green shirt", null, null));
+		catalog.add(product(4L, "Red hat", null, null));
+		index.rebuild();
+
+		// "red" is rarer than "shirt", so the red shirt leads and the red hat beats the other shirts
+		assertThat(index.search("red shirt")).containsExactly(1L, 4L, 2L, 3L);
+	}
+
+	@Test
+	void lastTermMatchesAsPrefixOnce() {
+		// Product 2 matches six expansions of "lapt" in its description; summing them would
+		// rank it above the laptop itself
+		catalog.add(product(1L, "Laptop", null, null));
+		catalog.add(product(2L, "Cable", null, "laptops laptopbag laptopcase laptopstand laptopsleeve laptoplock"));
+		index.rebuild();
+
+		assertThat(index.search("lapt")).containsExactly(1L, 2L);
+		// Prefixes only apply to the last term and from three characters on
+		assertThat(index.search("la")).isEmpty();
+		assertThat(index.search("lapt cable")).containsExactly(2L);
+	}
+
+	@Test
+	void keepsOnlyTheBestScoringCandidates() {
+		for (long id = 1; id <= 1200; id++) {
+			catalog.add(product(id, "Widget " + id, null, null));
+		}
+		// Mentions the term twice, so it outranks every plain widget despite the highest id
+		catalog.add(product(1500L, "Widget widget", null, null));
+		index.rebuild();
+
+		List<Long> matches = index.search("widget");
+
+		assertThat(matches).hasSize(MAX_CANDIDATES);
+		assertThat(matches.getFirst()).isEqualTo(1500L);
+		// Equal scores keep the lowest ids
+		assertThat(matches.subList(1, MAX_CANDIDATES)).isSorted().startsWith(1L).endsWith(999L);
+	}
+
+	@Test
+	void appliesUpdatesAndRemovals() {
+		catalog.add(product(1L, "Coffee mug", null, null));
+		index.rebuild();
+
+		index.indexAfterCommit(product(1L, "Tea cup", null, null));
+		assertThat(index.search("coffee")).isEmpty();
+		assertThat(index.search("tea")).containsExactly(1L);
+
+		index.indexAfterCommit(product(2L, "Tea pot", null, null));
+		assertThat(index.search("tea")).containsExactlyInAnyOrder(1L, 2L);
+
+		Product deleted = product(2L, "Tea pot", null, null);
+		deleted.setDeletedAt(LocalDateTime.now());
+		index.indexAfterCommit(deleted);
+		assertThat(index.search("tea")).containsExactly(1L);
+
+		index.removeAfterCommit(1L);
+		assertThat(index.search("tea")).isEmpty();
+	}
+
+	@Test
+	void searchesKeepWorkingDuringRebuildAndUpdatesAreReplayed() throws Exception {
+		catalog.add(product(1L, "Old lamp", null, null));
+		index.rebuild();
+
+		CountDownLatch scanning = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		when(productRepository.findIndexBatch(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+			scanning.countDown();
+			release.await(5, TimeUnit.SECONDS);
+			return List.of(product(1L, "Old lamp", null, null));
+		});
+
+		Thread rebuild = new Thread(index::rebuild);
+		rebuild.start();
+		assertThat(scanning.await(5, TimeUnit.SECONDS)).isTrue();
+
+		// The old postings still answer, and this update lands after the scan read product 1
+		assertThat(index.search("lamp")).containsExactly(1L);
+		index.indexAfterCommit(product(1L, "New lantern", null, null));
+		assertThat(index.search("lantern")).containsExactly(1L);
+
+		release.countDown();
+		rebuild.join(5000);
+
+		assertThat(index.search("lantern")).containsExactly(1L);
+		assertThat(index.search("old")).isEmpty();
+	}
+
+	private static Product product(Long id, String name, String brand, String description) {
+		Product product = new Product();
+		product.setId(id);
+		product.setName(name);
+		product.setBrand(brand);
+		product.setDescription(description);
+		return product;
+	}
+}
@@ -0,0 +1,101 @@
+package com.example.ecommerce_rest_api.features.product.service;
+
+import com.example.ecommerce_rest_api.features.product.dto.ProductDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductDetailCacheTest {
+
+	@Test
+	void evictsLeastRecentlyUsedOnceOverWeight() {
+		ProductDetailCache cache = new ProductDetailCache(4, new SimpleMeterRegistry());
+		cache.put(product(1L, "first"), cache.beginLoad());
+
+		// Product 1 is read after every put, so it is never the least recently used
+		for (long id = 2; id <= 20; id++) {
+			cache.put(product(id, "product-" + id), cache.beginLoad());
+			assertThat(cache.getById(1L)).isNotNull();
+		}
+
+		assertThat(cache.weight()).isLessThanOrEqualTo(4 * 1024);
+		assertThat(cache.size()).isLessThan(20);
+		assertThat(cache.getById(2L)).isNull();
+		assertThat(cache.getById(20L)).isNotNull();
+	}
+
+	@Test
+	void loadStartedBeforeAnInvalidationIsNotCached() {
+		ProductDetailCache cache = new ProductDetailCache(1024, new SimpleMeterRegistry());
+		long loadToken = cache.beginLoad();
+		cache.invalidate(1L);
+
+		cache.put(product(1L, "stale"), loadToken);
+
+		assertThat(cache.getById(1L)).isNull();
+		assertThat(cache.getBySlug("stale")).isNull();
+		assertThat(cache.weight()).isZero();
+	}
+
+	@Test
+	void renamedProductIsNotFoundByItsOldSlug() {
+		ProductDetailCache cache = new ProductDetailCache(1024, new SimpleMeterRegistry());
+		cache.put(product(1L, "old-name"), cache.beginLoad());
+		cache.put(product(1L, "new-name"), cache.beginLoad());
+
+		assertThat(cache.getBySlug("old-name")).isNull();
+		assertThat(cache.getBySlug("new-name")).extracting(ProductDTO::getId).isEqualTo(1L);
+		assertThat(cache.size()).isEqualTo(1);
+	}
+
+	@Test
+	void weightStaysConsistentUnderConcurrentUse() throws Exception {
+		ProductDetailCache cache = new ProductDetailCache(64, new SimpleMeterRegistry());
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> workers = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				workers.add(executor.submit(() -> {
+					start.await();
+					ThreadLocalRandom random = ThreadLocalRandom.current();
+					for (int i = 0; i < 50_000; i++) {
+						long id = random.nextLong(1, 300);
+						switch (random.nextInt(4)) {
+							case 0 -> cache.put(product(id, "product-" + id), cache.beginLoad());
+							case 1 -> cache.invalidate(id);
+							case 2 -> cache.recordView(id);
+							default -> cache.getBySlug("product-" + id);
+						}
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> worker : workers) {
+				worker.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		// Every entry's weight was added once and taken off once, whichever thread did it
+		cache.invalidate(LongStream.range(1, 300).boxed().toList());
+		assertThat(cache.size()).isZero();
+		assertThat(cache.weight()).isZero();
+	}
+
+	private static ProductDTO product(Long id, String slug) {
+		return ProductDTO.builder().id(id).name("Product " + id).slug(slug).build();
+	}
+}
@@ -0,0 +1,90 @@
+package com.example.ecommerce_rest_api.features.product.service;
+
+import com.example.ecommerce_rest_api.features.product.dto.ProductDTO;
+import com.example.ecommerce_rest_api.features.product.dto.ProductSearchRequest;
+import com.example.ecommerce_rest_api.features.product.dto.ProductSearchResponse;
+import com.example.ecommerce_rest_api.features.product.entity.Product;
+import com.example.ecommerce_rest_api.features.product.mapper.ProductMapper;
+import com.example.ecommerce_rest_api.features.product.repository.ProductRepository;
+import com.example.ecommerce_rest_api.features.product.search.ProductSearchIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductServiceImplTest {
+
+	@Mock
+	private ProductRepository productRepository;
+
+	@Mock
+	private ProductSearchIndex productSearchIndex;
+
+	@Mock
+	private ProductMapper productMapper;
+
+	@InjectMocks
+	private ProductServiceImpl productService;
+
+	@Test
+	void broadKeywordCostsOneQueryPerStep() {
+		List<Long> candidates = LongStream.rangeClosed(1, 1000).boxed().toList();
+		stubKeywordSearch(candidates);
+		when(productRepository.findMatchingIds(any())).thenReturn(candidates);
+		when(productRepository.findAllById(any())).thenReturn(List.of(product(1L), product(2L)));
+		when(productMapper.toDTO(any(Product.class))).thenAnswer(invocation ->
+				ProductDTO.builder().id(((Product) invocation.getArgument(0)).getId()).build());
+
+		ProductSearchResponse response = productService.searchProducts(request(), 0, 2);
+
+		assertThat(response.getResults().getTotalElements()).isEqualTo(1000L);
+		verify(productRepository, times(1)).findMatchingIds(any());
+		verify(productRepository, times(1)).countByBrand(any());
+		verify(productRepository, times(1)).countBySubCategory(any());
+		verify(productRepository, times(1)).countByPriceRange(any());
+	}
+
+	@Test
+	void productDeletedAfterTheIndexLookupIsLeftOut() {
+		List<Long> candidates = List.of(1L, 2L, 3L);
+		stubKeywordSearch(candidates);
+		when(productRepository.findMatchingIds(any())).thenReturn(candidates);
+		// Product 2 is gone by the time the page is loaded
+		when(productRepository.findAllById(any())).thenReturn(List.of(product(3L), product(1L)));
+		when(productMapper.toDTO(any(Product.class))).thenAnswer(invocation ->
+				ProductDTO.builder().id(((Product) invocation.getArgument(0)).getId()).build());
+
+		ProductSearchResponse response = productService.searchProducts(request(), 0, 10);
+
+		assertThat(response.getResults().getPageContent()).extracting(ProductDTO::getId).containsExactly(1L, 3L);
+		assertThat(response.getResults().getTotalElements()).isEqualTo(2L);
+	}
+
+	private void stubKeywordSearch(List<Long> candidates) {
+		when(productSearchIndex.isReady()).thenReturn(true);
+		when(productSearchIndex.search("shirt")).thenReturn(candidates);
+	}
+
+	private static ProductSearchRequest request() {
+		ProductSearchRequest request = new ProductSearchRequest();
+		request.setKeyword("shirt");
+		return request;
+	}
+
+	private static Product product(Long id) {
+		Product product = new Product();
+		product.setId(id);
+		return product;
+	}
+}
@@ -0,0 +1,131 @@
+package com.example.ecommerce_rest_api.security;
+
+import com.example.ecommerce_rest_api.features.user.DTO.UserUpdateRequest;
+import com.example.ecommerce_rest_api.features.user.ENUM.Gender;
+import com.example.ecommerce_rest_api.features.user.ENUM.Role;
+import com.example.ecommerce_rest_api.features.user.entity.User;
+import com.example.ecommerce_rest_api.features.user.service.UserService;
+import com.example.ecommerce_rest_api.support.MySqlIntegrationTest;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.Date;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Requests are authenticated from the token's claims; these check that the claims cannot
+// outlive the user they describe, and that a bad token is a 400 rather than a server error
+@AutoConfigureMockMvc
+class JwtAuthenticationTest extends MySqlIntegrationTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JwtTokenProvider jwtTokenProvider;
+
+	@Autowired
+	private UserService userService;
+
+	@Test
+	void oldTokenIsRejectedAfterARoleChange() throws Exception {
+		User user = newUser("role");
+		String token = jwtTokenProvider.generateToken(user);
+		// Caches the current version, so the change has to evict it
+		profile(token).andExpect(status().isOk());
+
+		userService.updateUser(user.getId(), update(user, user.getUsername(), Role.ADMIN), null);
+
+		profile(token).andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void oldTokenIsRejectedAfterARename() throws Exception {
+		User user = newUser("rename");
+		String token = jwtTokenProvider.generateToken(user);
+		profile(token).andExpect(status().isOk());
+
+		userService.updateUser(user.getId(), update(user, "renamed-" + suffix(), Role.USER), null);
+
+		profile(token).andExpect(status().isBadRequest());
+		User renamed = userRepository.findById(user.getId()).orElseThrow();
+		profile(jwtTokenProvider.generateToken(renamed)).andExpect(status().isOk());
+	}
+
+	@Test
+	void deletedUsersTokenIsRejected() throws Exception {
+		User user = newUser("deleted");
+		String token = jwtTokenProvider.generateToken(user);
+
+		jdbcTemplate.update("delete from users where id = ?", user.getId());
+
+		profile(token).andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void legacyTokenWithOnlyASubjectFallsBackToALookup() throws Exception {
+		User user = newUser("legacy");
+
+		profile(token(jwtTokenProvider.key(), user.getUsername()).compact()).andExpect(status().isOk());
+		profile(token(jwtTokenProvider.key(), "nobody-" + suffix()).compact()).andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void unknownRoleClaimIsABadRequest() throws Exception {
+		User user = newUser("unknown-role");
+		String token = token(jwtTokenProvider.key(), user.getUsername())
+				.claim(JwtTokenProvider.USER_ID_CLAIM, user.getId())
+				.claim(JwtTokenProvider.ROLE_CLAIM, "SUPERUSER")
+				.claim(JwtTokenProvider.TOKEN_VERSION_CLAIM, 0)
+				.compact();
+
+		profile(token).andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void roleClaimSignedWithAnotherKeyIsABadRequest() throws Exception {
+		User user = newUser("forged-role");
+		SecretKey otherKey = Keys.hmacShaKeyFor("not-the-server-key-not-the-server-key".getBytes(StandardCharsets.UTF_8));
+		String token = token(otherKey, user.getUsername())
+				.claim(JwtTokenProvider.USER_ID_CLAIM, user.getId())
+				.claim(JwtTokenProvider.ROLE_CLAIM, Role.ADMIN.name())
+				.claim(JwtTokenProvider.TOKEN_VERSION_CLAIM, 0)
+				.compact();
+
+		profile(token).andExpect(status().isBadRequest());
+	}
+
+	private ResultActions profile(String token) throws Exception {
+		return mockMvc.perform(get("/api/v1/user").header("Authorization", "Bearer " + token));
+	}
+
+	private static JwtBuilder token(Key key, String subject) {
+		Date now = new Date();
+		return Jwts.builder()
+				.subject(subject)
+				.issuedAt(now)
+				.expiration(new Date(now.getTime() + 60_000))
+				.signWith((SecretKey) key);
+	}
+
+	private static UserUpdateRequest update(User user, String username, Role role) {
+		UserUpdateRequest request = new UserUpdateRequest();
+		request.setUsername(username);
+		request.setEmail(user.getEmail());
+		request.setPassword("Secret1!pass");
+		request.setConfirmPassword("Secret1!pass");
+		request.setRole(role);
+		request.setGender(Gender.FEMALE);
+		return request;
+	}
+}
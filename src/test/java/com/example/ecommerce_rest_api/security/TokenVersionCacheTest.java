@@ -0,0 +1,57 @@
+package com.example.ecommerce_rest_api.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenVersionCacheTest {
+
+	@Test
+	void currentVersionIsReadOnce() {
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+		when(jdbcTemplate.queryForList(anyString(), eq(Integer.class), eq(1L))).thenReturn(List.of(3));
+		TokenVersionCache cache = new TokenVersionCache(jdbcTemplate, 60_000, 100);
+
+		assertThat(cache.isCurrent(1L, 3)).isTrue();
+		assertThat(cache.isCurrent(1L, 2)).isFalse();
+
+		verify(jdbcTemplate, times(1)).queryForList(anyString(), eq(Integer.class), eq(1L));
+	}
+
+	@Test
+	void loadRacingAnInvalidationIsNotCached() {
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+		TokenVersionCache cache = new TokenVersionCache(jdbcTemplate, 60_000, 100);
+		// The version is read, then the change commits and invalidates before the load caches it
+		when(jdbcTemplate.queryForList(anyString(), eq(Integer.class), eq(1L)))
+				.thenAnswer(invocation -> {
+					cache.invalidate(1L);
+					return List.of(0);
+				})
+				.thenReturn(List.of(1));
+
+		assertThat(cache.isCurrent(1L, 0)).isTrue();
+
+		assertThat(cache.isCurrent(1L, 0)).isFalse();
+		assertThat(cache.isCurrent(1L, 1)).isTrue();
+		verify(jdbcTemplate, times(2)).queryForList(anyString(), eq(Integer.class), eq(1L));
+	}
+
+	@Test
+	void missingUserIsNeverCurrent() {
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+		when(jdbcTemplate.queryForList(anyString(), eq(Integer.class), eq(1L))).thenReturn(List.of());
+		TokenVersionCache cache = new TokenVersionCache(jdbcTemplate, 60_000, 100);
+
+		assertThat(cache.isCurrent(1L, 0)).isFalse();
+	}
+}
@@ -0,0 +1,120 @@
+package com.example.ecommerce_rest_api.support;
+
+import com.example.ecommerce_rest_api.features.order.ENUM.OrderStatus;
+import com.example.ecommerce_rest_api.features.order.ENUM.PaymentMethod;
+import com.example.ecommerce_rest_api.features.order.ENUM.PaymentStatus;
+import com.example.ecommerce_rest_api.features.order.entity.Order;
+import com.example.ecommerce_rest_api.features.product.entity.Product;
+import com.example.ecommerce_rest_api.features.product.entity.ProductSku;
+import com.example.ecommerce_rest_api.features.product.repository.ProductRepository;
+import com.example.ecommerce_rest_api.features.user.ENUM.Gender;
+import com.example.ecommerce_rest_api.features.user.ENUM.Role;
+import com.example.ecommerce_rest_api.features.user.entity.User;
+import com.example.ecommerce_rest_api.features.user.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+// Base for tests that run against MySQL. All subclasses share one container, started once per
+// JVM; it is deliberately not a @Container field, which would stop it after each class, and the
+// Testcontainers reaper removes it when the JVM exits. Subclasses with the same annotations also
+// share one cached application context. The URL matches the batching flag used in production.
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class MySqlIntegrationTest {
+
+	@ServiceConnection
+	protected static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.4")
+			.withUrlParam("rewriteBatchedStatements", "true");
+
+	static {
+		MYSQL.start();
+	}
+
+	@Autowired
+	protected UserRepository userRepository;
+
+	@Autowired
+	protected ProductRepository productRepository;
+
+	@Autowired
+	protected JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	protected PlatformTransactionManager transactionManager;
+
+	protected <T> T inTransaction(TransactionCallback<T> action) {
+		return new TransactionTemplate(transactionManager).execute(action);
+	}
+
+	protected void inTransactionWithoutResult(Consumer<TransactionStatus> action) {
+		new TransactionTemplate(transactionManager).executeWithoutResult(action);
+	}
+
+	// A saved customer with a unique username and email
+	protected User newUser(String prefix) {
+		String suffix = suffix();
+		User user = new User();
+		user.setUsername(prefix + "-" + suffix);
+		user.setEmail(prefix + "-" + suffix + "@example.com");
+		user.setPassword("secret");
+		user.setRole(Role.USER);
+		user.setGender(Gender.FEMALE);
+		return userRepository.save(user);
+	}
+
+	// A saved active product with a single active SKU
+	protected ProductSku newSku(String prefix, double price, int stock) {
+		return inTransaction(status -> {
+			String suffix = suffix();
+			Product product = Product.builder()
+					.name(prefix + " product " + suffix)
+					.slug(prefix.toLowerCase() + "-product-" + suffix)
+					.isActive(true)
+					.isFeatured(false)
+					.build();
+			ProductSku sku = ProductSku.builder()
+					.sku(prefix.toUpperCase() + "-" + suffix)
+					.price(price)
+					.quantity(stock)
+					.lowStockThreshold(1)
+					.isActive(true)
+					.build();
+			product.addSku(sku);
+			product.recalculateInventoryStats();
+			productRepository.save(product);
+			return sku;
+		});
+	}
+
+	// An unsaved pending cash-on-delivery order; the charges are zeroed because the entity's
+	// field defaults are not builder defaults, and calculateTotal needs them
+	protected Order.OrderBuilder pendingOrder(User buyer, String prefix) {
+		return Order.builder()
+				.orderNumber(prefix.toUpperCase() + "-" + UUID.randomUUID())
+				.user(buyer)
+				.username(buyer.getUsername())
+				.status(OrderStatus.PENDING)
+				.paymentMethod(PaymentMethod.CASH_ON_DELIVERY)
+				.paymentStatus(PaymentStatus.PENDING)
+				.shippingCost(0.0)
+				.tax(0.0)
+				.discount(0.0);
+	}
+
+	protected static String suffix() {
+		return UUID.randomUUID().toString().substring(0, 8);
+	}
+}
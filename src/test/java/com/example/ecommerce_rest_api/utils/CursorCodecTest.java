@@ -0,0 +1,109 @@
+package com.example.ecommerce_rest_api.utils;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorCodecTest {
+
+	@Test
+	void roundTripKeepsValuesAndTypes() {
+		Map<String, Object> keys = new LinkedHashMap<>();
+		keys.put("createdAt", LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_000_000));
+		keys.put("day", LocalDate.of(2024, 3, 1));
+		keys.put("rating", 4);
+		keys.put("total", 19.99);
+		keys.put("amount", new BigDecimal("10.50"));
+		keys.put("active", true);
+		keys.put("name", "Mug: \"large\" / 1€");
+		keys.put("id", 42L);
+		Sort sort = Sort.by("createdAt", "day", "rating", "total", "amount", "active", "name", "id");
+
+		ScrollPosition decoded = CursorCodec.decode(CursorCodec.encode(ScrollPosition.forward(keys)), sort);
+
+		assertThat(decoded).isInstanceOf(KeysetScrollPosition.class);
+		Map<String, Object> decodedKeys = ((KeysetScrollPosition) decoded).getKeys();
+		assertThat(decodedKeys).containsExactlyEntriesOf(keys);
+		// Same value, different parameter types: the tag decides which one binds
+		assertThat(decodedKeys.get("rating")).isInstanceOf(Integer.class);
+		assertThat(decodedKeys.get("id")).isInstanceOf(Long.class);
+	}
+
+	@Test
+	void blankCursorStartsAtFirstRow() {
+		Sort sort = Sort.by("id");
+
+		assertThat(CursorCodec.decode("", sort)).isEqualTo(ScrollPosition.keyset());
+		assertThat(CursorCodec.decode("   ", sort)).isEqualTo(ScrollPosition.keyset());
+		assertThat(CursorCodec.decode(null, sort)).isEqualTo(ScrollPosition.keyset());
+	}
+
+	@Test
+	void appendsIdInDirectionOfLastKey() {
+		assertThat(CursorCodec.withTieBreaker(Sort.by("name").descending()))
+				.isEqualTo(Sort.by(Sort.Order.desc("name"), Sort.Order.desc("id")));
+		assertThat(CursorCodec.withTieBreaker(Sort.by(Sort.Order.desc("rating"), Sort.Order.asc("createdAt"))))
+				.isEqualTo(Sort.by(Sort.Order.desc("rating"), Sort.Order.asc("createdAt"), Sort.Order.asc("id")));
+		assertThat(CursorCodec.withTieBreaker(Sort.unsorted())).isEqualTo(Sort.by(Sort.Order.asc("id")));
+		assertThat(CursorCodec.withTieBreaker(Sort.by("id").descending())).isEqualTo(Sort.by("id").descending());
+	}
+
+	@Test
+	void rejectsSortKeysThatAreNotCursorKeys() {
+		Set<String> cursorKeys = Set.of("id", "createdAt");
+
+		assertThat(CursorCodec.withTieBreaker(Sort.by("createdAt"), cursorKeys))
+				.isEqualTo(Sort.by("createdAt", "id"));
+		assertThatThrownBy(() -> CursorCodec.withTieBreaker(Sort.by("deliveredAt"), cursorKeys))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("deliveredAt");
+	}
+
+	@Test
+	void refusesToEncodeNullKey() {
+		Map<String, Object> keys = new LinkedHashMap<>();
+		keys.put("deliveredAt", null);
+		keys.put("id", 1L);
+
+		assertThatThrownBy(() -> CursorCodec.encode(ScrollPosition.forward(keys)))
+				.isInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	void rejectsTamperedCursors() {
+		Sort sort = Sort.by("createdAt", "id");
+
+		assertThatInvalid("not base64 !!", sort);
+		assertThatInvalid(base64("not json"), sort);
+		assertThatInvalid(base64("[1, 2]"), sort);
+		assertThatInvalid(base64("{\"createdAt\":\"T:yesterday\",\"id\":\"L:1\"}"), sort);
+		assertThatInvalid(base64("{\"createdAt\":\"X:2024-01-01T00:00\",\"id\":\"L:1\"}"), sort);
+		assertThatInvalid(base64("{\"createdAt\":\"2024-01-01T00:00\",\"id\":\"L:1\"}"), sort);
+		assertThatInvalid(base64("{\"createdAt\":null,\"id\":\"L:1\"}"), sort);
+		assertThatInvalid(base64("{\"id\":\"L:1\"}"), sort);
+		assertThatInvalid(base64("{\"total\":\"D:1.0\",\"id\":\"L:1\"}"), sort);
+	}
+
+	private static void assertThatInvalid(String cursor, Sort sort) {
+		assertThatThrownBy(() -> CursorCodec.decode(cursor, sort))
+				.as(cursor)
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static String base64(String json) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+	}
+}
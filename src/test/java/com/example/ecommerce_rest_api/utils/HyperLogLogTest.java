@@ -0,0 +1,175 @@
+package com.example.ecommerce_rest_api.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class HyperLogLogTest {
+
+	// Three standard errors at the default precision: 3 * 1.04 / sqrt(2^14)
+	private static final double TOLERANCE = 3 * 1.04 / Math.sqrt(1 << HyperLogLog.DEFAULT_PRECISION);
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000})
+	void estimateIsWithinThreeStandardErrors(int cardinality) {
+		HyperLogLog sketch = new HyperLogLog();
+		for (long id = 0; id < cardinality; id++) {
+			sketch.add(id);
+		}
+
+		assertThat((double) sketch.estimate()).isCloseTo(cardinality, within(Math.max(1, cardinality * TOLERANCE)));
+	}
+
+	@Test
+	void stringValuesAreCountedLikeIds() {
+		HyperLogLog sketch = new HyperLogLog();
+		for (int i = 0; i < 50_000; i++) {
+			sketch.add("user-" + i + "@example.com");
+		}
+
+		assertThat((double) sketch.estimate()).isCloseTo(50_000, within(50_000 * TOLERANCE));
+	}
+
+	@Test
+	void emptySketchEstimatesZeroAndRepeatsAreNotCounted() {
+		HyperLogLog sketch = new HyperLogLog();
+		assertThat(sketch.estimate()).isZero();
+
+		for (int round = 0; round < 5; round++) {
+			for (long id = 0; id < 1_000; id++) {
+				sketch.add(id);
+			}
+		}
+
+		assertThat((double) sketch.estimate()).isCloseTo(1_000, within(1_000 * TOLERANCE));
+	}
+
+	@Test
+	void mergeGivesTheSketchOfTheUnion() {
+		HyperLogLog first = new HyperLogLog();
+		HyperLogLog second = new HyperLogLog();
+		HyperLogLog union = new HyperLogLog();
+		for (long id = 0; id < 60_000; id++) {
+			first.add(id);
+			union.add(id);
+		}
+		for (long id = 40_000; id < 100_000; id++) {
+			second.add(id);
+			union.add(id);
+		}
+
+		HyperLogLog merged = first.copy().merge(second);
+
+		// Register-wise max is exact, so the merge matches a sketch fed every value
+		assertThat(merged.toBytes()).isEqualTo(union.toBytes());
+		assertThat((double) merged.estimate()).isCloseTo(100_000, within(100_000 * TOLERANCE));
+		assertThat(merged.estimate()).isGreaterThan(first.estimate());
+	}
+
+	@Test
+	void mergeRejectsADifferentPrecision() {
+		assertThatThrownBy(() -> new HyperLogLog(14).merge(new HyperLogLog(12)))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void copyIsIndependentOfTheOriginal() {
+		HyperLogLog original = new HyperLogLog();
+		original.add(1L);
+		HyperLogLog copy = original.copy();
+		for (long id = 2; id < 10_000; id++) {
+			copy.add(id);
+		}
+
+		assertThat(original.estimate()).isEqualTo(1);
+		assertThat(copy.estimate()).isGreaterThan(1);
+	}
+
+	@Test
+	void concurrentAddsMatchSequentialAdds() throws Exception {
+		HyperLogLog sequential = new HyperLogLog();
+		for (long id = 0; id < 200_000; id++) {
+			sequential.add(id);
+		}
+
+		HyperLogLog shared = new HyperLogLog();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> writers = new ArrayList<>();
+			for (int t = 0; t < 4; t++) {
+				long from = t * 50_000L;
+				writers.add(executor.submit(() -> {
+					for (long id = from; id < from + 50_000; id++) {
+						shared.add(id);
+					}
+				}));
+			}
+			for (Future<?> writer : writers) {
+				writer.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(shared.toBytes()).isEqualTo(sequential.toBytes());
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {4, 14, 18})
+	void bytesRoundTripKeepsEveryRegister(int precision) {
+		HyperLogLog sketch = new HyperLogLog(precision);
+		for (long id = 0; id < 20_000; id++) {
+			sketch.add(id);
+		}
+
+		HyperLogLog restored = HyperLogLog.fromBytes(sketch.toBytes());
+
+		assertThat(restored.estimate()).isEqualTo(sketch.estimate());
+		assertThat(restored.toBytes()).isEqualTo(sketch.toBytes());
+		// Restored sketches keep their precision, so they still merge with live ones
+		assertThat(restored.merge(sketch).estimate()).isEqualTo(sketch.estimate());
+	}
+
+	@Test
+	void emptySketchSerializesSmall() {
+		byte[] bytes = new HyperLogLog().toBytes();
+
+		assertThat(bytes.length).isLessThan(100);
+		assertThat(HyperLogLog.fromBytes(bytes).estimate()).isZero();
+	}
+
+	@Test
+	void corruptBytesAreRejected() {
+		HyperLogLog sketch = new HyperLogLog();
+		for (long id = 0; id < 1_000; id++) {
+			sketch.add(id);
+		}
+		byte[] valid = sketch.toBytes();
+
+		byte[] truncated = Arrays.copyOf(valid, valid.length / 2);
+		byte[] badPrecision = valid.clone();
+		badPrecision[0] = 30;
+		// Deflated for precision 14, but read back as 12: too many registers
+		byte[] wrongPrecision = valid.clone();
+		wrongPrecision[0] = 12;
+		byte[] garbage = new byte[64];
+		Arrays.fill(garbage, (byte) 0x5a);
+		garbage[0] = 14;
+
+		for (byte[] bytes : List.of(new byte[0], new byte[]{14}, truncated, badPrecision, wrongPrecision, garbage)) {
+			assertThatThrownBy(() -> HyperLogLog.fromBytes(bytes)).isInstanceOf(IllegalArgumentException.class);
+		}
+		assertThatThrownBy(() -> HyperLogLog.fromBytes(null)).isInstanceOf(IllegalArgumentException.class);
+	}
+}